@@ -0,0 +1,12 @@
+package com.arka.cart.clients;
+import com.arka.cart.dto.ProductSnapshot;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.*;
+import java.util.Collection;
+import java.util.List;
+@FeignClient(name = "inventory-service")
+public interface InventoryClient {
+  /** Current price and stock of up to 500 products in one call; unknown ids are left out. */
+  @GetMapping("/api/products/batch")
+  List<ProductSnapshot> getProducts(@RequestParam("ids") Collection<Long> ids);
+}
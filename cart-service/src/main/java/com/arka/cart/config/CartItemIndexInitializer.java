@@ -0,0 +1,63 @@
+package com.arka.cart.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the unique index the item upsert conflicts on: a cart holds one line per product.
+ * cart_id is mapped by Cart's join column rather than by CartItem, so JPA cannot declare it.
+ * <p>
+ * Carts written before the upsert existed can hold several lines for one product, on which the
+ * index cannot be built. Those lines are merged into the oldest one, quantities summed, in the
+ * same transaction that creates the index, with writers locked out meanwhile. The jpa store
+ * cannot add items without the index, so with that backend a failure stops the startup.
+ */
+@Component
+public class CartItemIndexInitializer {
+  private static final Logger log = LoggerFactory.getLogger(CartItemIndexInitializer.class);
+  static final String INDEX_EXISTS_SQL = "SELECT to_regclass('uk_cart_items_cart_product') IS NOT NULL";
+  static final String LOCK_SQL = "LOCK TABLE cart_items IN SHARE ROW EXCLUSIVE MODE";
+  static final String MERGE_DUPLICATES_SQL =
+    "UPDATE cart_items k SET quantity = d.quantity FROM (" +
+    "SELECT MIN(id) AS keep_id, SUM(quantity) AS quantity FROM cart_items WHERE cart_id IS NOT NULL " +
+    "GROUP BY cart_id, product_id HAVING COUNT(*) > 1) d WHERE k.id = d.keep_id";
+  static final String DELETE_DUPLICATES_SQL =
+    "DELETE FROM cart_items i USING cart_items k " +
+    "WHERE i.cart_id = k.cart_id AND i.product_id = k.product_id AND i.id > k.id";
+  static final String CREATE_INDEX_SQL =
+    "CREATE UNIQUE INDEX IF NOT EXISTS uk_cart_items_cart_product ON cart_items (cart_id, product_id)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean required;
+
+  public CartItemIndexInitializer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                  @Value("${cart.store.backend:jpa}") String backend) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.required = "jpa".equals(backend);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createIndex() {
+    try {
+      if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(INDEX_EXISTS_SQL, Boolean.class))) return;
+      transactionTemplate.executeWithoutResult(tx -> {
+        jdbcTemplate.execute(LOCK_SQL);
+        int merged = jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+        int deleted = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+        if (deleted > 0) log.warn("Merged {} duplicate cart item(s) into {} line(s)", deleted, merged);
+        jdbcTemplate.execute(CREATE_INDEX_SQL);
+      });
+    } catch (Exception e) {
+      if (required) throw new IllegalStateException("Could not create cart item index: " + e.getMessage(), e);
+      log.error("Could not create cart item index: {}", e.getMessage());
+    }
+  }
+}
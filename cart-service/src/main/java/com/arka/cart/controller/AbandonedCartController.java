@@ -37,9 +37,13 @@ public class AbandonedCartController {
   }
 
   @GetMapping("/stats")
-  public ResponseEntity<Map<String, Object>> getAbandonedCartStats(@RequestParam(defaultValue = "7") int daysThreshold) {
+  public ResponseEntity<?> getAbandonedCartStats(@RequestParam(defaultValue = "7") int daysThreshold) {
     log.info("📊 GET /api/carts/abandoned/stats - daysThreshold: {}", daysThreshold);
-    Map<String, Object> stats = abandonedCartService.getAbandonedCartStats(daysThreshold);
-    return ResponseEntity.ok(stats);
+    try {
+      Map<String, Object> stats = abandonedCartService.getAbandonedCartStats(daysThreshold);
+      return ResponseEntity.ok(stats);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
   }
 }
\ No newline at end of file
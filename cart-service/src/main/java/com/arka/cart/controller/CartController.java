@@ -1,5 +1,6 @@
 package com.arka.cart.controller;
 
+import com.arka.cart.dto.CartView;
 import com.arka.cart.model.Cart;
 import com.arka.cart.model.CartItem;
 import com.arka.cart.service.CartService;
@@ -24,23 +25,43 @@ public class CartController {
   }
 
   @PostMapping("/{userId:\\d+}/items")
-  public ResponseEntity<Cart> addItem(@PathVariable Long userId, @RequestBody CartItem item) {
-    Cart cart = cartService.addItem(userId, item);
-    return ResponseEntity.ok(cart);
+  public ResponseEntity<?> addItem(@PathVariable Long userId, @RequestBody CartItem item) {
+    try {
+      CartView cart = cartService.addItem(userId, item);
+      return ResponseEntity.ok(cart);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
   }
 
   @DeleteMapping("/{userId:\\d+}/items/{productId:\\d+}")
-  public ResponseEntity<Cart> removeItem(@PathVariable Long userId, @PathVariable Long productId) {
-    Cart cart = cartService.removeItem(userId, productId);
+  public ResponseEntity<CartView> removeItem(@PathVariable Long userId, @PathVariable Long productId) {
+    CartView cart = cartService.removeItem(userId, productId);
     return ResponseEntity.ok(cart);
   }
 
   @PutMapping("/{userId:\\d+}/items/{productId:\\d+}")
-  public ResponseEntity<Cart> updateQuantity(@PathVariable Long userId, 
-                                              @PathVariable Long productId, 
-                                              @RequestParam Integer quantity) {
-    Cart cart = cartService.updateItemQuantity(userId, productId, quantity);
-    return ResponseEntity.ok(cart);
+  public ResponseEntity<?> updateQuantity(@PathVariable Long userId, 
+                                          @PathVariable Long productId, 
+                                          @RequestParam Integer quantity) {
+    try {
+      CartView cart = cartService.updateItemQuantity(userId, productId, quantity);
+      return ResponseEntity.ok(cart);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  /** Checks the cart against current inventory prices and stock and refreshes stored prices. */
+  @PostMapping("/{userId:\\d+}/revalidate")
+  public ResponseEntity<?> revalidate(@PathVariable Long userId) {
+    try {
+      return ResponseEntity.ok(cartService.revalidate(userId));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.status(404).body(ex.getMessage());
+    } catch (IllegalStateException ex) {
+      return ResponseEntity.status(503).body(ex.getMessage());
+    }
   }
 
   @DeleteMapping("/{userId:\\d+}")
@@ -0,0 +1,6 @@
+package com.arka.cart.dto;
+
+import java.time.Instant;
+
+/** An abandoned cart as the detector sees it: totals are summed in SQL, items are never loaded. */
+public record AbandonedCart(long cartId, long userId, Instant updatedAt, int items, double totalValue) {}
@@ -0,0 +1,20 @@
+package com.arka.cart.dto;
+
+import java.util.List;
+
+/**
+ * Result of checking a cart against inventory: one entry per line, the total before (from the
+ * stored prices) and after (from current prices), and whether any stored price or name was refreshed.
+ */
+public record CartRevalidation(Long cartId, Long userId, List<LineDelta> lines, double previousTotal, double total,
+                               boolean refreshed) {
+
+  public enum Status { OK, PRICE_CHANGED, INSUFFICIENT_STOCK, UNAVAILABLE }
+
+  /**
+   * previousPrice is the price stored in the cart, price the current one (null when the product is
+   * gone). shortBy is how many units of the requested quantity are not in stock.
+   */
+  public record LineDelta(Long productId, String productName, int quantity, Double previousPrice, Double price,
+                          double priceDelta, Integer available, int shortBy, Status status) {}
+}
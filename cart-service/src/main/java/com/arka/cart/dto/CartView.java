@@ -0,0 +1,20 @@
+package com.arka.cart.dto;
+
+import com.arka.cart.model.Cart;
+import com.arka.cart.model.CartItem;
+
+import java.time.Instant;
+
+/** Cart totals returned by item changes, so a change does not have to load every line. */
+public record CartView(Long cartId, Long userId, int lines, long quantity, double total, Instant updatedAt) {
+
+  public static CartView of(Cart cart) {
+    long quantity = 0;
+    double total = 0;
+    for (CartItem item : cart.getItems()) {
+      quantity += item.getQuantity();
+      if (item.getPrice() != null) total += item.getPrice() * item.getQuantity();
+    }
+    return new CartView(cart.getId(), cart.getUserId(), cart.getItems().size(), quantity, total, cart.getUpdatedAt());
+  }
+}
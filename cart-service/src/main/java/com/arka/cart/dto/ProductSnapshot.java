@@ -0,0 +1,9 @@
+package com.arka.cart.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+
+/** The fields of an inventory product that a cart line is checked against. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProductSnapshot(Long id, String name, BigDecimal price, Integer available) {}
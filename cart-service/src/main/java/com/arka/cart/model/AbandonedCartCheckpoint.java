@@ -0,0 +1,44 @@
+package com.arka.cart.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Keyset position (updated_at, id) of the abandoned-cart detector: every cart up to it has been
+ * published, so a run (or a restart) scans on from there.
+ */
+@Entity
+@Table(name = "abandoned_cart_checkpoint")
+public class AbandonedCartCheckpoint {
+  @Id
+  private String name;
+
+  @Column(nullable = false)
+  private Instant lastUpdatedAt;
+
+  @Column(nullable = false)
+  private Long lastCartId;
+
+  private Instant updatedAt;
+
+  public AbandonedCartCheckpoint() {}
+
+  public AbandonedCartCheckpoint(String name, Instant lastUpdatedAt, Long lastCartId) {
+    this.name = name;
+    this.lastUpdatedAt = lastUpdatedAt;
+    this.lastCartId = lastCartId;
+    this.updatedAt = Instant.now();
+  }
+
+  public String getName() { return name; }
+  public void setName(String name) { this.name = name; }
+
+  public Instant getLastUpdatedAt() { return lastUpdatedAt; }
+  public void setLastUpdatedAt(Instant lastUpdatedAt) { this.lastUpdatedAt = lastUpdatedAt; }
+
+  public Long getLastCartId() { return lastCartId; }
+  public void setLastCartId(Long lastCartId) { this.lastCartId = lastCartId; }
+
+  public Instant getUpdatedAt() { return updatedAt; }
+  public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,26 @@
+package com.arka.cart.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * When a cart was last published as abandoned. A cart is published again only if it was changed
+ * after that and then abandoned once more.
+ */
+@Entity
+@Table(name = "abandoned_cart_notifications")
+public class AbandonedCartNotification {
+  @Id
+  private Long cartId;
+
+  @Column(nullable = false)
+  private Instant notifiedAt;
+
+  public AbandonedCartNotification() {}
+
+  public Long getCartId() { return cartId; }
+  public void setCartId(Long cartId) { this.cartId = cartId; }
+
+  public Instant getNotifiedAt() { return notifiedAt; }
+  public void setNotifiedAt(Instant notifiedAt) { this.notifiedAt = notifiedAt; }
+}
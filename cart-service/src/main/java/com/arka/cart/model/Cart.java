@@ -6,7 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = @Index(name = "idx_carts_updated_at_id", columnList = "updatedAt, id"))
 public class Cart {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,5 +45,8 @@ public class Cart {
   public void setItems(List<CartItem> items) { this.items = items; }
 
   public Instant getCreatedAt() { return createdAt; }
+  public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
   public Instant getUpdatedAt() { return updatedAt; }
+  public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
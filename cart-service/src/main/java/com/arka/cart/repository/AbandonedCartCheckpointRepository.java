@@ -0,0 +1,9 @@
+package com.arka.cart.repository;
+
+import com.arka.cart.model.AbandonedCartCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AbandonedCartCheckpointRepository extends JpaRepository<AbandonedCartCheckpoint, String> {
+}
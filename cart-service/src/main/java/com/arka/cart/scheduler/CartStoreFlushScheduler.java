@@ -0,0 +1,35 @@
+package com.arka.cart.scheduler;
+
+import com.arka.cart.store.WriteBehindCartStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "cart.store", name = "backend", havingValue = "memory")
+public class CartStoreFlushScheduler {
+  private static final Logger log = LoggerFactory.getLogger(CartStoreFlushScheduler.class);
+  private final WriteBehindCartStore cartStore;
+
+  public CartStoreFlushScheduler(WriteBehindCartStore cartStore) {
+    this.cartStore = cartStore;
+  }
+
+  @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:1000}")
+  public void flush() {
+    try {
+      int written = cartStore.flush();
+      if (written > 0) log.debug("Wrote {} carts behind", written);
+    } catch (Exception e) {
+      log.error("Cart store flush failed: {}", e.getMessage(), e);
+    }
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+}
@@ -0,0 +1,126 @@
+package com.arka.cart.service;
+
+import com.arka.cart.dto.AbandonedCart;
+import com.arka.cart.model.AbandonedCartCheckpoint;
+import com.arka.cart.repository.AbandonedCartCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Finds carts nobody touched for a while and publishes them to SQS, a chunk at a time.
+ *
+ * Candidates are read by keyset on (updated_at, id) with their item count and value summed in
+ * SQL, and the next chunk is read while the current one is being sent. Published carts are
+ * recorded in abandoned_cart_notifications so they are not sent again unless changed since, and
+ * the checkpoint moves past every cart published without a gap, so the next run (or a restart)
+ * starts from there. Delivery is at-least-once: a crash between the send and the record means
+ * those carts are sent again.
+ */
+@Service
+public class AbandonedCartDetector {
+  private static final Logger log = LoggerFactory.getLogger(AbandonedCartDetector.class);
+  static final String CHECKPOINT = "abandoned-cart-detector";
+  static final String CANDIDATES =
+    "SELECT c.id, c.user_id, c.updated_at, COUNT(i.id) AS items, COALESCE(SUM(i.price * i.quantity), 0) AS total " +
+    "FROM carts c " +
+    "LEFT JOIN abandoned_cart_notifications n ON n.cart_id = c.id " +
+    "LEFT JOIN cart_items i ON i.cart_id = c.id " +
+    "WHERE c.updated_at < ? AND (c.updated_at, c.id) > (?, ?) " +
+    "AND (n.cart_id IS NULL OR n.notified_at < c.updated_at) " +
+    "GROUP BY c.id, c.user_id, c.updated_at ORDER BY c.updated_at, c.id LIMIT ?";
+  static final String RECORD_NOTIFICATION =
+    "INSERT INTO abandoned_cart_notifications (cart_id, notified_at) VALUES (?, ?) " +
+    "ON CONFLICT (cart_id) DO UPDATE SET notified_at = EXCLUDED.notified_at";
+
+  private static final RowMapper<AbandonedCart> ROW_MAPPER = (rs, n) -> new AbandonedCart(
+    rs.getLong("id"),
+    rs.getLong("user_id"),
+    rs.getTimestamp("updated_at").toInstant(),
+    rs.getInt("items"),
+    rs.getDouble("total"));
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final AbandonedCartCheckpointRepository checkpointRepository;
+  private final SqsPublisher sqsPublisher;
+  private final int chunkSize;
+
+  public AbandonedCartDetector(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               AbandonedCartCheckpointRepository checkpointRepository,
+                               SqsPublisher sqsPublisher,
+                               @Value("${cart.abandoned.chunk-size:500}") int chunkSize) {
+    if (chunkSize < 1) throw new IllegalArgumentException("cart.abandoned.chunk-size must be at least 1");
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.checkpointRepository = checkpointRepository;
+    this.sqsPublisher = sqsPublisher;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Publishes every cart last changed more than daysThreshold days ago that was not published yet.
+   * @return number of carts published
+   */
+  public int detect(int daysThreshold) {
+    Timestamp threshold = Timestamp.from(Instant.now().minus(daysThreshold, ChronoUnit.DAYS));
+    AbandonedCartCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT)
+      .orElseGet(() -> new AbandonedCartCheckpoint(CHECKPOINT, Instant.EPOCH, 0L));
+    boolean gapFree = true;
+    int published = 0;
+    int failed = 0;
+
+    List<AbandonedCart> chunk = candidates(threshold, checkpoint.getLastUpdatedAt(), checkpoint.getLastCartId());
+    while (!chunk.isEmpty()) {
+      CompletableFuture<Set<Long>> sending = sqsPublisher.publishAbandonedCarts(chunk);
+      AbandonedCart last = chunk.get(chunk.size() - 1);
+      List<AbandonedCart> next = chunk.size() < chunkSize ? List.of() : candidates(threshold, last.updatedAt(), last.cartId());
+      Set<Long> accepted = sending.join();
+
+      AbandonedCart reached = null;
+      List<Object[]> notified = new ArrayList<>(accepted.size());
+      Timestamp now = Timestamp.from(Instant.now());
+      for (AbandonedCart cart : chunk) {
+        if (accepted.contains(cart.cartId())) {
+          notified.add(new Object[]{cart.cartId(), now});
+          if (gapFree) reached = cart;
+        } else {
+          gapFree = false;
+        }
+      }
+      AbandonedCart advanceTo = reached;
+      transactionTemplate.executeWithoutResult(status -> {
+        if (!notified.isEmpty()) jdbcTemplate.batchUpdate(RECORD_NOTIFICATION, notified);
+        if (advanceTo != null) {
+          checkpoint.setLastUpdatedAt(advanceTo.updatedAt());
+          checkpoint.setLastCartId(advanceTo.cartId());
+          checkpoint.setUpdatedAt(Instant.now());
+          checkpointRepository.save(checkpoint);
+        }
+      });
+      published += notified.size();
+      failed += chunk.size() - notified.size();
+      chunk = next;
+    }
+
+    if (published > 0 || failed > 0) log.info("Published {} abandoned carts, {} left for the next run", published, failed);
+    return published;
+  }
+
+  private List<AbandonedCart> candidates(Timestamp threshold, Instant afterUpdatedAt, long afterId) {
+    return jdbcTemplate.query(CANDIDATES, ROW_MAPPER, threshold, Timestamp.from(afterUpdatedAt), afterId, chunkSize);
+  }
+}
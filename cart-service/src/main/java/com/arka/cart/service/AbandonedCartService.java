@@ -4,8 +4,11 @@ import com.arka.cart.model.Cart;
 import com.arka.cart.repository.CartRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -13,10 +16,51 @@ import java.util.*;
 @Service
 public class AbandonedCartService {
   private static final Logger log = LoggerFactory.getLogger(AbandonedCartService.class);
+  /** Lower bounds of the cart value buckets; the last bucket is open-ended. */
+  static final double[] VALUE_BOUNDS = {0, 10, 25, 50, 100, 250, 500, 1000};
+  /** Lower bounds, in days since the last change, of the age buckets. */
+  static final int[] AGE_BOUNDS = {0, 1, 3, 7, 14, 30, 60, 90, 180, 365};
+  /**
+   * One pass over the abandoned carts: the grand total plus a row per value bucket and per age
+   * bucket (GROUPING tells them apart). width_bucket returns 1 for the first bound, so bucket
+   * numbers are 1-based indexes into the bounds.
+   */
+  static final String STATS_SQL =
+    "WITH abandoned AS (" +
+    " SELECT COUNT(i.id) AS items, COALESCE(SUM(i.price * i.quantity), 0) AS value," +
+    " EXTRACT(EPOCH FROM (CAST(? AS timestamptz) - c.updated_at))::float8 / 86400 AS age_days" +
+    " FROM carts c LEFT JOIN cart_items i ON i.cart_id = c.id" +
+    " WHERE c.updated_at < ? GROUP BY c.id, c.updated_at), " +
+    "bucketed AS (" +
+    " SELECT items, value, width_bucket(value, " + bounds(VALUE_BOUNDS) + ") AS value_bucket," +
+    " width_bucket(age_days, " + bounds(Arrays.stream(AGE_BOUNDS).asDoubleStream().toArray()) + ") AS age_bucket" +
+    " FROM abandoned) " +
+    "SELECT value_bucket, age_bucket, GROUPING(value_bucket) AS by_value, GROUPING(age_bucket) AS by_age," +
+    " COUNT(*) AS carts, COALESCE(SUM(items), 0) AS items, COALESCE(SUM(value), 0) AS value " +
+    "FROM bucketed GROUP BY GROUPING SETS ((value_bucket), (age_bucket), ())";
+
+  /** A row of STATS_SQL; bucket is null on the grand total row. */
+  record BucketRow(boolean byValue, boolean byAge, Integer bucket, long carts, long items, double value) {}
+
+  private static final RowMapper<BucketRow> BUCKET_ROW = (rs, n) -> {
+    boolean byValue = rs.getInt("by_value") == 0 && rs.getInt("by_age") == 1;
+    boolean byAge = rs.getInt("by_age") == 0 && rs.getInt("by_value") == 1;
+    Integer bucket = byValue ? Integer.valueOf(rs.getInt("value_bucket")) : byAge ? Integer.valueOf(rs.getInt("age_bucket")) : null;
+    return new BucketRow(byValue, byAge, bucket, rs.getLong("carts"), rs.getLong("items"), rs.getDouble("value"));
+  };
+
   private final CartRepository cartRepository;
+  private final JdbcTemplate jdbcTemplate;
 
-  public AbandonedCartService(CartRepository cartRepository) {
+  public AbandonedCartService(CartRepository cartRepository, JdbcTemplate jdbcTemplate) {
     this.cartRepository = cartRepository;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  private static String bounds(double[] bounds) {
+    StringJoiner array = new StringJoiner(", ", "ARRAY[", "]::float8[]");
+    for (double b : bounds) array.add(Double.toString(b));
+    return array.toString();
   }
 
   public List<Cart> findAbandonedCarts(int daysThreshold) {
@@ -46,26 +90,65 @@ public class AbandonedCartService {
     log.info("Reminder email sent successfully for cart {}", cartId);
   }
 
+  /**
+   * Count, item lines and value of the carts not changed for daysThreshold days, with a histogram
+   * by cart value and one by age. Computed by a single aggregate query; no cart is loaded.
+   */
   public Map<String, Object> getAbandonedCartStats(int daysThreshold) {
-    List<Cart> abandonedCarts = findAbandonedCarts(daysThreshold);
-    
-    int totalCarts = abandonedCarts.size();
-    int totalItems = abandonedCarts.stream()
-      .mapToInt(cart -> cart.getItems() != null ? cart.getItems().size() : 0)
-      .sum();
-    
-    double potentialRevenue = abandonedCarts.stream()
-      .flatMap(cart -> cart.getItems() != null ? cart.getItems().stream() : java.util.stream.Stream.empty())
-      .mapToDouble(item -> item.getPrice() * item.getQuantity())
-      .sum();
-    
+    if (daysThreshold < 0) throw new IllegalArgumentException("daysThreshold must not be negative");
+    Instant now = Instant.now();
+    Timestamp threshold = Timestamp.from(now.minus(daysThreshold, ChronoUnit.DAYS));
+    List<BucketRow> rows = jdbcTemplate.query(STATS_SQL, BUCKET_ROW, Timestamp.from(now), threshold);
+
+    BucketRow total = new BucketRow(false, false, null, 0, 0, 0);
+    Map<Integer, BucketRow> byValue = new HashMap<>();
+    Map<Integer, BucketRow> byAge = new HashMap<>();
+    for (BucketRow row : rows) {
+      if (row.byValue()) byValue.put(row.bucket(), row);
+      else if (row.byAge()) byAge.put(row.bucket(), row);
+      else total = row;
+    }
+
+    List<Map<String, Object>> valueHistogram = new ArrayList<>(VALUE_BOUNDS.length);
+    for (int b = 0; b < VALUE_BOUNDS.length; b++) {
+      Double to = b + 1 < VALUE_BOUNDS.length ? VALUE_BOUNDS[b + 1] : null;
+      valueHistogram.add(bucket(label(VALUE_BOUNDS[b], to, ""), VALUE_BOUNDS[b], to, byValue.get(b + 1)));
+    }
+    List<Map<String, Object>> ageHistogram = new ArrayList<>(AGE_BOUNDS.length);
+    for (int b = 0; b < AGE_BOUNDS.length; b++) {
+      Integer to = b + 1 < AGE_BOUNDS.length ? AGE_BOUNDS[b + 1] : null;
+      if (to != null && to <= daysThreshold) continue; // no abandoned cart is that recent
+      ageHistogram.add(bucket(label(AGE_BOUNDS[b], to, "d"), AGE_BOUNDS[b], to, byAge.get(b + 1)));
+    }
+
     Map<String, Object> stats = new HashMap<>();
-    stats.put("totalAbandonedCarts", totalCarts);
-    stats.put("totalItems", totalItems);
-    stats.put("potentialRevenue", potentialRevenue);
+    stats.put("totalAbandonedCarts", total.carts());
+    stats.put("totalItems", total.items());
+    stats.put("potentialRevenue", total.value());
     stats.put("daysThreshold", daysThreshold);
-    stats.put("calculatedAt", Instant.now());
-    
+    stats.put("calculatedAt", now);
+    stats.put("valueHistogram", valueHistogram);
+    stats.put("ageHistogram", ageHistogram);
     return stats;
   }
+
+  private static String label(Number from, Number to, String unit) {
+    String lower = format(from) + unit;
+    return to == null ? lower + "+" : lower + "-" + format(to) + unit;
+  }
+
+  private static String format(Number n) {
+    return n.doubleValue() == Math.rint(n.doubleValue()) ? Long.toString(n.longValue()) : n.toString();
+  }
+
+  private static Map<String, Object> bucket(String label, Number from, Number to, BucketRow row) {
+    Map<String, Object> bucket = new LinkedHashMap<>();
+    bucket.put("bucket", label);
+    bucket.put("from", from);
+    bucket.put("to", to);
+    bucket.put("carts", row == null ? 0L : row.carts());
+    bucket.put("items", row == null ? 0L : row.items());
+    bucket.put("value", row == null ? 0.0 : row.value());
+    return bucket;
+  }
 }
@@ -1,73 +1,114 @@
 package com.arka.cart.service;
 
+import com.arka.cart.dto.CartRevalidation;
+import com.arka.cart.dto.CartView;
+import com.arka.cart.dto.ProductSnapshot;
 import com.arka.cart.model.Cart;
 import com.arka.cart.model.CartItem;
-import com.arka.cart.repository.CartRepository;
+import com.arka.cart.store.CartStore;
+import feign.FeignException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class CartService {
-  private final CartRepository cartRepository;
+  private final CartStore cartStore;
+  private final ProductCatalog productCatalog;
 
-  public CartService(CartRepository cartRepository) {
-    this.cartRepository = cartRepository;
+  public CartService(CartStore cartStore, ProductCatalog productCatalog) {
+    this.cartStore = cartStore;
+    this.productCatalog = productCatalog;
   }
 
-  @Transactional
   public Cart getOrCreateCart(Long userId) {
-    return cartRepository.findByUserId(userId)
-      .orElseGet(() -> {
-        Cart cart = new Cart();
-        cart.setUserId(userId);
-        return cartRepository.save(cart);
-      });
+    return cartStore.getOrCreate(userId);
   }
 
-  @Transactional
-  public Cart addItem(Long userId, CartItem item) {
-    Cart cart = getOrCreateCart(userId);
-    
-    Optional<CartItem> existing = cart.getItems().stream()
-      .filter(i -> i.getProductId().equals(item.getProductId()))
-      .findFirst();
-    
-    if (existing.isPresent()) {
-      existing.get().setQuantity(existing.get().getQuantity() + item.getQuantity());
-    } else {
-      cart.getItems().add(item);
-    }
-    
-    return cartRepository.save(cart);
+  public CartView addItem(Long userId, CartItem item) {
+    if (item.getProductId() == null) throw new IllegalArgumentException("productId is required");
+    if (item.getQuantity() == null || item.getQuantity() < 1) throw new IllegalArgumentException("quantity must be at least 1");
+    return cartStore.addItem(userId, item);
   }
 
-  @Transactional
-  public Cart removeItem(Long userId, Long productId) {
-    Cart cart = getOrCreateCart(userId);
-    cart.getItems().removeIf(item -> item.getProductId().equals(productId));
-    return cartRepository.save(cart);
+  public CartView removeItem(Long userId, Long productId) {
+    return cartStore.removeItem(userId, productId);
   }
 
-  @Transactional
-  public Cart updateItemQuantity(Long userId, Long productId, Integer quantity) {
-    Cart cart = getOrCreateCart(userId);
-    cart.getItems().stream()
-      .filter(item -> item.getProductId().equals(productId))
-      .findFirst()
-      .ifPresent(item -> item.setQuantity(quantity));
-    return cartRepository.save(cart);
+  public CartView updateItemQuantity(Long userId, Long productId, Integer quantity) {
+    if (quantity == null || quantity < 1) throw new IllegalArgumentException("quantity must be at least 1");
+    return cartStore.setItemQuantity(userId, productId, quantity);
   }
 
-  @Transactional
   public void clearCart(Long userId) {
-    cartRepository.findByUserId(userId).ifPresent(cart -> {
-      cart.getItems().clear();
-      cartRepository.save(cart);
-    });
+    if (cartStore.find(userId).isPresent()) {
+      cartStore.update(userId, cart -> cart.getItems().clear());
+    }
   }
 
   public Optional<Cart> findByUserId(Long userId) {
-    return cartRepository.findByUserId(userId);
+    return cartStore.find(userId);
+  }
+
+  /**
+   * Checks every line against inventory's current price and stock, fetched for the whole cart in
+   * one lookup, and reports the difference per line. Stored prices and names that changed are
+   * refreshed; quantities are left to the user.
+   */
+  public CartRevalidation revalidate(Long userId) {
+    Cart cart = cartStore.find(userId).orElseThrow(() -> new IllegalArgumentException("Cart not found"));
+    if (cart.getItems().isEmpty()) return new CartRevalidation(cart.getId(), userId, List.of(), 0, 0, false);
+
+    Map<Long, ProductSnapshot> products;
+    try {
+      products = productCatalog.lookup(cart.getItems().stream().map(CartItem::getProductId).toList());
+    } catch (FeignException ex) {
+      throw new IllegalStateException("Inventory unavailable: " + ex.getMessage(), ex);
+    }
+
+    List<CartRevalidation.LineDelta> lines = new ArrayList<>(cart.getItems().size());
+    Map<Long, ProductSnapshot> refresh = new HashMap<>();
+    double previousTotal = 0;
+    double total = 0;
+    for (CartItem item : cart.getItems()) {
+      int quantity = item.getQuantity();
+      Double previousPrice = item.getPrice();
+      if (previousPrice != null) previousTotal += previousPrice * quantity;
+      ProductSnapshot product = products.get(item.getProductId());
+      if (product == null) {
+        lines.add(new CartRevalidation.LineDelta(item.getProductId(), item.getProductName(), quantity, previousPrice, null,
+          0, 0, quantity, CartRevalidation.Status.UNAVAILABLE));
+        continue;
+      }
+      Double price = product.price() == null ? previousPrice : Double.valueOf(product.price().doubleValue());
+      if (price != null) total += price * quantity;
+      int available = product.available() == null ? 0 : product.available();
+      int shortBy = Math.max(0, quantity - available);
+      boolean priceChanged = !Objects.equals(previousPrice, price);
+      CartRevalidation.Status status = shortBy > 0 ? CartRevalidation.Status.INSUFFICIENT_STOCK
+        : priceChanged ? CartRevalidation.Status.PRICE_CHANGED : CartRevalidation.Status.OK;
+      double priceDelta = priceChanged && previousPrice != null ? price - previousPrice : 0;
+      lines.add(new CartRevalidation.LineDelta(item.getProductId(), product.name(), quantity, previousPrice, price,
+        priceDelta, available, shortBy, status));
+      if (priceChanged || (product.name() != null && !product.name().equals(item.getProductName()))) {
+        refresh.put(item.getProductId(), product);
+      }
+    }
+
+    if (!refresh.isEmpty()) {
+      cartStore.update(userId, c -> {
+        for (CartItem line : c.getItems()) {
+          ProductSnapshot product = refresh.get(line.getProductId());
+          if (product == null) continue;
+          if (product.price() != null) line.setPrice(product.price().doubleValue());
+          if (product.name() != null) line.setProductName(product.name());
+        }
+      });
+    }
+    return new CartRevalidation(cart.getId(), userId, lines, previousTotal, total, !refresh.isEmpty());
   }
 }
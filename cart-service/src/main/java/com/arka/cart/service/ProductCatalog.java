@@ -0,0 +1,77 @@
+package com.arka.cart.service;
+
+import com.arka.cart.clients.InventoryClient;
+import com.arka.cart.dto.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current price and stock of products, shared by every cart. A product looked up within the TTL
+ * is served from memory, so popular SKUs are fetched once per TTL rather than once per cart; the
+ * rest of a lookup goes to inventory in one batch call (per 500 ids). Products inventory does not
+ * know are cached too, as null.
+ */
+@Service
+public class ProductCatalog {
+  static final int MAX_IDS_PER_CALL = 500;
+
+  private record Cached(ProductSnapshot product, long expiresAt) {}
+
+  private final InventoryClient inventoryClient;
+  private final long ttlMs;
+  private final int maxEntries;
+  private final ConcurrentHashMap<Long, Cached> cache = new ConcurrentHashMap<>();
+
+  public ProductCatalog(InventoryClient inventoryClient,
+                        @Value("${cart.revalidate.cache-ttl-ms:5000}") long ttlMs,
+                        @Value("${cart.revalidate.cache-max-entries:10000}") int maxEntries) {
+    this.inventoryClient = inventoryClient;
+    this.ttlMs = ttlMs;
+    this.maxEntries = maxEntries;
+  }
+
+  /** @return a snapshot per requested id, null for ids inventory does not know */
+  public Map<Long, ProductSnapshot> lookup(Collection<Long> ids) {
+    long now = System.currentTimeMillis();
+    Map<Long, ProductSnapshot> found = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long id : new LinkedHashSet<>(ids)) {
+      Cached c = cache.get(id);
+      if (c != null && c.expiresAt() > now) found.put(id, c.product());
+      else missing.add(id);
+    }
+    for (int from = 0; from < missing.size(); from += MAX_IDS_PER_CALL) {
+      List<Long> batch = missing.subList(from, Math.min(from + MAX_IDS_PER_CALL, missing.size()));
+      Map<Long, ProductSnapshot> fetched = new HashMap<>();
+      for (ProductSnapshot p : inventoryClient.getProducts(batch)) fetched.put(p.id(), p);
+      long expiresAt = System.currentTimeMillis() + ttlMs;
+      for (Long id : batch) {
+        ProductSnapshot p = fetched.get(id);
+        found.put(id, p);
+        put(id, new Cached(p, expiresAt));
+      }
+    }
+    return found;
+  }
+
+  int size() {
+    return cache.size();
+  }
+
+  private void put(Long id, Cached entry) {
+    if (cache.size() >= maxEntries && !cache.containsKey(id)) {
+      long now = System.currentTimeMillis();
+      cache.values().removeIf(c -> c.expiresAt() <= now);
+      if (cache.size() >= maxEntries) return;
+    }
+    cache.put(id, entry);
+  }
+}
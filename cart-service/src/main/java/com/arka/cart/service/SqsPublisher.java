@@ -1,48 +1,121 @@
 package com.arka.cart.service;
 
+import com.arka.cart.dto.AbandonedCart;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClientBuilder;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
 
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Publishes abandoned carts to SQS with SendMessageBatch (10 messages per call) on the async
+ * client, so every batch of a chunk is in flight at once.
+ */
 @Service
 public class SqsPublisher {
   private static final Logger log = LoggerFactory.getLogger(SqsPublisher.class);
-  
-  private final SqsClient sqsClient;
-  private final ObjectMapper objectMapper;
+  static final int MAX_BATCH_ENTRIES = 10;
 
-  @Value("${aws.sqs.abandoned-carts-queue-url:}")
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Value("${aws.sqs.abandoned-carts-queue-url:${sqs.abandoned-cart-queue:}}")
   private String queueUrl;
 
-  public SqsPublisher(@Value("${aws.region:us-east-1}") String region) {
-    this.sqsClient = SqsClient.builder()
-        .region(Region.of(region))
-        .build();
-    this.objectMapper = new ObjectMapper();
+  @Value("${aws.region:us-east-1}")
+  private String region;
+
+  /** Optional endpoint override for LocalStack/ElasticMQ. */
+  @Value("${aws.sqs.endpoint:}")
+  private String endpoint;
+
+  private SqsAsyncClient sqsClient;
+
+  public SqsPublisher() {}
+
+  SqsPublisher(SqsAsyncClient sqsClient, String queueUrl) {
+    this.sqsClient = sqsClient;
+    this.queueUrl = queueUrl;
+  }
+
+  private synchronized SqsAsyncClient getSqsClient() {
+    if (sqsClient == null) {
+      SqsAsyncClientBuilder builder = SqsAsyncClient.builder().region(Region.of(region));
+      if (endpoint != null && !endpoint.isBlank()) builder.endpointOverride(URI.create(endpoint));
+      sqsClient = builder.build();
+    }
+    return sqsClient;
+  }
+
+  /**
+   * Sends one message per cart. Never completes exceptionally: a batch that fails as a whole
+   * just contributes no ids.
+   * @return ids of the carts SQS accepted
+   */
+  public CompletableFuture<Set<Long>> publishAbandonedCarts(List<AbandonedCart> carts) {
+    if (carts.isEmpty()) return CompletableFuture.completedFuture(Set.of());
+    if (queueUrl == null || queueUrl.isBlank()) {
+      log.warn("No abandoned cart queue configured, {} carts not published", carts.size());
+      return CompletableFuture.completedFuture(Set.of());
+    }
+    String abandonedAt = Instant.now().toString();
+    List<CompletableFuture<List<Long>>> sends = new ArrayList<>((carts.size() + MAX_BATCH_ENTRIES - 1) / MAX_BATCH_ENTRIES);
+    for (int from = 0; from < carts.size(); from += MAX_BATCH_ENTRIES) {
+      List<SendMessageBatchRequestEntry> entries = new ArrayList<>(MAX_BATCH_ENTRIES);
+      for (AbandonedCart cart : carts.subList(from, Math.min(from + MAX_BATCH_ENTRIES, carts.size()))) {
+        entries.add(SendMessageBatchRequestEntry.builder()
+          .id(Long.toString(cart.cartId()))
+          .messageBody(messageBody(cart, abandonedAt))
+          .build());
+      }
+      sends.add(getSqsClient().sendMessageBatch(b -> b.queueUrl(queueUrl).entries(entries))
+        .handle((response, error) -> {
+          if (error != null) {
+            log.error("SQS SendMessageBatch of {} abandoned carts failed: {}", entries.size(), error.getMessage());
+            return List.of();
+          }
+          for (BatchResultErrorEntry failed : response.failed()) {
+            log.warn("SQS rejected abandoned cart {}: {} {}", failed.id(), failed.code(), failed.message());
+          }
+          List<Long> accepted = new ArrayList<>(response.successful().size());
+          for (SendMessageBatchResultEntry ok : response.successful()) accepted.add(Long.parseLong(ok.id()));
+          return accepted;
+        }));
+    }
+    return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).thenApply(done -> {
+      Set<Long> accepted = new HashSet<>(carts.size() * 2);
+      for (CompletableFuture<List<Long>> send : sends) accepted.addAll(send.join());
+      return accepted;
+    });
   }
 
-  public void publishAbandonedCart(Map<String, Object> cartData) {
+  private String messageBody(AbandonedCart cart, String abandonedAt) {
+    Map<String, Object> cartData = new LinkedHashMap<>();
+    cartData.put("cartId", cart.cartId());
+    cartData.put("userId", cart.userId());
+    cartData.put("items", cart.items());
+    cartData.put("totalValue", cart.totalValue());
+    cartData.put("abandonedAt", abandonedAt);
     try {
-      String messageBody = objectMapper.writeValueAsString(cartData);
-      
-      SendMessageRequest request = SendMessageRequest.builder()
-          .queueUrl(queueUrl)
-          .messageBody(messageBody)
-          .build();
-
-      SendMessageResponse response = sqsClient.sendMessage(request);
-      log.info("Published abandoned cart to SQS. MessageId: {}", response.messageId());
-      
-    } catch (Exception e) {
-      log.error("Failed to publish abandoned cart to SQS: {}", e.getMessage(), e);
+      return objectMapper.writeValueAsString(cartData);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize abandoned cart " + cart.cartId(), e);
     }
   }
 }
@@ -0,0 +1,73 @@
+package com.arka.cart.store;
+
+import com.arka.cart.dto.CartView;
+import com.arka.cart.model.Cart;
+import com.arka.cart.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Where carts live, one per user. Carts handed out are snapshots: changes go through
+ * {@link #update}, which applies them atomically per user.
+ */
+public interface CartStore {
+
+  Optional<Cart> find(Long userId);
+
+  Cart getOrCreate(Long userId);
+
+  /** Applies change to the user's cart, creating it if needed, and returns the result. */
+  Cart update(Long userId, Consumer<Cart> change);
+
+  /** Adds item to the cart, or its quantity to the line already holding that product. */
+  default CartView addItem(Long userId, CartItem item) {
+    return CartView.of(update(userId, cart -> {
+      for (CartItem line : cart.getItems()) {
+        if (line.getProductId().equals(item.getProductId())) {
+          line.setQuantity(line.getQuantity() + item.getQuantity());
+          return;
+        }
+      }
+      CartItem line = new CartItem();
+      line.setProductId(item.getProductId());
+      line.setProductName(item.getProductName());
+      line.setPrice(item.getPrice());
+      line.setQuantity(item.getQuantity());
+      cart.getItems().add(line);
+    }));
+  }
+
+  /** Sets the quantity of the line holding productId; a product not in the cart is ignored. */
+  default CartView setItemQuantity(Long userId, Long productId, Integer quantity) {
+    return CartView.of(update(userId, cart -> {
+      for (CartItem line : cart.getItems()) {
+        if (line.getProductId().equals(productId)) line.setQuantity(quantity);
+      }
+    }));
+  }
+
+  default CartView removeItem(Long userId, Long productId) {
+    return CartView.of(update(userId, cart -> cart.getItems().removeIf(line -> line.getProductId().equals(productId))));
+  }
+
+  static Cart copyOf(Cart cart) {
+    Cart copy = new Cart();
+    copy.setId(cart.getId());
+    copy.setUserId(cart.getUserId());
+    copy.setCreatedAt(cart.getCreatedAt());
+    copy.setUpdatedAt(cart.getUpdatedAt());
+    copy.setItems(new ArrayList<>(cart.getItems().size()));
+    for (CartItem item : cart.getItems()) {
+      CartItem c = new CartItem();
+      c.setId(item.getId());
+      c.setProductId(item.getProductId());
+      c.setProductName(item.getProductName());
+      c.setPrice(item.getPrice());
+      c.setQuantity(item.getQuantity());
+      copy.getItems().add(c);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,63 @@
+package com.arka.cart.store;
+
+import com.arka.cart.model.Cart;
+import com.arka.cart.model.CartItem;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/** Local stand-in for tests and running without a database: carts only live in this map. */
+@Component
+@ConditionalOnProperty(prefix = "cart.store", name = "backend", havingValue = "local")
+public class InMemoryCartStore implements CartStore {
+  private final ConcurrentHashMap<Long, Cart> carts = new ConcurrentHashMap<>();
+  private final AtomicLong ids = new AtomicLong();
+
+  @Override
+  public Optional<Cart> find(Long userId) {
+    Cart[] found = new Cart[1];
+    carts.computeIfPresent(userId, (id, cart) -> {
+      found[0] = CartStore.copyOf(cart);
+      return cart;
+    });
+    return Optional.ofNullable(found[0]);
+  }
+
+  @Override
+  public Cart getOrCreate(Long userId) {
+    return apply(userId, null);
+  }
+
+  @Override
+  public Cart update(Long userId, Consumer<Cart> change) {
+    return apply(userId, change);
+  }
+
+  private Cart apply(Long userId, Consumer<Cart> change) {
+    Cart[] result = new Cart[1];
+    carts.compute(userId, (id, cart) -> {
+      if (cart == null) {
+        cart = new Cart();
+        cart.setId(ids.incrementAndGet());
+        cart.setUserId(userId);
+        cart.setCreatedAt(Instant.now());
+        cart.setUpdatedAt(cart.getCreatedAt());
+      }
+      if (change != null) {
+        change.accept(cart);
+        for (CartItem item : cart.getItems()) {
+          if (item.getId() == null) item.setId(ids.incrementAndGet());
+        }
+        cart.setUpdatedAt(Instant.now());
+      }
+      result[0] = CartStore.copyOf(cart);
+      return cart;
+    });
+    return result[0];
+  }
+}
@@ -0,0 +1,111 @@
+package com.arka.cart.store;
+
+import com.arka.cart.dto.CartView;
+import com.arka.cart.model.Cart;
+import com.arka.cart.model.CartItem;
+import com.arka.cart.repository.CartRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Every change goes straight to Postgres in its own transaction. Item changes are single-row
+ * statements against cart_items (the upsert relies on the unique index on (cart_id, product_id)),
+ * and the cart totals are read back with one aggregate, so their cost does not grow with the cart.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cart.store", name = "backend", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+  static final String TOUCH_CART = "UPDATE carts SET updated_at = ? WHERE user_id = ? RETURNING id";
+  static final String INSERT_CART = "INSERT INTO carts (user_id, created_at, updated_at) VALUES (?, ?, ?) RETURNING id";
+  static final String UPSERT_ITEM =
+    "INSERT INTO cart_items (cart_id, product_id, product_name, price, quantity) VALUES (?, ?, ?, ?, ?) " +
+    "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity";
+  static final String UPDATE_QUANTITY = "UPDATE cart_items SET quantity = ? WHERE cart_id = ? AND product_id = ?";
+  static final String DELETE_ITEM = "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
+  static final String VIEW =
+    "SELECT c.user_id, c.updated_at, COUNT(i.id) AS lines, COALESCE(SUM(i.quantity), 0) AS quantity, " +
+    "COALESCE(SUM(i.price * i.quantity), 0) AS total " +
+    "FROM carts c LEFT JOIN cart_items i ON i.cart_id = c.id WHERE c.id = ? GROUP BY c.id";
+
+  private final CartRepository cartRepository;
+  private final JdbcTemplate jdbcTemplate;
+
+  public JpaCartStore(CartRepository cartRepository, JdbcTemplate jdbcTemplate) {
+    this.cartRepository = cartRepository;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Optional<Cart> find(Long userId) {
+    return cartRepository.findByUserId(userId);
+  }
+
+  @Override
+  @Transactional
+  public Cart getOrCreate(Long userId) {
+    return cartRepository.findByUserId(userId)
+      .orElseGet(() -> {
+        Cart cart = new Cart();
+        cart.setUserId(userId);
+        return cartRepository.save(cart);
+      });
+  }
+
+  @Override
+  @Transactional
+  public Cart update(Long userId, Consumer<Cart> change) {
+    Cart cart = getOrCreate(userId);
+    change.accept(cart);
+    return cartRepository.save(cart);
+  }
+
+  @Override
+  @Transactional
+  public CartView addItem(Long userId, CartItem item) {
+    long cartId = touchCart(userId);
+    jdbcTemplate.update(UPSERT_ITEM, cartId, item.getProductId(), item.getProductName(), item.getPrice(), item.getQuantity());
+    return view(cartId);
+  }
+
+  @Override
+  @Transactional
+  public CartView setItemQuantity(Long userId, Long productId, Integer quantity) {
+    long cartId = touchCart(userId);
+    jdbcTemplate.update(UPDATE_QUANTITY, quantity, cartId, productId);
+    return view(cartId);
+  }
+
+  @Override
+  @Transactional
+  public CartView removeItem(Long userId, Long productId) {
+    long cartId = touchCart(userId);
+    jdbcTemplate.update(DELETE_ITEM, cartId, productId);
+    return view(cartId);
+  }
+
+  /** Marks the user's cart as changed now, creating it if needed, and returns its id. */
+  private long touchCart(Long userId) {
+    Timestamp now = Timestamp.from(Instant.now());
+    List<Long> ids = jdbcTemplate.queryForList(TOUCH_CART, Long.class, now, userId);
+    if (!ids.isEmpty()) return ids.get(0);
+    return jdbcTemplate.queryForObject(INSERT_CART, Long.class, userId, now, now);
+  }
+
+  private CartView view(long cartId) {
+    return jdbcTemplate.queryForObject(VIEW, (rs, n) -> new CartView(
+      cartId,
+      rs.getLong("user_id"),
+      rs.getInt("lines"),
+      rs.getLong("quantity"),
+      rs.getDouble("total"),
+      rs.getTimestamp("updated_at").toInstant()), cartId);
+  }
+}
@@ -0,0 +1,182 @@
+package com.arka.cart.store;
+
+import com.arka.cart.model.Cart;
+import com.arka.cart.model.CartItem;
+import com.arka.cart.repository.CartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Keeps carts in memory, split into shards by userId so users on different shards never wait
+ * on each other. A cart is read through from Postgres the first time it is needed; changes
+ * only mark it dirty and {@link #flush} writes the latest state of each dirty cart, so any
+ * number of changes between two flushes cost one save. Carts left untouched for the idle TTL
+ * are dropped from memory once they are clean.
+ *
+ * The store assumes it is the only writer for the carts it holds, so route each user to one
+ * instance (e.g. by userId at the gateway).
+ */
+@Component
+@ConditionalOnProperty(prefix = "cart.store", name = "backend", havingValue = "memory")
+public class WriteBehindCartStore implements CartStore {
+  private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+  private static final class Entry {
+    final Cart cart;
+    boolean dirty;
+    long touchedAt;
+
+    Entry(Cart cart, boolean dirty) {
+      this.cart = cart;
+      this.dirty = dirty;
+    }
+  }
+
+  private static final class Shard {
+    final Map<Long, Entry> carts = new HashMap<>();
+  }
+
+  private final CartRepository cartRepository;
+  private final Shard[] shards;
+  private final long idleTtlMs;
+
+  public WriteBehindCartStore(CartRepository cartRepository,
+                              @Value("${cart.store.shards:64}") int shards,
+                              @Value("${cart.store.idle-ttl-ms:1800000}") long idleTtlMs) {
+    if (shards < 1) throw new IllegalArgumentException("cart.store.shards must be at least 1");
+    this.cartRepository = cartRepository;
+    this.shards = new Shard[shards];
+    for (int i = 0; i < shards; i++) this.shards[i] = new Shard();
+    this.idleTtlMs = idleTtlMs;
+  }
+
+  @Override
+  public Optional<Cart> find(Long userId) {
+    return Optional.ofNullable(apply(userId, false, null));
+  }
+
+  @Override
+  public Cart getOrCreate(Long userId) {
+    return apply(userId, true, null);
+  }
+
+  @Override
+  public Cart update(Long userId, Consumer<Cart> change) {
+    return apply(userId, true, change);
+  }
+
+  /**
+   * Writes every dirty cart and evicts idle clean ones. A cart whose save fails stays dirty
+   * and is retried on the next flush.
+   * @return number of carts written
+   */
+  public synchronized int flush() {
+    int written = 0;
+    for (Shard shard : shards) {
+      List<Cart> dirty = new ArrayList<>();
+      synchronized (shard) {
+        long idleBefore = System.currentTimeMillis() - idleTtlMs;
+        for (Iterator<Entry> it = shard.carts.values().iterator(); it.hasNext(); ) {
+          Entry e = it.next();
+          if (e.dirty) {
+            dirty.add(CartStore.copyOf(e.cart));
+            e.dirty = false;
+          } else if (e.touchedAt < idleBefore) {
+            it.remove();
+          }
+        }
+      }
+      for (Cart snapshot : dirty) {
+        try {
+          Cart saved = cartRepository.save(snapshot);
+          written++;
+          synchronized (shard) {
+            Entry e = shard.carts.get(snapshot.getUserId());
+            if (e != null) adoptIds(e.cart, saved);
+          }
+        } catch (RuntimeException ex) {
+          log.error("Could not write cart of user {}, keeping it for the next flush: {}", snapshot.getUserId(), ex.getMessage());
+          synchronized (shard) {
+            shard.carts.get(snapshot.getUserId()).dirty = true;
+          }
+        }
+      }
+    }
+    return written;
+  }
+
+  /** Number of carts currently held in memory. */
+  public int size() {
+    int size = 0;
+    for (Shard shard : shards) {
+      synchronized (shard) {
+        size += shard.carts.size();
+      }
+    }
+    return size;
+  }
+
+  private Shard shardOf(Long userId) {
+    return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+  }
+
+  private Cart apply(Long userId, boolean create, Consumer<Cart> change) {
+    Shard shard = shardOf(userId);
+    synchronized (shard) {
+      Entry e = shard.carts.get(userId);
+      if (e != null) return applyLocked(e, change);
+    }
+    // Read through without holding the shard; another request may have loaded the cart meanwhile.
+    Optional<Cart> stored = cartRepository.findByUserId(userId);
+    if (stored.isEmpty() && !create) return null;
+    synchronized (shard) {
+      Entry e = shard.carts.get(userId);
+      if (e == null) {
+        e = stored.map(c -> new Entry(CartStore.copyOf(c), false)).orElseGet(() -> new Entry(newCart(userId), true));
+        shard.carts.put(userId, e);
+      }
+      return applyLocked(e, change);
+    }
+  }
+
+  private static Cart applyLocked(Entry e, Consumer<Cart> change) {
+    e.touchedAt = System.currentTimeMillis();
+    if (change != null) {
+      change.accept(e.cart);
+      e.cart.setUpdatedAt(Instant.now());
+      e.dirty = true;
+    }
+    return CartStore.copyOf(e.cart);
+  }
+
+  private static Cart newCart(Long userId) {
+    Cart cart = new Cart();
+    cart.setUserId(userId);
+    cart.setCreatedAt(Instant.now());
+    cart.setUpdatedAt(cart.getCreatedAt());
+    return cart;
+  }
+
+  /** Takes the ids Postgres assigned to rows the cached cart still has, so the next save updates them. */
+  private static void adoptIds(Cart cached, Cart saved) {
+    cached.setId(saved.getId());
+    cached.setCreatedAt(saved.getCreatedAt());
+    Map<Long, Long> itemIds = new HashMap<>();
+    for (CartItem item : saved.getItems()) itemIds.put(item.getProductId(), item.getId());
+    for (CartItem item : cached.getItems()) {
+      if (item.getId() == null) item.setId(itemIds.get(item.getProductId()));
+    }
+  }
+}
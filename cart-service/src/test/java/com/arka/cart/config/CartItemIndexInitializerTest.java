@@ -0,0 +1,84 @@
+package com.arka.cart.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartItemIndexInitializerTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @BeforeEach
+  void setUp() {
+    lenient().doAnswer(inv -> {
+      Consumer<TransactionStatus> callback = inv.getArgument(0);
+      callback.accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+  }
+
+  @Test
+  void createIndex_ShouldMergeDuplicatesBeforeCreatingIndex() {
+    when(jdbcTemplate.queryForObject(CartItemIndexInitializer.INDEX_EXISTS_SQL, Boolean.class)).thenReturn(false);
+    when(jdbcTemplate.update(CartItemIndexInitializer.MERGE_DUPLICATES_SQL)).thenReturn(1);
+    when(jdbcTemplate.update(CartItemIndexInitializer.DELETE_DUPLICATES_SQL)).thenReturn(2);
+
+    new CartItemIndexInitializer(jdbcTemplate, transactionTemplate, "jpa").createIndex();
+
+    InOrder order = inOrder(jdbcTemplate);
+    order.verify(jdbcTemplate).execute(CartItemIndexInitializer.LOCK_SQL);
+    order.verify(jdbcTemplate).update(CartItemIndexInitializer.MERGE_DUPLICATES_SQL);
+    order.verify(jdbcTemplate).update(CartItemIndexInitializer.DELETE_DUPLICATES_SQL);
+    order.verify(jdbcTemplate).execute(CartItemIndexInitializer.CREATE_INDEX_SQL);
+  }
+
+  @Test
+  void createIndex_WhenIndexExists_ShouldDoNothing() {
+    when(jdbcTemplate.queryForObject(CartItemIndexInitializer.INDEX_EXISTS_SQL, Boolean.class)).thenReturn(true);
+
+    new CartItemIndexInitializer(jdbcTemplate, transactionTemplate, "jpa").createIndex();
+
+    verifyNoInteractions(transactionTemplate);
+    verify(jdbcTemplate, never()).execute(CartItemIndexInitializer.CREATE_INDEX_SQL);
+  }
+
+  @Test
+  void createIndex_WhenItFailsWithJpaBackend_ShouldFailStartup() {
+    when(jdbcTemplate.queryForObject(CartItemIndexInitializer.INDEX_EXISTS_SQL, Boolean.class)).thenReturn(false);
+    doThrow(new DataIntegrityViolationException("could not create unique index"))
+      .when(jdbcTemplate).execute(CartItemIndexInitializer.CREATE_INDEX_SQL);
+
+    CartItemIndexInitializer initializer = new CartItemIndexInitializer(jdbcTemplate, transactionTemplate, "jpa");
+
+    assertThrows(IllegalStateException.class, initializer::createIndex);
+  }
+
+  @Test
+  void createIndex_WhenItFailsWithWriteBehindBackend_ShouldOnlyLog() {
+    when(jdbcTemplate.queryForObject(CartItemIndexInitializer.INDEX_EXISTS_SQL, Boolean.class)).thenReturn(false);
+    doThrow(new DataIntegrityViolationException("could not create unique index"))
+      .when(jdbcTemplate).execute(CartItemIndexInitializer.CREATE_INDEX_SQL);
+
+    CartItemIndexInitializer initializer = new CartItemIndexInitializer(jdbcTemplate, transactionTemplate, "memory");
+
+    assertDoesNotThrow(initializer::createIndex);
+  }
+}
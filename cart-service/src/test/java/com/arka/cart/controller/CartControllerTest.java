@@ -1,8 +1,12 @@
 package com.arka.cart.controller;
 
+import com.arka.cart.dto.CartRevalidation;
+import com.arka.cart.dto.CartView;
 import com.arka.cart.model.Cart;
 import com.arka.cart.model.CartItem;
 import com.arka.cart.service.CartService;
+import com.arka.cart.service.ProductCatalog;
+import com.arka.cart.service.AbandonedCartDetector;
 import com.arka.cart.service.AbandonedCartService;
 import com.arka.cart.repository.CartRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,9 +16,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -51,8 +58,21 @@ class CartControllerTest {
   @MockBean
   private AbandonedCartService abandonedCartService;
 
+  @MockBean
+  private JdbcTemplate jdbcTemplate;
+
+  @MockBean
+  private TransactionTemplate transactionTemplate;
+
+  @MockBean
+  private AbandonedCartDetector abandonedCartDetector;
+
+  @MockBean
+  private ProductCatalog productCatalog;
+
   private Cart testCart;
   private CartItem testItem;
+  private CartView testView;
 
   @BeforeEach
   void setUp() {
@@ -68,6 +88,7 @@ class CartControllerTest {
     List<CartItem> items = new ArrayList<>();
     items.add(testItem);
     testCart.setItems(items);
+    testView = new CartView(1L, 100L, 1, 2, 99.98, Instant.now());
   }
 
   @Test
@@ -82,18 +103,28 @@ class CartControllerTest {
 
   @Test
   void addItem_ShouldReturnUpdatedCart() throws Exception {
-    when(cartService.addItem(anyLong(), any(CartItem.class))).thenReturn(testCart);
+    when(cartService.addItem(anyLong(), any(CartItem.class))).thenReturn(testView);
 
     mockMvc.perform(post("/api/carts/100/items")
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(testItem)))
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$.userId").value(100));
+        .andExpect(jsonPath("$.userId").value(100))
+        .andExpect(jsonPath("$.lines").value(1))
+        .andExpect(jsonPath("$.total").value(99.98));
+  }
+
+  @Test
+  void updateQuantity_ShouldReturnBadRequest_WhenQuantityIsInvalid() throws Exception {
+    when(cartService.updateItemQuantity(100L, 1L, 0)).thenThrow(new IllegalArgumentException("quantity must be at least 1"));
+
+    mockMvc.perform(put("/api/carts/100/items/1").param("quantity", "0"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
   void removeItem_ShouldReturnUpdatedCart() throws Exception {
-    when(cartService.removeItem(anyLong(), anyLong())).thenReturn(testCart);
+    when(cartService.removeItem(anyLong(), anyLong())).thenReturn(testView);
 
     mockMvc.perform(delete("/api/carts/100/items/1"))
         .andExpect(status().isOk());
@@ -106,4 +137,24 @@ class CartControllerTest {
     mockMvc.perform(delete("/api/carts/100"))
         .andExpect(status().isNoContent());
   }
-}
\ No newline at end of file
+
+  @Test
+  void revalidate_ShouldReturnLineDeltas() throws Exception {
+    CartRevalidation.LineDelta line = new CartRevalidation.LineDelta(1L, "Widget", 2, 49.99, 44.99, -5.0, 10, 0,
+        CartRevalidation.Status.PRICE_CHANGED);
+    when(cartService.revalidate(100L)).thenReturn(new CartRevalidation(1L, 100L, List.of(line), 99.98, 89.98, true));
+
+    mockMvc.perform(post("/api/carts/100/revalidate"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lines[0].status").value("PRICE_CHANGED"))
+        .andExpect(jsonPath("$.total").value(89.98));
+  }
+
+  @Test
+  void revalidate_ShouldReturnServiceUnavailable_WhenInventoryIsDown() throws Exception {
+    when(cartService.revalidate(100L)).thenThrow(new IllegalStateException("Inventory unavailable"));
+
+    mockMvc.perform(post("/api/carts/100/revalidate"))
+        .andExpect(status().isServiceUnavailable());
+  }
+}
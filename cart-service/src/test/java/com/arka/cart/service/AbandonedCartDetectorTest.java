@@ -0,0 +1,123 @@
+package com.arka.cart.service;
+
+import com.arka.cart.dto.AbandonedCart;
+import com.arka.cart.model.AbandonedCartCheckpoint;
+import com.arka.cart.repository.AbandonedCartCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AbandonedCartDetectorTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Mock
+  private AbandonedCartCheckpointRepository checkpointRepository;
+
+  @Mock
+  private SqsPublisher sqsPublisher;
+
+  private AbandonedCartDetector detector;
+
+  @SuppressWarnings("unchecked")
+  @BeforeEach
+  void setUp() {
+    detector = new AbandonedCartDetector(jdbcTemplate, transactionTemplate, checkpointRepository, sqsPublisher, 2);
+    lenient().doAnswer(inv -> {
+      inv.<Consumer<Object>>getArgument(0).accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+  }
+
+  private static AbandonedCart cart(long id) {
+    return new AbandonedCart(id, 100 + id, Instant.parse("2024-05-01T00:00:00Z").plusSeconds(id), 2, 10.0 * id);
+  }
+
+  private static Set<Long> ids(List<AbandonedCart> carts) {
+    return carts.stream().map(AbandonedCart::cartId).collect(Collectors.toSet());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void candidates(List<AbandonedCart>... chunks) {
+    var stub = when(jdbcTemplate.query(eq(AbandonedCartDetector.CANDIDATES), any(RowMapper.class), any(Object[].class)));
+    for (List<AbandonedCart> chunk : chunks) stub = stub.thenReturn(chunk);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void detect_ShouldPublishChunksAndAdvanceTheCheckpoint() {
+    when(checkpointRepository.findById(AbandonedCartDetector.CHECKPOINT)).thenReturn(Optional.empty());
+    candidates(List.of(cart(1), cart(2)), List.of(cart(3)));
+    when(sqsPublisher.publishAbandonedCarts(anyList())).thenAnswer(inv -> CompletableFuture.completedFuture(ids(inv.getArgument(0))));
+
+    assertEquals(3, detector.detect(7));
+
+    verify(sqsPublisher, times(2)).publishAbandonedCarts(anyList());
+    // a short chunk is the last one: no third query
+    verify(jdbcTemplate, times(2)).query(eq(AbandonedCartDetector.CANDIDATES), any(RowMapper.class), any(Object[].class));
+    verify(jdbcTemplate, times(2)).batchUpdate(eq(AbandonedCartDetector.RECORD_NOTIFICATION), anyList());
+    ArgumentCaptor<AbandonedCartCheckpoint> saved = ArgumentCaptor.forClass(AbandonedCartCheckpoint.class);
+    verify(checkpointRepository, times(2)).save(saved.capture());
+    assertEquals(3L, saved.getValue().getLastCartId());
+    assertEquals(cart(3).updatedAt(), saved.getValue().getLastUpdatedAt());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void detect_ShouldResumeFromTheCheckpoint() {
+    Instant at = Instant.parse("2024-05-02T00:00:00Z");
+    when(checkpointRepository.findById(AbandonedCartDetector.CHECKPOINT))
+      .thenReturn(Optional.of(new AbandonedCartCheckpoint(AbandonedCartDetector.CHECKPOINT, at, 42L)));
+    candidates(List.of());
+
+    assertEquals(0, detector.detect(7));
+
+    ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+    verify(jdbcTemplate).query(eq(AbandonedCartDetector.CANDIDATES), any(RowMapper.class), args.capture());
+    assertEquals(java.sql.Timestamp.from(at), args.getValue()[1]);
+    assertEquals(42L, args.getValue()[2]);
+    verifyNoInteractions(sqsPublisher);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void detect_ShouldStopTheCheckpointBeforeTheFirstCartNotPublished() {
+    when(checkpointRepository.findById(AbandonedCartDetector.CHECKPOINT)).thenReturn(Optional.empty());
+    candidates(List.of(cart(1), cart(2)), List.of(cart(3)));
+    when(sqsPublisher.publishAbandonedCarts(anyList()))
+      .thenReturn(CompletableFuture.completedFuture(Set.of(1L)))
+      .thenReturn(CompletableFuture.completedFuture(Set.of(3L)));
+
+    assertEquals(2, detector.detect(7));
+
+    ArgumentCaptor<List<Object[]>> notified = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate, times(2)).batchUpdate(eq(AbandonedCartDetector.RECORD_NOTIFICATION), notified.capture());
+    assertEquals(1L, notified.getAllValues().get(0).get(0)[0]);
+    assertEquals(3L, notified.getAllValues().get(1).get(0)[0]);
+    // cart 2 failed: the checkpoint stays on cart 1 so the next run retries it
+    verify(checkpointRepository, times(1)).save(argThat(cp -> cp.getLastCartId() == 1L));
+  }
+}
@@ -0,0 +1,84 @@
+package com.arka.cart.service;
+
+import com.arka.cart.repository.CartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AbandonedCartServiceTest {
+
+  @Mock
+  private CartRepository cartRepository;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private AbandonedCartService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new AbandonedCartService(cartRepository, jdbcTemplate);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void getAbandonedCartStats_ShouldUseOneAggregateQuery() {
+    when(jdbcTemplate.query(eq(AbandonedCartService.STATS_SQL), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(
+      new AbandonedCartService.BucketRow(true, false, 2, 3, 6, 45.0),
+      new AbandonedCartService.BucketRow(true, false, 8, 1, 4, 1200.0),
+      new AbandonedCartService.BucketRow(false, true, 5, 4, 10, 1245.0),
+      new AbandonedCartService.BucketRow(false, false, null, 4, 10, 1245.0)));
+
+    Map<String, Object> stats = service.getAbandonedCartStats(14);
+
+    assertEquals(4L, stats.get("totalAbandonedCarts"));
+    assertEquals(10L, stats.get("totalItems"));
+    assertEquals(1245.0, stats.get("potentialRevenue"));
+    assertEquals(14, stats.get("daysThreshold"));
+
+    List<Map<String, Object>> byValue = (List<Map<String, Object>>) stats.get("valueHistogram");
+    assertEquals(AbandonedCartService.VALUE_BOUNDS.length, byValue.size());
+    assertEquals("10-25", byValue.get(1).get("bucket"));
+    assertEquals(3L, byValue.get(1).get("carts"));
+    assertEquals("1000+", byValue.get(7).get("bucket"));
+    assertEquals(1L, byValue.get(7).get("carts"));
+    assertEquals(0L, byValue.get(0).get("carts"));
+
+    // buckets younger than the threshold cannot hold abandoned carts
+    List<Map<String, Object>> byAge = (List<Map<String, Object>>) stats.get("ageHistogram");
+    assertEquals("14d-30d", byAge.get(0).get("bucket"));
+    assertEquals(4L, byAge.get(0).get("carts"));
+    assertEquals("365d+", byAge.get(byAge.size() - 1).get("bucket"));
+
+    verifyNoInteractions(cartRepository);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void getAbandonedCartStats_ShouldReportZeros_WhenNothingIsAbandoned() {
+    when(jdbcTemplate.query(eq(AbandonedCartService.STATS_SQL), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+    Map<String, Object> stats = service.getAbandonedCartStats(0);
+
+    assertEquals(0L, stats.get("totalAbandonedCarts"));
+    assertEquals(AbandonedCartService.AGE_BOUNDS.length, ((List<?>) stats.get("ageHistogram")).size());
+  }
+
+  @Test
+  void getAbandonedCartStats_ShouldRejectNegativeThreshold() {
+    assertThrows(IllegalArgumentException.class, () -> service.getAbandonedCartStats(-1));
+    verifyNoInteractions(jdbcTemplate);
+  }
+}
@@ -1,42 +1,42 @@
 package com.arka.cart.service;
 
+import com.arka.cart.dto.CartRevalidation;
+import com.arka.cart.dto.CartView;
+import com.arka.cart.dto.ProductSnapshot;
 import com.arka.cart.model.Cart;
 import com.arka.cart.model.CartItem;
-import com.arka.cart.repository.CartRepository;
+import com.arka.cart.store.InMemoryCartStore;
+import feign.FeignException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartServiceTest {
 
   @Mock
-  private CartRepository cartRepository;
+  private ProductCatalog productCatalog;
 
-  @InjectMocks
+  private InMemoryCartStore cartStore;
   private CartService cartService;
-
-  private Cart testCart;
   private CartItem testItem;
 
   @BeforeEach
   void setUp() {
-    testCart = new Cart();
-    testCart.setId(1L);
-    testCart.setUserId(100L);
-    testCart.setItems(new ArrayList<>());
-    
+    cartStore = new InMemoryCartStore();
+    cartService = new CartService(cartStore, productCatalog);
+
     testItem = new CartItem();
     testItem.setProductId(1L);
     testItem.setQuantity(2);
@@ -45,74 +45,166 @@ class CartServiceTest {
 
   @Test
   void getOrCreateCart_ShouldReturnExistingCart_WhenExists() {
-    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.of(testCart));
+    CartView existing = cartService.addItem(100L, testItem);
 
     Cart result = cartService.getOrCreateCart(100L);
 
     assertNotNull(result);
     assertEquals(100L, result.getUserId());
-    verify(cartRepository, never()).save(any(Cart.class));
+    assertEquals(existing.cartId(), result.getId());
+    assertEquals(1, result.getItems().size());
   }
 
   @Test
   void getOrCreateCart_ShouldCreateNewCart_WhenNotExists() {
-    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
-    when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+    assertTrue(cartService.findByUserId(100L).isEmpty());
 
     Cart result = cartService.getOrCreateCart(100L);
 
     assertNotNull(result);
-    verify(cartRepository, times(1)).save(any(Cart.class));
+    assertNotNull(result.getId());
+    assertTrue(cartService.findByUserId(100L).isPresent());
   }
 
   @Test
   void addItem_ShouldAddNewItem_WhenNotExists() {
-    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.of(testCart));
-    when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-
-    Cart result = cartService.addItem(100L, testItem);
+    CartView result = cartService.addItem(100L, testItem);
 
     assertNotNull(result);
-    assertEquals(1, result.getItems().size());
-    verify(cartRepository, times(1)).save(any(Cart.class));
+    assertEquals(1, result.lines());
+    assertEquals(2, result.quantity());
+    assertEquals(99.98, result.total(), 1e-9);
+    assertNotNull(cartService.findByUserId(100L).orElseThrow().getItems().get(0).getId());
   }
 
   @Test
   void addItem_ShouldUpdateQuantity_WhenItemExists() {
-    testCart.getItems().add(testItem);
-    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.of(testCart));
-    when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+    cartService.addItem(100L, testItem);
 
     CartItem newItem = new CartItem();
     newItem.setProductId(1L);
     newItem.setQuantity(3);
 
-    Cart result = cartService.addItem(100L, newItem);
+    CartView result = cartService.addItem(100L, newItem);
 
     assertNotNull(result);
-    assertEquals(1, result.getItems().size());
-    assertEquals(5, result.getItems().get(0).getQuantity());
+    assertEquals(1, result.lines());
+    assertEquals(5, result.quantity());
+    assertEquals(5, cartService.findByUserId(100L).orElseThrow().getItems().get(0).getQuantity());
   }
 
   @Test
   void removeItem_ShouldRemoveItem() {
-    testCart.getItems().add(testItem);
-    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.of(testCart));
-    when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+    cartService.addItem(100L, testItem);
 
-    Cart result = cartService.removeItem(100L, 1L);
+    CartView result = cartService.removeItem(100L, 1L);
 
     assertNotNull(result);
-    assertEquals(0, result.getItems().size());
+    assertEquals(0, result.lines());
+    assertEquals(0, cartService.findByUserId(100L).orElseThrow().getItems().size());
+  }
+
+  @Test
+  void updateItemQuantity_ShouldSetQuantity() {
+    cartService.addItem(100L, testItem);
+
+    CartView result = cartService.updateItemQuantity(100L, 1L, 7);
+
+    assertEquals(7, result.quantity());
+  }
+
+  @Test
+  void updateItemQuantity_ShouldRejectNonPositiveQuantity() {
+    assertThrows(IllegalArgumentException.class, () -> cartService.updateItemQuantity(100L, 1L, 0));
+    assertThrows(IllegalArgumentException.class, () -> cartService.addItem(100L, new CartItem()));
   }
 
   @Test
   void clearCart_ShouldClearAllItems() {
-    testCart.getItems().add(testItem);
-    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.of(testCart));
+    cartService.addItem(100L, testItem);
+
+    cartService.clearCart(100L);
+
+    assertEquals(0, cartService.findByUserId(100L).orElseThrow().getItems().size());
+  }
 
+  @Test
+  void clearCart_ShouldNotCreateCart_WhenNotExists() {
     cartService.clearCart(100L);
 
-    verify(cartRepository, times(1)).save(any(Cart.class));
+    assertTrue(cartService.findByUserId(100L).isEmpty());
+  }
+
+  @Test
+  void returnedCarts_ShouldBeSnapshots() {
+    cartService.addItem(100L, testItem);
+    cartService.findByUserId(100L).orElseThrow().getItems().clear();
+    testItem.setQuantity(40);
+
+    Cart stored = cartService.findByUserId(100L).orElseThrow();
+    assertEquals(1, stored.getItems().size());
+    assertEquals(2, stored.getItems().get(0).getQuantity());
+  }
+
+  private static CartItem line(long productId, int quantity, double price) {
+    CartItem item = new CartItem();
+    item.setProductId(productId);
+    item.setProductName("old name " + productId);
+    item.setQuantity(quantity);
+    item.setPrice(price);
+    return item;
+  }
+
+  @Test
+  void revalidate_ShouldReportPerLineDeltasAndRefreshStoredPrices() {
+    cartService.addItem(100L, line(1L, 2, 10.0));
+    cartService.addItem(100L, line(2L, 5, 4.0));
+    cartService.addItem(100L, line(3L, 1, 7.0));
+    cartService.addItem(100L, line(4L, 1, 3.0));
+    Map<Long, ProductSnapshot> current = new HashMap<>();
+    current.put(1L, new ProductSnapshot(1L, "old name 1", new BigDecimal("10.0"), 50));
+    current.put(2L, new ProductSnapshot(2L, "Widget", new BigDecimal("4.5"), 50));
+    current.put(3L, new ProductSnapshot(3L, "old name 3", new BigDecimal("7.0"), 0));
+    current.put(4L, null);
+    when(productCatalog.lookup(anyCollection())).thenReturn(current);
+
+    CartRevalidation result = cartService.revalidate(100L);
+
+    verify(productCatalog, times(1)).lookup(List.of(1L, 2L, 3L, 4L));
+    assertEquals(CartRevalidation.Status.OK, result.lines().get(0).status());
+    assertEquals(CartRevalidation.Status.PRICE_CHANGED, result.lines().get(1).status());
+    assertEquals(0.5, result.lines().get(1).priceDelta(), 1e-9);
+    assertEquals(CartRevalidation.Status.INSUFFICIENT_STOCK, result.lines().get(2).status());
+    assertEquals(1, result.lines().get(2).shortBy());
+    assertEquals(CartRevalidation.Status.UNAVAILABLE, result.lines().get(3).status());
+    assertEquals(50.0, result.previousTotal(), 1e-9);
+    assertEquals(49.5, result.total(), 1e-9);
+    assertTrue(result.refreshed());
+
+    CartItem refreshed = cartService.findByUserId(100L).orElseThrow().getItems().get(1);
+    assertEquals(4.5, refreshed.getPrice());
+    assertEquals("Widget", refreshed.getProductName());
+  }
+
+  @Test
+  void revalidate_ShouldNotTouchTheCart_WhenNothingChanged() {
+    cartService.addItem(100L, line(1L, 2, 10.0));
+    Cart before = cartService.findByUserId(100L).orElseThrow();
+    when(productCatalog.lookup(anyCollection()))
+      .thenReturn(Map.of(1L, new ProductSnapshot(1L, "old name 1", new BigDecimal("10.0"), 5)));
+
+    CartRevalidation result = cartService.revalidate(100L);
+
+    assertFalse(result.refreshed());
+    assertEquals(before.getUpdatedAt(), cartService.findByUserId(100L).orElseThrow().getUpdatedAt());
+  }
+
+  @Test
+  void revalidate_ShouldFailCleanly_WhenInventoryIsDown() {
+    cartService.addItem(100L, line(1L, 2, 10.0));
+    when(productCatalog.lookup(anyCollection())).thenThrow(mock(FeignException.class));
+
+    assertThrows(IllegalStateException.class, () -> cartService.revalidate(100L));
+    assertThrows(IllegalArgumentException.class, () -> cartService.revalidate(999L));
   }
-}
\ No newline at end of file
+}
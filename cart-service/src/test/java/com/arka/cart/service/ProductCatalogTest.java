@@ -0,0 +1,82 @@
+package com.arka.cart.service;
+
+import com.arka.cart.clients.InventoryClient;
+import com.arka.cart.dto.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+  @Mock
+  private InventoryClient inventoryClient;
+
+  private void inventoryKnowsEvenIds() {
+    when(inventoryClient.getProducts(anyCollection())).thenAnswer(inv -> inv.<Collection<Long>>getArgument(0).stream()
+      .filter(id -> id % 2 == 0)
+      .map(id -> new ProductSnapshot(id, "p" + id, BigDecimal.TEN, 3))
+      .toList());
+  }
+
+  @Test
+  void lookup_ShouldFetchAHundredItemCartInOneCall() {
+    inventoryKnowsEvenIds();
+    ProductCatalog catalog = new ProductCatalog(inventoryClient, 60_000, 10_000);
+
+    Map<Long, ProductSnapshot> products = catalog.lookup(LongStream.rangeClosed(1, 100).boxed().toList());
+
+    verify(inventoryClient, times(1)).getProducts(argThat(ids -> ids.size() == 100));
+    assertEquals(100, products.size());
+    assertNull(products.get(1L));
+    assertEquals("p2", products.get(2L).name());
+  }
+
+  @Test
+  void lookup_ShouldOnlyFetchProductsNotCachedByAnotherCart() {
+    inventoryKnowsEvenIds();
+    ProductCatalog catalog = new ProductCatalog(inventoryClient, 60_000, 10_000);
+
+    catalog.lookup(List.of(2L, 3L));
+    catalog.lookup(List.of(2L, 3L, 4L));
+
+    verify(inventoryClient).getProducts(List.of(2L, 3L));
+    verify(inventoryClient).getProducts(List.of(4L));
+    verifyNoMoreInteractions(inventoryClient);
+  }
+
+  @Test
+  void lookup_ShouldRefetchExpiredEntries_AndSplitLargeLookups() {
+    inventoryKnowsEvenIds();
+    ProductCatalog catalog = new ProductCatalog(inventoryClient, 0, 10_000);
+
+    catalog.lookup(List.of(2L));
+    catalog.lookup(List.of(2L));
+    catalog.lookup(LongStream.rangeClosed(1, ProductCatalog.MAX_IDS_PER_CALL + 1).boxed().toList());
+
+    verify(inventoryClient, times(2)).getProducts(List.of(2L));
+    verify(inventoryClient).getProducts(argThat(ids -> ids.size() == ProductCatalog.MAX_IDS_PER_CALL));
+    verify(inventoryClient).getProducts(argThat(ids -> ids.size() == 1 && !ids.contains(2L)));
+  }
+
+  @Test
+  void lookup_ShouldStopCaching_WhenFullOfFreshEntries() {
+    inventoryKnowsEvenIds();
+    ProductCatalog catalog = new ProductCatalog(inventoryClient, 60_000, 2);
+
+    catalog.lookup(List.of(2L, 4L, 6L));
+
+    assertEquals(2, catalog.size());
+  }
+}
@@ -0,0 +1,73 @@
+package com.arka.cart.service;
+
+import com.arka.cart.dto.AbandonedCart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SqsPublisherTest {
+
+  @Mock
+  private SqsAsyncClient sqsClient;
+
+  private static List<AbandonedCart> carts(int n) {
+    return LongStream.rangeClosed(1, n)
+      .mapToObj(id -> new AbandonedCart(id, 100 + id, Instant.parse("2024-05-01T00:00:00Z"), 1, 5.0))
+      .toList();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void publishAbandonedCarts_ShouldSendBatchesOfTenAndCollectAcceptedIds() {
+    List<SendMessageBatchRequest> requests = new ArrayList<>();
+    when(sqsClient.sendMessageBatch(any(Consumer.class))).thenAnswer(inv -> {
+      SendMessageBatchRequest.Builder b = SendMessageBatchRequest.builder();
+      inv.<Consumer<SendMessageBatchRequest.Builder>>getArgument(0).accept(b);
+      SendMessageBatchRequest request = b.build();
+      requests.add(request);
+      if (requests.size() == 3) return CompletableFuture.failedFuture(new RuntimeException("throttled"));
+      SendMessageBatchResponse.Builder response = SendMessageBatchResponse.builder()
+        .successful(request.entries().stream().filter(e -> !e.id().equals("4"))
+          .map(e -> SendMessageBatchResultEntry.builder().id(e.id()).messageId("m-" + e.id()).build()).toList())
+        .failed(request.entries().stream().filter(e -> e.id().equals("4"))
+          .map(e -> BatchResultErrorEntry.builder().id(e.id()).code("InternalError").build()).toList());
+      return CompletableFuture.completedFuture(response.build());
+    });
+    SqsPublisher publisher = new SqsPublisher(sqsClient, "https://sqs.example/queue");
+
+    Set<Long> accepted = publisher.publishAbandonedCarts(carts(25)).join();
+
+    assertEquals(List.of(10, 10, 5), requests.stream().map(r -> r.entries().size()).toList());
+    assertEquals(19, accepted.size());
+    assertFalse(accepted.contains(4L));
+    assertFalse(accepted.contains(21L));
+    assertTrue(requests.get(0).entries().get(0).messageBody().contains("\"totalValue\":5.0"));
+  }
+
+  @Test
+  void publishAbandonedCarts_ShouldPublishNothing_WhenNoQueueIsConfigured() {
+    SqsPublisher publisher = new SqsPublisher(sqsClient, "");
+
+    assertTrue(publisher.publishAbandonedCarts(carts(3)).join().isEmpty());
+    verifyNoInteractions(sqsClient);
+  }
+}
@@ -0,0 +1,76 @@
+package com.arka.cart.store;
+
+import com.arka.cart.dto.CartView;
+import com.arka.cart.model.CartItem;
+import com.arka.cart.repository.CartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaCartStoreTest {
+
+  @Mock
+  private CartRepository cartRepository;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private JpaCartStore store;
+  private final CartView view = new CartView(7L, 100L, 3, 5, 42.0, Instant.parse("2024-05-06T14:37:12Z"));
+
+  @SuppressWarnings("unchecked")
+  @BeforeEach
+  void setUp() {
+    store = new JpaCartStore(cartRepository, jdbcTemplate);
+    lenient().when(jdbcTemplate.queryForObject(eq(JpaCartStore.VIEW), any(RowMapper.class), any(Object[].class))).thenReturn(view);
+  }
+
+  @Test
+  void addItem_ShouldUpsertOneRowWithoutLoadingTheCart() {
+    when(jdbcTemplate.queryForList(eq(JpaCartStore.TOUCH_CART), eq(Long.class), any(Object[].class))).thenReturn(List.of(7L));
+    CartItem item = new CartItem();
+    item.setProductId(1L);
+    item.setQuantity(2);
+    item.setPrice(49.99);
+
+    CartView result = store.addItem(100L, item);
+
+    assertSame(view, result);
+    verify(jdbcTemplate).update(JpaCartStore.UPSERT_ITEM, 7L, 1L, null, 49.99, 2);
+    verify(jdbcTemplate, never()).queryForObject(eq(JpaCartStore.INSERT_CART), eq(Long.class), any(Object[].class));
+    verifyNoInteractions(cartRepository);
+  }
+
+  @Test
+  void setItemQuantity_ShouldCreateTheCart_WhenUserHasNone() {
+    when(jdbcTemplate.queryForList(eq(JpaCartStore.TOUCH_CART), eq(Long.class), any(Object[].class))).thenReturn(List.of());
+    when(jdbcTemplate.queryForObject(eq(JpaCartStore.INSERT_CART), eq(Long.class), any(Object[].class))).thenReturn(7L);
+
+    store.setItemQuantity(100L, 1L, 4);
+
+    verify(jdbcTemplate).update(JpaCartStore.UPDATE_QUANTITY, 4, 7L, 1L);
+    verifyNoInteractions(cartRepository);
+  }
+
+  @Test
+  void removeItem_ShouldDeleteOneRow() {
+    when(jdbcTemplate.queryForList(eq(JpaCartStore.TOUCH_CART), eq(Long.class), any(Object[].class))).thenReturn(List.of(7L));
+
+    store.removeItem(100L, 1L);
+
+    verify(jdbcTemplate).update(JpaCartStore.DELETE_ITEM, 7L, 1L);
+    verifyNoInteractions(cartRepository);
+  }
+}
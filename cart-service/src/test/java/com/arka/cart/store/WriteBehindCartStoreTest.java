@@ -0,0 +1,142 @@
+package com.arka.cart.store;
+
+import com.arka.cart.model.Cart;
+import com.arka.cart.model.CartItem;
+import com.arka.cart.repository.CartRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindCartStoreTest {
+
+  @Mock
+  private CartRepository cartRepository;
+
+  private static CartItem item(Long productId, int quantity) {
+    CartItem item = new CartItem();
+    item.setProductId(productId);
+    item.setQuantity(quantity);
+    item.setPrice(2.5);
+    return item;
+  }
+
+  /** Stands in for Postgres assigning ids on save. */
+  private void assignIdsOnSave() {
+    when(cartRepository.save(any(Cart.class))).thenAnswer(inv -> {
+      Cart cart = inv.getArgument(0);
+      if (cart.getId() == null) cart.setId(10L);
+      long next = 100;
+      for (CartItem it : cart.getItems()) if (it.getId() == null) it.setId(next++);
+      return cart;
+    });
+  }
+
+  @Test
+  void update_ShouldCoalesceChangesIntoOneSavePerFlush() {
+    when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty());
+    assignIdsOnSave();
+    WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, 4, 60_000);
+
+    store.update(1L, cart -> cart.getItems().add(item(5L, 1)));
+    store.update(1L, cart -> cart.getItems().get(0).setQuantity(3));
+    store.update(1L, cart -> cart.getItems().add(item(6L, 1)));
+    verify(cartRepository, never()).save(any());
+
+    assertEquals(1, store.flush());
+    ArgumentCaptor<Cart> saved = ArgumentCaptor.forClass(Cart.class);
+    verify(cartRepository).save(saved.capture());
+    assertEquals(2, saved.getValue().getItems().size());
+    assertEquals(3, saved.getValue().getItems().get(0).getQuantity());
+
+    // nothing changed since: no write; the ids Postgres assigned are kept for the next save
+    assertEquals(0, store.flush());
+    Cart cached = store.find(1L).orElseThrow();
+    assertEquals(10L, cached.getId());
+    assertEquals(List.of(100L, 101L), cached.getItems().stream().map(CartItem::getId).toList());
+    verify(cartRepository, times(1)).findByUserId(1L);
+  }
+
+  @Test
+  void find_ShouldReadThroughOnce_AndNotCreateMissingCarts() {
+    Cart stored = new Cart();
+    stored.setId(3L);
+    stored.setUserId(2L);
+    stored.setItems(new ArrayList<>(List.of(item(5L, 1))));
+    when(cartRepository.findByUserId(2L)).thenReturn(Optional.of(stored));
+    when(cartRepository.findByUserId(9L)).thenReturn(Optional.empty());
+    WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, 4, 60_000);
+
+    assertEquals(3L, store.find(2L).orElseThrow().getId());
+    assertEquals(1, store.getOrCreate(2L).getItems().size());
+    assertTrue(store.find(9L).isEmpty());
+
+    verify(cartRepository, times(1)).findByUserId(2L);
+    assertEquals(1, store.size());
+    assertEquals(0, store.flush());
+  }
+
+  @Test
+  void flush_ShouldKeepCartDirty_WhenSaveFails() {
+    when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty());
+    when(cartRepository.save(any(Cart.class))).thenThrow(new RuntimeException("db down")).thenAnswer(inv -> inv.getArgument(0));
+    WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, 4, 60_000);
+    store.update(1L, cart -> cart.getItems().add(item(5L, 1)));
+
+    assertEquals(0, store.flush());
+    assertEquals(1, store.flush());
+    verify(cartRepository, times(2)).save(any(Cart.class));
+  }
+
+  @Test
+  void flush_ShouldEvictIdleCleanCarts() {
+    when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty());
+    assignIdsOnSave();
+    WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, 4, -1);
+    store.update(1L, cart -> cart.getItems().add(item(5L, 1)));
+
+    store.flush();
+    assertEquals(1, store.size());
+    store.flush();
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  void update_ShouldNotLoseChanges_UnderContention() throws Exception {
+    when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
+    WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, 2, 60_000);
+    for (long user = 1; user <= 4; user++) store.update(user, cart -> cart.getItems().add(item(5L, 0)));
+
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 400; i++) {
+      long user = 1 + i % 4;
+      pool.submit(() -> {
+        start.await();
+        store.update(user, cart -> cart.getItems().get(0).setQuantity(cart.getItems().get(0).getQuantity() + 1));
+        return null;
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    for (long user = 1; user <= 4; user++) {
+      assertEquals(100, store.find(user).orElseThrow().getItems().get(0).getQuantity());
+    }
+  }
+}
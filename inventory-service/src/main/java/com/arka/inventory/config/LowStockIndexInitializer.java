@@ -0,0 +1,36 @@
+package com.arka.inventory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the partial index behind the low-stock queries. JPA cannot declare a partial index, so
+ * it is created here after ddl-auto has added the reorder_threshold column. Only low rows are
+ * indexed, so it stays small and cheap to maintain on every stock update.
+ */
+@Component
+public class LowStockIndexInitializer {
+  private static final Logger log = LoggerFactory.getLogger(LowStockIndexInitializer.class);
+  static final String CREATE_INDEX_SQL =
+    "CREATE INDEX IF NOT EXISTS idx_products_low_stock ON products (id) INCLUDE (stock, reorder_threshold) " +
+    "WHERE stock < reorder_threshold";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public LowStockIndexInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createIndex() {
+    try {
+      jdbcTemplate.execute(CREATE_INDEX_SQL);
+    } catch (Exception e) {
+      log.error("Could not create low-stock partial index: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.arka.inventory.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class RestTemplateConfig {
+
+  @Bean
+  @LoadBalanced
+  public RestTemplate restTemplate(@Value("${inventory.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                   @Value("${inventory.http.read-timeout-ms:5000}") int readTimeoutMs) {
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(connectTimeoutMs);
+    requestFactory.setReadTimeout(readTimeoutMs);
+    return new RestTemplate(requestFactory);
+  }
+}
@@ -1,7 +1,10 @@
 package com.arka.inventory.controller;
 
 import com.arka.inventory.model.Product;
+import com.arka.inventory.dto.ProductPage;
 import com.arka.inventory.dto.ProductRequest;
+import com.arka.inventory.dto.StockAdjustmentRequest;
+import com.arka.inventory.service.ProductListingService;
 import com.arka.inventory.service.ProductService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -14,8 +17,13 @@ import java.util.List;
 @RequestMapping("/api/products")
 @Validated
 public class ProductController {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
   private final ProductService productService;
-  public ProductController(ProductService productService){ this.productService = productService; }
+  private final ProductListingService listingService;
+  public ProductController(ProductService productService, ProductListingService listingService){
+    this.productService = productService;
+    this.listingService = listingService;
+  }
 
   @PostMapping
   public ResponseEntity<Product> create(@Valid @RequestBody ProductRequest req){
@@ -25,13 +33,42 @@ public class ProductController {
     p.setPrice(req.getPrice());
     p.setStock(req.getStock());
     p.setCategory(req.getCategory());
+    p.setReorderThreshold(req.getReorderThreshold());
 
     Product created = productService.create(p);
     return ResponseEntity.created(URI.create("/api/products/" + created.getId())).body(created);
   }
 
+  /**
+   * Keyset-paginated listing; pass the X-Next-Cursor header of one page as `after` to get the next.
+   * `fields` (e.g. id,name,stock) limits the columns read and returned.
+   */
   @GetMapping
-  public List<Product> list(){ return productService.listAll(); }
+  public ResponseEntity<?> list(@RequestParam(required=false) Long after,
+                                @RequestParam(defaultValue = "" + ProductListingService.DEFAULT_LIMIT) int limit,
+                                @RequestParam(required=false) String category,
+                                @RequestParam(required=false) Integer minStock,
+                                @RequestParam(required=false) Integer maxStock,
+                                @RequestParam(required=false) String fields){
+    try{
+      ProductPage page = listingService.list(after, limit, category, minStock, maxStock, fields);
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+      if(page.getNextCursor() != null) response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+      return response.body(page.getItems());
+    }catch(IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  /** Several products in one call, e.g. ?ids=1,2,3 (at most ProductService.MAX_BATCH_IDS); unknown ids are left out. */
+  @GetMapping("/batch")
+  public ResponseEntity<?> getBatch(@RequestParam List<Long> ids){
+    try{
+      return ResponseEntity.ok(productService.findAllById(ids));
+    }catch(IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
 
   @GetMapping("/{id}")
   public ResponseEntity<Product> get(@PathVariable Long id){
@@ -41,9 +78,13 @@ public class ProductController {
   }
 
   @PutMapping("/{id}/stock")
-  public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestParam int delta, @RequestParam(required=false) String reason){
+  public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestParam int delta, @RequestParam(required=false) String reason,
+                                       @RequestHeader(value="Idempotency-Key", required=false) String idempotencyKey){
     try{
-      Product updated = productService.updateStock(id, delta, reason == null ? "manual" : reason);
+      String why = reason == null ? "manual" : reason;
+      Product updated = idempotencyKey == null
+        ? productService.updateStock(id, delta, why)
+        : productService.updateStock(id, delta, why, idempotencyKey);
       return ResponseEntity.ok(updated);
     }catch(IllegalArgumentException ex){
       return ResponseEntity.badRequest().body(ex.getMessage());
@@ -52,8 +93,32 @@ public class ProductController {
     }
   }
 
+  @PutMapping("/stock/batch")
+  public ResponseEntity<?> updateStockBatch(@RequestBody List<@Valid StockAdjustmentRequest> lines,
+                                            @RequestHeader(value="Idempotency-Key", required=false) String idempotencyKey){
+    try{
+      return ResponseEntity.ok(idempotencyKey == null
+        ? productService.updateStockBatch(lines)
+        : productService.updateStockBatch(lines, idempotencyKey));
+    }catch(IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }catch(Exception ex){
+      return ResponseEntity.status(500).body("Error updating stock: " + ex.getMessage());
+    }
+  }
+
+  @PutMapping("/{id}/reorder-threshold")
+  public ResponseEntity<?> updateReorderThreshold(@PathVariable Long id, @RequestParam int value){
+    try{
+      return ResponseEntity.ok(productService.updateReorderThreshold(id, value));
+    }catch(IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  /** Without a threshold, each product is compared with its own reorder threshold. */
   @GetMapping("/low-stock")
-  public List<Product> lowStock(@RequestParam(defaultValue = "10") Integer threshold){
+  public List<Product> lowStock(@RequestParam(required = false) Integer threshold){
     return productService.lowStock(threshold);
   }
 }
\ No newline at end of file
@@ -7,13 +7,22 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportController {
+  private static final int BUFFER_SIZE = 64 * 1024;
   private final StockReportService reportService;
   private final ProductService productService;
 
@@ -42,31 +51,39 @@ public class ReportController {
   }
 
   /**
-   * Generate CSV for all products (download directly)
+   * Stream CSV for all products (download directly); gzip=true sends a .csv.gz file
    */
   @GetMapping("/all-products/csv")
-  public ResponseEntity<String> downloadAllProductsCsv() {
-    List<Product> products = productService.listAll();
-    String csv = reportService.exportToCsv(products);
-    
-    return ResponseEntity.ok()
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=all-products.csv")
-        .contentType(MediaType.parseMediaType("text/csv"))
-        .body(csv);
+  public ResponseEntity<StreamingResponseBody> downloadAllProductsCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+    return csvDownload("all-products", out -> reportService.streamCsv(null, out), gzip);
   }
 
   /**
-   * Generate CSV for low stock products (download directly)
+   * Stream CSV for low stock products (download directly); gzip=true sends a .csv.gz file.
+   * Without a threshold, each product is compared with its own reorder threshold.
    */
   @GetMapping("/low-stock/csv")
-  public ResponseEntity<String> downloadLowStockCsv(@RequestParam(defaultValue = "10") int threshold) {
-    List<Product> lowStock = productService.lowStock(threshold);
-    String csv = reportService.exportToCsv(lowStock);
-    
+  public ResponseEntity<StreamingResponseBody> downloadLowStockCsv(@RequestParam(required = false) Integer threshold,
+                                                                   @RequestParam(defaultValue = "false") boolean gzip) {
+    return csvDownload("low-stock", out -> reportService.streamLowStockCsv(threshold, out), gzip);
+  }
+
+  private interface CsvSource {
+    void writeTo(Writer out) throws IOException;
+  }
+
+  private ResponseEntity<StreamingResponseBody> csvDownload(String name, CsvSource source, boolean gzip) {
+    StreamingResponseBody body = outputStream -> {
+      OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+      Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+      source.writeTo(writer);
+      writer.flush();
+      if (gzip) ((GZIPOutputStream) target).finish();
+    };
     return ResponseEntity.ok()
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=low-stock.csv")
-        .contentType(MediaType.parseMediaType("text/csv"))
-        .body(csv);
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + name + (gzip ? ".csv.gz" : ".csv"))
+        .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"))
+        .body(body);
   }
 
   /**
@@ -74,11 +91,10 @@ public class ReportController {
    */
   @GetMapping("/preview")
   public ResponseEntity<Map<String, Object>> previewReport() {
-    List<Product> allProducts = productService.listAll();
-    List<Product> lowStock = productService.lowStock(10);
-    
+    List<Product> lowStock = productService.lowStock(null);
+
     return ResponseEntity.ok(Map.of(
-      "totalProducts", allProducts.size(),
+      "totalProducts", productService.count(),
       "lowStockProducts", lowStock.size(),
       "lowStockItems", lowStock
     ));
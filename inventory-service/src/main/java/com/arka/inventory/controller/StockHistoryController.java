@@ -0,0 +1,43 @@
+package com.arka.inventory.controller;
+
+import com.arka.inventory.service.StockHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/products/{id}/history")
+public class StockHistoryController {
+  private final StockHistoryService historyService;
+
+  public StockHistoryController(StockHistoryService historyService) {
+    this.historyService = historyService;
+  }
+
+  @GetMapping
+  public ResponseEntity<?> history(@PathVariable Long id,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                   @RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "100") int size) {
+    try {
+      return ResponseEntity.ok(historyService.history(id, from, to, page, size));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  @GetMapping("/daily")
+  public ResponseEntity<?> daily(@PathVariable Long id,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    try {
+      return ResponseEntity.ok(historyService.dailyHistory(id, from, to));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+}
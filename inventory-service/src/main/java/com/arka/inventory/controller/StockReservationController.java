@@ -0,0 +1,69 @@
+package com.arka.inventory.controller;
+
+import com.arka.inventory.dto.ReservationRequest;
+import com.arka.inventory.model.StockReservation;
+import com.arka.inventory.service.StockReservationService;
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/reservations")
+@Validated
+public class StockReservationController {
+  private final StockReservationService reservationService;
+
+  public StockReservationController(StockReservationService reservationService) {
+    this.reservationService = reservationService;
+  }
+
+  @PostMapping
+  public ResponseEntity<?> reserve(@Valid @RequestBody ReservationRequest req) {
+    try {
+      StockReservation created = reservationService.reserve(req);
+      return ResponseEntity.created(URI.create("/api/reservations/" + created.getId())).body(created);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    } catch (DataIntegrityViolationException ex) {
+      // A concurrent request with the same reference stored its reservation first.
+      return transition(() -> reservationService.existingReservation(req));
+    }
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<StockReservation> get(@PathVariable Long id) {
+    return reservationService.findById(id)
+      .map(ResponseEntity::ok)
+      .orElse(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/{id}/confirm")
+  public ResponseEntity<?> confirm(@PathVariable Long id) {
+    return transition(() -> reservationService.confirm(id));
+  }
+
+  @PostMapping("/{id}/release")
+  public ResponseEntity<?> release(@PathVariable Long id) {
+    return transition(() -> reservationService.release(id));
+  }
+
+  @PostMapping("/{id}/extend")
+  public ResponseEntity<?> extend(@PathVariable Long id, @RequestParam long ttlSeconds) {
+    return transition(() -> reservationService.extend(id, ttlSeconds));
+  }
+
+  private ResponseEntity<?> transition(Supplier<StockReservation> action) {
+    try {
+      return ResponseEntity.ok(action.get());
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    } catch (IllegalStateException ex) {
+      return ResponseEntity.status(409).body(ex.getMessage());
+    }
+  }
+}
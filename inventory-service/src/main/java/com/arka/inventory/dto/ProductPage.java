@@ -0,0 +1,18 @@
+package com.arka.inventory.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/** One keyset page of products; nextCursor is the last id of the page, or null on the last page. */
+public class ProductPage {
+  private final List<Map<String, Object>> items;
+  private final Long nextCursor;
+
+  public ProductPage(List<Map<String, Object>> items, Long nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<Map<String, Object>> getItems(){ return items; }
+  public Long getNextCursor(){ return nextCursor; }
+}
@@ -25,6 +25,10 @@ public class ProductRequest {
   @NotBlank(message = "category is required")
   private String category;
 
+  /** Optional; defaults to Product.DEFAULT_REORDER_THRESHOLD. */
+  @Min(value = 0, message = "reorderThreshold must be >= 0")
+  private Integer reorderThreshold;
+
   public ProductRequest(){}
 
   public String getName(){ return name; }
@@ -37,4 +41,6 @@ public class ProductRequest {
   public void setStock(Integer stock){ this.stock = stock; }
   public String getCategory(){ return category; }
   public void setCategory(String category){ this.category = category; }
+  public Integer getReorderThreshold(){ return reorderThreshold; }
+  public void setReorderThreshold(Integer reorderThreshold){ this.reorderThreshold = reorderThreshold; }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.arka.inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class ReservationRequest {
+  @NotNull(message = "productId is required")
+  private Long productId;
+
+  @NotNull(message = "quantity is required")
+  @Min(value = 1, message = "quantity must be >= 1")
+  private Integer quantity;
+
+  /** Optional; defaults to inventory.reservations.default-ttl-seconds. */
+  @Min(value = 1, message = "ttlSeconds must be >= 1")
+  private Long ttlSeconds;
+
+  private String reference;
+
+  public ReservationRequest(){}
+
+  public Long getProductId(){ return productId; }
+  public void setProductId(Long productId){ this.productId = productId; }
+  public Integer getQuantity(){ return quantity; }
+  public void setQuantity(Integer quantity){ this.quantity = quantity; }
+  public Long getTtlSeconds(){ return ttlSeconds; }
+  public void setTtlSeconds(Long ttlSeconds){ this.ttlSeconds = ttlSeconds; }
+  public String getReference(){ return reference; }
+  public void setReference(String reference){ this.reference = reference; }
+}
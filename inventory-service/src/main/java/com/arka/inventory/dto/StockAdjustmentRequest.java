@@ -0,0 +1,32 @@
+package com.arka.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One line of a batch stock adjustment.
+ * delta: positive -> increase stock, negative -> decrease (reserve)
+ */
+public class StockAdjustmentRequest {
+  @NotNull(message = "productId is required")
+  private Long productId;
+
+  @NotNull(message = "delta is required")
+  private Integer delta;
+
+  private String reason;
+
+  public StockAdjustmentRequest(){}
+
+  public StockAdjustmentRequest(Long productId, Integer delta, String reason){
+    this.productId = productId;
+    this.delta = delta;
+    this.reason = reason;
+  }
+
+  public Long getProductId(){ return productId; }
+  public void setProductId(Long productId){ this.productId = productId; }
+  public Integer getDelta(){ return delta; }
+  public void setDelta(Integer delta){ this.delta = delta; }
+  public String getReason(){ return reason; }
+  public void setReason(String reason){ this.reason = reason; }
+}
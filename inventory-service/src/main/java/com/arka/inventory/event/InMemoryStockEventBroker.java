@@ -0,0 +1,44 @@
+package com.arka.inventory.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Local stand-in for the broker: keeps the most recent messages in memory and logs them. */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "broker", havingValue = "memory", matchIfMissing = true)
+public class InMemoryStockEventBroker implements StockEventBroker {
+  private static final Logger log = LoggerFactory.getLogger(InMemoryStockEventBroker.class);
+
+  private final int capacity;
+  private final Deque<StockEventMessage> recent = new ArrayDeque<>();
+
+  public InMemoryStockEventBroker(@Value("${inventory.outbox.memory.capacity:1000}") int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public synchronized PublishResult publish(List<StockEventMessage> messages) {
+    Set<Long> accepted = new HashSet<>(messages.size() * 2);
+    for (StockEventMessage m : messages) {
+      if (recent.size() == capacity) recent.removeFirst();
+      recent.addLast(m);
+      accepted.add(m.id());
+    }
+    log.debug("Published {} stock event(s) in memory", messages.size());
+    return new PublishResult(accepted, Set.of(), false);
+  }
+
+  public synchronized List<StockEventMessage> recent() {
+    return new ArrayList<>(recent);
+  }
+}
@@ -0,0 +1,68 @@
+package com.arka.inventory.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delivers LOW_STOCK outbox events to provider-service, so reorders start without anyone polling
+ * the low-stock list. It is called by the outbox relay, off the request thread; events it does not
+ * accept stay in the outbox and are retried on the next run. Delivery is at-least-once, which the
+ * provider tolerates by skipping products that already have an open supply order.
+ */
+@Component
+public class LowStockNotifier {
+  private static final Logger log = LoggerFactory.getLogger(LowStockNotifier.class);
+
+  private final RestTemplate restTemplate;
+  private final boolean enabled;
+  private final String notifyUrl;
+
+  public LowStockNotifier(RestTemplate restTemplate,
+                          @Value("${inventory.low-stock.notify-enabled:true}") boolean enabled,
+                          @Value("${inventory.low-stock.notify-url:http://provider-service/api/supply-orders/low-stock}") String notifyUrl) {
+    this.restTemplate = restTemplate;
+    this.enabled = enabled;
+    this.notifyUrl = notifyUrl;
+  }
+
+  /**
+   * Posts each message in order. A 4xx refuses that message only; any other failure stops the
+   * run, so an unreachable provider costs one timeout per relay run rather than one per event.
+   * With notifications disabled every message counts as delivered.
+   */
+  public PublishResult publish(List<StockEventMessage> messages) {
+    Set<Long> delivered = new HashSet<>(messages.size() * 2);
+    if (!enabled) {
+      for (StockEventMessage m : messages) delivered.add(m.id());
+      return new PublishResult(delivered, Set.of(), false);
+    }
+    Set<Long> refused = new HashSet<>();
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    for (StockEventMessage m : messages) {
+      try {
+        restTemplate.postForEntity(notifyUrl, new HttpEntity<>(m.body(), headers), Void.class);
+        delivered.add(m.id());
+        log.info("LOW_STOCK sent for product {}", m.productId());
+      } catch (HttpClientErrorException e) {
+        refused.add(m.id());
+        log.warn("provider-service refused LOW_STOCK for product {}: {}", m.productId(), e.getStatusCode());
+      } catch (Exception e) {
+        log.warn("Could not deliver LOW_STOCK for product {}, will retry: {}", m.productId(), e.getMessage());
+        return new PublishResult(delivered, refused, true);
+      }
+    }
+    return new PublishResult(delivered, refused, false);
+  }
+}
@@ -0,0 +1,13 @@
+package com.arka.inventory.event;
+
+import java.util.Set;
+
+/**
+ * What a destination did with a batch of stock events.
+ * @param accepted ids the destination took
+ * @param rejected ids the destination refused one by one; only these count as failed attempts
+ * @param unavailable whether the destination itself failed (timeout, connection, 5xx), leaving
+ *        the messages it had not taken untried
+ */
+public record PublishResult(Set<Long> accepted, Set<Long> rejected, boolean unavailable) {
+}
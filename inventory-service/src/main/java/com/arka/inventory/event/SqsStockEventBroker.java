@@ -0,0 +1,100 @@
+package com.arka.inventory.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.SqsClientBuilder;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Publishes stock events to SQS with SendMessageBatch (10 messages per call). On a FIFO queue the
+ * product id is the message group, so events for one product stay in order, and the outbox id is
+ * the deduplication id.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.outbox", name = "broker", havingValue = "sqs")
+public class SqsStockEventBroker implements StockEventBroker {
+  private static final Logger log = LoggerFactory.getLogger(SqsStockEventBroker.class);
+  static final int MAX_BATCH_ENTRIES = 10;
+
+  @Value("${inventory.outbox.sqs.queue-url}")
+  private String queueUrl;
+
+  @Value("${aws.region:us-east-1}")
+  private String awsRegion;
+
+  /** Optional endpoint override for LocalStack/ElasticMQ. */
+  @Value("${aws.sqs.endpoint:}")
+  private String endpoint;
+
+  private SqsClient sqsClient;
+
+  public SqsStockEventBroker() {}
+
+  SqsStockEventBroker(SqsClient sqsClient, String queueUrl) {
+    this.sqsClient = sqsClient;
+    this.queueUrl = queueUrl;
+  }
+
+  private SqsClient getSqsClient() {
+    if (sqsClient == null) {
+      SqsClientBuilder builder = SqsClient.builder()
+          .region(Region.of(awsRegion))
+          .credentialsProvider(DefaultCredentialsProvider.create());
+      if (endpoint != null && !endpoint.isBlank()) builder.endpointOverride(URI.create(endpoint));
+      sqsClient = builder.build();
+    }
+    return sqsClient;
+  }
+
+  @Override
+  public PublishResult publish(List<StockEventMessage> messages) {
+    boolean fifo = queueUrl.endsWith(".fifo");
+    Set<Long> accepted = new HashSet<>(messages.size() * 2);
+    Set<Long> rejected = new HashSet<>();
+    for (int from = 0; from < messages.size(); from += MAX_BATCH_ENTRIES) {
+      List<SendMessageBatchRequestEntry> entries = new ArrayList<>(MAX_BATCH_ENTRIES);
+      for (StockEventMessage m : messages.subList(from, Math.min(from + MAX_BATCH_ENTRIES, messages.size()))) {
+        SendMessageBatchRequestEntry.Builder entry = SendMessageBatchRequestEntry.builder()
+            .id(Long.toString(m.id()))
+            .messageBody(m.body())
+            .messageAttributes(Map.of(
+              "eventType", MessageAttributeValue.builder().dataType("String").stringValue(m.type()).build(),
+              "productId", MessageAttributeValue.builder().dataType("Number").stringValue(Long.toString(m.productId())).build()));
+        if (fifo) entry.messageGroupId(Long.toString(m.productId())).messageDeduplicationId(Long.toString(m.id()));
+        entries.add(entry.build());
+      }
+      try {
+        SendMessageBatchResponse response = getSqsClient().sendMessageBatch(b -> b.queueUrl(queueUrl).entries(entries));
+        for (SendMessageBatchResultEntry ok : response.successful()) accepted.add(Long.parseLong(ok.id()));
+        for (BatchResultErrorEntry failed : response.failed()) {
+          log.warn("SQS rejected stock event {}: {} {}", failed.id(), failed.code(), failed.message());
+          // An entry failing on the SQS side is retried as if it had not been sent.
+          if (Boolean.TRUE.equals(failed.senderFault())) rejected.add(Long.parseLong(failed.id()));
+        }
+        if (fifo && !response.failed().isEmpty()) break;
+      } catch (Exception e) {
+        // Later chunks are left for the next run as well, so per-product order is kept on FIFO queues.
+        log.error("SQS SendMessageBatch failed: {}", e.getMessage());
+        return new PublishResult(accepted, rejected, true);
+      }
+    }
+    return new PublishResult(accepted, rejected, false);
+  }
+}
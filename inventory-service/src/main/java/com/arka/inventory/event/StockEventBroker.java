@@ -0,0 +1,11 @@
+package com.arka.inventory.event;
+
+import java.util.List;
+
+/**
+ * Destination for stock-change events relayed from the outbox. Delivery is at-least-once:
+ * ids not accepted are retried on a later relay run.
+ */
+public interface StockEventBroker {
+  PublishResult publish(List<StockEventMessage> messages);
+}
@@ -0,0 +1,4 @@
+package com.arka.inventory.event;
+
+/** One outbox row as it goes on the wire: the outbox id doubles as the deduplication key. */
+public record StockEventMessage(long id, String type, long productId, String body) {}
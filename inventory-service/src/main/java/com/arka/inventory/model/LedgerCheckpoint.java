@@ -0,0 +1,32 @@
+package com.arka.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Highest hot-ledger journal sequence already applied to the products table,
+ * written in the same transaction as each ledger flush.
+ */
+@Entity
+@Table(name = "stock_ledger_checkpoint")
+public class LedgerCheckpoint {
+  @Id
+  private String node;
+
+  @Column(nullable = false)
+  private Long lastSeq;
+
+  private Instant updatedAt;
+
+  public LedgerCheckpoint(){}
+
+  public LedgerCheckpoint(String node, Long lastSeq){
+    this.node = node;
+    this.lastSeq = lastSeq;
+    this.updatedAt = Instant.now();
+  }
+
+  public String getNode(){ return node; } public void setNode(String node){ this.node = node; }
+  public Long getLastSeq(){ return lastSeq; } public void setLastSeq(Long lastSeq){ this.lastSeq = lastSeq; }
+  public Instant getUpdatedAt(){ return updatedAt; } public void setUpdatedAt(Instant updatedAt){ this.updatedAt = updatedAt; }
+}
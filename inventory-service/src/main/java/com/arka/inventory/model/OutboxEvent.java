@@ -0,0 +1,79 @@
+package com.arka.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Stock event waiting to be published. Rows are inserted in the same transaction as the change
+ * itself (with the product's stock as of that transaction) and marked published by the relay.
+ * STOCK_CHANGED rows go to the stock event broker, LOW_STOCK rows to provider-service.
+ */
+@Entity
+@Table(name = "stock_outbox", indexes = {
+  @Index(name = "idx_stock_outbox_pending", columnList = "publishedAt, id")
+})
+public class OutboxEvent {
+  public static final String STOCK_CHANGED = "STOCK_CHANGED";
+  public static final String LOW_STOCK = "LOW_STOCK";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  @Column(nullable = false, length = 40)
+  private String eventType;
+
+  @Column(nullable = false)
+  private Integer delta;
+
+  @Column(nullable = false)
+  private Integer stock;
+
+  @Column(nullable = false)
+  private Integer reserved;
+
+  /** Product version after the change; consumers drop events older than what they have applied. */
+  private Long productVersion;
+
+  private String reason;
+
+  /** LOW_STOCK only: the product's category and the threshold that was crossed. */
+  private String category;
+
+  private Integer reorderThreshold;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  private Instant publishedAt;
+
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  /** A failed row is not picked up again before this instant (exponential backoff). */
+  private Instant nextAttemptAt;
+
+  /** Set once attempts reach the limit; the relay skips the row from then on, but keeps it for inspection. */
+  private Instant deadLetteredAt;
+
+  public OutboxEvent(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Long getProductId(){return productId;} public void setProductId(Long productId){this.productId=productId;}
+  public String getEventType(){return eventType;} public void setEventType(String eventType){this.eventType=eventType;}
+  public Integer getDelta(){return delta;} public void setDelta(Integer delta){this.delta=delta;}
+  public Integer getStock(){return stock;} public void setStock(Integer stock){this.stock=stock;}
+  public Integer getReserved(){return reserved;} public void setReserved(Integer reserved){this.reserved=reserved;}
+  public Long getProductVersion(){return productVersion;} public void setProductVersion(Long productVersion){this.productVersion=productVersion;}
+  public String getReason(){return reason;} public void setReason(String reason){this.reason=reason;}
+  public String getCategory(){return category;} public void setCategory(String category){this.category=category;}
+  public Integer getReorderThreshold(){return reorderThreshold;} public void setReorderThreshold(Integer reorderThreshold){this.reorderThreshold=reorderThreshold;}
+  public Instant getCreatedAt(){return createdAt;} public void setCreatedAt(Instant createdAt){this.createdAt=createdAt;}
+  public Instant getPublishedAt(){return publishedAt;} public void setPublishedAt(Instant publishedAt){this.publishedAt=publishedAt;}
+  public Integer getAttempts(){return attempts;} public void setAttempts(Integer attempts){this.attempts=attempts;}
+  public Instant getNextAttemptAt(){return nextAttemptAt;} public void setNextAttemptAt(Instant nextAttemptAt){this.nextAttemptAt=nextAttemptAt;}
+  public Instant getDeadLetteredAt(){return deadLetteredAt;} public void setDeadLetteredAt(Instant deadLetteredAt){this.deadLetteredAt=deadLetteredAt;}
+}
@@ -0,0 +1,35 @@
+package com.arka.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Idempotency key of a stock update that has already been applied. Inserted in the same
+ * transaction as the update itself, so a key is recorded exactly when its change committed.
+ * A batch key records the product and delta of the batch's first line.
+ */
+@Entity
+@Table(name = "processed_stock_requests", indexes = {
+  @Index(name = "idx_processed_stock_requests_processed_at", columnList = "processedAt")
+})
+public class ProcessedStockRequest {
+  @Id
+  @Column(length = 128)
+  private String requestKey;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private Integer delta;
+
+  @Column(nullable = false)
+  private Instant processedAt;
+
+  public ProcessedStockRequest(){}
+
+  public String getRequestKey(){ return requestKey; } public void setRequestKey(String requestKey){ this.requestKey = requestKey; }
+  public Long getProductId(){ return productId; } public void setProductId(Long productId){ this.productId = productId; }
+  public Integer getDelta(){ return delta; } public void setDelta(Integer delta){ this.delta = delta; }
+  public Instant getProcessedAt(){ return processedAt; } public void setProcessedAt(Instant processedAt){ this.processedAt = processedAt; }
+}
@@ -1,11 +1,16 @@
 package com.arka.inventory.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+  @Index(name = "idx_products_category_id", columnList = "category, id")
+})
 public class Product {
+  public static final int DEFAULT_REORDER_THRESHOLD = 10;
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -22,8 +27,18 @@ public class Product {
   @Column(nullable=false)
   private Integer stock;
 
+  /** Units held by active reservations; available = stock - reserved. */
+  @Column(nullable=false)
+  @ColumnDefault("0")
+  private Integer reserved = 0;
+
   private String category;
 
+  /** Stock level below which the product counts as low stock and a reorder is triggered. */
+  @Column(nullable=false)
+  @ColumnDefault("10")
+  private Integer reorderThreshold = DEFAULT_REORDER_THRESHOLD;
+
   @Version
   private Long version;
 
@@ -34,6 +49,9 @@ public class Product {
   public String getDescription(){return description;} public void setDescription(String description){this.description=description;}
   public BigDecimal getPrice(){return price;} public void setPrice(BigDecimal price){this.price=price;}
   public Integer getStock(){return stock;} public void setStock(Integer stock){this.stock=stock;}
+  public Integer getReserved(){return reserved;} public void setReserved(Integer reserved){this.reserved=reserved;}
+  public int getAvailable(){return (stock == null ? 0 : stock) - (reserved == null ? 0 : reserved);}
   public String getCategory(){return category;} public void setCategory(String category){this.category=category;}
+  public Integer getReorderThreshold(){return reorderThreshold;} public void setReorderThreshold(Integer reorderThreshold){this.reorderThreshold=reorderThreshold;}
   public Long getVersion(){ return version; } public void setVersion(Long version){ this.version = version; }
 }
\ No newline at end of file
@@ -3,14 +3,19 @@ package com.arka.inventory.model;
 import jakarta.persistence.*;
 import java.time.Instant;
 @Entity
-@Table(name="stock_history")
+@Table(name="stock_history", indexes = {
+  @Index(name = "idx_stock_history_product_ts", columnList = "productId, timestamp")
+})
 public class StockHistory {
+  // Sequence ids (allocated 50 at a time) so Hibernate can batch inserts; IDENTITY disables JDBC batching.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_history_seq")
+  @SequenceGenerator(name = "stock_history_seq", sequenceName = "stock_history_seq", allocationSize = 50)
   private Long id;
   private Long productId;
   private Integer qtyChange;
   private String reason;
+  @Column(nullable = false)
   private Instant timestamp;
   public StockHistory(){}
   public Long getId(){return id;} public void setId(Long id){this.id=id;}
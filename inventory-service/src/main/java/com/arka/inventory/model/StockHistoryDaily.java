@@ -0,0 +1,38 @@
+package com.arka.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Net stock movement per product and UTC day, produced by compacting stock_history rows
+ * older than the retention window.
+ */
+@Entity
+@Table(name = "stock_history_daily", uniqueConstraints = {
+  @UniqueConstraint(name = "uk_stock_history_daily_product_date", columnNames = {"productId", "rollupDate"})
+})
+public class StockHistoryDaily {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private LocalDate rollupDate;
+
+  @Column(nullable = false)
+  private Long netChange;
+
+  @Column(nullable = false)
+  private Integer movements;
+
+  public StockHistoryDaily(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Long getProductId(){return productId;} public void setProductId(Long productId){this.productId=productId;}
+  public LocalDate getRollupDate(){return rollupDate;} public void setRollupDate(LocalDate rollupDate){this.rollupDate=rollupDate;}
+  public Long getNetChange(){return netChange;} public void setNetChange(Long netChange){this.netChange=netChange;}
+  public Integer getMovements(){return movements;} public void setMovements(Integer movements){this.movements=movements;}
+}
@@ -0,0 +1,53 @@
+package com.arka.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Time-boxed hold on stock. While ACTIVE its quantity is counted in Product.reserved;
+ * confirming turns it into a real stock decrement, releasing or expiring gives it back.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+  @Index(name = "idx_stock_reservations_status_expires", columnList = "status, expiresAt"),
+  @Index(name = "uk_stock_reservations_reference", columnList = "reference", unique = true)
+})
+public class StockReservation {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private Integer quantity;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private ReservationStatus status;
+
+  /**
+   * Caller reference, e.g. the order line the reservation belongs to. Unique: reserving again
+   * with a reference returns the reservation made for it, so a caller can repeat a reserve
+   * whose response it never got.
+   */
+  private String reference;
+
+  @Column(nullable = false)
+  private Instant expiresAt;
+
+  private Instant createdAt;
+  private Instant updatedAt;
+
+  public StockReservation(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Long getProductId(){return productId;} public void setProductId(Long productId){this.productId=productId;}
+  public Integer getQuantity(){return quantity;} public void setQuantity(Integer quantity){this.quantity=quantity;}
+  public ReservationStatus getStatus(){return status;} public void setStatus(ReservationStatus status){this.status=status;}
+  public String getReference(){return reference;} public void setReference(String reference){this.reference=reference;}
+  public Instant getExpiresAt(){return expiresAt;} public void setExpiresAt(Instant expiresAt){this.expiresAt=expiresAt;}
+  public Instant getCreatedAt(){return createdAt;} public void setCreatedAt(Instant createdAt){this.createdAt=createdAt;}
+  public Instant getUpdatedAt(){return updatedAt;} public void setUpdatedAt(Instant updatedAt){this.updatedAt=updatedAt;}
+}
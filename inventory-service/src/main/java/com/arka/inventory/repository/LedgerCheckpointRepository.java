@@ -0,0 +1,5 @@
+package com.arka.inventory.repository;
+import com.arka.inventory.model.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+}
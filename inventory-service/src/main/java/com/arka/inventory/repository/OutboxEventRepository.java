@@ -0,0 +1,37 @@
+package com.arka.inventory.repository;
+import com.arka.inventory.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+  /**
+   * Appends a STOCK_CHANGED row carrying the product's current stock, reserved and version.
+   * Pending entity changes are flushed first, so the snapshot includes this transaction's update.
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = "INSERT INTO stock_outbox (product_id, event_type, delta, stock, reserved, product_version, reason, created_at, attempts) " +
+    "SELECT p.id, 'STOCK_CHANGED', :delta, p.stock, p.reserved, p.version, :reason, now(), 0 FROM products p WHERE p.id = :productId",
+    nativeQuery = true)
+  int recordStockChange(@Param("productId") Long productId, @Param("delta") int delta, @Param("reason") String reason);
+
+  /**
+   * Oldest unpublished rows that are due and not dead-lettered; rows locked by another relay
+   * instance are skipped, not waited on.
+   */
+  @Query(value = "SELECT * FROM stock_outbox WHERE published_at IS NULL AND dead_lettered_at IS NULL " +
+    "AND (next_attempt_at IS NULL OR next_attempt_at <= now()) ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+    nativeQuery = true)
+  List<OutboxEvent> lockPending(@Param("limit") int limit);
+
+  @Modifying
+  @Query("update OutboxEvent e set e.publishedAt = :now where e.id in :ids")
+  int markPublished(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+  @Modifying
+  @Query("delete from OutboxEvent e where e.publishedAt < :cutoff")
+  int deletePublishedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,21 @@
+package com.arka.inventory.repository;
+import com.arka.inventory.model.ProcessedStockRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+public interface ProcessedStockRequestRepository extends JpaRepository<ProcessedStockRequest, String> {
+  /**
+   * Records the key unless it is already there. Returns 0 for a key that was seen before; a
+   * concurrent insert of the same key blocks until that transaction ends, so at most one applies.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO processed_stock_requests (request_key, product_id, delta, processed_at) " +
+    "VALUES (:key, :productId, :delta, now()) ON CONFLICT (request_key) DO NOTHING", nativeQuery = true)
+  int claim(@Param("key") String key, @Param("productId") Long productId, @Param("delta") int delta);
+
+  @Modifying
+  @Query("delete from ProcessedStockRequest r where r.processedAt < :cutoff")
+  int deleteProcessedBefore(@Param("cutoff") Instant cutoff);
+}
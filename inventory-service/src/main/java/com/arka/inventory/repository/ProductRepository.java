@@ -1,8 +1,54 @@
 package com.arka.inventory.repository;
 import com.arka.inventory.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 public interface ProductRepository extends JpaRepository<Product, Long> {
   List<Product> findByCategory(String category);
   List<Product> findByStockLessThan(Integer threshold);
+
+  /** Products below their own reorder threshold; matches the partial index idx_products_low_stock. */
+  @Query("select p from Product p where p.stock < p.reorderThreshold order by p.id")
+  List<Product> findLowStock();
+
+  /**
+   * Locks the given rows in ascending id order so concurrent batches
+   * always acquire row locks in the same sequence and cannot deadlock.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select p from Product p where p.id in :ids order by p.id")
+  List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Adds delta to the stock in a single conditional UPDATE.
+   * Returns 0 when the product does not exist or the stock would drop below what is reserved.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Product p set p.stock = p.stock + :delta, p.version = p.version + 1 where p.id = :id and p.stock + :delta >= p.reserved")
+  int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
+  /** Unconditional variant for deltas already validated elsewhere (hot-ledger flushes). */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Product p set p.stock = p.stock + :delta, p.version = p.version + 1 where p.id = :id")
+  int addStock(@Param("id") Long id, @Param("delta") int delta);
+
+  /** Holds qty for a reservation; returns 0 when fewer than qty units are available. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Product p set p.reserved = p.reserved + :qty, p.version = p.version + 1 where p.id = :id and p.stock - p.reserved >= :qty")
+  int reserve(@Param("id") Long id, @Param("qty") int qty);
+
+  /** Unconditional hold, for SKUs whose availability is checked by the hot ledger. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Product p set p.reserved = p.reserved + :qty, p.version = p.version + 1 where p.id = :id")
+  int addReserved(@Param("id") Long id, @Param("qty") int qty);
+
+  /** Turns a held quantity into a stock decrement; available does not change. */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Product p set p.stock = p.stock - :qty, p.reserved = p.reserved - :qty, p.version = p.version + 1 where p.id = :id")
+  int confirmReserved(@Param("id") Long id, @Param("qty") int qty);
 }
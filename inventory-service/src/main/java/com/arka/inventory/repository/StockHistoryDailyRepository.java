@@ -0,0 +1,8 @@
+package com.arka.inventory.repository;
+import com.arka.inventory.model.StockHistoryDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDate;
+import java.util.List;
+public interface StockHistoryDailyRepository extends JpaRepository<StockHistoryDaily, Long> {
+  List<StockHistoryDaily> findByProductIdAndRollupDateBetweenOrderByRollupDate(Long productId, LocalDate from, LocalDate to);
+}
@@ -1,7 +1,18 @@
 package com.arka.inventory.repository;
 import com.arka.inventory.model.StockHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
 import java.util.List;
 public interface StockHistoryRepository extends JpaRepository<StockHistory, Long> {
-  List<StockHistory> findByProductId(Long productId);
+  /** Newest first, bounded by [from, to); a Slice avoids the count query a Page would need. */
+  Slice<StockHistory> findByProductIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+    Long productId, Instant from, Instant to, Pageable pageable);
+
+  /** Product ids with the most stock movements since the given instant, busiest first. */
+  @Query("select h.productId from StockHistory h where h.timestamp >= :since group by h.productId order by count(h) desc")
+  List<Long> findMostActiveProductIds(@Param("since") Instant since, Pageable pageable);
 }
@@ -0,0 +1,41 @@
+package com.arka.inventory.repository;
+import com.arka.inventory.model.ReservationStatus;
+import com.arka.inventory.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+  interface ReservationExpiry {
+    Long getId();
+    Instant getExpiresAt();
+  }
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select r from StockReservation r where r.id = :id")
+  Optional<StockReservation> findByIdForUpdate(@Param("id") Long id);
+
+  Optional<StockReservation> findByReference(String reference);
+
+  /** Locks the candidates that are still active and already past their expiry. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select r from StockReservation r where r.id in :ids and r.status = com.arka.inventory.model.ReservationStatus.ACTIVE and r.expiresAt <= :now order by r.id")
+  List<StockReservation> findExpiredForUpdate(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+  @Query("select r.id from StockReservation r where r.status = com.arka.inventory.model.ReservationStatus.ACTIVE and r.expiresAt <= :now order by r.expiresAt")
+  List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+  List<ReservationExpiry> findByStatus(ReservationStatus status);
+
+  @Modifying
+  @Query("update StockReservation r set r.status = :status, r.updatedAt = :now where r.id in :ids")
+  int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") ReservationStatus status, @Param("now") Instant now);
+}
@@ -0,0 +1,38 @@
+package com.arka.inventory.scheduler;
+
+import com.arka.inventory.service.HotStockLedger;
+import com.arka.inventory.service.ProductService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "inventory.hot-ledger", name = "enabled", havingValue = "true")
+public class HotStockLedgerFlushScheduler {
+  private static final Logger log = LoggerFactory.getLogger(HotStockLedgerFlushScheduler.class);
+  private final HotStockLedger ledger;
+  private final ProductService productService;
+
+  public HotStockLedgerFlushScheduler(HotStockLedger ledger, ProductService productService) {
+    this.ledger = ledger;
+    this.productService = productService;
+  }
+
+  @Scheduled(fixedDelayString = "${inventory.hot-ledger.flush-interval-ms:500}")
+  public void flush() {
+    try {
+      int flushed = ledger.flush(batch -> productService.applyLedgerEntries(ledger.node(), batch));
+      if (flushed > 0) log.debug("Flushed {} hot ledger entries", flushed);
+    } catch (Exception e) {
+      log.error("Hot ledger flush failed, entries kept for the next run: {}", e.getMessage(), e);
+    }
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+}
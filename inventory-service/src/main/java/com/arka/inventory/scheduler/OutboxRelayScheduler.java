@@ -0,0 +1,42 @@
+package com.arka.inventory.scheduler;
+
+import com.arka.inventory.service.OutboxRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OutboxRelayScheduler {
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelayScheduler.class);
+  private final OutboxRelay relay;
+  private final int batchSize;
+
+  public OutboxRelayScheduler(OutboxRelay relay, @Value("${inventory.outbox.batch-size:100}") int batchSize) {
+    this.relay = relay;
+    this.batchSize = batchSize;
+  }
+
+  /** Drains full batches back to back, then waits for the next tick. */
+  @Scheduled(fixedDelayString = "${inventory.outbox.relay-interval-ms:500}")
+  public void relay() {
+    try {
+      while (relay.relayBatch() >= batchSize) {
+        // keep going while there is a backlog
+      }
+    } catch (Exception e) {
+      log.error("Outbox relay failed: {}", e.getMessage(), e);
+    }
+  }
+
+  @Scheduled(cron = "0 15 4 * * *") // Daily at 4:15 AM
+  public void purge() {
+    try {
+      int deleted = relay.purgePublished();
+      if (deleted > 0) log.info("Purged {} published outbox event(s)", deleted);
+    } catch (Exception e) {
+      log.error("Outbox purge failed: {}", e.getMessage(), e);
+    }
+  }
+}
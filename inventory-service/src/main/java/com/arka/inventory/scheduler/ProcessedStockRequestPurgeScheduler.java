@@ -0,0 +1,34 @@
+package com.arka.inventory.scheduler;
+
+import com.arka.inventory.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Component
+public class ProcessedStockRequestPurgeScheduler {
+  private static final Logger log = LoggerFactory.getLogger(ProcessedStockRequestPurgeScheduler.class);
+  private final ProductService productService;
+  private final Duration retention;
+
+  public ProcessedStockRequestPurgeScheduler(ProductService productService,
+                                             @Value("${inventory.idempotency.retention-hours:72}") long retentionHours) {
+    this.productService = productService;
+    this.retention = Duration.ofHours(retentionHours);
+  }
+
+  @Scheduled(cron = "0 45 4 * * *") // Daily at 4:45 AM
+  public void purge() {
+    try {
+      int deleted = productService.purgeProcessedRequests(Instant.now().minus(retention));
+      if (deleted > 0) log.info("Purged {} processed idempotency key(s)", deleted);
+    } catch (Exception e) {
+      log.error("Idempotency key purge failed: {}", e.getMessage(), e);
+    }
+  }
+}
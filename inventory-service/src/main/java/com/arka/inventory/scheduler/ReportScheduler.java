@@ -1,11 +1,14 @@
 package com.arka.inventory.scheduler;
 
 import com.arka.inventory.service.StockReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ReportScheduler {
+  private static final Logger log = LoggerFactory.getLogger(ReportScheduler.class);
   private final StockReportService reportService;
 
   public ReportScheduler(StockReportService reportService) {
@@ -14,6 +17,10 @@ public class ReportScheduler {
 
   @Scheduled(cron = "0 0 9 * * MON") // Every Monday at 9 AM
   public void generateWeeklyStockReport() {
-    reportService.generateWeeklyReport();
+    try {
+      reportService.generateWeeklyReport();
+    } catch (Exception e) {
+      log.error("Scheduled weekly report failed: {}", e.getMessage(), e);
+    }
   }
 }
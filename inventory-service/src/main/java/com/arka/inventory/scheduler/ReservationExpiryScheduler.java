@@ -0,0 +1,57 @@
+package com.arka.inventory.scheduler;
+
+import com.arka.inventory.service.StockReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ReservationExpiryScheduler {
+  private static final Logger log = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+  private final StockReservationService reservationService;
+  private final int batchSize;
+
+  public ReservationExpiryScheduler(StockReservationService reservationService,
+                                    @Value("${inventory.reservations.expiry-batch-size:500}") int batchSize) {
+    this.reservationService = reservationService;
+    this.batchSize = batchSize;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadActiveReservations() {
+    reservationService.loadActiveReservations();
+  }
+
+  @Scheduled(fixedDelay = 1000) // wheel tick
+  public void expireDueReservations() {
+    List<Long> due = reservationService.dueReservations();
+    for (int from = 0; from < due.size(); from += batchSize) {
+      expire(due.subList(from, Math.min(due.size(), from + batchSize)));
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${inventory.reservations.db-sweep-interval-ms:60000}")
+  public void expireOverdueReservations() {
+    List<Long> overdue;
+    do {
+      overdue = reservationService.overdueReservations(batchSize);
+    } while (!overdue.isEmpty() && expire(overdue) > 0);
+  }
+
+  private int expire(List<Long> ids) {
+    try {
+      int expired = reservationService.expire(ids);
+      if (expired > 0) log.info("Expired {} stock reservations", expired);
+      return expired;
+    } catch (Exception e) {
+      log.error("Failed to expire {} stock reservations: {}", ids.size(), e.getMessage(), e);
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.arka.inventory.scheduler;
+
+import com.arka.inventory.service.StockHistoryMaintenanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StockHistoryMaintenanceScheduler {
+  private static final Logger log = LoggerFactory.getLogger(StockHistoryMaintenanceScheduler.class);
+  private final StockHistoryMaintenanceService maintenanceService;
+
+  public StockHistoryMaintenanceScheduler(StockHistoryMaintenanceService maintenanceService) {
+    this.maintenanceService = maintenanceService;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void prepareStorage() {
+    try {
+      maintenanceService.alignIdSequence();
+      maintenanceService.ensurePartitions();
+    } catch (Exception e) {
+      log.error("Stock history storage preparation failed: {}", e.getMessage(), e);
+    }
+  }
+
+  @Scheduled(cron = "0 30 3 * * *") // Daily at 3:30 AM
+  public void dailyMaintenance() {
+    try {
+      maintenanceService.ensurePartitions();
+      maintenanceService.compactExpiredHistory();
+    } catch (Exception e) {
+      log.error("Stock history maintenance failed: {}", e.getMessage(), e);
+    }
+  }
+}
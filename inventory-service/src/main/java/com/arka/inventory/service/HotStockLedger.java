@@ -0,0 +1,319 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.dto.StockAdjustmentRequest;
+import com.arka.inventory.model.LedgerCheckpoint;
+import com.arka.inventory.model.Product;
+import com.arka.inventory.repository.LedgerCheckpointRepository;
+import com.arka.inventory.repository.ProductRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-process stock ledger for the busiest SKUs.
+ *
+ * Reservations are checked and applied with a CAS on a per-product counter, so they never
+ * oversell and never wait on the products row lock. Every accepted change is appended to a
+ * local journal before it is acknowledged; {@link #flush} hands the pending entries to the
+ * database in one batch and the journal is replayed on startup for anything not yet
+ * covered by the {@link LedgerCheckpoint}.
+ *
+ * The hot set is fixed at startup and the ledger assumes it is the only writer for those
+ * SKUs, so run it on a single instance (or route hot SKUs to one instance).
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.hot-ledger", name = "enabled", havingValue = "true")
+public class HotStockLedger {
+  private static final Logger log = LoggerFactory.getLogger(HotStockLedger.class);
+  private static final String SEGMENT_PREFIX = "ledger-";
+  private static final String SEGMENT_SUFFIX = ".journal";
+
+  public record LedgerEntry(long seq, long productId, int delta, String reason, Instant timestamp) {}
+
+  private final ProductRepository productRepository;
+  private final StockHistoryRepository historyRepository;
+  private final LedgerCheckpointRepository checkpointRepository;
+  private final String node;
+  private final int topN;
+  private final List<Long> pinnedProductIds;
+  private final Path journalDir;
+  private final boolean fsync;
+
+  private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<LedgerEntry> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicLong seq = new AtomicLong();
+  private final Object journalLock = new Object();
+  private FileChannel journal;
+  private Path currentSegment;
+
+  public HotStockLedger(ProductRepository productRepository,
+                        StockHistoryRepository historyRepository,
+                        LedgerCheckpointRepository checkpointRepository,
+                        @Value("${inventory.hot-ledger.node-id:default}") String node,
+                        @Value("${inventory.hot-ledger.top-n:100}") int topN,
+                        @Value("${inventory.hot-ledger.product-ids:}") List<Long> pinnedProductIds,
+                        @Value("${inventory.hot-ledger.journal-dir:./data/stock-ledger}") String journalDir,
+                        @Value("${inventory.hot-ledger.fsync:true}") boolean fsync) {
+    this.productRepository = productRepository;
+    this.historyRepository = historyRepository;
+    this.checkpointRepository = checkpointRepository;
+    this.node = node;
+    this.topN = topN;
+    this.pinnedProductIds = pinnedProductIds == null ? List.of() : pinnedProductIds;
+    this.journalDir = Paths.get(journalDir);
+    this.fsync = fsync;
+  }
+
+  /**
+   * Replays journal entries newer than the checkpoint, then loads the hot set with
+   * available = database stock - reserved + replayed (not yet flushed) deltas.
+   */
+  @PostConstruct
+  public void start() throws IOException {
+    Files.createDirectories(journalDir);
+    long checkpoint = checkpointRepository.findById(node).map(LedgerCheckpoint::getLastSeq).orElse(0L);
+
+    long maxSeq = checkpoint;
+    Map<Long, Integer> unflushed = new HashMap<>();
+    for (Path segment : segments()) {
+      for (LedgerEntry e : readSegment(segment)) {
+        if (e.seq() <= checkpoint) continue;
+        pending.add(e);
+        unflushed.merge(e.productId(), e.delta(), Integer::sum);
+        maxSeq = Math.max(maxSeq, e.seq());
+      }
+    }
+    seq.set(maxSeq);
+
+    Set<Long> hot = new LinkedHashSet<>(pinnedProductIds);
+    hot.addAll(unflushed.keySet());
+    if (topN > 0) {
+      hot.addAll(historyRepository.findMostActiveProductIds(Instant.now().minus(1, ChronoUnit.DAYS), PageRequest.of(0, topN)));
+    }
+    for (Product p : productRepository.findAllById(hot)) {
+      available.put(p.getId(), new AtomicInteger(p.getAvailable() + unflushed.getOrDefault(p.getId(), 0)));
+    }
+
+    synchronized (journalLock) {
+      openSegment();
+    }
+    log.info("Hot stock ledger started: node={}, hotProducts={}, replayedEntries={}, checkpoint={}",
+      node, available.size(), pending.size(), checkpoint);
+  }
+
+  @PreDestroy
+  public void stop() throws IOException {
+    synchronized (journalLock) {
+      if (journal != null) journal.close();
+    }
+  }
+
+  public boolean isHot(Long productId) {
+    return productId != null && available.containsKey(productId);
+  }
+
+  public int available(Long productId) {
+    AtomicInteger counter = available.get(productId);
+    if (counter == null) throw new IllegalArgumentException("Product is not managed by the hot ledger");
+    return counter.get();
+  }
+
+  /**
+   * Applies delta to the in-memory counter and journals it.
+   * delta: positive -> increase stock, negative -> decrease (reserve)
+   * @return available stock after the change
+   */
+  public int reserve(Long productId, int delta, String reason) {
+    AtomicInteger counter = available.get(productId);
+    if (counter == null) throw new IllegalArgumentException("Product is not managed by the hot ledger");
+
+    if (delta >= 0) {
+      // Journal first: an increase can't fail, and nobody may consume it before it is durable.
+      journalOrFail(productId, delta, reason);
+      return counter.addAndGet(delta);
+    }
+
+    int next;
+    while (true) {
+      int current = counter.get();
+      next = current + delta;
+      if (next < 0) throw new IllegalArgumentException("Stock cannot be negative");
+      if (counter.compareAndSet(current, next)) break;
+    }
+    try {
+      journalOrFail(productId, delta, reason);
+    } catch (IllegalStateException ex) {
+      counter.addAndGet(-delta);
+      throw ex;
+    }
+    return next;
+  }
+
+  /**
+   * Takes qty out of the available counter for a reservation. Not journaled: the hold itself
+   * is persisted in Product.reserved, which is read back on startup.
+   */
+  public void hold(Long productId, int qty) {
+    AtomicInteger counter = available.get(productId);
+    if (counter == null) throw new IllegalArgumentException("Product is not managed by the hot ledger");
+    while (true) {
+      int current = counter.get();
+      if (current - qty < 0) throw new IllegalArgumentException("Insufficient stock available");
+      if (counter.compareAndSet(current, current - qty)) return;
+    }
+  }
+
+  public void unhold(Long productId, int qty) {
+    AtomicInteger counter = available.get(productId);
+    if (counter != null) counter.addAndGet(qty);
+  }
+
+  /**
+   * All-or-nothing variant of {@link #reserve} for batch adjustments; lines applied before a
+   * failing one are reverted with compensating journal entries.
+   */
+  public void reserveAll(List<StockAdjustmentRequest> lines) {
+    List<StockAdjustmentRequest> applied = new ArrayList<>(lines.size());
+    try {
+      for (StockAdjustmentRequest line : lines) {
+        reserve(line.getProductId(), line.getDelta(), line.getReason());
+        applied.add(line);
+      }
+    } catch (RuntimeException ex) {
+      revert(applied);
+      throw ex;
+    }
+  }
+
+  public void revert(List<StockAdjustmentRequest> lines) {
+    for (StockAdjustmentRequest line : lines) {
+      try {
+        reserve(line.getProductId(), -line.getDelta(), line.getReason() + "-rollback");
+      } catch (RuntimeException ex) {
+        log.error("Failed to revert hot ledger change for product {}: {}", line.getProductId(), ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Rotates the journal and passes every unflushed entry to the sink, which must persist them
+   * together with the checkpoint in one transaction. Closed segments are deleted only once the
+   * sink returns; if it throws, the entries are queued again for the next flush.
+   * @return number of entries flushed
+   */
+  public synchronized int flush(Consumer<List<LedgerEntry>> sink) throws IOException {
+    if (pending.isEmpty()) return 0;
+    synchronized (journalLock) {
+      rotate();
+    }
+    List<LedgerEntry> batch = new ArrayList<>();
+    LedgerEntry e;
+    while ((e = pending.poll()) != null) batch.add(e);
+
+    try {
+      sink.accept(batch);
+    } catch (RuntimeException ex) {
+      pending.addAll(batch);
+      throw ex;
+    }
+    for (Path segment : segments()) {
+      if (!segment.equals(currentSegment)) Files.deleteIfExists(segment);
+    }
+    return batch.size();
+  }
+
+  public String node() {
+    return node;
+  }
+
+  private void journalOrFail(long productId, int delta, String reason) {
+    try {
+      append(productId, delta, reason);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Could not journal stock change for product " + productId, ex);
+    }
+  }
+
+  private void append(long productId, int delta, String reason) throws IOException {
+    synchronized (journalLock) {
+      LedgerEntry entry = new LedgerEntry(seq.incrementAndGet(), productId, delta, reason, Instant.now());
+      ByteBuffer buf = StandardCharsets.UTF_8.encode(format(entry));
+      long position = journal.position();
+      try {
+        while (buf.hasRemaining()) journal.write(buf);
+        if (fsync) journal.force(false);
+      } catch (IOException ex) {
+        // Drop the partial line so the next append starts on a clean boundary.
+        journal.truncate(position);
+        throw ex;
+      }
+      pending.add(entry);
+    }
+  }
+
+  private void rotate() throws IOException {
+    if (journal != null) journal.close();
+    openSegment();
+  }
+
+  private void openSegment() throws IOException {
+    currentSegment = journalDir.resolve(SEGMENT_PREFIX + String.format("%019d", seq.get() + 1) + "-" + System.nanoTime() + SEGMENT_SUFFIX);
+    journal = FileChannel.open(currentSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(journalDir)) {
+      return files
+        .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX) && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+        .sorted()
+        .toList();
+    }
+  }
+
+  private static String format(LedgerEntry e) {
+    String reason = e.reason() == null ? "" : e.reason().replace('\n', ' ').replace('\r', ' ');
+    return e.seq() + "|" + e.productId() + "|" + e.delta() + "|" + e.timestamp().toEpochMilli() + "|" + reason + "\n";
+  }
+
+  static List<LedgerEntry> readSegment(Path segment) throws IOException {
+    String content = Files.readString(segment, StandardCharsets.UTF_8);
+    // Anything after the last newline is a torn write from a crash; it was never acknowledged.
+    int end = content.lastIndexOf('\n');
+    List<LedgerEntry> entries = new ArrayList<>();
+    if (end < 0) return entries;
+    for (String line : content.substring(0, end).split("\n")) {
+      String[] parts = line.split("\\|", 5);
+      try {
+        entries.add(new LedgerEntry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]),
+          parts[4].isEmpty() ? null : parts[4], Instant.ofEpochMilli(Long.parseLong(parts[3]))));
+      } catch (RuntimeException ex) {
+        log.warn("Skipping corrupt ledger journal line in {}: {}", segment, line);
+      }
+    }
+    return entries;
+  }
+}
@@ -0,0 +1,182 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.event.LowStockNotifier;
+import com.arka.inventory.event.PublishResult;
+import com.arka.inventory.event.StockEventBroker;
+import com.arka.inventory.event.StockEventMessage;
+import com.arka.inventory.model.OutboxEvent;
+import com.arka.inventory.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Moves committed outbox rows to the broker in batches. Rows are claimed with
+ * FOR UPDATE SKIP LOCKED, so several inventory instances can relay concurrently without
+ * sending the same row twice; a crash between publish and commit re-sends (at-least-once).
+ * LOW_STOCK rows are handed to the {@link LowStockNotifier}, everything else to the broker.
+ *
+ * A row the destination refuses is retried with exponential backoff, and dead-lettered once it
+ * has been refused maxAttempts times, so a poison event cannot hold up the rows behind it. When a
+ * destination is down altogether its rows are deferred with the same backoff, growing with its
+ * consecutive outages, but no attempt is counted: most of them were never sent, and an outage of
+ * any length must not dead-letter them. While a row backs off, newer events for the same product
+ * may overtake it; consumers already drop events older than the product version they have applied.
+ */
+@Service
+public class OutboxRelay {
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+  private final OutboxEventRepository outboxRepository;
+  private final StockEventBroker broker;
+  private final LowStockNotifier lowStockNotifier;
+  private final ObjectMapper objectMapper;
+  private final int batchSize;
+  private final Duration retention;
+  private final int maxAttempts;
+  private final Duration retryBackoff;
+  private final Duration maxRetryBackoff;
+  /** Consecutive runs in which a destination was unavailable, by destination. */
+  private final Map<String, Integer> outages = new ConcurrentHashMap<>();
+
+  public OutboxRelay(OutboxEventRepository outboxRepository, StockEventBroker broker, LowStockNotifier lowStockNotifier,
+                     ObjectMapper objectMapper,
+                     @Value("${inventory.outbox.batch-size:100}") int batchSize,
+                     @Value("${inventory.outbox.retention-hours:168}") long retentionHours,
+                     @Value("${inventory.outbox.max-attempts:20}") int maxAttempts,
+                     @Value("${inventory.outbox.retry-backoff-ms:1000}") long retryBackoffMs,
+                     @Value("${inventory.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMs) {
+    if (maxAttempts < 1) throw new IllegalArgumentException("inventory.outbox.max-attempts must be at least 1");
+    this.outboxRepository = outboxRepository;
+    this.broker = broker;
+    this.lowStockNotifier = lowStockNotifier;
+    this.objectMapper = objectMapper;
+    this.batchSize = batchSize;
+    this.retention = Duration.ofHours(retentionHours);
+    this.maxAttempts = maxAttempts;
+    this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+    this.maxRetryBackoff = Duration.ofMillis(maxRetryBackoffMs);
+  }
+
+  /** @return number of events published by this run */
+  @Transactional
+  public int relayBatch() {
+    List<OutboxEvent> pending = outboxRepository.lockPending(batchSize);
+    if (pending.isEmpty()) return 0;
+
+    List<StockEventMessage> stockChanges = new ArrayList<>(pending.size());
+    List<StockEventMessage> lowStock = new ArrayList<>();
+    for (OutboxEvent e : pending) {
+      StockEventMessage m = toMessage(e);
+      if (OutboxEvent.LOW_STOCK.equals(e.getEventType())) lowStock.add(m); else stockChanges.add(m);
+    }
+    Instant now = Instant.now();
+    Set<Long> accepted = new HashSet<>(pending.size() * 2);
+    Set<Long> rejected = new HashSet<>();
+    Map<Long, Instant> deferred = new HashMap<>();
+    deliver("broker", stockChanges, broker::publish, now, accepted, rejected, deferred);
+    deliver("provider-service", lowStock, lowStockNotifier::publish, now, accepted, rejected, deferred);
+
+    if (!accepted.isEmpty()) outboxRepository.markPublished(accepted, now);
+    List<Long> deadLettered = new ArrayList<>();
+    int retried = 0;
+    // The rows are managed entities of this transaction, so the changes are written on commit.
+    for (OutboxEvent e : pending) {
+      if (rejected.contains(e.getId())) {
+        e.setAttempts(e.getAttempts() + 1);
+        if (e.getAttempts() >= maxAttempts) {
+          e.setDeadLetteredAt(now);
+          deadLettered.add(e.getId());
+        } else {
+          e.setNextAttemptAt(now.plus(backoff(e.getAttempts())));
+          retried++;
+        }
+      } else if (deferred.containsKey(e.getId())) {
+        e.setNextAttemptAt(deferred.get(e.getId()));
+      }
+    }
+    if (retried > 0) log.warn("{} stock event(s) refused; will retry", retried);
+    if (!deadLettered.isEmpty()) {
+      log.error("Dead-lettered stock event(s) {} after {} refusals", deadLettered, maxAttempts);
+    }
+    return accepted.size();
+  }
+
+  /**
+   * Hands messages to one destination. If the destination is down, what it did not take is
+   * deferred to a retry time that grows with its consecutive outages.
+   */
+  private void deliver(String destination, List<StockEventMessage> messages,
+                       Function<List<StockEventMessage>, PublishResult> publish, Instant now,
+                       Set<Long> accepted, Set<Long> rejected, Map<Long, Instant> deferred) {
+    if (messages.isEmpty()) return;
+    PublishResult result = publish.apply(messages);
+    accepted.addAll(result.accepted());
+    rejected.addAll(result.rejected());
+    if (!result.unavailable()) {
+      outages.remove(destination);
+      return;
+    }
+    int outage = outages.merge(destination, 1, Integer::sum);
+    Instant retryAt = now.plus(backoff(outage));
+    int count = 0;
+    for (StockEventMessage m : messages) {
+      if (result.accepted().contains(m.id()) || result.rejected().contains(m.id())) continue;
+      deferred.put(m.id(), retryAt);
+      count++;
+    }
+    log.warn("{} is unavailable ({} run(s) in a row); {} stock event(s) deferred until {}", destination, outage, count, retryAt);
+  }
+
+  /** retryBackoff doubled per failed attempt (or outage), capped at maxRetryBackoff. */
+  Duration backoff(int attempts) {
+    int doublings = Math.min(attempts - 1, 30);
+    Duration delay = retryBackoff.multipliedBy(1L << doublings);
+    return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+  }
+
+  @Transactional
+  public int purgePublished() {
+    return outboxRepository.deletePublishedBefore(Instant.now().minus(retention));
+  }
+
+  StockEventMessage toMessage(OutboxEvent e) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("eventId", e.getId());
+    body.put("type", e.getEventType());
+    body.put("productId", e.getProductId());
+    body.put("delta", e.getDelta());
+    body.put("stock", e.getStock());
+    body.put("reserved", e.getReserved());
+    body.put("available", e.getStock() - e.getReserved());
+    body.put("version", e.getProductVersion());
+    body.put("reason", e.getReason());
+    if (OutboxEvent.LOW_STOCK.equals(e.getEventType())) {
+      body.put("category", e.getCategory());
+      body.put("previousStock", e.getStock() - e.getDelta());
+      body.put("reorderThreshold", e.getReorderThreshold());
+    }
+    body.put("occurredAt", e.getCreatedAt().toString());
+    try {
+      return new StockEventMessage(e.getId(), e.getEventType(), e.getProductId(), objectMapper.writeValueAsString(body));
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Cannot serialize outbox event " + e.getId(), ex);
+    }
+  }
+}
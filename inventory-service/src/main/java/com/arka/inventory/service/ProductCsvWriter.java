@@ -0,0 +1,71 @@
+package com.arka.inventory.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writes product rows as CSV straight to a Writer, one field at a time, so exports never
+ * hold more than the writer's buffer. Text fields are quoted only when they need it (RFC 4180).
+ */
+public class ProductCsvWriter {
+  static final String HEADER = "ID,Name,Stock,Price,Category\n";
+
+  private final Writer out;
+  private long rows;
+
+  public ProductCsvWriter(Writer out) {
+    this.out = out;
+  }
+
+  public ProductCsvWriter writeHeader() throws IOException {
+    out.write(HEADER);
+    return this;
+  }
+
+  public void writeRow(long id, String name, int stock, BigDecimal price, String category) throws IOException {
+    out.write(Long.toString(id));
+    out.write(',');
+    writeText(name);
+    out.write(',');
+    out.write(Integer.toString(stock));
+    out.write(',');
+    if (price != null) out.write(price.setScale(2, RoundingMode.HALF_UP).toPlainString());
+    out.write(',');
+    writeText(category);
+    out.write('\n');
+    rows++;
+  }
+
+  public long rows() {
+    return rows;
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  private void writeText(String value) throws IOException {
+    if (value == null) return;
+    if (!needsQuoting(value)) {
+      out.write(value);
+      return;
+    }
+    out.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') out.write('"');
+      out.write(c);
+    }
+    out.write('"');
+  }
+
+  private static boolean needsQuoting(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,105 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.dto.ProductPage;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset-paginated product listing. Filters and the column list go into the SQL, so each page
+ * costs an index range scan of `limit` rows on the primary key and only the requested columns
+ * are read and serialized.
+ */
+@Service
+public class ProductListingService {
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  /** JSON field name -> SQL expression; the only columns a caller can ask for. */
+  private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+  static {
+    COLUMNS.put("id", "id");
+    COLUMNS.put("name", "name");
+    COLUMNS.put("description", "description");
+    COLUMNS.put("price", "price");
+    COLUMNS.put("stock", "stock");
+    COLUMNS.put("reserved", "reserved");
+    COLUMNS.put("available", "stock - reserved");
+    COLUMNS.put("category", "category");
+    COLUMNS.put("version", "version");
+  }
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ProductListingService(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * @param after    only products with a greater id (the previous page's cursor); null for the first page
+   * @param fields   comma-separated field names; null or blank returns every field
+   */
+  @Transactional(readOnly = true)
+  public ProductPage list(Long after, int limit, String category, Integer minStock, Integer maxStock, String fields) {
+    if (limit < 1 || limit > MAX_LIMIT) throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    if (minStock != null && maxStock != null && minStock > maxStock) {
+      throw new IllegalArgumentException("minStock must not be greater than maxStock");
+    }
+    List<String> selected = parseFields(fields);
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < selected.size(); i++) {
+      if (i > 0) sql.append(", ");
+      sql.append(COLUMNS.get(selected.get(i))).append(" AS \"").append(selected.get(i)).append('"');
+    }
+    sql.append(" FROM products WHERE id > :after");
+    MapSqlParameterSource params = new MapSqlParameterSource("after", after == null ? 0L : after);
+    if (category != null && !category.isBlank()) {
+      sql.append(" AND category = :category");
+      params.addValue("category", category);
+    }
+    if (minStock != null) {
+      sql.append(" AND stock >= :minStock");
+      params.addValue("minStock", minStock);
+    }
+    if (maxStock != null) {
+      sql.append(" AND stock <= :maxStock");
+      params.addValue("maxStock", maxStock);
+    }
+    // One extra row tells whether another page exists without a count query.
+    sql.append(" ORDER BY id LIMIT :limit");
+    params.addValue("limit", limit + 1);
+
+    List<Map<String, Object>> rows = jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> {
+      Map<String, Object> row = new LinkedHashMap<>();
+      for (String field : selected) row.put(field, rs.getObject(field));
+      return row;
+    });
+    if (rows.size() <= limit) return new ProductPage(rows, null);
+
+    List<Map<String, Object>> page = new ArrayList<>(rows.subList(0, limit));
+    return new ProductPage(page, ((Number) page.get(limit - 1).get("id")).longValue());
+  }
+
+  /** The id is always selected because the cursor is built from it. */
+  static List<String> parseFields(String fields) {
+    if (fields == null || fields.isBlank()) return new ArrayList<>(COLUMNS.keySet());
+    Set<String> selected = new LinkedHashSet<>();
+    selected.add("id");
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (name.isEmpty()) continue;
+      if (!COLUMNS.containsKey(name)) throw new IllegalArgumentException("Unknown field: " + name);
+      selected.add(name);
+    }
+    return new ArrayList<>(selected);
+  }
+}
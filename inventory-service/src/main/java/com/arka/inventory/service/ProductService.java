@@ -1,66 +1,334 @@
 package com.arka.inventory.service;
 
+import com.arka.inventory.dto.StockAdjustmentRequest;
+import com.arka.inventory.model.LedgerCheckpoint;
+import com.arka.inventory.model.OutboxEvent;
 import com.arka.inventory.model.Product;
 import com.arka.inventory.model.StockHistory;
+import com.arka.inventory.repository.LedgerCheckpointRepository;
+import com.arka.inventory.repository.OutboxEventRepository;
+import com.arka.inventory.repository.ProcessedStockRequestRepository;
 import com.arka.inventory.repository.ProductRepository;
 import com.arka.inventory.repository.StockHistoryRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Service
 public class ProductService {
+  /** Upper bound on the ids of one findAllById call. */
+  public static final int MAX_BATCH_IDS = 500;
   private final ProductRepository productRepository;
   private final StockHistoryRepository historyRepository;
+  private final LedgerCheckpointRepository checkpointRepository;
+  private final ObjectProvider<HotStockLedger> hotLedger;
+  private final OutboxEventRepository outboxRepository;
+  private final ProcessedStockRequestRepository processedRequests;
 
-  public ProductService(ProductRepository productRepository, StockHistoryRepository historyRepository){
+  public ProductService(ProductRepository productRepository, StockHistoryRepository historyRepository,
+                        LedgerCheckpointRepository checkpointRepository, ObjectProvider<HotStockLedger> hotLedger,
+                        OutboxEventRepository outboxRepository,
+                        ProcessedStockRequestRepository processedRequests){
     this.productRepository = productRepository;
     this.historyRepository = historyRepository;
+    this.checkpointRepository = checkpointRepository;
+    this.hotLedger = hotLedger;
+    this.outboxRepository = outboxRepository;
+    this.processedRequests = processedRequests;
   }
 
   public Product create(Product p){
     if(p.getPrice() == null || p.getPrice().doubleValue() < 0) throw new IllegalArgumentException("Price cannot be negative or null");
     if(p.getStock() == null || p.getStock() < 0) throw new IllegalArgumentException("Stock cannot be negative or null");
+    if(p.getReorderThreshold() == null) p.setReorderThreshold(Product.DEFAULT_REORDER_THRESHOLD);
+    if(p.getReorderThreshold() < 0) throw new IllegalArgumentException("Reorder threshold cannot be negative");
     return productRepository.save(p);
   }
 
+  @Transactional
+  public Product updateReorderThreshold(Long productId, int threshold){
+    if(threshold < 0) throw new IllegalArgumentException("Reorder threshold cannot be negative");
+    Product p = productRepository.findById(productId)
+      .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+    p.setReorderThreshold(threshold);
+    return p;
+  }
+
   /**
-   * Update stock with optimistic locking retry.
+   * Update stock with a single conditional UPDATE (no read-modify-write, no retries).
+   * Hot SKUs go through the in-memory ledger instead when it is enabled.
    * delta: positive -> increase stock, negative -> decrease (reserve)
    */
   @Transactional
   public Product updateStock(Long productId, int delta, String reason){
-    int maxRetries = 3;
-    int attempt = 0;
-    while (true) {
-      attempt++;
-      try {
-        Product prod = productRepository.findById(productId)
+    HotStockLedger ledger = hotLedger.getIfAvailable();
+    if(ledger != null && ledger.isHot(productId)){
+      int available = ledger.reserve(productId, delta, reason);
+      List<StockAdjustmentRequest> applied = List.of(new StockAdjustmentRequest(productId, delta, reason));
+      boolean synced = revertOnRollback(ledger, applied);
+      try{
+        Product updated = productRepository.findById(productId)
+          .map(p -> withAvailable(p, available))
           .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-        int newStock = prod.getStock() + delta;
-        if(newStock < 0) throw new IllegalArgumentException("Stock cannot be negative");
-        prod.setStock(newStock);
-        Product saved = productRepository.save(prod);
-
-        StockHistory h = new StockHistory();
-        h.setProductId(productId);
-        h.setQtyChange(delta);
-        h.setReason(reason);
-        h.setTimestamp(Instant.now());
-        historyRepository.save(h);
-
-        return saved;
-      } catch (OptimisticLockingFailureException ex) {
-        if (attempt >= maxRetries) throw ex;
-        // else retry
+        recordLowStockIfCrossed(updated, updated.getStock() - delta);
+        return updated;
+      }catch(RuntimeException ex){
+        if(!synced) ledger.revert(applied);
+        throw ex;
+      }
+    }
+
+    if(productRepository.adjustStock(productId, delta) == 0){
+      if(!productRepository.existsById(productId)) throw new IllegalArgumentException("Product not found");
+      throw new IllegalArgumentException("Stock cannot be negative");
+    }
+
+    StockHistory h = new StockHistory();
+    h.setProductId(productId);
+    h.setQtyChange(delta);
+    h.setReason(reason);
+    h.setTimestamp(Instant.now());
+    historyRepository.save(h);
+    outboxRepository.recordStockChange(productId, delta, reason);
+
+    Product updated = productRepository.findById(productId)
+      .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+    // The UPDATE holds the row lock, so the stock read back is exactly before + delta.
+    recordLowStockIfCrossed(updated, updated.getStock() - delta);
+    return updated;
+  }
+
+  /**
+   * Same as {@link #updateStock(Long, int, String)}, applied at most once per idempotency key.
+   * A repeated key returns the product as it is now without changing stock, so callers can retry
+   * a request whose response was lost.
+   */
+  @Transactional
+  public Product updateStock(Long productId, int delta, String reason, String idempotencyKey){
+    if(idempotencyKey == null || idempotencyKey.isBlank()) return updateStock(productId, delta, reason);
+    if(idempotencyKey.length() > 128) throw new IllegalArgumentException("Idempotency key is too long");
+    if(processedRequests.claim(idempotencyKey, productId, delta) == 0){
+      return productRepository.findById(productId)
+        .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+    }
+    // A failed update rolls back the claim with it, so the key can be retried.
+    return updateStock(productId, delta, reason);
+  }
+
+  /** Forgets idempotency keys processed before the cutoff. */
+  @Transactional
+  public int purgeProcessedRequests(Instant cutoff){
+    return processedRequests.deleteProcessedBefore(cutoff);
+  }
+
+  /**
+   * Same as {@link #updateStockBatch(List)}, applied at most once per idempotency key. A repeated
+   * key returns the batch's products as they are now without changing stock.
+   */
+  @Transactional
+  public List<Product> updateStockBatch(List<StockAdjustmentRequest> lines, String idempotencyKey){
+    if(idempotencyKey == null || idempotencyKey.isBlank()) return updateStockBatch(lines);
+    if(idempotencyKey.length() > 128) throw new IllegalArgumentException("Idempotency key is too long");
+    if(lines == null || lines.isEmpty()) throw new IllegalArgumentException("At least one stock adjustment is required");
+    StockAdjustmentRequest first = lines.get(0);
+    if(first.getProductId() == null || first.getDelta() == null) throw new IllegalArgumentException("productId and delta are required");
+    if(processedRequests.claim(idempotencyKey, first.getProductId(), first.getDelta()) == 0){
+      List<Product> products = new ArrayList<>(productRepository.findAllById(
+        new TreeSet<>(lines.stream().map(StockAdjustmentRequest::getProductId).toList())));
+      HotStockLedger ledger = hotLedger.getIfAvailable();
+      if(ledger != null) products.replaceAll(p -> ledger.isHot(p.getId()) ? withAvailable(p, ledger.available(p.getId())) : p);
+      return products;
+    }
+    // As with a single update, a refused batch rolls back the claim with it.
+    return updateStockBatch(lines);
+  }
+
+  /**
+   * Apply several stock adjustments all-or-nothing in a single transaction.
+   * Rows are locked in ascending id order to avoid deadlocks between concurrent
+   * batches, and history rows are written with one saveAll.
+   */
+  @Transactional
+  public List<Product> updateStockBatch(List<StockAdjustmentRequest> lines){
+    if(lines == null || lines.isEmpty()) throw new IllegalArgumentException("At least one stock adjustment is required");
+    for(StockAdjustmentRequest line : lines){
+      if(line.getProductId() == null || line.getDelta() == null) throw new IllegalArgumentException("productId and delta are required");
+    }
+
+    HotStockLedger ledger = hotLedger.getIfAvailable();
+    List<StockAdjustmentRequest> hotLines = new ArrayList<>();
+    List<StockAdjustmentRequest> dbLines = new ArrayList<>();
+    for(StockAdjustmentRequest line : lines){
+      if(ledger != null && ledger.isHot(line.getProductId())) hotLines.add(line); else dbLines.add(line);
+    }
+    if(hotLines.isEmpty()) return applyBatch(dbLines);
+
+    ledger.reserveAll(hotLines);
+    boolean synced = revertOnRollback(ledger, hotLines);
+    try{
+      List<Product> result = new ArrayList<>(dbLines.isEmpty() ? List.of() : applyBatch(dbLines));
+      Map<Long, Integer> hotDelta = new TreeMap<>();
+      for(StockAdjustmentRequest line : hotLines) hotDelta.merge(line.getProductId(), line.getDelta(), Integer::sum);
+      for(Product p : productRepository.findAllById(hotDelta.keySet())){
+        Product updated = withAvailable(p, ledger.available(p.getId()));
+        recordLowStockIfCrossed(updated, updated.getStock() - hotDelta.get(p.getId()));
+        result.add(updated);
       }
+      return result;
+    }catch(RuntimeException ex){
+      if(!synced) ledger.revert(hotLines);
+      throw ex;
     }
   }
 
+  /**
+   * Ledger changes are not part of the database transaction, so they are reverted when it does
+   * not commit; otherwise a retry (e.g. after an idempotency claim rolled back) would apply them
+   * twice.
+   * @return false when no transaction is active; the caller must revert on failure itself
+   */
+  private static boolean revertOnRollback(HotStockLedger ledger, List<StockAdjustmentRequest> applied){
+    if(!TransactionSynchronizationManager.isSynchronizationActive()) return false;
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status){
+        if(status != STATUS_COMMITTED) ledger.revert(applied);
+      }
+    });
+    return true;
+  }
+
+  private List<Product> applyBatch(List<StockAdjustmentRequest> lines){
+    Map<Long, Integer> netDelta = new TreeMap<>();
+    for(StockAdjustmentRequest line : lines){
+      netDelta.merge(line.getProductId(), line.getDelta(), Integer::sum);
+    }
+
+    List<Product> locked = productRepository.findAllByIdForUpdate(netDelta.keySet());
+    if(locked.size() != netDelta.size()) throw new IllegalArgumentException("Product not found");
+
+    for(Product prod : locked){
+      int newStock = prod.getStock() + netDelta.get(prod.getId());
+      if(newStock < prod.getReserved()) throw new IllegalArgumentException("Stock cannot be negative for product " + prod.getId());
+    }
+    for(Product prod : locked){
+      int previousStock = prod.getStock();
+      prod.setStock(previousStock + netDelta.get(prod.getId()));
+      recordLowStockIfCrossed(prod, previousStock);
+    }
+
+    Instant now = Instant.now();
+    List<StockHistory> history = new ArrayList<>(lines.size());
+    for(StockAdjustmentRequest line : lines){
+      StockHistory h = new StockHistory();
+      h.setProductId(line.getProductId());
+      h.setQtyChange(line.getDelta());
+      h.setReason(line.getReason() == null ? "batch" : line.getReason());
+      h.setTimestamp(now);
+      history.add(h);
+    }
+    historyRepository.saveAll(history);
+    // Stock changes on the locked entities are flushed by the outbox insert, which snapshots them.
+    netDelta.forEach((productId, delta) -> outboxRepository.recordStockChange(productId, delta, "batch"));
+
+    return locked;
+  }
+
+  /**
+   * Write a batch of hot-ledger entries: one UPDATE and one outbox event per product with the net
+   * delta, one history row per entry and the new checkpoint, all in the same transaction. The
+   * ledger already guaranteed the deltas never take stock below zero.
+   */
+  @Transactional
+  public void applyLedgerEntries(String node, List<HotStockLedger.LedgerEntry> entries){
+    Map<Long, Integer> netDelta = new TreeMap<>();
+    List<StockHistory> history = new ArrayList<>(entries.size());
+    long lastSeq = 0;
+    for(HotStockLedger.LedgerEntry e : entries){
+      netDelta.merge(e.productId(), e.delta(), Integer::sum);
+      StockHistory h = new StockHistory();
+      h.setProductId(e.productId());
+      h.setQtyChange(e.delta());
+      h.setReason(e.reason());
+      h.setTimestamp(e.timestamp());
+      history.add(h);
+      lastSeq = Math.max(lastSeq, e.seq());
+    }
+    netDelta.forEach((productId, delta) -> {
+      if(delta != 0){
+        productRepository.addStock(productId, delta);
+        outboxRepository.recordStockChange(productId, delta, "ledger:" + node);
+      }
+    });
+    historyRepository.saveAll(history);
+    checkpointRepository.save(new LedgerCheckpoint(node, lastSeq));
+  }
+
   public Optional<Product> findById(Long id){ return productRepository.findById(id); }
-  public List<Product> listAll(){ return productRepository.findAll(); }
-  public List<Product> lowStock(Integer threshold) { return productRepository.findByStockLessThan(threshold); }
-}
\ No newline at end of file
+
+  /**
+   * Products with the given ids in one query, ordered by id; unknown ids are left out. Hot SKUs
+   * carry the ledger's stock, as in updateStockBatch.
+   */
+  public List<Product> findAllById(Collection<Long> ids){
+    if(ids == null || ids.isEmpty()) throw new IllegalArgumentException("ids is required");
+    if(ids.size() > MAX_BATCH_IDS) throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request");
+    HotStockLedger ledger = hotLedger.getIfAvailable();
+    List<Product> products = new ArrayList<>(productRepository.findAllById(new TreeSet<>(ids)));
+    products.sort(Comparator.comparing(Product::getId));
+    if(ledger != null) products.replaceAll(p -> ledger.isHot(p.getId()) ? withAvailable(p, ledger.available(p.getId())) : p);
+    return products;
+  }
+  public long count(){ return productRepository.count(); }
+  /** Products under the given stock level, or under their own reorder threshold when it is null. */
+  public List<Product> lowStock(Integer threshold) {
+    return threshold == null ? productRepository.findLowStock() : productRepository.findByStockLessThan(threshold);
+  }
+
+  /**
+   * Records LOW_STOCK only on the change that crosses the threshold downward, never again while the
+   * product stays low. The event goes into the outbox with the change, so it is delivered once the
+   * change commits (retried until provider-service takes it) and never for a rolled-back change.
+   */
+  private void recordLowStockIfCrossed(Product p, int previousStock){
+    int threshold = p.getReorderThreshold() == null ? Product.DEFAULT_REORDER_THRESHOLD : p.getReorderThreshold();
+    if(previousStock >= threshold && p.getStock() < threshold){
+      OutboxEvent e = new OutboxEvent();
+      e.setProductId(p.getId());
+      e.setEventType(OutboxEvent.LOW_STOCK);
+      e.setDelta(p.getStock() - previousStock);
+      e.setStock(p.getStock());
+      e.setReserved(p.getReserved() == null ? 0 : p.getReserved());
+      e.setCategory(p.getCategory());
+      e.setReorderThreshold(threshold);
+      e.setCreatedAt(Instant.now());
+      outboxRepository.save(e);
+    }
+  }
+
+  /** Detached copy carrying the ledger's view of the stock, so the managed entity is never dirtied. */
+  private static Product withAvailable(Product source, int available){
+    Product p = new Product();
+    p.setId(source.getId());
+    p.setName(source.getName());
+    p.setDescription(source.getDescription());
+    p.setPrice(source.getPrice());
+    p.setCategory(source.getCategory());
+    p.setVersion(source.getVersion());
+    p.setReserved(source.getReserved());
+    p.setReorderThreshold(source.getReorderThreshold());
+    p.setStock(available + source.getReserved());
+    return p;
+  }
+}
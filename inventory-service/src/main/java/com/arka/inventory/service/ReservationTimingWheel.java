@@ -0,0 +1,120 @@
+package com.arka.inventory.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel that tracks reservation expiries in memory.
+ *
+ * Three levels of 64 slots (1s, 64s and ~68min per slot) cover about three days; anything
+ * further out waits in an overflow map. Adding, rescheduling and cancelling are O(1), and
+ * {@link #advance} returns every id whose expiry has passed in one bulk list, cascading
+ * coarser slots down as their window comes up. Cancelled or rescheduled ids are dropped
+ * lazily when their old slot is processed.
+ */
+public class ReservationTimingWheel {
+  private static final int SLOTS = 64;
+
+  private final long[] tickMs;
+  private final List<Map<Long, Long>[]> levels = new ArrayList<>();
+  private final Map<Long, Long> overflow = new HashMap<>();
+  private final Map<Long, Long> scheduled = new HashMap<>();
+  private final List<Long> due = new ArrayList<>();
+  private long currentTime;
+
+  public ReservationTimingWheel(long baseTickMs, long startMs) {
+    this.tickMs = new long[] { baseTickMs, baseTickMs * SLOTS, baseTickMs * SLOTS * SLOTS };
+    for (int i = 0; i < tickMs.length; i++) {
+      @SuppressWarnings("unchecked")
+      Map<Long, Long>[] slots = new Map[SLOTS];
+      for (int s = 0; s < SLOTS; s++) slots[s] = new HashMap<>();
+      levels.add(slots);
+    }
+    this.currentTime = startMs - Math.floorMod(startMs, baseTickMs);
+  }
+
+  /** Schedules (or reschedules) id to expire at expiresAtMs. */
+  public synchronized void schedule(long id, long expiresAtMs) {
+    scheduled.put(id, expiresAtMs);
+    place(id, expiresAtMs);
+  }
+
+  public synchronized void cancel(long id) {
+    scheduled.remove(id);
+  }
+
+  public synchronized int size() {
+    return scheduled.size();
+  }
+
+  /** Moves the wheel to nowMs and returns the ids that expired on the way. */
+  public synchronized List<Long> advance(long nowMs) {
+    List<Long> expired = new ArrayList<>();
+    drain(due, expired);
+    while (currentTime + tickMs[0] <= nowMs) {
+      Map<Long, Long> slot = levels.get(0)[slotIndex(0, currentTime)];
+      for (Map.Entry<Long, Long> e : slot.entrySet()) {
+        if (isCurrent(e.getKey(), e.getValue())) {
+          scheduled.remove(e.getKey());
+          expired.add(e.getKey());
+        }
+      }
+      slot.clear();
+      currentTime += tickMs[0];
+      cascade();
+      drain(due, expired);
+    }
+    return expired;
+  }
+
+  private void cascade() {
+    for (int level = 1; level < tickMs.length; level++) {
+      if (currentTime % tickMs[level] != 0) return;
+      Map<Long, Long> slot = levels.get(level)[slotIndex(level, currentTime)];
+      Map<Long, Long> moving = new HashMap<>(slot);
+      slot.clear();
+      moving.forEach(this::replace);
+      if (level == tickMs.length - 1) {
+        Map<Long, Long> far = new HashMap<>(overflow);
+        overflow.clear();
+        far.forEach(this::replace);
+      }
+    }
+  }
+
+  private void replace(Long id, Long expiresAtMs) {
+    if (isCurrent(id, expiresAtMs)) place(id, expiresAtMs);
+  }
+
+  private void place(long id, long expiresAtMs) {
+    long delay = expiresAtMs - currentTime;
+    if (delay < 0) {
+      due.add(id);
+      return;
+    }
+    for (int level = 0; level < tickMs.length; level++) {
+      if (delay < tickMs[level] * SLOTS) {
+        levels.get(level)[slotIndex(level, expiresAtMs)].put(id, expiresAtMs);
+        return;
+      }
+    }
+    overflow.put(id, expiresAtMs);
+  }
+
+  private void drain(List<Long> source, List<Long> expired) {
+    for (Long id : source) {
+      if (scheduled.remove(id) != null) expired.add(id);
+    }
+    source.clear();
+  }
+
+  private boolean isCurrent(Long id, Long expiresAtMs) {
+    return expiresAtMs.equals(scheduled.get(id));
+  }
+
+  private int slotIndex(int level, long timeMs) {
+    return (int) Math.floorMod(timeMs / tickMs[level], (long) SLOTS);
+  }
+}
@@ -0,0 +1,161 @@
+package com.arka.inventory.service;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OutputStream that uploads to S3 one part at a time, so memory stays at one part buffer
+ * whatever the object size. The multipart upload is only created once the first part fills;
+ * smaller objects are sent with a single PutObject on close. Call {@link #abort()} instead of
+ * close() when the producer fails, so no incomplete upload is left behind.
+ *
+ * Several objects that must appear together can be published in two phases: {@link #finish()}
+ * each one (uploads everything but publishes nothing), then {@link #complete()} each one. If a
+ * later completion fails, abort() on an already completed stream deletes its object.
+ */
+public class S3MultipartOutputStream extends OutputStream {
+  /** S3 rejects parts other than the last one below 5 MiB. */
+  public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+  private final S3Client s3Client;
+  private final String bucket;
+  private final String key;
+  private final String contentType;
+  private final byte[] buffer;
+  private final List<CompletedPart> parts = new ArrayList<>();
+  private int position;
+  private String uploadId;
+  private boolean finished;
+  private boolean completed;
+  private boolean aborted;
+
+  public S3MultipartOutputStream(S3Client s3Client, String bucket, String key, String contentType, int partSize) {
+    if (partSize < MIN_PART_SIZE) throw new IllegalArgumentException("partSize must be at least " + MIN_PART_SIZE);
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.key = key;
+    this.contentType = contentType;
+    this.buffer = new byte[partSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (position == buffer.length) uploadPart();
+    buffer[position++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      if (position == buffer.length) uploadPart();
+      int n = Math.min(len, buffer.length - position);
+      System.arraycopy(b, off, buffer, position, n);
+      position += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /** Completes the object. Any S3 failure aborts the multipart upload before it is rethrown. */
+  @Override
+  public void close() throws IOException {
+    if (aborted || completed) return;
+    complete();
+  }
+
+  /**
+   * Uploads whatever is still buffered as the last part, without publishing the object; no more
+   * writes are accepted afterwards. Small objects stay buffered until {@link #complete()}.
+   */
+  public void finish() throws IOException {
+    if (finished) return;
+    ensureOpen();
+    if (uploadId != null && position > 0) uploadPart();
+    finished = true;
+  }
+
+  /** Publishes the object, finishing it first if needed; on failure the upload is aborted. */
+  public void complete() throws IOException {
+    if (aborted) throw new IOException("S3 upload of " + key + " was aborted");
+    finish();
+    if (completed) return;
+    try {
+      if (uploadId == null) {
+        s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+          bufferBody());
+      } else {
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+          .bucket(bucket).key(key).uploadId(uploadId)
+          .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+          .build());
+      }
+      completed = true;
+    } catch (RuntimeException e) {
+      abort();
+      throw new IOException("S3 upload of " + key + " failed", e);
+    }
+  }
+
+  /**
+   * Discards everything written so far, or deletes the object if it was already completed;
+   * safe to call more than once.
+   */
+  public void abort() {
+    if (aborted) return;
+    aborted = true;
+    finished = true;
+    if (completed) {
+      s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    } else if (uploadId != null) {
+      s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+        .bucket(bucket).key(key).uploadId(uploadId).build());
+    }
+  }
+
+  public int partCount() {
+    return parts.size();
+  }
+
+  private void uploadPart() throws IOException {
+    try {
+      if (uploadId == null) {
+        uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+          .bucket(bucket).key(key).contentType(contentType).build()).uploadId();
+      }
+      int partNumber = parts.size() + 1;
+      String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+          .bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber).contentLength((long) position).build(),
+        bufferBody()).eTag();
+      parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+      position = 0;
+    } catch (RuntimeException e) {
+      abort();
+      throw new IOException("S3 upload of " + key + " failed at part " + (parts.size() + 1), e);
+    }
+  }
+
+  /** The synchronous client has consumed the stream when the call returns, so the buffer can be reused without copying. */
+  private RequestBody bufferBody() {
+    return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, position), position);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (finished) throw new IOException("Stream closed");
+  }
+}
@@ -8,8 +8,11 @@ import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
+import java.net.URI;
+
 @Service
 public class S3Service {
   private static final Logger log = LoggerFactory.getLogger(S3Service.class);
@@ -20,14 +23,32 @@ public class S3Service {
   @Value("${aws.region:us-east-1}")
   private String awsRegion;
 
+  /** Optional endpoint override for S3-compatible stand-ins (LocalStack, MinIO); uses path-style URLs. */
+  @Value("${aws.s3.endpoint:}")
+  private String endpoint;
+
+  @Value("${aws.s3.part-size-bytes:" + S3MultipartOutputStream.MIN_PART_SIZE + "}")
+  private int partSize;
+
   private S3Client s3Client;
 
+  public S3Service() {}
+
+  S3Service(S3Client s3Client, String bucketName, int partSize) {
+    this.s3Client = s3Client;
+    this.bucketName = bucketName;
+    this.partSize = partSize;
+  }
+
   private S3Client getS3Client() {
     if (s3Client == null) {
-      s3Client = S3Client.builder()
+      S3ClientBuilder builder = S3Client.builder()
           .region(Region.of(awsRegion))
-          .credentialsProvider(DefaultCredentialsProvider.create())
-          .build();
+          .credentialsProvider(DefaultCredentialsProvider.create());
+      if (endpoint != null && !endpoint.isBlank()) {
+        builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+      }
+      s3Client = builder.build();
     }
     return s3Client;
   }
@@ -48,4 +69,12 @@ public class S3Service {
       throw new RuntimeException("S3 upload failed", e);
     }
   }
+
+  /**
+   * Opens a streaming upload to the given key. Closing the stream completes the object;
+   * call abort() on it if the content could not be produced.
+   */
+  public S3MultipartOutputStream openUpload(String key, String contentType) {
+    return new S3MultipartOutputStream(getS3Client(), bucketName, key, contentType, partSize);
+  }
 }
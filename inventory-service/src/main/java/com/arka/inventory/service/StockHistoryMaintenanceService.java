@@ -0,0 +1,200 @@
+package com.arka.inventory.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Storage housekeeping for stock_history (PostgreSQL):
+ *  - keeps stock_history_seq ahead of ids created while the table still used IDENTITY,
+ *  - optionally converts stock_history into a table range-partitioned by month and keeps
+ *    upcoming monthly partitions created,
+ *  - compacts rows older than the retention window into stock_history_daily.
+ */
+@Service
+public class StockHistoryMaintenanceService {
+  private static final Logger log = LoggerFactory.getLogger(StockHistoryMaintenanceService.class);
+  private static final String PARTITION_PREFIX = "stock_history_";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean partitioningEnabled;
+  private final int monthsAhead;
+  private final int retentionDays;
+
+  public StockHistoryMaintenanceService(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${inventory.stock-history.partitioning.enabled:false}") boolean partitioningEnabled,
+                                        @Value("${inventory.stock-history.partitioning.months-ahead:2}") int monthsAhead,
+                                        @Value("${inventory.stock-history.retention-days:180}") int retentionDays) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.partitioningEnabled = partitioningEnabled;
+    this.monthsAhead = monthsAhead;
+    this.retentionDays = retentionDays;
+  }
+
+  /** Moves the id sequence past any id already in the table. */
+  public void alignIdSequence() {
+    jdbcTemplate.queryForObject(
+      "SELECT setval('stock_history_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM stock_history) + 1, " +
+      "(SELECT last_value FROM stock_history_seq)))", Long.class);
+  }
+
+  public boolean isPartitioned() {
+    Boolean partitioned = jdbcTemplate.queryForObject(
+      "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+      "WHERE c.relname = 'stock_history' AND pg_table_is_visible(c.oid))", Boolean.class);
+    return Boolean.TRUE.equals(partitioned);
+  }
+
+  /**
+   * Creates the monthly partitions from the current month up to monthsAhead, converting the
+   * plain table first when partitioning is enabled and it has not been done yet.
+   */
+  public void ensurePartitions() {
+    if (!partitioningEnabled) return;
+    if (!isPartitioned()) convertToPartitioned();
+
+    // Outside a transaction each CREATE commits on its own, so one failure cannot affect the rest.
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    for (int i = 0; i <= monthsAhead; i++) {
+      createPartition(current.plusMonths(i), false);
+    }
+  }
+
+  /**
+   * One-off conversion: existing rows are copied into a new partitioned table inside a single
+   * transaction, with one partition per month that has data plus a DEFAULT partition.
+   */
+  private void convertToPartitioned() {
+    log.info("Converting stock_history to a monthly range-partitioned table");
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.execute("ALTER TABLE stock_history RENAME TO stock_history_legacy");
+      jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_stock_history_product_ts RENAME TO idx_stock_history_legacy_product_ts");
+      jdbcTemplate.execute(
+        "CREATE TABLE stock_history (" +
+        " id BIGINT NOT NULL," +
+        " product_id BIGINT," +
+        " qty_change INTEGER," +
+        " reason VARCHAR(255)," +
+        " timestamp TIMESTAMP(6) WITH TIME ZONE NOT NULL," +
+        " PRIMARY KEY (id, timestamp)" +
+        ") PARTITION BY RANGE (timestamp)");
+      jdbcTemplate.execute("CREATE INDEX idx_stock_history_product_ts ON stock_history (product_id, timestamp)");
+      jdbcTemplate.execute("CREATE TABLE stock_history_default PARTITION OF stock_history DEFAULT");
+
+      Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM stock_history_legacy", Timestamp.class);
+      if (oldest != null) {
+        YearMonth last = YearMonth.now(ZoneOffset.UTC);
+        for (YearMonth month = toMonth(oldest); !month.isAfter(last); month = month.plusMonths(1)) {
+          createPartition(month, true);
+        }
+      }
+      jdbcTemplate.execute(
+        "INSERT INTO stock_history (id, product_id, qty_change, reason, timestamp) " +
+        "SELECT id, product_id, qty_change, reason, COALESCE(timestamp, now()) FROM stock_history_legacy");
+      jdbcTemplate.execute("DROP TABLE stock_history_legacy");
+    });
+  }
+
+  /**
+   * Creates the partition for one UTC month. Inside a transaction the statement runs under a
+   * savepoint: a failed statement aborts a Postgres transaction, which would otherwise fail
+   * everything the caller does after it.
+   */
+  private void createPartition(YearMonth month, boolean inTransaction) {
+    String name = partitionName(month);
+    if (inTransaction) jdbcTemplate.execute("SAVEPOINT create_partition");
+    try {
+      jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF stock_history FOR VALUES FROM ('" +
+        utcBound(month) + "') TO ('" + utcBound(month.plusMonths(1)) + "')");
+      if (inTransaction) jdbcTemplate.execute("RELEASE SAVEPOINT create_partition");
+    } catch (Exception e) {
+      if (inTransaction) jdbcTemplate.execute("ROLLBACK TO SAVEPOINT create_partition");
+      // Typically rows for that month already landed in the DEFAULT partition.
+      log.warn("Could not create partition {}: {}", name, e.getMessage());
+    }
+  }
+
+  /** Start of the month as a timestamptz literal with an explicit offset, so the session time zone does not matter. */
+  static String utcBound(YearMonth month) {
+    return month.atDay(1) + " 00:00:00+00";
+  }
+
+  /**
+   * Folds history older than the retention window into stock_history_daily, one UTC day per
+   * transaction, deleting the detailed rows in the same transaction so a rerun never counts
+   * a day twice.
+   * @return number of days compacted
+   */
+  public int compactExpiredHistory() {
+    LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+    Timestamp oldest = jdbcTemplate.queryForObject(
+      "SELECT MIN(timestamp) FROM stock_history WHERE timestamp < ?", Timestamp.class, toTimestamp(cutoff));
+    if (oldest == null) return 0;
+
+    int days = 0;
+    for (LocalDate day = oldest.toInstant().atZone(ZoneOffset.UTC).toLocalDate(); day.isBefore(cutoff); day = day.plusDays(1)) {
+      if (compactDay(day) > 0) days++;
+    }
+    if (partitioningEnabled && isPartitioned()) dropEmptyPartitionsBefore(YearMonth.from(cutoff));
+    log.info("Compacted stock history for {} day(s) before {}", days, cutoff);
+    return days;
+  }
+
+  int compactDay(LocalDate day) {
+    Timestamp from = toTimestamp(day);
+    Timestamp to = toTimestamp(day.plusDays(1));
+    Integer deleted = transactionTemplate.execute(status -> {
+      jdbcTemplate.update(
+        "INSERT INTO stock_history_daily (product_id, rollup_date, net_change, movements) " +
+        "SELECT product_id, ?, SUM(qty_change), COUNT(*) FROM stock_history " +
+        "WHERE timestamp >= ? AND timestamp < ? GROUP BY product_id " +
+        "ON CONFLICT (product_id, rollup_date) DO UPDATE SET " +
+        "net_change = stock_history_daily.net_change + EXCLUDED.net_change, " +
+        "movements = stock_history_daily.movements + EXCLUDED.movements",
+        day, from, to);
+      return jdbcTemplate.update("DELETE FROM stock_history WHERE timestamp >= ? AND timestamp < ?", from, to);
+    });
+    return deleted == null ? 0 : deleted;
+  }
+
+  private void dropEmptyPartitionsBefore(YearMonth month) {
+    for (String name : jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_class p ON p.oid = i.inhparent " +
+        "WHERE p.relname = 'stock_history' AND c.relname ~ '^stock_history_[0-9]{4}_[0-9]{2}$'",
+        String.class)) {
+      YearMonth partitionMonth = YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+      if (!partitionMonth.isBefore(month)) continue;
+      Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class);
+      if (Boolean.TRUE.equals(empty)) {
+        jdbcTemplate.execute("DROP TABLE " + name);
+        log.info("Dropped compacted stock history partition {}", name);
+      }
+    }
+  }
+
+  static String partitionName(YearMonth month) {
+    return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+  }
+
+  private static YearMonth toMonth(Timestamp timestamp) {
+    return YearMonth.from(timestamp.toInstant().atZone(ZoneOffset.UTC));
+  }
+
+  private static Timestamp toTimestamp(LocalDate day) {
+    return Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+  }
+}
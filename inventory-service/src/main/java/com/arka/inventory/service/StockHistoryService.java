@@ -0,0 +1,52 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.model.StockHistory;
+import com.arka.inventory.model.StockHistoryDaily;
+import com.arka.inventory.repository.StockHistoryDailyRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class StockHistoryService {
+  static final int MAX_PAGE_SIZE = 500;
+  static final Duration DEFAULT_WINDOW = Duration.ofDays(30);
+
+  private final StockHistoryRepository historyRepository;
+  private final StockHistoryDailyRepository dailyRepository;
+
+  public StockHistoryService(StockHistoryRepository historyRepository, StockHistoryDailyRepository dailyRepository) {
+    this.historyRepository = historyRepository;
+    this.dailyRepository = dailyRepository;
+  }
+
+  /**
+   * Detailed movements in [from, to), newest first. Without bounds the last 30 days are
+   * returned, so a request never scans the whole table (or every partition).
+   */
+  @Transactional(readOnly = true)
+  public Slice<StockHistory> history(Long productId, Instant from, Instant to, int page, int size) {
+    Instant end = to == null ? Instant.now() : to;
+    Instant start = from == null ? end.minus(DEFAULT_WINDOW) : from;
+    if (!start.isBefore(end)) throw new IllegalArgumentException("from must be before to");
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+    }
+    return historyRepository.findByProductIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+      productId, start, end, PageRequest.of(page, size));
+  }
+
+  /** Compacted daily net changes, both dates inclusive. */
+  @Transactional(readOnly = true)
+  public List<StockHistoryDaily> dailyHistory(Long productId, LocalDate from, LocalDate to) {
+    if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+    return dailyRepository.findByProductIdAndRollupDateBetweenOrderByRollupDate(productId, from, to);
+  }
+}
@@ -1,59 +1,137 @@
 package com.arka.inventory.service;
 
-import com.arka.inventory.model.Product;
-import com.arka.inventory.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
 
 @Service
 public class StockReportService {
   private static final Logger log = LoggerFactory.getLogger(StockReportService.class);
-  private final ProductRepository productRepository;
+  /** Rows fetched per round trip while streaming; the Postgres driver only uses a cursor inside a transaction. */
+  static final int FETCH_SIZE = 1000;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String EXPORT_SQL = "SELECT id, name, stock, price, category, reorder_threshold FROM products";
+
   private final S3Service s3Service;
+  private final JdbcTemplate jdbcTemplate;
 
-  public StockReportService(ProductRepository productRepository, S3Service s3Service) {
-    this.productRepository = productRepository;
+  public StockReportService(S3Service s3Service, JdbcTemplate jdbcTemplate) {
     this.s3Service = s3Service;
+    this.jdbcTemplate = jdbcTemplate;
   }
 
-  private String uploadToS3(String content, String fileName) {
-    return s3Service.uploadFile(content, "reports/" + fileName);
-  }
-
+  /**
+   * Writes all-products and low-stock CSVs to S3 in one pass over the products table; a product
+   * is low when its stock is under its own reorder threshold. Each
+   * object is streamed as a multipart upload, so memory is bounded by two part buffers. Neither
+   * object is published until both have been fully uploaded; if anything fails both uploads are
+   * aborted (a report already published is deleted) and the error is rethrown.
+   */
+  @Transactional(readOnly = true)
   public void generateWeeklyReport() {
     log.info("Generating weekly stock report...");
-    List<Product> allProducts = productRepository.findAll();
-    List<Product> lowStock = productRepository.findByStockLessThan(10);
-    
-    log.info("Total products: {}", allProducts.size());
-    log.info("Low stock products: {}", lowStock.size());
-    
+    long timestamp = System.currentTimeMillis();
+    String reportKey = "reports/all-products-" + timestamp + ".csv";
+    String lowStockKey = "reports/low-stock-" + timestamp + ".csv";
+
+    S3MultipartOutputStream reportUpload = s3Service.openUpload(reportKey, "text/csv");
+    S3MultipartOutputStream lowStockUpload = s3Service.openUpload(lowStockKey, "text/csv");
     try {
-      // Export to CSV
-      String csvContent = exportToCsv(allProducts);
-      String lowStockCsv = exportToCsv(lowStock);
-      
-      // Upload to S3
-      String reportKey = uploadToS3(csvContent, "all-products-" + System.currentTimeMillis() + ".csv");
-      String lowStockKey = uploadToS3(lowStockCsv, "low-stock-" + System.currentTimeMillis() + ".csv");
-      
+      Writer reportOut = new BufferedWriter(new OutputStreamWriter(reportUpload, StandardCharsets.UTF_8), BUFFER_SIZE);
+      Writer lowStockOut = new BufferedWriter(new OutputStreamWriter(lowStockUpload, StandardCharsets.UTF_8), BUFFER_SIZE);
+      ProductCsvWriter all = new ProductCsvWriter(reportOut).writeHeader();
+      ProductCsvWriter lowStock = new ProductCsvWriter(lowStockOut).writeHeader();
+
+      scanProducts("", null, (id, name, stock, price, category, reorderThreshold) -> {
+        all.writeRow(id, name, stock, price, category);
+        if (stock < reorderThreshold) lowStock.writeRow(id, name, stock, price, category);
+      });
+      reportOut.flush();
+      lowStockOut.flush();
+      reportUpload.finish();
+      lowStockUpload.finish();
+      reportUpload.complete();
+      lowStockUpload.complete();
+
+      log.info("Total products: {}", all.rows());
+      log.info("Low stock products: {}", lowStock.rows());
       log.info("Reports uploaded to S3: {}, {}", reportKey, lowStockKey);
-      
       // Send notification (placeholder - would call notification-service)
-      log.info("Weekly report generated successfully. Low stock items: {}", lowStock.size());
-    } catch (Exception e) {
+      log.info("Weekly report generated successfully. Low stock items: {}", lowStock.rows());
+    } catch (IOException | RuntimeException e) {
+      reportUpload.abort();
+      lowStockUpload.abort();
       log.error("Error generating weekly report: {}", e.getMessage(), e);
+      throw new IllegalStateException("Weekly report failed: " + e.getMessage(), e);
     }
   }
 
-  public String exportToCsv(List<Product> products) {
-    StringBuilder csv = new StringBuilder("ID,Name,Stock,Price,Category\n");
-    products.forEach(p -> 
-      csv.append(String.format("%d,%s,%d,%.2f,%s\n", 
-        p.getId(), p.getName(), p.getStock(), p.getPrice(), p.getCategory()))
-    );
-    return csv.toString();
+  /**
+   * Streams products as CSV from a server-side cursor, ordered by id, without loading entities.
+   * @param threshold when not null, only products with stock below it are written
+   * @return number of rows written
+   */
+  @Transactional(readOnly = true)
+  public long streamCsv(Integer threshold, Writer out) throws IOException {
+    return writeCsv(threshold == null ? "" : " WHERE stock < ?", threshold, out);
+  }
+
+  /**
+   * Same as {@link #streamCsv}, but without a threshold each product is compared with its own
+   * reorder threshold, as in the low-stock listing.
+   */
+  @Transactional(readOnly = true)
+  public long streamLowStockCsv(Integer threshold, Writer out) throws IOException {
+    return threshold == null ? writeCsv(" WHERE stock < reorder_threshold", null, out) : streamCsv(threshold, out);
+  }
+
+  private long writeCsv(String where, Integer threshold, Writer out) throws IOException {
+    ProductCsvWriter csv = new ProductCsvWriter(out).writeHeader();
+    scanProducts(where, threshold, (id, name, stock, price, category, reorderThreshold) ->
+      csv.writeRow(id, name, stock, price, category));
+    csv.flush();
+    return csv.rows();
+  }
+
+  private interface ProductRowWriter {
+    void write(long id, String name, int stock, BigDecimal price, String category, int reorderThreshold) throws IOException;
+  }
+
+  /**
+   * Reads products ordered by id through a forward-only cursor, FETCH_SIZE rows per round trip.
+   * @param where optional WHERE clause; its only parameter, if any, is threshold
+   */
+  private void scanProducts(String where, Integer threshold, ProductRowWriter writer) throws IOException {
+    RowCallbackHandler rowHandler = rs -> {
+      try {
+        writer.write(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getBigDecimal(4), rs.getString(5), rs.getInt(6));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+    String sql = EXPORT_SQL + where + " ORDER BY id";
+    try {
+      jdbcTemplate.query(con -> {
+        PreparedStatement ps = con.prepareStatement(sql);
+        ps.setFetchSize(FETCH_SIZE);
+        if (threshold != null) ps.setInt(1, threshold);
+        return ps;
+      }, rowHandler);
+    } catch (UncheckedIOException e) {
+      // The output failed (client went away, S3 error); stop reading the cursor.
+      throw e.getCause();
+    }
   }
 }
@@ -0,0 +1,261 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.dto.ReservationRequest;
+import com.arka.inventory.model.ReservationStatus;
+import com.arka.inventory.model.StockHistory;
+import com.arka.inventory.model.StockReservation;
+import com.arka.inventory.repository.OutboxEventRepository;
+import com.arka.inventory.repository.ProductRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import com.arka.inventory.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Time-boxed stock reservations. Reserving only bumps Product.reserved, so
+ * available = stock - reserved stays correct without recomputing it from the reservations table.
+ * Expiry is driven by {@link ReservationTimingWheel}; see ReservationExpiryScheduler.
+ */
+@Service
+public class StockReservationService {
+  private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+  private final StockReservationRepository reservationRepository;
+  private final ProductRepository productRepository;
+  private final StockHistoryRepository historyRepository;
+  private final ObjectProvider<HotStockLedger> hotLedger;
+  private final OutboxEventRepository outboxRepository;
+  private final Duration defaultTtl;
+  private final ReservationTimingWheel wheel = new ReservationTimingWheel(1000, System.currentTimeMillis());
+
+  public StockReservationService(StockReservationRepository reservationRepository,
+                                 ProductRepository productRepository,
+                                 StockHistoryRepository historyRepository,
+                                 ObjectProvider<HotStockLedger> hotLedger,
+                                 OutboxEventRepository outboxRepository,
+                                 @Value("${inventory.reservations.default-ttl-seconds:900}") long defaultTtlSeconds) {
+    this.reservationRepository = reservationRepository;
+    this.productRepository = productRepository;
+    this.historyRepository = historyRepository;
+    this.hotLedger = hotLedger;
+    this.outboxRepository = outboxRepository;
+    this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+  }
+
+  /**
+   * Holds stock until the reservation is confirmed, released or expires. A request with a
+   * reference that already has a reservation returns that one unchanged, whatever its status.
+   */
+  @Transactional
+  public StockReservation reserve(ReservationRequest req) {
+    if (req.getQuantity() == null || req.getQuantity() <= 0) throw new IllegalArgumentException("Quantity must be positive");
+    Long productId = req.getProductId();
+    int qty = req.getQuantity();
+    if (req.getReference() != null) {
+      Optional<StockReservation> existing = reservationRepository.findByReference(req.getReference());
+      if (existing.isPresent()) return sameRequest(existing.get(), req);
+    }
+
+    HotStockLedger ledger = hotLedger.getIfAvailable();
+    if (ledger != null && ledger.isHot(productId)) {
+      // The ledger is the source of truth for hot SKUs; the DB column just records the hold.
+      ledger.hold(productId, qty);
+      afterRollback(() -> ledger.unhold(productId, qty));
+      productRepository.addReserved(productId, qty);
+    } else if (productRepository.reserve(productId, qty) == 0) {
+      if (!productRepository.existsById(productId)) throw new IllegalArgumentException("Product not found");
+      throw new IllegalArgumentException("Insufficient stock available");
+    }
+
+    Instant now = Instant.now();
+    StockReservation r = new StockReservation();
+    r.setProductId(productId);
+    r.setQuantity(qty);
+    r.setReference(req.getReference());
+    r.setStatus(ReservationStatus.ACTIVE);
+    r.setCreatedAt(now);
+    r.setUpdatedAt(now);
+    r.setExpiresAt(now.plus(req.getTtlSeconds() == null ? defaultTtl : Duration.ofSeconds(req.getTtlSeconds())));
+    StockReservation saved = reservationRepository.save(r);
+
+    afterCommit(() -> wheel.schedule(saved.getId(), saved.getExpiresAt().toEpochMilli()));
+    return saved;
+  }
+
+  /**
+   * The reservation made for a reference; a reserve that lost the race to insert it returns
+   * this one instead.
+   */
+  public StockReservation existingReservation(ReservationRequest req) {
+    return reservationRepository.findByReference(req.getReference())
+      .map(r -> sameRequest(r, req))
+      .orElseThrow(() -> new IllegalStateException("Reservation " + req.getReference() + " could not be stored"));
+  }
+
+  private static StockReservation sameRequest(StockReservation r, ReservationRequest req) {
+    if (!r.getProductId().equals(req.getProductId()) || !r.getQuantity().equals(req.getQuantity())) {
+      throw new IllegalArgumentException("Reference " + req.getReference() + " belongs to another reservation");
+    }
+    return r;
+  }
+
+  /**
+   * Turns the hold into a stock decrement (with a history row). Confirming a reservation that
+   * is already confirmed returns it unchanged.
+   */
+  @Transactional
+  public StockReservation confirm(Long reservationId) {
+    StockReservation locked = lockForUpdate(reservationId);
+    if (locked.getStatus() == ReservationStatus.CONFIRMED) return locked;
+    StockReservation r = active(locked);
+    productRepository.confirmReserved(r.getProductId(), r.getQuantity());
+
+    StockHistory h = new StockHistory();
+    h.setProductId(r.getProductId());
+    h.setQtyChange(-r.getQuantity());
+    h.setReason("reservation-" + r.getId() + (r.getReference() == null ? "" : ":" + r.getReference()));
+    h.setTimestamp(Instant.now());
+    historyRepository.save(h);
+    outboxRepository.recordStockChange(r.getProductId(), -r.getQuantity(), h.getReason());
+
+    return finish(r, ReservationStatus.CONFIRMED);
+  }
+
+  /**
+   * Gives the held stock back. A reservation that is already released or expired is returned
+   * unchanged; one past its expiry that the sweep has not reached yet is released now.
+   */
+  @Transactional
+  public StockReservation release(Long reservationId) {
+    StockReservation r = lockForUpdate(reservationId);
+    if (r.getStatus() == ReservationStatus.RELEASED || r.getStatus() == ReservationStatus.EXPIRED) return r;
+    if (r.getStatus() != ReservationStatus.ACTIVE) throw new IllegalStateException("Reservation is " + r.getStatus());
+    giveBack(r.getProductId(), r.getQuantity());
+    return finish(r, ReservationStatus.RELEASED);
+  }
+
+  @Transactional
+  public StockReservation extend(Long reservationId, long ttlSeconds) {
+    if (ttlSeconds <= 0) throw new IllegalArgumentException("ttlSeconds must be positive");
+    StockReservation r = lockActive(reservationId);
+    r.setExpiresAt(Instant.now().plusSeconds(ttlSeconds));
+    r.setUpdatedAt(Instant.now());
+    StockReservation saved = reservationRepository.save(r);
+    afterCommit(() -> wheel.schedule(saved.getId(), saved.getExpiresAt().toEpochMilli()));
+    return saved;
+  }
+
+  public Optional<StockReservation> findById(Long id) {
+    return reservationRepository.findById(id);
+  }
+
+  /**
+   * Expires the given reservations in bulk: one locking select, one reserved-decrement per
+   * product (in id order) and one status UPDATE. Ids that were confirmed, released or extended
+   * in the meantime are skipped by the query.
+   * @return number of reservations expired
+   */
+  @Transactional
+  public int expire(Collection<Long> ids) {
+    if (ids.isEmpty()) return 0;
+    List<StockReservation> expired = reservationRepository.findExpiredForUpdate(ids, Instant.now());
+    if (expired.isEmpty()) return 0;
+
+    Map<Long, Integer> perProduct = new TreeMap<>();
+    List<Long> expiredIds = new ArrayList<>(expired.size());
+    for (StockReservation r : expired) {
+      perProduct.merge(r.getProductId(), r.getQuantity(), Integer::sum);
+      expiredIds.add(r.getId());
+    }
+    perProduct.forEach(this::giveBack);
+    reservationRepository.updateStatus(expiredIds, ReservationStatus.EXPIRED, Instant.now());
+    return expiredIds.size();
+  }
+
+  /** Ids the wheel says are due now. */
+  public List<Long> dueReservations() {
+    return wheel.advance(System.currentTimeMillis());
+  }
+
+  /** Database-driven fallback for reservations this instance never scheduled (restarts, other nodes). */
+  public List<Long> overdueReservations(int limit) {
+    return reservationRepository.findExpiredIds(Instant.now(), PageRequest.of(0, limit));
+  }
+
+  /** Loads every active reservation into the wheel; called once at startup. */
+  public int loadActiveReservations() {
+    List<StockReservationRepository.ReservationExpiry> active = reservationRepository.findByStatus(ReservationStatus.ACTIVE);
+    active.forEach(r -> wheel.schedule(r.getId(), r.getExpiresAt().toEpochMilli()));
+    log.info("Loaded {} active stock reservations into the expiry wheel", active.size());
+    return active.size();
+  }
+
+  private StockReservation lockActive(Long reservationId) {
+    return active(lockForUpdate(reservationId));
+  }
+
+  private StockReservation lockForUpdate(Long reservationId) {
+    return reservationRepository.findByIdForUpdate(reservationId)
+      .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+  }
+
+  private static StockReservation active(StockReservation r) {
+    if (r.getStatus() != ReservationStatus.ACTIVE) {
+      throw new IllegalStateException("Reservation is " + r.getStatus());
+    }
+    if (!r.getExpiresAt().isAfter(Instant.now())) {
+      throw new IllegalStateException("Reservation has expired");
+    }
+    return r;
+  }
+
+  private StockReservation finish(StockReservation r, ReservationStatus status) {
+    r.setStatus(status);
+    r.setUpdatedAt(Instant.now());
+    StockReservation saved = reservationRepository.save(r);
+    afterCommit(() -> wheel.cancel(saved.getId()));
+    return saved;
+  }
+
+  private void giveBack(Long productId, int qty) {
+    productRepository.addReserved(productId, -qty);
+    HotStockLedger ledger = hotLedger.getIfAvailable();
+    if (ledger != null && ledger.isHot(productId)) {
+      afterCommit(() -> ledger.unhold(productId, qty));
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static void afterRollback(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) action.run();
+      }
+    });
+  }
+}
@@ -0,0 +1,176 @@
+package com.arka.inventory.benchmark;
+
+import com.arka.inventory.model.Product;
+import com.arka.inventory.model.StockHistory;
+import com.arka.inventory.repository.ProductRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import com.arka.inventory.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * N threads hammering a single SKU through the application: the old read-modify-write loop with
+ * 3 optimistic retries versus ProductService.updateStock (conditional UPDATE plus the history row
+ * and outbox event in the same transaction).
+ *
+ * Needs a real Postgres, so it only runs when a JDBC url is given; it creates and deletes its own
+ * product there:
+ *   mvn test -Dtest=StockContentionBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/inventorydb
+ *     [-Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=... -Dbenchmark.threads=32 -Dbenchmark.ops=200]
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+@SpringBootTest(properties = {
+  "spring.datasource.url=${benchmark.jdbc.url}",
+  "spring.datasource.username=${benchmark.jdbc.user:postgres}",
+  "spring.datasource.password=${benchmark.jdbc.password:}",
+  "spring.datasource.hikari.maximum-pool-size=${benchmark.threads:32}",
+  "spring.jpa.show-sql=false",
+  "eureka.client.enabled=false",
+  "inventory.hot-ledger.enabled=false"
+})
+class StockContentionBenchmarkTest {
+  private static final Logger log = LoggerFactory.getLogger(StockContentionBenchmarkTest.class);
+
+  private static final int THREADS = Integer.getInteger("benchmark.threads", 32);
+  private static final int OPS_PER_THREAD = Integer.getInteger("benchmark.ops", 200);
+
+  @Autowired private ProductService productService;
+  @Autowired private ProductRepository productRepository;
+  @Autowired private StockHistoryRepository historyRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private Long productId;
+
+  @BeforeEach
+  void createProduct() {
+    Product p = new Product();
+    p.setName("contention-benchmark");
+    p.setPrice(BigDecimal.ONE);
+    p.setStock(0);
+    // Never crosses its threshold, so no LOW_STOCK events are produced.
+    p.setReorderThreshold(0);
+    productId = productRepository.save(p).getId();
+  }
+
+  @AfterEach
+  void deleteProduct() {
+    jdbcTemplate.update("DELETE FROM stock_outbox WHERE product_id = ?", productId);
+    jdbcTemplate.update("DELETE FROM stock_history WHERE product_id = ?", productId);
+    productRepository.deleteById(productId);
+  }
+
+  @Test
+  void optimisticRetryLoop_vs_conditionalUpdate() throws Exception {
+    Result optimistic = run("optimistic-retry", this::optimisticDecrement);
+    Result atomic = run("conditional-update", () -> {
+      try {
+        productService.updateStock(productId, -1, "benchmark");
+        return true;
+      } catch (IllegalArgumentException e) {
+        return false;
+      }
+    });
+
+    log.info("{}", optimistic);
+    log.info("{}", atomic);
+
+    // The conditional update never loses a request to contention while stock is available.
+    assertEquals(0, atomic.failed);
+  }
+
+  private Result run(String name, Decrement op) throws Exception {
+    int initialStock = THREADS * OPS_PER_THREAD;
+    jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = ?", initialStock, productId);
+    jdbcTemplate.update("DELETE FROM stock_history WHERE product_id = ?", productId);
+
+    AtomicInteger ok = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      pool.submit(() -> {
+        start.await();
+        for (int i = 0; i < OPS_PER_THREAD; i++) {
+          if (op.decrement()) ok.incrementAndGet(); else failed.incrementAndGet();
+        }
+        return null;
+      });
+    }
+    long began = System.nanoTime();
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES));
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+
+    Integer stock = jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    assertEquals(initialStock - ok.get(), stock, name + " lost or duplicated an update");
+    Integer history = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_history WHERE product_id = ?", Integer.class, productId);
+    assertEquals(ok.get(), history, name + " did not write one history row per update");
+    return new Result(name, ok.get(), failed.get(), elapsedMs);
+  }
+
+  /** The previous ProductService.updateStock: read, add in Java, save, history row, 3 attempts in one transaction. */
+  private boolean optimisticDecrement() {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        int attempt = 0;
+        while (true) {
+          attempt++;
+          try {
+            Product prod = productRepository.findById(productId).orElseThrow();
+            int newStock = prod.getStock() - 1;
+            if (newStock < 0) throw new IllegalArgumentException("Stock cannot be negative");
+            prod.setStock(newStock);
+            productRepository.save(prod);
+
+            StockHistory h = new StockHistory();
+            h.setProductId(productId);
+            h.setQtyChange(-1);
+            h.setReason("benchmark");
+            h.setTimestamp(Instant.now());
+            historyRepository.save(h);
+            return;
+          } catch (OptimisticLockingFailureException ex) {
+            if (attempt >= 3) throw ex;
+          }
+        }
+      });
+      return true;
+    } catch (OptimisticLockingFailureException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Decrement {
+    boolean decrement();
+  }
+
+  private record Result(String name, int succeeded, int failed, long elapsedMs) {
+    @Override
+    public String toString() {
+      double opsPerSec = elapsedMs == 0 ? succeeded : succeeded * 1000.0 / elapsedMs;
+      return String.format("%-20s ok=%d failed=%d elapsed=%dms throughput=%.0f ops/s", name, succeeded, failed, elapsedMs, opsPerSec);
+    }
+  }
+}
@@ -1,7 +1,10 @@
 package com.arka.inventory.controller;
 
+import com.arka.inventory.dto.ProductPage;
 import com.arka.inventory.dto.ProductRequest;
+import com.arka.inventory.dto.StockAdjustmentRequest;
 import com.arka.inventory.model.Product;
+import com.arka.inventory.service.ProductListingService;
 import com.arka.inventory.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,9 +17,13 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +40,9 @@ class ProductControllerTest {
   @MockBean
   private ProductService productService;
 
+  @MockBean
+  private ProductListingService listingService;
+
   private Product testProduct;
 
   @BeforeEach
@@ -47,13 +57,39 @@ class ProductControllerTest {
 
   @Test
   void getAllProducts_ShouldReturnList() throws Exception {
-    when(productService.listAll()).thenReturn(Arrays.asList(testProduct));
+    Map<String, Object> row = Map.of("id", 1L, "name", "Test Product");
+    when(listingService.list(isNull(), eq(100), isNull(), isNull(), isNull(), isNull()))
+        .thenReturn(new ProductPage(List.of(row), null));
 
     mockMvc.perform(get("/api/products"))
         .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Next-Cursor"))
         .andExpect(jsonPath("$[0].name").value("Test Product"));
   }
 
+  @Test
+  void getProducts_WithCursorAndFilters_ShouldReturnNextCursorHeader() throws Exception {
+    Map<String, Object> row = Map.of("id", 60L, "stock", 3);
+    when(listingService.list(50L, 1, "Electronics", 1, 5, "stock"))
+        .thenReturn(new ProductPage(List.of(row), 60L));
+
+    mockMvc.perform(get("/api/products")
+            .param("after", "50").param("limit", "1").param("category", "Electronics")
+            .param("minStock", "1").param("maxStock", "5").param("fields", "stock"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "60"))
+        .andExpect(jsonPath("$[0].stock").value(3));
+  }
+
+  @Test
+  void getProducts_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+    when(listingService.list(any(), anyInt(), any(), any(), any(), eq("password")))
+        .thenThrow(new IllegalArgumentException("Unknown field: password"));
+
+    mockMvc.perform(get("/api/products").param("fields", "password"))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void getProductById_ShouldReturnProduct_WhenExists() throws Exception {
     when(productService.findById(anyLong())).thenReturn(Optional.of(testProduct));
@@ -92,6 +128,17 @@ class ProductControllerTest {
         .andExpect(jsonPath("$.stock").value(110));
   }
 
+  @Test
+  void updateStock_ShouldPassIdempotencyKey_WhenHeaderPresent() throws Exception {
+    when(productService.updateStock(1L, -2, "ORDER_RESERVE", "saga-7-reserve-1")).thenReturn(testProduct);
+
+    mockMvc.perform(put("/api/products/1/stock?delta=-2&reason=ORDER_RESERVE")
+            .header("Idempotency-Key", "saga-7-reserve-1"))
+        .andExpect(status().isOk());
+
+    verify(productService, never()).updateStock(anyLong(), anyInt(), anyString());
+  }
+
   @Test
   void updateStock_ShouldReturnBadRequest_WhenInvalidStock() throws Exception {
     when(productService.updateStock(anyLong(), anyInt(), anyString()))
@@ -101,6 +148,42 @@ class ProductControllerTest {
         .andExpect(status().isBadRequest());
   }
 
+  @Test
+  void updateStockBatch_ShouldReturnUpdatedProducts() throws Exception {
+    testProduct.setStock(90);
+    when(productService.updateStockBatch(anyList())).thenReturn(Arrays.asList(testProduct));
+
+    mockMvc.perform(put("/api/products/stock/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Arrays.asList(new StockAdjustmentRequest(1L, -10, "order-1")))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].stock").value(90));
+  }
+
+  @Test
+  void updateStockBatch_ShouldPassIdempotencyKey() throws Exception {
+    when(productService.updateStockBatch(anyList(), eq("bulk-import-1-batch"))).thenReturn(Arrays.asList(testProduct));
+
+    mockMvc.perform(put("/api/products/stock/batch")
+            .header("Idempotency-Key", "bulk-import-1-batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Arrays.asList(new StockAdjustmentRequest(1L, -10, "order-1")))))
+        .andExpect(status().isOk());
+
+    verify(productService, never()).updateStockBatch(anyList());
+  }
+
+  @Test
+  void updateStockBatch_ShouldReturnBadRequest_WhenInsufficientStock() throws Exception {
+    when(productService.updateStockBatch(anyList()))
+        .thenThrow(new IllegalArgumentException("Stock cannot be negative for product 1"));
+
+    mockMvc.perform(put("/api/products/stock/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Arrays.asList(new StockAdjustmentRequest(1L, -200, "order-1")))))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void getLowStock_ShouldReturnLowStockProducts() throws Exception {
     testProduct.setStock(5);
@@ -113,11 +196,21 @@ class ProductControllerTest {
   }
 
   @Test
-  void getLowStock_ShouldUseDefaultThreshold() throws Exception {
-    when(productService.lowStock(10)).thenReturn(Arrays.asList(testProduct));
+  void getLowStock_WithoutThreshold_ShouldUsePerProductThresholds() throws Exception {
+    when(productService.lowStock(null)).thenReturn(Arrays.asList(testProduct));
 
     mockMvc.perform(get("/api/products/low-stock"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].name").value("Test Product"));
   }
-}
\ No newline at end of file
+
+  @Test
+  void getBatch_ShouldReturnRequestedProducts() throws Exception {
+    when(productService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(testProduct));
+
+    mockMvc.perform(get("/api/products/batch?ids=1,2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(1))
+        .andExpect(jsonPath("$[0].available").exists());
+  }
+}
@@ -0,0 +1,68 @@
+package com.arka.inventory.event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockNotifierTest {
+  private static final String URL = "http://provider-service/api/supply-orders/low-stock";
+
+  @Mock
+  private RestTemplate restTemplate;
+
+  private final List<StockEventMessage> messages = List.of(
+    new StockEventMessage(1, "LOW_STOCK", 7, "{\"productId\":7}"),
+    new StockEventMessage(2, "LOW_STOCK", 8, "{\"productId\":8}"),
+    new StockEventMessage(3, "LOW_STOCK", 9, "{\"productId\":9}"));
+
+  @Test
+  void publish_ShouldStopAtFirstFailure() {
+    when(restTemplate.postForEntity(eq(URL), any(HttpEntity.class), eq(Void.class)))
+      .thenReturn(ResponseEntity.ok().build())
+      .thenThrow(new ResourceAccessException("connect timed out"));
+
+    PublishResult result = new LowStockNotifier(restTemplate, true, URL).publish(messages);
+
+    assertEquals(Set.of(1L), result.accepted());
+    assertTrue(result.rejected().isEmpty());
+    assertTrue(result.unavailable());
+    verify(restTemplate, times(2)).postForEntity(eq(URL), any(HttpEntity.class), eq(Void.class));
+  }
+
+  @Test
+  void publish_WhenProviderRefusesOneEvent_ShouldCarryOn() {
+    when(restTemplate.postForEntity(eq(URL), any(HttpEntity.class), eq(Void.class)))
+      .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", HttpHeaders.EMPTY, null, null))
+      .thenReturn(ResponseEntity.ok().build());
+
+    PublishResult result = new LowStockNotifier(restTemplate, true, URL).publish(messages);
+
+    assertEquals(Set.of(2L, 3L), result.accepted());
+    assertEquals(Set.of(1L), result.rejected());
+    assertFalse(result.unavailable());
+  }
+
+  @Test
+  void publish_WhenDisabled_ShouldDropEverythingWithoutCalling() {
+    PublishResult result = new LowStockNotifier(restTemplate, false, URL).publish(messages);
+
+    assertEquals(Set.of(1L, 2L, 3L), result.accepted());
+    verifyNoInteractions(restTemplate);
+  }
+}
@@ -0,0 +1,122 @@
+package com.arka.inventory.event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SqsStockEventBrokerTest {
+
+  @Mock
+  private SqsClient sqsClient;
+
+  private static List<StockEventMessage> messages(int n) {
+    List<StockEventMessage> list = new ArrayList<>();
+    for (long i = 1; i <= n; i++) list.add(new StockEventMessage(i, "STOCK_CHANGED", 100 + i, "{}"));
+    return list;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<SendMessageBatchRequest> stubAndCapture(SendMessageBatchResponse... responses) {
+    List<SendMessageBatchRequest> requests = new ArrayList<>();
+    int[] call = {0};
+    when(sqsClient.sendMessageBatch(any(Consumer.class))).thenAnswer(inv -> {
+      SendMessageBatchRequest.Builder builder = SendMessageBatchRequest.builder();
+      inv.<Consumer<SendMessageBatchRequest.Builder>>getArgument(0).accept(builder);
+      requests.add(builder.build());
+      return responses[call[0]++];
+    });
+    return requests;
+  }
+
+  private static SendMessageBatchResponse ok(SendMessageBatchRequest req) {
+    return SendMessageBatchResponse.builder().successful(req.entries().stream()
+      .map(e -> SendMessageBatchResultEntry.builder().id(e.id()).build()).toList()).build();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void publish_ShouldSendInChunksOfTen() {
+    SqsStockEventBroker broker = new SqsStockEventBroker(sqsClient, "https://sqs/queue");
+    List<SendMessageBatchRequest> requests = new ArrayList<>();
+    when(sqsClient.sendMessageBatch(any(Consumer.class))).thenAnswer(inv -> {
+      SendMessageBatchRequest.Builder builder = SendMessageBatchRequest.builder();
+      inv.<Consumer<SendMessageBatchRequest.Builder>>getArgument(0).accept(builder);
+      SendMessageBatchRequest req = builder.build();
+      requests.add(req);
+      return ok(req);
+    });
+
+    PublishResult result = broker.publish(messages(23));
+
+    assertEquals(23, result.accepted().size());
+    assertFalse(result.unavailable());
+    assertEquals(List.of(10, 10, 3), requests.stream().map(r -> r.entries().size()).toList());
+    assertNull(requests.get(0).entries().get(0).messageGroupId());
+  }
+
+  @Test
+  void publish_OnFifoQueue_ShouldGroupByProductAndStopAfterFailure() {
+    SqsStockEventBroker broker = new SqsStockEventBroker(sqsClient, "https://sqs/queue.fifo");
+    SendMessageBatchResponse partial = SendMessageBatchResponse.builder()
+      .successful(SendMessageBatchResultEntry.builder().id("1").build())
+      .failed(BatchResultErrorEntry.builder().id("2").code("InternalError").senderFault(false).build())
+      .build();
+    List<SendMessageBatchRequest> requests = stubAndCapture(partial);
+
+    PublishResult result = broker.publish(messages(12));
+
+    assertEquals(Set.of(1L), result.accepted());
+    // a failure on the SQS side is not the message's fault, so it does not count as a refusal
+    assertTrue(result.rejected().isEmpty());
+    assertEquals(1, requests.size());
+    assertEquals("101", requests.get(0).entries().get(0).messageGroupId());
+    assertEquals("1", requests.get(0).entries().get(0).messageDeduplicationId());
+  }
+
+  @Test
+  void publish_ShouldReportRefusedEntries() {
+    SqsStockEventBroker broker = new SqsStockEventBroker(sqsClient, "https://sqs/queue");
+    stubAndCapture(SendMessageBatchResponse.builder()
+      .successful(SendMessageBatchResultEntry.builder().id("1").build())
+      .failed(BatchResultErrorEntry.builder().id("2").code("InvalidMessageContents").senderFault(true).build())
+      .build());
+
+    PublishResult result = broker.publish(messages(2));
+
+    assertEquals(Set.of(1L), result.accepted());
+    assertEquals(Set.of(2L), result.rejected());
+    assertFalse(result.unavailable());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void publish_WhenSqsIsUnreachable_ShouldReportUnavailable() {
+    SqsStockEventBroker broker = new SqsStockEventBroker(sqsClient, "https://sqs/queue");
+    when(sqsClient.sendMessageBatch(any(Consumer.class))).thenThrow(SdkClientException.create("connect timed out"));
+
+    PublishResult result = broker.publish(messages(12));
+
+    assertTrue(result.accepted().isEmpty());
+    assertTrue(result.rejected().isEmpty());
+    assertTrue(result.unavailable());
+    verify(sqsClient, times(1)).sendMessageBatch(any(Consumer.class));
+  }
+}
@@ -0,0 +1,132 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.dto.StockAdjustmentRequest;
+import com.arka.inventory.model.LedgerCheckpoint;
+import com.arka.inventory.model.Product;
+import com.arka.inventory.repository.LedgerCheckpointRepository;
+import com.arka.inventory.repository.ProductRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotStockLedgerTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private StockHistoryRepository historyRepository;
+
+  @Mock
+  private LedgerCheckpointRepository checkpointRepository;
+
+  @TempDir
+  Path journalDir;
+
+  private Product hotProduct;
+
+  @BeforeEach
+  void setUp() {
+    hotProduct = new Product();
+    hotProduct.setId(1L);
+    hotProduct.setStock(100);
+    lenient().when(productRepository.findAllById(anyIterable())).thenReturn(List.of(hotProduct));
+  }
+
+  private HotStockLedger newLedger() throws Exception {
+    HotStockLedger ledger = new HotStockLedger(productRepository, historyRepository, checkpointRepository,
+        "test", 0, List.of(1L), journalDir.toString(), false);
+    ledger.start();
+    return ledger;
+  }
+
+  @Test
+  void reserve_ShouldNeverOversell_UnderContention() throws Exception {
+    HotStockLedger ledger = newLedger();
+    AtomicInteger accepted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    for (int i = 0; i < 500; i++) {
+      pool.submit(() -> {
+        start.await();
+        try {
+          ledger.reserve(1L, -1, "order");
+          accepted.incrementAndGet();
+        } catch (IllegalArgumentException ignored) {
+          // sin stock
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+    assertEquals(100, accepted.get());
+    assertEquals(0, ledger.available(1L));
+  }
+
+  @Test
+  void flush_ShouldHandPendingEntriesToSink_AndRequeueOnFailure() throws Exception {
+    HotStockLedger ledger = newLedger();
+    ledger.reserve(1L, -5, "order-1");
+    ledger.reserve(1L, -2, "order-2");
+
+    assertThrows(IllegalStateException.class, () -> ledger.flush(batch -> { throw new IllegalStateException("db down"); }));
+
+    List<HotStockLedger.LedgerEntry> flushed = new ArrayList<>();
+    assertEquals(2, ledger.flush(flushed::addAll));
+    assertEquals(-7, flushed.stream().mapToInt(HotStockLedger.LedgerEntry::delta).sum());
+    assertEquals(0, ledger.flush(flushed::addAll));
+  }
+
+  @Test
+  void start_ShouldReplayJournalEntriesNewerThanCheckpoint() throws Exception {
+    HotStockLedger first = newLedger();
+    first.reserve(1L, -10, "order-1");
+    first.reserve(1L, -5, "order-2");
+    first.stop();
+
+    // El checkpoint cubre la primera entrada; la segunda no llegó a la base de datos
+    when(checkpointRepository.findById("test")).thenReturn(Optional.of(new LedgerCheckpoint("test", 1L)));
+    hotProduct.setStock(90);
+
+    HotStockLedger restarted = newLedger();
+    assertEquals(85, restarted.available(1L));
+
+    List<HotStockLedger.LedgerEntry> flushed = new ArrayList<>();
+    restarted.flush(flushed::addAll);
+    assertEquals(1, flushed.size());
+    assertEquals("order-2", flushed.get(0).reason());
+  }
+
+  @Test
+  void reserveAll_ShouldRevertAppliedLines_WhenOneFails() throws Exception {
+    HotStockLedger ledger = newLedger();
+
+    assertThrows(IllegalArgumentException.class, () -> ledger.reserveAll(List.of(
+        new StockAdjustmentRequest(1L, -60, "order-1"),
+        new StockAdjustmentRequest(1L, -60, "order-1"))));
+
+    assertEquals(100, ledger.available(1L));
+  }
+}
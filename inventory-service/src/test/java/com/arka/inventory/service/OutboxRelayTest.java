@@ -0,0 +1,191 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.event.LowStockNotifier;
+import com.arka.inventory.event.PublishResult;
+import com.arka.inventory.event.StockEventBroker;
+import com.arka.inventory.event.StockEventMessage;
+import com.arka.inventory.model.OutboxEvent;
+import com.arka.inventory.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+  @Mock
+  private OutboxEventRepository outboxRepository;
+
+  @Mock
+  private StockEventBroker broker;
+
+  @Mock
+  private LowStockNotifier lowStockNotifier;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    relay = new OutboxRelay(outboxRepository, broker, lowStockNotifier, objectMapper, 100, 168, 3, 1000, 5000);
+  }
+
+  private OutboxEvent event(long id, long productId) {
+    OutboxEvent e = new OutboxEvent();
+    e.setId(id);
+    e.setProductId(productId);
+    e.setEventType(OutboxEvent.STOCK_CHANGED);
+    e.setDelta(-2);
+    e.setStock(10);
+    e.setReserved(3);
+    e.setProductVersion(4L);
+    e.setReason("order-1");
+    e.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+    return e;
+  }
+
+  @Test
+  void relayBatch_WithNothingPending_ShouldNotCallBroker() {
+    when(outboxRepository.lockPending(100)).thenReturn(List.of());
+
+    assertEquals(0, relay.relayBatch());
+    verifyNoInteractions(broker, lowStockNotifier);
+  }
+
+  @Test
+  void relayBatch_ShouldMarkAcceptedAndRetryRejected() {
+    OutboxEvent rejected = event(2, 8);
+    when(outboxRepository.lockPending(100)).thenReturn(List.of(event(1, 7), rejected));
+    when(broker.publish(anyList())).thenReturn(new PublishResult(Set.of(1L), Set.of(2L), false));
+
+    Instant before = Instant.now();
+    assertEquals(1, relay.relayBatch());
+
+    verify(outboxRepository).markPublished(eq(Set.of(1L)), any(Instant.class));
+    assertEquals(1, rejected.getAttempts());
+    assertFalse(rejected.getNextAttemptAt().isBefore(before.plusMillis(1000)));
+    assertNull(rejected.getDeadLetteredAt());
+  }
+
+  @Test
+  void relayBatch_ShouldDeadLetterAfterMaxAttempts() {
+    OutboxEvent poison = event(2, 8);
+    poison.setAttempts(2);
+    when(outboxRepository.lockPending(100)).thenReturn(List.of(poison));
+    when(broker.publish(anyList())).thenReturn(new PublishResult(Set.of(), Set.of(2L), false));
+
+    assertEquals(0, relay.relayBatch());
+
+    assertEquals(3, poison.getAttempts());
+    assertNotNull(poison.getDeadLetteredAt());
+    verify(outboxRepository, never()).markPublished(any(), any());
+  }
+
+  @Test
+  void relayBatch_WhenDestinationIsDown_ShouldDeferWithoutCountingAttempts() {
+    OutboxEvent tried = event(1, 7);
+    tried.setAttempts(2);
+    OutboxEvent untried = event(2, 8);
+    when(outboxRepository.lockPending(100)).thenReturn(List.of(tried, untried));
+    when(broker.publish(anyList())).thenReturn(new PublishResult(Set.of(), Set.of(), true));
+
+    Instant before = Instant.now();
+    assertEquals(0, relay.relayBatch());
+
+    assertEquals(2, tried.getAttempts());
+    assertEquals(0, untried.getAttempts());
+    assertNull(tried.getDeadLetteredAt());
+    assertFalse(untried.getNextAttemptAt().isBefore(before.plusMillis(1000)));
+
+    // a second outage in a row waits longer
+    relay.relayBatch();
+    assertFalse(untried.getNextAttemptAt().isBefore(before.plusMillis(2000)));
+    assertNull(tried.getDeadLetteredAt());
+  }
+
+  @Test
+  void relayBatch_AfterOutage_ShouldResetDestinationBackoff() {
+    OutboxEvent e = event(1, 7);
+    when(outboxRepository.lockPending(100)).thenReturn(List.of(e));
+    when(broker.publish(anyList()))
+      .thenReturn(new PublishResult(Set.of(), Set.of(), true))
+      .thenReturn(new PublishResult(Set.of(1L), Set.of(), false))
+      .thenReturn(new PublishResult(Set.of(), Set.of(), true));
+
+    relay.relayBatch();
+    relay.relayBatch();
+    Instant before = Instant.now();
+    relay.relayBatch();
+
+    assertTrue(e.getNextAttemptAt().isBefore(before.plusMillis(2000)));
+  }
+
+  @Test
+  void backoff_ShouldDoubleUpToTheCap() {
+    assertEquals(Duration.ofMillis(1000), relay.backoff(1));
+    assertEquals(Duration.ofMillis(4000), relay.backoff(3));
+    assertEquals(Duration.ofMillis(5000), relay.backoff(4));
+    assertEquals(Duration.ofMillis(5000), relay.backoff(60));
+  }
+
+  @Test
+  void toMessage_ShouldCarrySnapshotAndAvailable() throws Exception {
+    StockEventMessage message = relay.toMessage(event(5, 7));
+
+    JsonNode body = objectMapper.readTree(message.body());
+    assertEquals(5L, message.id());
+    assertEquals(7L, message.productId());
+    assertEquals("STOCK_CHANGED", body.get("type").asText());
+    assertEquals(7, body.get("available").asInt());
+    assertEquals(4, body.get("version").asInt());
+  }
+
+  private OutboxEvent lowStockEvent(long id, long productId) {
+    OutboxEvent e = event(id, productId);
+    e.setEventType(OutboxEvent.LOW_STOCK);
+    e.setCategory("Peripherals");
+    e.setReorderThreshold(12);
+    return e;
+  }
+
+  @Test
+  void relayBatch_ShouldSendLowStockToNotifierAndRetryUndelivered() {
+    OutboxEvent undelivered = lowStockEvent(3, 8);
+    when(outboxRepository.lockPending(100)).thenReturn(List.of(event(1, 7), lowStockEvent(2, 7), undelivered));
+    when(broker.publish(anyList())).thenReturn(new PublishResult(Set.of(1L), Set.of(), false));
+    when(lowStockNotifier.publish(anyList())).thenReturn(new PublishResult(Set.of(2L), Set.of(), true));
+
+    assertEquals(2, relay.relayBatch());
+
+    verify(broker).publish(argThat(messages -> messages.size() == 1 && messages.get(0).id() == 1L));
+    verify(lowStockNotifier).publish(argThat(messages -> messages.size() == 2));
+    assertEquals(0, undelivered.getAttempts());
+    assertNotNull(undelivered.getNextAttemptAt());
+    verify(outboxRepository).markPublished(eq(Set.of(1L, 2L)), any(Instant.class));
+  }
+
+  @Test
+  void toMessage_ForLowStock_ShouldCarryThresholdAndPreviousStock() throws Exception {
+    JsonNode body = objectMapper.readTree(relay.toMessage(lowStockEvent(5, 7)).body());
+
+    assertEquals("LOW_STOCK", body.get("type").asText());
+    assertEquals(12, body.get("previousStock").asInt());
+    assertEquals(10, body.get("stock").asInt());
+    assertEquals(12, body.get("reorderThreshold").asInt());
+    assertEquals("Peripherals", body.get("category").asText());
+  }
+}
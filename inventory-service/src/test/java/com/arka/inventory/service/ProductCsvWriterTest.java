@@ -0,0 +1,40 @@
+package com.arka.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCsvWriterTest {
+
+  @Test
+  void writeRow_ShouldFormatPriceWithTwoDecimals() throws Exception {
+    StringWriter out = new StringWriter();
+    ProductCsvWriter csv = new ProductCsvWriter(out).writeHeader();
+
+    csv.writeRow(1L, "Mouse", 5, new BigDecimal("19.5"), "Peripherals");
+
+    assertEquals(ProductCsvWriter.HEADER + "1,Mouse,5,19.50,Peripherals\n", out.toString());
+    assertEquals(1, csv.rows());
+  }
+
+  @Test
+  void writeRow_ShouldQuoteFieldsContainingSeparatorsOrQuotes() throws Exception {
+    StringWriter out = new StringWriter();
+
+    new ProductCsvWriter(out).writeRow(2L, "Cable, \"USB-C\"", 0, BigDecimal.ONE, "A\nB");
+
+    assertEquals("2,\"Cable, \"\"USB-C\"\"\",0,1.00,\"A\nB\"\n", out.toString());
+  }
+
+  @Test
+  void writeRow_ShouldLeaveNullFieldsEmpty() throws Exception {
+    StringWriter out = new StringWriter();
+
+    new ProductCsvWriter(out).writeRow(3L, "Keyboard", 7, null, null);
+
+    assertEquals("3,Keyboard,7,,\n", out.toString());
+  }
+}
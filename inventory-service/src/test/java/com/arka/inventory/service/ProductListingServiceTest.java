@@ -0,0 +1,79 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.dto.ProductPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductListingServiceTest {
+
+  @Mock
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  private ProductListingService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new ProductListingService(jdbcTemplate);
+  }
+
+  @Test
+  void parseFields_ShouldAlwaysIncludeId() {
+    assertEquals(List.of("id", "name", "stock"), ProductListingService.parseFields("name, stock"));
+  }
+
+  @Test
+  void parseFields_ShouldRejectUnknownColumns() {
+    assertThrows(IllegalArgumentException.class, () -> ProductListingService.parseFields("name,password"));
+  }
+
+  @Test
+  void list_ShouldPushFiltersAndProjectionIntoSql() {
+    when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), anyRowMapper())).thenReturn(List.of());
+
+    service.list(42L, 20, "Electronics", 1, null, "name");
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+    verify(jdbcTemplate).query(sql.capture(), params.capture(), anyRowMapper());
+    assertEquals("SELECT id AS \"id\", name AS \"name\" FROM products WHERE id > :after AND category = :category" +
+      " AND stock >= :minStock ORDER BY id LIMIT :limit", sql.getValue());
+    assertEquals(42L, params.getValue().getValue("after"));
+    assertEquals(21, params.getValue().getValue("limit"));
+  }
+
+  @Test
+  void list_WhenMoreRowsThanLimit_ShouldReturnCursor() {
+    List<Map<String, Object>> rows = List.of(Map.of("id", 1L), Map.of("id", 2L), Map.of("id", 3L));
+    when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), anyRowMapper())).thenReturn(rows);
+
+    ProductPage page = service.list(null, 2, null, null, null, null);
+
+    assertEquals(2, page.getItems().size());
+    assertEquals(2L, page.getNextCursor());
+  }
+
+  @Test
+  void list_ShouldRejectLimitOutOfRange() {
+    assertThrows(IllegalArgumentException.class, () -> service.list(null, 0, null, null, null, null));
+    assertThrows(IllegalArgumentException.class, () -> service.list(null, ProductListingService.MAX_LIMIT + 1, null, null, null, null));
+  }
+
+  private static RowMapper<Map<String, Object>> anyRowMapper() {
+    return any();
+  }
+}
@@ -1,6 +1,11 @@
 package com.arka.inventory.service;
 
+import com.arka.inventory.dto.StockAdjustmentRequest;
+import com.arka.inventory.model.OutboxEvent;
 import com.arka.inventory.model.Product;
+import com.arka.inventory.repository.LedgerCheckpointRepository;
+import com.arka.inventory.repository.OutboxEventRepository;
+import com.arka.inventory.repository.ProcessedStockRequestRepository;
 import com.arka.inventory.repository.ProductRepository;
 import com.arka.inventory.repository.StockHistoryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,9 +14,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +37,18 @@ class ProductServiceTest {
   @Mock
   private StockHistoryRepository historyRepository;
 
+  @Mock
+  private LedgerCheckpointRepository checkpointRepository;
+
+  @Mock
+  private ObjectProvider<HotStockLedger> hotLedger;
+
+  @Mock
+  private OutboxEventRepository outboxRepository;
+
+  @Mock
+  private ProcessedStockRequestRepository processedRequests;
+
   @InjectMocks
   private ProductService productService;
 
@@ -70,32 +92,245 @@ class ProductServiceTest {
 
   @Test
   void updateStock_ShouldIncreaseStock_WhenPositiveDelta() {
+    when(productRepository.adjustStock(1L, 50)).thenReturn(1);
     when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
-    when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
     Product result = productService.updateStock(1L, 50, "Restock");
 
     assertNotNull(result);
-    verify(productRepository, times(1)).save(any(Product.class));
+    verify(productRepository, never()).save(any(Product.class));
     verify(historyRepository, times(1)).save(any());
+    verify(outboxRepository).recordStockChange(1L, 50, "Restock");
+  }
+
+  @Test
+  void updateStock_WithNewIdempotencyKey_ShouldApplyOnce() {
+    when(processedRequests.claim("saga-7-reserve-1", 1L, -10)).thenReturn(1);
+    when(productRepository.adjustStock(1L, -10)).thenReturn(1);
+    when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
+
+    productService.updateStock(1L, -10, "ORDER_RESERVE", "saga-7-reserve-1");
+
+    verify(productRepository, times(1)).adjustStock(1L, -10);
+    verify(outboxRepository).recordStockChange(1L, -10, "ORDER_RESERVE");
+  }
+
+  @Test
+  void updateStock_WithRepeatedIdempotencyKey_ShouldNotChangeStock() {
+    when(processedRequests.claim("saga-7-reserve-1", 1L, -10)).thenReturn(0);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+    Product result = productService.updateStock(1L, -10, "ORDER_RESERVE", "saga-7-reserve-1");
+
+    assertEquals(100, result.getStock());
+    verify(productRepository, never()).adjustStock(anyLong(), anyInt());
+    verify(historyRepository, never()).save(any());
+    verify(outboxRepository, never()).recordStockChange(anyLong(), anyInt(), anyString());
   }
 
   @Test
   void updateStock_ShouldDecreaseStock_WhenNegativeDelta() {
+    when(productRepository.adjustStock(1L, -10)).thenReturn(1);
     when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
-    when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
     Product result = productService.updateStock(1L, -10, "Order");
 
     assertNotNull(result);
-    verify(productRepository, times(1)).save(any(Product.class));
+    verify(productRepository, times(1)).adjustStock(1L, -10);
+  }
+
+  @Test
+  void updateStock_ShouldRecordLowStock_WhenCrossingThresholdDownward() {
+    testProduct.setStock(8); // after the update: 12 - 4
+    when(productRepository.adjustStock(1L, -4)).thenReturn(1);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+    productService.updateStock(1L, -4, "Order");
+
+    verify(outboxRepository).save(argThat(e -> OutboxEvent.LOW_STOCK.equals(e.getEventType())
+        && e.getProductId() == 1L && e.getStock() - e.getDelta() == 12 && e.getStock() == 8 && e.getReorderThreshold() == 10));
+  }
+
+  @Test
+  void updateStock_ShouldNotRecordLowStock_WhenAlreadyBelowThreshold() {
+    testProduct.setStock(5); // after the update: 8 - 3
+    when(productRepository.adjustStock(1L, -3)).thenReturn(1);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+    productService.updateStock(1L, -3, "Order");
+
+    verify(outboxRepository, never()).save(any());
   }
 
   @Test
   void updateStock_ShouldThrowException_WhenStockWouldBeNegative() {
-    when(productRepository.findById(anyLong())).thenReturn(Optional.of(testProduct));
+    when(productRepository.adjustStock(1L, -200)).thenReturn(0);
+    when(productRepository.existsById(1L)).thenReturn(true);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> productService.updateStock(1L, -200, "Order"));
+    assertEquals("Stock cannot be negative", ex.getMessage());
+    verify(historyRepository, never()).save(any());
+  }
+
+  @Test
+  void updateStock_ShouldThrowException_WhenProductNotFound() {
+    when(productRepository.adjustStock(99L, -1)).thenReturn(0);
+    when(productRepository.existsById(99L)).thenReturn(false);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> productService.updateStock(99L, -1, "Order"));
+    assertEquals("Product not found", ex.getMessage());
+  }
+
+  @Test
+  void updateStockBatch_ShouldApplyAllLines_WhenStockSufficient() {
+    Product other = new Product();
+    other.setId(2L);
+    other.setStock(5);
+    when(productRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(testProduct, other));
+
+    List<Product> result = productService.updateStockBatch(Arrays.asList(
+        new StockAdjustmentRequest(1L, -10, "order-1"),
+        new StockAdjustmentRequest(2L, -5, "order-1"),
+        new StockAdjustmentRequest(1L, -20, "order-1")));
+
+    assertEquals(2, result.size());
+    assertEquals(70, testProduct.getStock());
+    assertEquals(0, other.getStock());
+    verify(historyRepository, times(1)).saveAll(argThat(h -> ((List<?>) h).size() == 3));
+    verify(outboxRepository).recordStockChange(1L, -30, "batch");
+    verify(outboxRepository).recordStockChange(2L, -5, "batch");
+    verify(outboxRepository, never()).save(any());
+  }
+
+  @Test
+  void updateStockBatch_WithNewIdempotencyKey_ShouldApplyOnce() {
+    when(processedRequests.claim("bulk-import-1-batch", 1L, -10)).thenReturn(1);
+    when(productRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(testProduct));
+
+    productService.updateStockBatch(Arrays.asList(new StockAdjustmentRequest(1L, -10, "bulk-import-1")), "bulk-import-1-batch");
+
+    assertEquals(90, testProduct.getStock());
+    verify(historyRepository).saveAll(any());
+  }
+
+  @Test
+  void updateStockBatch_WithRepeatedIdempotencyKey_ShouldNotChangeStock() {
+    when(processedRequests.claim("bulk-import-1-batch", 1L, -10)).thenReturn(0);
+    when(productRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(testProduct));
+
+    List<Product> result = productService.updateStockBatch(Arrays.asList(
+        new StockAdjustmentRequest(1L, -10, "bulk-import-1")), "bulk-import-1-batch");
+
+    assertEquals(100, result.get(0).getStock());
+    verify(productRepository, never()).findAllByIdForUpdate(anyCollection());
+    verify(historyRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void updateStockBatch_ShouldRecordLowStock_ForLinesCrossingTheirThreshold() {
+    Product other = new Product();
+    other.setId(2L);
+    other.setStock(20);
+    other.setReorderThreshold(15);
+    when(productRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(testProduct, other));
+
+    productService.updateStockBatch(Arrays.asList(
+        new StockAdjustmentRequest(1L, -10, "order-1"),
+        new StockAdjustmentRequest(2L, -6, "order-1")));
+
+    verify(outboxRepository, times(1)).save(argThat(e -> OutboxEvent.LOW_STOCK.equals(e.getEventType())
+        && e.getProductId() == 2L && e.getStock() == 14 && e.getReorderThreshold() == 15));
+  }
+
+  @Test
+  void updateStockBatch_ShouldRejectWholeBatch_WhenAnyLineWouldGoNegative() {
+    Product other = new Product();
+    other.setId(2L);
+    other.setStock(5);
+    when(productRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(testProduct, other));
+
+    assertThrows(IllegalArgumentException.class, () -> productService.updateStockBatch(Arrays.asList(
+        new StockAdjustmentRequest(1L, -10, "order-1"),
+        new StockAdjustmentRequest(2L, -6, "order-1"))));
+    verify(historyRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void updateStockBatch_ShouldThrowException_WhenProductMissing() {
+    when(productRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(testProduct));
+
+    assertThrows(IllegalArgumentException.class, () -> productService.updateStockBatch(Arrays.asList(
+        new StockAdjustmentRequest(1L, -10, "order-1"),
+        new StockAdjustmentRequest(99L, -1, "order-1"))));
+  }
+
+  @Test
+  void updateStock_ShouldUseHotLedger_WhenProductIsHot() {
+    HotStockLedger ledger = mock(HotStockLedger.class);
+    when(hotLedger.getIfAvailable()).thenReturn(ledger);
+    when(ledger.isHot(1L)).thenReturn(true);
+    when(ledger.reserve(1L, -10, "Order")).thenReturn(90);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+    Product result = productService.updateStock(1L, -10, "Order");
+
+    assertEquals(90, result.getStock());
+    // la entidad administrada no se modifica; el ledger la escribe en diferido
+    assertEquals(100, testProduct.getStock());
+    verify(productRepository, never()).adjustStock(anyLong(), anyInt());
+    verify(historyRepository, never()).save(any());
+    verifyNoInteractions(outboxRepository);
+  }
 
-    assertThrows(IllegalArgumentException.class, () -> productService.updateStock(1L, -200, "Order"));
+  @Test
+  void updateStock_ShouldRevertHotLedger_WhenTransactionRollsBack() {
+    HotStockLedger ledger = mock(HotStockLedger.class);
+    when(hotLedger.getIfAvailable()).thenReturn(ledger);
+    when(ledger.isHot(1L)).thenReturn(true);
+    when(ledger.reserve(1L, -10, "Order")).thenReturn(90);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      productService.updateStock(1L, -10, "Order");
+      verify(ledger, never()).revert(any());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(ledger).revert(argThat(lines -> lines.size() == 1
+        && lines.get(0).getProductId() == 1L && lines.get(0).getDelta() == -10));
+  }
+
+  @Test
+  void updateStock_ShouldRevertHotLedger_WhenProductMissingOutsideTransaction() {
+    HotStockLedger ledger = mock(HotStockLedger.class);
+    when(hotLedger.getIfAvailable()).thenReturn(ledger);
+    when(ledger.isHot(1L)).thenReturn(true);
+    when(ledger.reserve(1L, -10, "Order")).thenReturn(90);
+    when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(IllegalArgumentException.class, () -> productService.updateStock(1L, -10, "Order"));
+
+    verify(ledger).revert(argThat(lines -> lines.size() == 1 && lines.get(0).getDelta() == -10));
+  }
+
+  @Test
+  void applyLedgerEntries_ShouldWriteNetDeltaHistoryAndCheckpoint() {
+    Instant now = Instant.now();
+    productService.applyLedgerEntries("node-a", Arrays.asList(
+        new HotStockLedger.LedgerEntry(7, 1L, -3, "order-1", now),
+        new HotStockLedger.LedgerEntry(8, 1L, -2, "order-2", now),
+        new HotStockLedger.LedgerEntry(9, 2L, 5, "restock", now)));
+
+    verify(productRepository).addStock(1L, -5);
+    verify(productRepository).addStock(2L, 5);
+    verify(outboxRepository).recordStockChange(1L, -5, "ledger:node-a");
+    verify(historyRepository).saveAll(argThat(h -> ((List<?>) h).size() == 3));
+    verify(checkpointRepository).save(argThat(c -> "node-a".equals(c.getNode()) && c.getLastSeq() == 9L));
   }
 
   @Test
@@ -119,4 +354,32 @@ class ProductServiceTest {
     assertEquals(1, result.size());
     assertTrue(result.get(0).getStock() < 10);
   }
+
+  @Test
+  void lowStock_WithoutThreshold_ShouldUsePerProductThresholds() {
+    when(productRepository.findLowStock()).thenReturn(Arrays.asList(testProduct));
+
+    assertEquals(1, productService.lowStock(null).size());
+    verify(productRepository, never()).findByStockLessThan(any());
+  }
+
+  @Test
+  void findAllById_ShouldReadAllProductsInOneQuery() {
+    Product other = new Product();
+    other.setId(2L);
+    when(productRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(other, testProduct));
+
+    var result = productService.findAllById(Arrays.asList(2L, 1L, 9L));
+
+    assertEquals(Arrays.asList(1L, 2L), result.stream().map(Product::getId).toList());
+    verify(productRepository, times(1)).findAllById(anyIterable());
+  }
+
+  @Test
+  void findAllById_ShouldRejectEmptyOrOversizedRequests() {
+    assertThrows(IllegalArgumentException.class, () -> productService.findAllById(java.util.List.of()));
+    var tooMany = java.util.stream.LongStream.rangeClosed(1, ProductService.MAX_BATCH_IDS + 1).boxed().toList();
+    assertThrows(IllegalArgumentException.class, () -> productService.findAllById(tooMany));
+    verifyNoInteractions(productRepository);
+  }
 }
@@ -0,0 +1,58 @@
+package com.arka.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationTimingWheelTest {
+
+  private static final long START = 1_700_000_000_000L;
+
+  @Test
+  void advance_ShouldReturnIdsOnlyOnceTheirExpiryPassed() {
+    ReservationTimingWheel wheel = new ReservationTimingWheel(1000, START);
+    wheel.schedule(1L, START + 5_000);
+    wheel.schedule(2L, START + 30_000);
+
+    assertTrue(wheel.advance(START + 4_000).isEmpty());
+    assertEquals(List.of(1L), wheel.advance(START + 6_000));
+    assertEquals(List.of(2L), wheel.advance(START + 31_000));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void advance_ShouldCascadeFromCoarserLevels() {
+    ReservationTimingWheel wheel = new ReservationTimingWheel(1000, START);
+    wheel.schedule(1L, START + 15 * 60_000);        // nivel 1
+    wheel.schedule(2L, START + 2 * 3_600_000);      // nivel 2
+    wheel.schedule(3L, START + 5L * 24 * 3_600_000); // overflow
+
+    assertTrue(wheel.advance(START + 15 * 60_000 - 2_000).isEmpty());
+    assertEquals(List.of(1L), wheel.advance(START + 15 * 60_000 + 1_000));
+    assertTrue(wheel.advance(START + 2 * 3_600_000 - 2_000).isEmpty());
+    assertEquals(List.of(2L), wheel.advance(START + 2 * 3_600_000 + 1_000));
+    assertEquals(List.of(3L), wheel.advance(START + 5L * 24 * 3_600_000 + 1_000));
+  }
+
+  @Test
+  void cancelAndReschedule_ShouldDropStaleEntries() {
+    ReservationTimingWheel wheel = new ReservationTimingWheel(1000, START);
+    wheel.schedule(1L, START + 5_000);
+    wheel.schedule(2L, START + 5_000);
+    wheel.cancel(1L);
+    wheel.schedule(2L, START + 60_000); // extend
+
+    assertTrue(wheel.advance(START + 10_000).isEmpty());
+    assertEquals(List.of(2L), wheel.advance(START + 61_000));
+  }
+
+  @Test
+  void schedule_ShouldExpireImmediately_WhenAlreadyPastDue() {
+    ReservationTimingWheel wheel = new ReservationTimingWheel(1000, START);
+    wheel.schedule(1L, START - 1_000);
+
+    assertEquals(List.of(1L), wheel.advance(START));
+  }
+}
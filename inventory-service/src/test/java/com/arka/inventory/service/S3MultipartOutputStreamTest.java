@@ -0,0 +1,118 @@
+package com.arka.inventory.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3MultipartOutputStreamTest {
+  private static final int PART = S3MultipartOutputStream.MIN_PART_SIZE;
+
+  @Mock
+  private S3Client s3Client;
+
+  private S3MultipartOutputStream stream;
+
+  @BeforeEach
+  void setUp() {
+    stream = new S3MultipartOutputStream(s3Client, "bucket", "reports/a.csv", "text/csv", PART);
+  }
+
+  @Test
+  void close_WithLessThanOnePart_ShouldUseSinglePut() throws Exception {
+    stream.write("ID,Name\n".getBytes(StandardCharsets.UTF_8));
+    stream.close();
+
+    ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+    verify(s3Client).putObject(any(PutObjectRequest.class), body.capture());
+    assertEquals(8L, body.getValue().optionalContentLength().orElse(-1L));
+    verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+  }
+
+  @Test
+  void write_BeyondPartSize_ShouldUploadPartsAndComplete() throws Exception {
+    when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+      .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+    when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+      .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+    byte[] chunk = new byte[PART / 2 + 1];
+    for (int i = 0; i < 4; i++) stream.write(chunk);
+    stream.close();
+
+    ArgumentCaptor<UploadPartRequest> parts = ArgumentCaptor.forClass(UploadPartRequest.class);
+    verify(s3Client, times(3)).uploadPart(parts.capture(), any(RequestBody.class));
+    assertEquals(PART, parts.getAllValues().get(0).contentLength());
+    assertEquals(3, parts.getAllValues().get(2).partNumber());
+    assertEquals(4L * chunk.length - 2L * PART, parts.getAllValues().get(2).contentLength());
+
+    ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+    verify(s3Client).completeMultipartUpload(complete.capture());
+    assertEquals(3, complete.getValue().multipartUpload().parts().size());
+  }
+
+  @Test
+  void partFailure_ShouldAbortUpload() {
+    when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+      .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+    when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+      .thenThrow(SdkClientException.create("connection reset"));
+
+    assertThrows(IOException.class, () -> stream.write(new byte[PART + 1]));
+
+    verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    assertThrows(IOException.class, () -> stream.write(1));
+  }
+
+  @Test
+  void finish_ShouldUploadLastPartWithoutPublishing() throws Exception {
+    when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+      .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+    when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+      .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+    stream.write(new byte[PART + 1]);
+    stream.finish();
+
+    verify(s3Client, times(2)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+    verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    assertThrows(IOException.class, () -> stream.write(1));
+
+    stream.complete();
+    verify(s3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+  }
+
+  @Test
+  void abort_AfterComplete_ShouldDeleteObject() throws Exception {
+    stream.write(new byte[10]);
+    stream.complete();
+    stream.abort();
+
+    verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    verify(s3Client).deleteObject(argThat((DeleteObjectRequest r) -> "reports/a.csv".equals(r.key())));
+    verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+  }
+
+  @Test
+  void abort_BeforeFirstPart_ShouldNotCallS3() throws Exception {
+    stream.write(new byte[10]);
+    stream.abort();
+    stream.close();
+
+    verifyNoInteractions(s3Client);
+  }
+}
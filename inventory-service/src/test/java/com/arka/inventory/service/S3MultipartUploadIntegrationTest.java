@@ -0,0 +1,62 @@
+package com.arka.inventory.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trip against an S3-compatible stand-in, e.g.
+ *   docker run -p 4566:4566 localstack/localstack
+ *   mvn test -Dtest=S3MultipartUploadIntegrationTest -Ds3.endpoint=http://localhost:4566
+ */
+@EnabledIfSystemProperty(named = "s3.endpoint", matches = ".+")
+class S3MultipartUploadIntegrationTest {
+  private static final String BUCKET = "arka-reports-it";
+
+  private S3Client s3Client;
+
+  @BeforeEach
+  void connect() {
+    s3Client = S3Client.builder()
+      .region(Region.US_EAST_1)
+      .endpointOverride(URI.create(System.getProperty("s3.endpoint")))
+      .forcePathStyle(true)
+      .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(
+        System.getProperty("s3.access-key", "test"), System.getProperty("s3.secret-key", "test"))))
+      .build();
+    try {
+      s3Client.createBucket(b -> b.bucket(BUCKET));
+    } catch (BucketAlreadyOwnedByYouException ignored) {
+      // reused between runs
+    }
+  }
+
+  @AfterEach
+  void close() {
+    s3Client.close();
+  }
+
+  @Test
+  void upload_LargerThanOnePart_ShouldProduceCompleteObject() throws Exception {
+    int size = 2 * S3MultipartOutputStream.MIN_PART_SIZE + 123;
+    try (S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, BUCKET, "it/large.csv", "text/csv",
+        S3MultipartOutputStream.MIN_PART_SIZE)) {
+      byte[] line = "1,Widget,5,9.99,Tools\n".getBytes();
+      for (int written = 0; written < size; written += line.length) out.write(line);
+    }
+
+    HeadObjectResponse head = s3Client.headObject(b -> b.bucket(BUCKET).key("it/large.csv"));
+    assertTrue(head.contentLength() >= size);
+  }
+}
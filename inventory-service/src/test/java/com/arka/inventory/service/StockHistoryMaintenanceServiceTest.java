@@ -0,0 +1,109 @@
+package com.arka.inventory.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockHistoryMaintenanceServiceTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  private StockHistoryMaintenanceService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new StockHistoryMaintenanceService(jdbcTemplate, transactionTemplate, false, 2, 180);
+    lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+      TransactionCallback<?> callback = inv.getArgument(0);
+      return callback.doInTransaction(null);
+    });
+  }
+
+  @Test
+  void partitionName_ShouldUseYearAndMonth() {
+    assertEquals("stock_history_2024_03", StockHistoryMaintenanceService.partitionName(YearMonth.of(2024, 3)));
+  }
+
+  @Test
+  void utcBound_ShouldCarryExplicitUtcOffset() {
+    assertEquals("2024-03-01 00:00:00+00", StockHistoryMaintenanceService.utcBound(YearMonth.of(2024, 3)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void ensurePartitions_WhenPartitionFailsDuringConversion_ShouldRollBackToSavepointAndContinue() {
+    service = new StockHistoryMaintenanceService(jdbcTemplate, transactionTemplate, true, 0, 180);
+    doAnswer(inv -> {
+      inv.getArgument(0, Consumer.class).accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+    when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class))).thenReturn(false);
+    when(jdbcTemplate.queryForObject(contains("FROM stock_history_legacy"), eq(Timestamp.class)))
+        .thenReturn(Timestamp.from(Instant.now()));
+    String current = StockHistoryMaintenanceService.partitionName(YearMonth.now(ZoneOffset.UTC));
+    lenient().doThrow(new DataIntegrityViolationException("overlaps default partition")).doNothing()
+        .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + current));
+
+    service.ensurePartitions();
+
+    InOrder inOrder = inOrder(jdbcTemplate);
+    inOrder.verify(jdbcTemplate).execute("SAVEPOINT create_partition");
+    inOrder.verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + current));
+    inOrder.verify(jdbcTemplate).execute("ROLLBACK TO SAVEPOINT create_partition");
+    inOrder.verify(jdbcTemplate).execute(startsWith("INSERT INTO stock_history "));
+    inOrder.verify(jdbcTemplate).execute("DROP TABLE stock_history_legacy");
+    // The post-conversion pass runs outside the transaction, without a savepoint.
+    inOrder.verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + current));
+    verify(jdbcTemplate, times(1)).execute("SAVEPOINT create_partition");
+  }
+
+  @Test
+  void ensurePartitions_WhenDisabled_ShouldNotTouchSchema() {
+    service.ensurePartitions();
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void compactExpiredHistory_WithNothingExpired_ShouldDoNothing() {
+    when(jdbcTemplate.queryForObject(startsWith("SELECT MIN"), eq(Timestamp.class), any())).thenReturn(null);
+
+    assertEquals(0, service.compactExpiredHistory());
+    verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+  }
+
+  @Test
+  void compactExpiredHistory_ShouldRollUpAndDeleteEachExpiredDay() {
+    LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(180);
+    Timestamp oldest = Timestamp.from(cutoff.minusDays(2).atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(3600));
+    when(jdbcTemplate.queryForObject(startsWith("SELECT MIN"), eq(Timestamp.class), any())).thenReturn(oldest);
+    when(jdbcTemplate.update(startsWith("INSERT INTO stock_history_daily"), any(Object[].class))).thenReturn(1);
+    when(jdbcTemplate.update(startsWith("DELETE FROM stock_history"), any(Object[].class))).thenReturn(5, 0);
+
+    assertEquals(1, service.compactExpiredHistory());
+    verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO stock_history_daily"), any(Object[].class));
+    verify(transactionTemplate, times(2)).execute(any());
+  }
+}
@@ -0,0 +1,73 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.model.StockHistory;
+import com.arka.inventory.repository.StockHistoryDailyRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockHistoryServiceTest {
+
+  @Mock
+  private StockHistoryRepository historyRepository;
+
+  @Mock
+  private StockHistoryDailyRepository dailyRepository;
+
+  private StockHistoryService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new StockHistoryService(historyRepository, dailyRepository);
+  }
+
+  @Test
+  void history_WithoutBounds_ShouldQueryLastThirtyDays() {
+    when(historyRepository.findByProductIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+      eq(1L), any(), any(), any())).thenReturn(new SliceImpl<StockHistory>(List.of()));
+
+    service.history(1L, null, null, 0, 50);
+
+    ArgumentCaptor<Instant> from = ArgumentCaptor.forClass(Instant.class);
+    ArgumentCaptor<Instant> to = ArgumentCaptor.forClass(Instant.class);
+    verify(historyRepository).findByProductIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+      eq(1L), from.capture(), to.capture(), eq((Pageable) PageRequest.of(0, 50)));
+    assertEquals(Duration.ofDays(30), Duration.between(from.getValue(), to.getValue()));
+  }
+
+  @Test
+  void history_ShouldRejectOversizedPages() {
+    assertThrows(IllegalArgumentException.class, () -> service.history(1L, null, null, 0, 10_000));
+    verifyNoInteractions(historyRepository);
+  }
+
+  @Test
+  void history_ShouldRejectInvertedRange() {
+    Instant now = Instant.now();
+    assertThrows(IllegalArgumentException.class, () -> service.history(1L, now, now.minusSeconds(1), 0, 10));
+  }
+
+  @Test
+  void dailyHistory_ShouldRejectInvertedRange() {
+    assertThrows(IllegalArgumentException.class,
+      () -> service.dailyHistory(1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+    verifyNoInteractions(dailyRepository);
+  }
+}
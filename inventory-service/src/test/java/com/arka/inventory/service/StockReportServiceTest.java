@@ -0,0 +1,165 @@
+package com.arka.inventory.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReportServiceTest {
+
+  @Mock
+  private S3Service s3Service;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private Connection connection;
+
+  @Mock
+  private PreparedStatement statement;
+
+  @Mock
+  private ResultSet resultSet;
+
+  private StockReportService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new StockReportService(s3Service, jdbcTemplate);
+  }
+
+  @Test
+  void streamCsv_ShouldWriteRowsFromCursorWithThreshold() throws Exception {
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(resultSet.getLong(1)).thenReturn(1L);
+    when(resultSet.getString(2)).thenReturn("Mouse");
+    when(resultSet.getInt(3)).thenReturn(4);
+    when(resultSet.getBigDecimal(4)).thenReturn(new BigDecimal("10"));
+    when(resultSet.getString(5)).thenReturn("Peripherals");
+    doAnswer(inv -> {
+      PreparedStatementCreator creator = inv.getArgument(0);
+      creator.createPreparedStatement(connection);
+      inv.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+      return null;
+    }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+    StringWriter out = new StringWriter();
+    long rows = service.streamCsv(10, out);
+
+    assertEquals(1, rows);
+    assertEquals(ProductCsvWriter.HEADER + "1,Mouse,4,10.00,Peripherals\n", out.toString());
+    verify(connection).prepareStatement(contains("WHERE stock < ?"));
+    verify(statement).setFetchSize(StockReportService.FETCH_SIZE);
+    verify(statement).setInt(1, 10);
+  }
+
+  @Test
+  void streamLowStockCsv_WithoutThreshold_ShouldUseEachProductsReorderThreshold() throws Exception {
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    doAnswer(inv -> {
+      inv.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+      return null;
+    }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+    assertEquals(0, service.streamLowStockCsv(null, new StringWriter()));
+
+    verify(connection).prepareStatement(contains("WHERE stock < reorder_threshold"));
+    verify(statement, never()).setInt(anyInt(), anyInt());
+  }
+
+  @Test
+  void generateWeeklyReport_ShouldWriteBothReportsInOnePass() throws Exception {
+    S3Client s3Client = mock(S3Client.class);
+    S3Service s3 = new S3Service(s3Client, "bucket", S3MultipartOutputStream.MIN_PART_SIZE);
+    service = new StockReportService(s3, jdbcTemplate);
+    ResultSet second = mock(ResultSet.class);
+    when(resultSet.getLong(1)).thenReturn(1L);
+    when(resultSet.getString(2)).thenReturn("Mouse");
+    when(resultSet.getInt(3)).thenReturn(50);
+    when(resultSet.getInt(6)).thenReturn(10);
+    when(second.getLong(1)).thenReturn(2L);
+    when(second.getString(2)).thenReturn("Cable");
+    when(second.getInt(3)).thenReturn(3);
+    when(second.getInt(6)).thenReturn(10);
+    doAnswer(inv -> {
+      RowCallbackHandler handler = inv.getArgument(1);
+      handler.processRow(resultSet);
+      handler.processRow(second);
+      return null;
+    }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    Map<String, String> uploaded = new HashMap<>();
+    when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(inv -> {
+      PutObjectRequest req = inv.getArgument(0);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      inv.<RequestBody>getArgument(1).contentStreamProvider().newStream().transferTo(bytes);
+      uploaded.put(req.key().contains("low-stock") ? "low-stock" : "all-products", bytes.toString(StandardCharsets.UTF_8));
+      return null;
+    });
+
+    service.generateWeeklyReport();
+
+    verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    assertEquals(ProductCsvWriter.HEADER + "1,Mouse,50,,\n2,Cable,3,,\n", uploaded.get("all-products"));
+    assertEquals(ProductCsvWriter.HEADER + "2,Cable,3,,\n", uploaded.get("low-stock"));
+  }
+
+  @Test
+  void generateWeeklyReport_WhenQueryFails_ShouldAbortAndRethrow() {
+    S3MultipartOutputStream report = mock(S3MultipartOutputStream.class);
+    S3MultipartOutputStream lowStock = mock(S3MultipartOutputStream.class);
+    when(s3Service.openUpload(contains("all-products"), anyString())).thenReturn(report);
+    when(s3Service.openUpload(contains("low-stock"), anyString())).thenReturn(lowStock);
+    doThrow(new DataAccessResourceFailureException("db down"))
+      .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+    assertThrows(IllegalStateException.class, () -> service.generateWeeklyReport());
+    verify(report).abort();
+    verify(lowStock).abort();
+  }
+
+  @Test
+  void generateWeeklyReport_WhenSecondCompletionFails_ShouldRemoveFirstReport() throws Exception {
+    S3MultipartOutputStream report = mock(S3MultipartOutputStream.class);
+    S3MultipartOutputStream lowStock = mock(S3MultipartOutputStream.class);
+    when(s3Service.openUpload(contains("all-products"), anyString())).thenReturn(report);
+    when(s3Service.openUpload(contains("low-stock"), anyString())).thenReturn(lowStock);
+    doThrow(new IOException("S3 upload of low-stock failed")).when(lowStock).complete();
+
+    assertThrows(IllegalStateException.class, () -> service.generateWeeklyReport());
+
+    InOrder order = inOrder(report, lowStock);
+    order.verify(report).finish();
+    order.verify(lowStock).finish();
+    order.verify(report).complete();
+    order.verify(lowStock).complete();
+    verify(report).abort();
+    verify(lowStock).abort();
+  }
+}
@@ -0,0 +1,185 @@
+package com.arka.inventory.service;
+
+import com.arka.inventory.dto.ReservationRequest;
+import com.arka.inventory.model.ReservationStatus;
+import com.arka.inventory.model.StockReservation;
+import com.arka.inventory.repository.OutboxEventRepository;
+import com.arka.inventory.repository.ProductRepository;
+import com.arka.inventory.repository.StockHistoryRepository;
+import com.arka.inventory.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+  @Mock
+  private StockReservationRepository reservationRepository;
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private StockHistoryRepository historyRepository;
+
+  @Mock
+  private ObjectProvider<HotStockLedger> hotLedger;
+
+  @Mock
+  private OutboxEventRepository outboxRepository;
+
+  private StockReservationService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new StockReservationService(reservationRepository, productRepository, historyRepository, hotLedger, outboxRepository, 900);
+    lenient().when(reservationRepository.save(any(StockReservation.class))).thenAnswer(inv -> {
+      StockReservation r = inv.getArgument(0);
+      if (r.getId() == null) r.setId(10L);
+      return r;
+    });
+  }
+
+  private StockReservation active(long id, long productId, int qty, Instant expiresAt) {
+    StockReservation r = new StockReservation();
+    r.setId(id);
+    r.setProductId(productId);
+    r.setQuantity(qty);
+    r.setStatus(ReservationStatus.ACTIVE);
+    r.setExpiresAt(expiresAt);
+    return r;
+  }
+
+  @Test
+  void reserve_ShouldHoldStockAndScheduleExpiry() {
+    when(productRepository.reserve(1L, 3)).thenReturn(1);
+    ReservationRequest req = new ReservationRequest();
+    req.setProductId(1L);
+    req.setQuantity(3);
+    req.setTtlSeconds(60L);
+
+    StockReservation result = service.reserve(req);
+
+    assertEquals(ReservationStatus.ACTIVE, result.getStatus());
+    assertTrue(result.getExpiresAt().isAfter(Instant.now().plusSeconds(50)));
+    assertTrue(service.dueReservations().isEmpty());
+  }
+
+  @Test
+  void reserve_ShouldFail_WhenNotEnoughAvailable() {
+    when(productRepository.reserve(1L, 500)).thenReturn(0);
+    when(productRepository.existsById(1L)).thenReturn(true);
+    ReservationRequest req = new ReservationRequest();
+    req.setProductId(1L);
+    req.setQuantity(500);
+
+    assertThrows(IllegalArgumentException.class, () -> service.reserve(req));
+    verify(reservationRepository, never()).save(any());
+  }
+
+  @Test
+  void reserve_WithKnownReference_ShouldReturnExistingReservation() {
+    StockReservation existing = active(10L, 1L, 3, Instant.now().plusSeconds(60));
+    existing.setReference("order-7-1");
+    when(reservationRepository.findByReference("order-7-1")).thenReturn(Optional.of(existing));
+    ReservationRequest req = new ReservationRequest();
+    req.setProductId(1L);
+    req.setQuantity(3);
+    req.setReference("order-7-1");
+
+    assertSame(existing, service.reserve(req));
+    verify(productRepository, never()).reserve(anyLong(), anyInt());
+    verify(reservationRepository, never()).save(any());
+  }
+
+  @Test
+  void reserve_WithReferenceOfAnotherReservation_ShouldFail() {
+    StockReservation existing = active(10L, 1L, 3, Instant.now().plusSeconds(60));
+    when(reservationRepository.findByReference("order-7-1")).thenReturn(Optional.of(existing));
+    ReservationRequest req = new ReservationRequest();
+    req.setProductId(2L);
+    req.setQuantity(3);
+    req.setReference("order-7-1");
+
+    assertThrows(IllegalArgumentException.class, () -> service.reserve(req));
+    verify(productRepository, never()).reserve(anyLong(), anyInt());
+  }
+
+  @Test
+  void confirm_ShouldDecrementStockAndWriteHistory() {
+    when(reservationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(active(10L, 1L, 3, Instant.now().plusSeconds(60))));
+
+    StockReservation result = service.confirm(10L);
+
+    assertEquals(ReservationStatus.CONFIRMED, result.getStatus());
+    verify(productRepository).confirmReserved(1L, 3);
+    verify(historyRepository).save(argThat(h -> h.getQtyChange() == -3));
+    verify(outboxRepository).recordStockChange(eq(1L), eq(-3), startsWith("reservation-10"));
+  }
+
+  @Test
+  void confirm_WhenAlreadyConfirmed_ShouldReturnItUnchanged() {
+    StockReservation r = active(10L, 1L, 3, Instant.now().minusSeconds(60));
+    r.setStatus(ReservationStatus.CONFIRMED);
+    when(reservationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(r));
+
+    assertEquals(ReservationStatus.CONFIRMED, service.confirm(10L).getStatus());
+    verify(productRepository, never()).confirmReserved(anyLong(), anyInt());
+    verifyNoInteractions(historyRepository, outboxRepository);
+  }
+
+  @Test
+  void release_WhenAlreadyExpired_ShouldReturnItUnchanged() {
+    StockReservation r = active(10L, 1L, 3, Instant.now().minusSeconds(60));
+    r.setStatus(ReservationStatus.EXPIRED);
+    when(reservationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(r));
+
+    assertEquals(ReservationStatus.EXPIRED, service.release(10L).getStatus());
+    verify(productRepository, never()).addReserved(anyLong(), anyInt());
+  }
+
+  @Test
+  void release_WhenPastExpiryButNotSwept_ShouldGiveStockBack() {
+    when(reservationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(active(10L, 1L, 3, Instant.now().minusSeconds(5))));
+    when(hotLedger.getIfAvailable()).thenReturn(null);
+
+    assertEquals(ReservationStatus.RELEASED, service.release(10L).getStatus());
+    verify(productRepository).addReserved(1L, -3);
+  }
+
+  @Test
+  void release_ShouldFail_WhenAlreadyConfirmed() {
+    StockReservation r = active(10L, 1L, 3, Instant.now().plusSeconds(60));
+    r.setStatus(ReservationStatus.CONFIRMED);
+    when(reservationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(r));
+
+    assertThrows(IllegalStateException.class, () -> service.release(10L));
+    verify(productRepository, never()).addReserved(anyLong(), anyInt());
+  }
+
+  @Test
+  void expire_ShouldReleasePerProductInOneUpdateEach() {
+    Instant past = Instant.now().minusSeconds(5);
+    when(reservationRepository.findExpiredForUpdate(anyCollection(), any(Instant.class))).thenReturn(List.of(
+        active(1L, 7L, 2, past), active(2L, 7L, 3, past), active(3L, 8L, 1, past)));
+
+    int expired = service.expire(List.of(1L, 2L, 3L, 4L));
+
+    assertEquals(3, expired);
+    verify(productRepository).addReserved(7L, -5);
+    verify(productRepository).addReserved(8L, -1);
+    verify(reservationRepository).updateStatus(eq(List.of(1L, 2L, 3L)), eq(ReservationStatus.EXPIRED), any(Instant.class));
+  }
+}
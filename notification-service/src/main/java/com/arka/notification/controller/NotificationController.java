@@ -5,7 +5,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -19,8 +21,15 @@ public class NotificationController {
 
   @PostMapping("/send")
   public ResponseEntity<?> send(@RequestBody Map<String,Object> payload){
-    log.info("Received notification request: {}", payload);
-    notificationService.processNotification(payload);
+    // Only the type and size: payloads carry addresses and message bodies, and batches can be large.
+    Object messages = payload.get("messages");
+    log.info("Received {} notification request{}", payload.get("type"),
+      messages instanceof List<?> list ? " with " + list.size() + " message(s)" : "");
+    try{
+      notificationService.processNotification(payload);
+    }catch(RejectedExecutionException ex){
+      return ResponseEntity.status(503).body(Map.of("error","Notification queue is full, retry later"));
+    }
     return ResponseEntity.accepted().body(Map.of("status","queued"));
   }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.arka.notification.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
@@ -12,10 +13,16 @@ import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
 import software.amazon.awssdk.services.sns.model.PublishResponse;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
-public class NotificationService {
+public class NotificationService implements DisposableBean {
   private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
   @Value("${aws.region:us-east-1}")
@@ -27,6 +34,20 @@ public class NotificationService {
   private SesClient sesClient;
   private SnsClient snsClient;
 
+  /** Sends EMAIL_BATCH requests after they have been answered; a full queue turns new batches away. */
+  private final ThreadPoolExecutor batchWorkers;
+
+  public NotificationService(@Value("${notification.batch.worker-threads:4}") int workerThreads,
+                             @Value("${notification.batch.queue-capacity:100}") int queueCapacity) {
+    AtomicInteger counter = new AtomicInteger();
+    this.batchWorkers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity), r -> {
+        Thread t = new Thread(r, "email-batch-" + counter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+  }
+
   private SesClient getSesClient() {
     if (sesClient == null) {
       sesClient = SesClient.builder()
@@ -103,6 +124,41 @@ public class NotificationService {
     }
   }
 
+  /**
+   * Sends one email per message of a batch (email, subject, body). A message that fails is logged
+   * and skipped so it does not hold back the rest of the batch. Runs on the calling thread; see
+   * {@link #queueEmailBatch(List)}.
+   */
+  public void sendEmailBatch(List<Map<String, Object>> messages) {
+    if (messages == null || messages.isEmpty()) return;
+    int failed = 0;
+    for (Map<String, Object> m : messages) {
+      try {
+        sendEmail((String) m.get("email"), (String) m.get("subject"), (String) m.get("body"));
+      } catch (RuntimeException e) {
+        failed++;
+      }
+    }
+    log.info("Email batch processed: {} sent, {} failed", messages.size() - failed, failed);
+  }
+
+  /**
+   * Hands the batch to a worker and returns at once, so the caller gets its answer without waiting
+   * for every email to go out.
+   * @throws RejectedExecutionException when the workers are busy and their queue is full
+   */
+  public void queueEmailBatch(List<Map<String, Object>> messages) {
+    if (messages == null || messages.isEmpty()) return;
+    batchWorkers.execute(() -> {
+      try {
+        sendEmailBatch(messages);
+      } catch (Exception e) {
+        log.error("Email batch of {} message(s) stopped: {}", messages.size(), e.getMessage(), e);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
   public void processNotification(Map<String, Object> payload) {
     String type = (String) payload.get("type");
     
@@ -113,6 +169,9 @@ public class NotificationService {
         String body = (String) payload.get("body");
         sendEmail(email, subject, body);
         break;
+      case "EMAIL_BATCH":
+        queueEmailBatch((List<Map<String, Object>>) payload.get("messages"));
+        break;
       case "SMS":
         String phone = (String) payload.get("phone");
         String message = (String) payload.get("message");
@@ -122,4 +181,9 @@ public class NotificationService {
         log.warn("Unknown notification type: {}", type);
     }
   }
+
+  @Override
+  public void destroy() {
+    batchWorkers.shutdown();
+  }
 }
@@ -10,7 +10,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -47,6 +49,17 @@ class NotificationControllerTest {
     verify(notificationService, times(1)).processNotification(any());
   }
 
+  @Test
+  void sendNotification_ShouldReturnServiceUnavailable_WhenBatchQueueIsFull() throws Exception {
+    doThrow(new RejectedExecutionException("queue full")).when(notificationService).processNotification(any());
+
+    mockMvc.perform(post("/api/notifications/send")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of("type", "EMAIL_BATCH", "messages", List.of(
+                Map.of("email", "user@example.com", "subject", "Order Confirmed", "body", "Hello"))))))
+        .andExpect(status().isServiceUnavailable());
+  }
+
   @Test
   void sendNotification_ShouldHandleEmptyPayload() throws Exception {
     Map<String, Object> emptyPayload = new HashMap<>();
@@ -0,0 +1,86 @@
+package com.arka.notification.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+  private NotificationService service;
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) service.destroy();
+  }
+
+  private static Map<String, Object> batch(String... emails) {
+    return Map.of("type", "EMAIL_BATCH", "messages", Arrays.stream(emails)
+      .map(e -> Map.<String, Object>of("email", e, "subject", "Order Confirmed", "body", "Hello"))
+      .toList());
+  }
+
+  @Test
+  void processNotification_EmailBatch_ShouldReturnBeforeEmailsAreSent() throws Exception {
+    service = spy(new NotificationService(1, 10));
+    CountDownLatch sesBlocked = new CountDownLatch(1);
+    doAnswer(inv -> {
+      sesBlocked.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(service).sendEmail(anyString(), anyString(), anyString());
+
+    service.processNotification(batch("a@x.com", "b@x.com"));
+
+    // the caller is answered while the first email is still being sent
+    verify(service, timeout(1000)).sendEmail(eq("a@x.com"), anyString(), anyString());
+    verify(service, never()).sendEmail(eq("b@x.com"), anyString(), anyString());
+    sesBlocked.countDown();
+    verify(service, timeout(1000)).sendEmail(eq("b@x.com"), anyString(), anyString());
+  }
+
+  @Test
+  void processNotification_EmailBatch_ShouldSendRest_WhenOneEmailFails() {
+    service = spy(new NotificationService(1, 10));
+    doThrow(new RuntimeException("Email sending failed")).when(service).sendEmail(eq("a@x.com"), anyString(), anyString());
+    doNothing().when(service).sendEmail(eq("b@x.com"), anyString(), anyString());
+
+    service.processNotification(batch("a@x.com", "b@x.com"));
+
+    verify(service, timeout(1000)).sendEmail(eq("b@x.com"), anyString(), anyString());
+  }
+
+  @Test
+  void processNotification_EmailBatch_ShouldBeTurnedAway_WhenQueueIsFull() throws Exception {
+    service = spy(new NotificationService(1, 1));
+    CountDownLatch sesBlocked = new CountDownLatch(1);
+    doAnswer(inv -> {
+      sesBlocked.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(service).sendEmail(anyString(), anyString(), anyString());
+
+    service.processNotification(batch("a@x.com"));
+    verify(service, timeout(1000)).sendEmail(eq("a@x.com"), anyString(), anyString());
+    service.processNotification(batch("b@x.com"));
+
+    assertThrows(RejectedExecutionException.class, () -> service.processNotification(batch("c@x.com")));
+    sesBlocked.countDown();
+  }
+
+  @Test
+  void processNotification_EmptyEmailBatch_ShouldSendNothing() {
+    service = spy(new NotificationService(1, 10));
+
+    service.processNotification(Map.of("type", "EMAIL_BATCH", "messages", List.of()));
+
+    verify(service, never()).sendEmail(anyString(), anyString(), anyString());
+  }
+}
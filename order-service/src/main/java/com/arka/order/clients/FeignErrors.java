@@ -0,0 +1,14 @@
+package com.arka.order.clients;
+
+import feign.FeignException;
+
+/** Classifies failures of calls made through the Feign clients. */
+public final class FeignErrors {
+  private FeignErrors() {}
+
+  /** A 4xx other than timeout or throttling means the service refused the change; retrying will not help. */
+  public static boolean isRejection(Exception ex) {
+    return ex instanceof FeignException fe && fe.status() >= 400 && fe.status() < 500
+      && fe.status() != 408 && fe.status() != 429;
+  }
+}
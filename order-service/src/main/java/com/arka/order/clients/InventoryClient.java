@@ -1,8 +1,43 @@
 package com.arka.order.clients;
+import com.arka.order.dto.Reservation;
+import com.arka.order.dto.ReservationRequest;
+import com.arka.order.dto.StockAdjustment;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 @FeignClient(name = "inventory-service")
 public interface InventoryClient {
   @PutMapping("/api/products/{id}/stock")
   void updateStock(@PathVariable("id") Long id, @RequestParam("delta") int delta, @RequestParam(value="reason", required=false) String reason);
+
+  /**
+   * Same as updateStock, but inventory applies each idempotency key at most once,
+   * so a call whose outcome is unknown can simply be repeated.
+   */
+  @PutMapping("/api/products/{id}/stock")
+  void updateStock(@PathVariable("id") Long id, @RequestParam("delta") int delta, @RequestParam(value="reason", required=false) String reason,
+                   @RequestHeader("Idempotency-Key") String idempotencyKey);
+
+  /** Applies all adjustments in one inventory transaction; either every line succeeds or none does. */
+  @PutMapping("/api/products/stock/batch")
+  void updateStockBatch(@RequestBody List<StockAdjustment> adjustments);
+
+  /** Same as updateStockBatch, applied at most once per idempotency key; a repeat is a no-op. */
+  @PutMapping("/api/products/stock/batch")
+  void updateStockBatch(@RequestBody List<StockAdjustment> adjustments, @RequestHeader("Idempotency-Key") String idempotencyKey);
+
+  /**
+   * Holds stock without taking it; inventory gives it back when the hold expires unconfirmed.
+   * Repeating a request with the same reference returns the hold made for it.
+   */
+  @PostMapping("/api/reservations")
+  Reservation reserve(@RequestBody ReservationRequest request);
+
+  /** Takes the held stock; confirming again is a no-op, an expired or released hold is a 409. */
+  @PostMapping("/api/reservations/{id}/confirm")
+  Reservation confirmReservation(@PathVariable("id") Long id);
+
+  /** Gives the held stock back; releasing again is a no-op, a confirmed hold is a 409. */
+  @PostMapping("/api/reservations/{id}/release")
+  Reservation releaseReservation(@PathVariable("id") Long id);
 }
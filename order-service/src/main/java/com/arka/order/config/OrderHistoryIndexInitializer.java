@@ -0,0 +1,33 @@
+package com.arka.order.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the covering index behind a customer's order history. A page is a backward range scan
+ * of (customer_email, created_at, id) that reads status and total from the index itself. JPA
+ * cannot declare INCLUDE columns, so the index is created here once ddl-auto has built the table.
+ * Without it every history page sorts the customer's orders, so a failure stops the startup.
+ */
+@Component
+public class OrderHistoryIndexInitializer {
+  static final String CREATE_INDEX_SQL =
+    "CREATE INDEX IF NOT EXISTS idx_orders_customer_history ON orders (customer_email, created_at, id) INCLUDE (status, total)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public OrderHistoryIndexInitializer(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createIndex() {
+    try {
+      jdbcTemplate.execute(CREATE_INDEX_SQL);
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not create order history index: " + e.getMessage(), e);
+    }
+  }
+}
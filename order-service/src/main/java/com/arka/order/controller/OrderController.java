@@ -1,20 +1,67 @@
 package com.arka.order.controller;
 
+import com.arka.order.dto.BulkStatusRequest;
+import com.arka.order.dto.BulkStatusResult;
+import com.arka.order.dto.OrderPage;
+import com.arka.order.dto.OrderStatusView;
 import com.arka.order.model.Order;
 import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.service.AsyncOrderService;
+import com.arka.order.service.IdempotencyService;
 import com.arka.order.service.OrderService;
+import com.arka.order.service.OrderStatusService;
+import com.arka.order.service.OrderStatusStream;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
   private final OrderService orderService;
-  public OrderController(OrderService orderService){ this.orderService = orderService; }
+  private final AsyncOrderService asyncOrderService;
+  private final OrderStatusStream statusStream;
+  private final IdempotencyService idempotency;
+  private final OrderStatusService statusService;
 
+  public OrderController(OrderService orderService, AsyncOrderService asyncOrderService, OrderStatusStream statusStream,
+                         IdempotencyService idempotency, OrderStatusService statusService){
+    this.orderService = orderService;
+    this.asyncOrderService = asyncOrderService;
+    this.statusStream = statusStream;
+    this.idempotency = idempotency;
+    this.statusService = statusService;
+  }
+
+  /**
+   * With async=true the order is stored as PENDING and 202 is returned right away; stock is
+   * reserved in the background and progress can be followed on the status URL or event stream.
+   * A retry carrying the same Idempotency-Key gets the first response back and creates nothing.
+   */
   @PostMapping
-  public ResponseEntity<?> create(@RequestBody Order order){
+  public ResponseEntity<?> create(@RequestBody Order order, @RequestParam(defaultValue = "false") boolean async,
+                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+    return idempotency.execute(idempotencyKey, "POST /api/orders?async=" + async, order, () -> doCreate(order, async));
+  }
+
+  private ResponseEntity<?> doCreate(Order order, boolean async){
+    if(async){
+      Order accepted = asyncOrderService.accept(order);
+      String statusUrl = "/api/orders/" + accepted.getId() + "/status";
+      return ResponseEntity.accepted()
+        .location(URI.create(statusUrl))
+        .body(Map.of(
+          "orderId", accepted.getId(),
+          "status", accepted.getStatus(),
+          "statusUrl", statusUrl,
+          "eventsUrl", "/api/orders/" + accepted.getId() + "/events"));
+    }
     try {
       Order o = orderService.createOrder(order);
       return ResponseEntity.status(201).body(o);
@@ -23,8 +70,83 @@ public class OrderController {
     }
   }
 
+  /**
+   * Order history of a customer (or the orders in a status), newest first and without items.
+   * Keyset-paginated; pass the X-Next-Cursor header of one page as `after` to get the next.
+   */
+  @GetMapping
+  public ResponseEntity<?> list(@RequestParam(required = false) String customerEmail,
+                                @RequestParam(required = false) String status,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int limit){
+    try {
+      OrderPage page = orderService.listOrders(customerEmail, status, after, limit);
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+      if(page.nextCursor() != null) response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+      return response.body(page.items());
+    } catch (IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<Order> get(@PathVariable("id") Long id){
+    return orderService.getOrder(id)
+      .map(ResponseEntity::ok)
+      .orElse(ResponseEntity.notFound().build());
+  }
+
+  @GetMapping("/{id}/status")
+  public ResponseEntity<OrderStatusView> status(@PathVariable("id") Long id){
+    return asyncOrderService.status(id)
+      .map(ResponseEntity::ok)
+      .orElse(ResponseEntity.notFound().build());
+  }
+
+  /** Moves one order along fulfilment, e.g. ?status=DELIVERED. */
+  @PutMapping("/{id}/status")
+  public ResponseEntity<?> changeStatus(@PathVariable("id") Long id, @RequestParam String status){
+    OrderStatus target;
+    try {
+      target = OrderStatus.parse(status);
+    } catch (IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+    try {
+      return ResponseEntity.ok(statusService.transition(id, target));
+    } catch (IllegalArgumentException ex){
+      return ResponseEntity.notFound().build();
+    } catch (IllegalStateException ex){
+      return ResponseEntity.status(409).body(ex.getMessage());
+    }
+  }
+
+  /** Moves many orders at once with a single UPDATE; orders that cannot move are listed in the result. */
+  @PostMapping("/status/bulk")
+  public ResponseEntity<?> changeStatuses(@RequestBody BulkStatusRequest request){
+    try {
+      BulkStatusResult result = statusService.transitionAll(request.orderIds(), request.status());
+      return ResponseEntity.ok(result);
+    } catch (IllegalArgumentException ex){
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  /** Server-Sent Events stream of status changes; closes once the order is confirmed or cancelled. */
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> events(@PathVariable("id") Long id){
+    return statusStream.subscribe(id, () -> asyncOrderService.status(id))
+      .map(ResponseEntity::ok)
+      .orElse(ResponseEntity.notFound().build());
+  }
+
   @PatchMapping("/{id}")
-  public ResponseEntity<?> modify(@PathVariable("id") Long id, @RequestBody List<OrderItem> newItems){
+  public ResponseEntity<?> modify(@PathVariable("id") Long id, @RequestBody List<OrderItem> newItems,
+                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+    return idempotency.execute(idempotencyKey, "PATCH /api/orders/" + id, newItems, () -> doModify(id, newItems));
+  }
+
+  private ResponseEntity<?> doModify(Long id, List<OrderItem> newItems){
     try {
       Order updated = orderService.modifyOrder(id, newItems);
       return ResponseEntity.ok(updated);
@@ -36,4 +158,4 @@ public class OrderController {
       return ResponseEntity.status(500).body(ex.getMessage());
     }
   }
-}
\ No newline at end of file
+}
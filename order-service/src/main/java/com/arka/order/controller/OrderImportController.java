@@ -0,0 +1,75 @@
+package com.arka.order.controller;
+
+import com.arka.order.dto.ImportResult;
+import com.arka.order.service.OrderImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderImportController {
+  private static final Logger log = LoggerFactory.getLogger(OrderImportController.class);
+  static final String NDJSON = "application/x-ndjson";
+  private static final MediaType NDJSON_TYPE = MediaType.parseMediaType(NDJSON);
+
+  private final OrderImportService importService;
+  private final ObjectMapper objectMapper;
+  private final TaskExecutor executor;
+  private final long timeoutMs;
+
+  public OrderImportController(OrderImportService importService, ObjectMapper objectMapper,
+                               @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                               @Value("${order.import.timeout-ms:1800000}") long timeoutMs) {
+    this.importService = importService;
+    this.objectMapper = objectMapper;
+    this.executor = executor;
+    this.timeoutMs = timeoutMs;
+  }
+
+  /**
+   * Bulk import: an NDJSON body (one order per line) or CSV (see OrderImportService.CSV_HEADER).
+   * The body is read as a stream and the response is NDJSON with one result per order, written as
+   * each chunk of orders is done. The request may stay open for order.import.timeout-ms rather
+   * than the container's default async timeout; once that runs out, the import stops after the
+   * chunk in progress and the orders of earlier chunks stay imported.
+   */
+  @PostMapping(value = "/import", consumes = {NDJSON, "text/csv"}, produces = NDJSON)
+  public ResponseEntity<ResponseBodyEmitter> importOrders(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                          InputStream body) {
+    OrderImportService.Format format = MediaType.parseMediaType("text/csv").includes(contentType)
+      ? OrderImportService.Format.CSV : OrderImportService.Format.NDJSON;
+    ResponseBodyEmitter results = new ResponseBodyEmitter(timeoutMs);
+    executor.execute(() -> {
+      try {
+        importService.importOrders(body, format, chunk -> {
+          try {
+            StringBuilder lines = new StringBuilder();
+            for (ImportResult result : chunk) lines.append(objectMapper.writeValueAsString(result)).append('\n');
+            results.send(lines.toString(), NDJSON_TYPE);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        results.complete();
+      } catch (Exception e) {
+        // The client went away or the request timed out; the chunks already answered are imported.
+        log.warn("Bulk import stopped: {}", e.getMessage());
+        results.completeWithError(e);
+      }
+    });
+    return ResponseEntity.ok().contentType(NDJSON_TYPE).body(results);
+  }
+}
@@ -1,20 +1,48 @@
 package com.arka.order.controller;
 
 import com.arka.order.service.SalesReportService;
+import com.arka.order.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders/reports")
 public class SalesReportController {
   private final SalesReportService salesReportService;
+  private final SalesRollupService salesRollupService;
 
-  public SalesReportController(SalesReportService salesReportService) {
+  public SalesReportController(SalesReportService salesReportService, SalesRollupService salesRollupService) {
     this.salesReportService = salesReportService;
+    this.salesRollupService = salesRollupService;
+  }
+
+  /** Sales for orders created in [from, to), ISO-8601 instants rounded out to whole hours. */
+  @GetMapping("/sales")
+  public ResponseEntity<?> getSalesReport(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+    try {
+      return ResponseEntity.ok(salesReportService.generateSalesReport(from, to));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
+  /** Recomputes the rollups of [from, to) from the orders table, e.g. to backfill older orders. */
+  @PostMapping("/sales/rollups/rebuild")
+  public ResponseEntity<?> rebuildRollups(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+    try {
+      int rows = salesRollupService.rebuild(from, to);
+      return ResponseEntity.ok(Map.of("from", from, "to", to, "rows", rows));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
   }
 
   @GetMapping("/sales/weekly")
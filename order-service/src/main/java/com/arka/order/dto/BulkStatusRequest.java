@@ -0,0 +1,9 @@
+package com.arka.order.dto;
+
+import com.arka.order.model.OrderStatus;
+
+import java.util.List;
+
+/** Moves all the given orders to one status, e.g. everything shipping picked up today to IN_TRANSIT. */
+public record BulkStatusRequest(List<Long> orderIds, OrderStatus status) {
+}
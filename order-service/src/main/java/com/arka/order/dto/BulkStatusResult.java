@@ -0,0 +1,14 @@
+package com.arka.order.dto;
+
+import com.arka.order.model.OrderStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk status change. unchanged orders already had the status; rejected maps each
+ * order that could not move to the status it is in.
+ */
+public record BulkStatusResult(OrderStatus status, List<Long> updated, List<Long> unchanged, List<Long> notFound,
+                               Map<Long, OrderStatus> rejected) {
+}
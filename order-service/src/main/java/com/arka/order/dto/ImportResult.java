@@ -0,0 +1,19 @@
+package com.arka.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one order of a bulk import, streamed back as one NDJSON line.
+ * line is the (first) input line of the order; ref is the caller's own reference, if it sent one.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportResult(int line, String ref, Long orderId, String status, String error) {
+
+  public static ImportResult confirmed(int line, String ref, Long orderId) {
+    return new ImportResult(line, ref, orderId, "CONFIRMED", null);
+  }
+
+  public static ImportResult rejected(int line, String ref, String error) {
+    return new ImportResult(line, ref, null, "REJECTED", error);
+  }
+}
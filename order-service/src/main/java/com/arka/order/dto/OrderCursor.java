@@ -0,0 +1,34 @@
+package com.arka.order.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a newest-first order listing: the (createdAt, id) of the last order of a page.
+ * Sent to clients as an opaque URL-safe token.
+ */
+public record OrderCursor(Instant createdAt, long id) {
+
+  public static OrderCursor of(OrderSummary last) {
+    return new OrderCursor(last.createdAt(), last.id());
+  }
+
+  public String encode() {
+    String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /** @throws IllegalArgumentException when the token was not produced by {@link #encode()} */
+  public static OrderCursor parse(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+      int dot = raw.indexOf('.');
+      int colon = raw.indexOf(':');
+      Instant createdAt = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)), Long.parseLong(raw.substring(dot + 1, colon)));
+      return new OrderCursor(createdAt, Long.parseLong(raw.substring(colon + 1)));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package com.arka.order.dto;
+
+import java.util.List;
+
+/** One keyset page of an order listing; nextCursor is null on the last page. */
+public record OrderPage(List<OrderSummary> items, String nextCursor) {
+}
@@ -0,0 +1,16 @@
+package com.arka.order.dto;
+
+import com.arka.order.model.OrderStatus;
+import com.arka.order.model.SagaState;
+
+/**
+ * Processing status of an order, as returned by the status endpoint and pushed on its event stream.
+ * sagaState is null for orders that were processed synchronously.
+ */
+public record OrderStatusView(Long orderId, OrderStatus status, SagaState sagaState, int attempts, String lastError) {
+
+  /** No further status change will follow. */
+  public boolean isFinal() {
+    return sagaState == null ? status != OrderStatus.PENDING : sagaState.isTerminal();
+  }
+}
@@ -0,0 +1,12 @@
+package com.arka.order.dto;
+
+import com.arka.order.model.OrderStatus;
+
+import java.time.Instant;
+
+/**
+ * Row of an order list view: the order without its items. Read with a single select by the
+ * summary queries of OrderRepository, which the customer history index answers on its own.
+ */
+public record OrderSummary(Long id, String customerEmail, Instant createdAt, OrderStatus status, double total) {
+}
@@ -0,0 +1,39 @@
+package com.arka.order.dto;
+
+import java.time.Instant;
+
+/**
+ * Stock hold as inventory-service reports it. status: ACTIVE while held, then CONFIRMED (stock
+ * taken), RELEASED or EXPIRED (stock given back).
+ */
+public class Reservation {
+  private Long id;
+  private Long productId;
+  private Integer quantity;
+  private String status;
+  private String reference;
+  private Instant expiresAt;
+
+  public Reservation(){}
+
+  public Reservation(Long id, Long productId, Integer quantity, String reference){
+    this.id = id;
+    this.productId = productId;
+    this.quantity = quantity;
+    this.reference = reference;
+    this.status = "ACTIVE";
+  }
+
+  public Long getId(){ return id; }
+  public void setId(Long id){ this.id = id; }
+  public Long getProductId(){ return productId; }
+  public void setProductId(Long productId){ this.productId = productId; }
+  public Integer getQuantity(){ return quantity; }
+  public void setQuantity(Integer quantity){ this.quantity = quantity; }
+  public String getStatus(){ return status; }
+  public void setStatus(String status){ this.status = status; }
+  public String getReference(){ return reference; }
+  public void setReference(String reference){ this.reference = reference; }
+  public Instant getExpiresAt(){ return expiresAt; }
+  public void setExpiresAt(Instant expiresAt){ this.expiresAt = expiresAt; }
+}
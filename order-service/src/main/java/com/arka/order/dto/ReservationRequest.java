@@ -0,0 +1,30 @@
+package com.arka.order.dto;
+
+/**
+ * Stock hold requested from inventory-service. The reference names the order line; inventory
+ * keeps one reservation per reference, so repeating a request returns the hold it already made.
+ */
+public class ReservationRequest {
+  private Long productId;
+  private Integer quantity;
+  private Long ttlSeconds;
+  private String reference;
+
+  public ReservationRequest(){}
+
+  public ReservationRequest(Long productId, Integer quantity, Long ttlSeconds, String reference){
+    this.productId = productId;
+    this.quantity = quantity;
+    this.ttlSeconds = ttlSeconds;
+    this.reference = reference;
+  }
+
+  public Long getProductId(){ return productId; }
+  public void setProductId(Long productId){ this.productId = productId; }
+  public Integer getQuantity(){ return quantity; }
+  public void setQuantity(Integer quantity){ this.quantity = quantity; }
+  public Long getTtlSeconds(){ return ttlSeconds; }
+  public void setTtlSeconds(Long ttlSeconds){ this.ttlSeconds = ttlSeconds; }
+  public String getReference(){ return reference; }
+  public void setReference(String reference){ this.reference = reference; }
+}
@@ -0,0 +1,26 @@
+package com.arka.order.dto;
+
+/**
+ * One line of a batch stock adjustment sent to inventory-service.
+ * delta: positive -> release stock, negative -> reserve
+ */
+public class StockAdjustment {
+  private Long productId;
+  private Integer delta;
+  private String reason;
+
+  public StockAdjustment(){}
+
+  public StockAdjustment(Long productId, Integer delta, String reason){
+    this.productId = productId;
+    this.delta = delta;
+    this.reason = reason;
+  }
+
+  public Long getProductId(){ return productId; }
+  public void setProductId(Long productId){ this.productId = productId; }
+  public Integer getDelta(){ return delta; }
+  public void setDelta(Integer delta){ this.delta = delta; }
+  public String getReason(){ return reason; }
+  public void setReason(String reason){ this.reason = reason; }
+}
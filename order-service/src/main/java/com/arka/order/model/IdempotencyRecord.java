@@ -0,0 +1,49 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key. While responseStatus is null the request is
+ * still running; expiresAt is then short, so a key left behind by a crash frees up quickly.
+ */
+@Entity
+@Table(name = "order_idempotency_keys", indexes = {
+  @Index(name = "idx_order_idempotency_keys_expires_at", columnList = "expiresAt")
+})
+public class IdempotencyRecord {
+  @Id
+  @Column(length = 128)
+  private String idempotencyKey;
+
+  /** SHA-256 of the method, path and body, so a key reused for a different request is detected. */
+  @Column(nullable = false, length = 64)
+  private String requestHash;
+
+  private Integer responseStatus;
+
+  @Column(length = 100)
+  private String responseContentType;
+
+  private String responseLocation;
+
+  @Column(columnDefinition = "text")
+  private String responseBody;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @Column(nullable = false)
+  private Instant expiresAt;
+
+  public IdempotencyRecord(){}
+
+  public String getIdempotencyKey(){return idempotencyKey;} public void setIdempotencyKey(String idempotencyKey){this.idempotencyKey=idempotencyKey;}
+  public String getRequestHash(){return requestHash;} public void setRequestHash(String requestHash){this.requestHash=requestHash;}
+  public Integer getResponseStatus(){return responseStatus;} public void setResponseStatus(Integer responseStatus){this.responseStatus=responseStatus;}
+  public String getResponseContentType(){return responseContentType;} public void setResponseContentType(String responseContentType){this.responseContentType=responseContentType;}
+  public String getResponseLocation(){return responseLocation;} public void setResponseLocation(String responseLocation){this.responseLocation=responseLocation;}
+  public String getResponseBody(){return responseBody;} public void setResponseBody(String responseBody){this.responseBody=responseBody;}
+  public Instant getCreatedAt(){return createdAt;} public void setCreatedAt(Instant createdAt){this.createdAt=createdAt;}
+  public Instant getExpiresAt(){return expiresAt;} public void setExpiresAt(Instant expiresAt){this.expiresAt=expiresAt;}
+}
@@ -1,25 +1,34 @@
 package com.arka.order.model;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.Instant;
 import java.util.List;
 @Entity
-@Table(name = "orders")
+// The customer history index (with INCLUDE columns) is created by OrderHistoryIndexInitializer.
+@Table(name = "orders", indexes = {
+  @Index(name = "idx_orders_status_created", columnList = "status, createdAt, id")
+})
 public class Order {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
   private String customerEmail;
   private Instant createdAt;
-  private String status;
-  @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16)
+  private OrderStatus status;
+  // Lazy: list queries load orders only. Items are fetch-joined by the *WithItems* queries, or
+  // loaded for up to 50 orders per select when touched after a plain query.
+  @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   @JoinColumn(name="order_id")
+  @BatchSize(size = 50)
   private List<OrderItem> items;
   private double total;
   public Order(){}
   public Long getId(){return id;} public void setId(Long id){this.id=id;}
   public String getCustomerEmail(){return customerEmail;} public void setCustomerEmail(String customerEmail){this.customerEmail=customerEmail;}
   public Instant getCreatedAt(){return createdAt;} public void setCreatedAt(Instant createdAt){this.createdAt=createdAt;}
-  public String getStatus(){return status;} public void setStatus(String status){this.status=status;}
+  public OrderStatus getStatus(){return status;} public void setStatus(OrderStatus status){this.status=status;}
   public List<OrderItem> getItems(){return items;} public void setItems(List<OrderItem> items){this.items=items;}
   public double getTotal(){return total;} public void setTotal(double total){this.total=total;}
 }
@@ -1,7 +1,9 @@
 package com.arka.order.model;
 import jakarta.persistence.*;
 @Entity
-@Table(name="order_items")
+@Table(name="order_items", indexes = {
+  @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
 public class OrderItem {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
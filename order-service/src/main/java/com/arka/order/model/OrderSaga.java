@@ -0,0 +1,55 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Durable state of one order saga. Whoever runs it holds a lease by pushing nextAttemptAt into
+ * the future, so the recovery worker only picks up sagas nobody is working on. The version
+ * catches a runner that kept going after its lease lapsed: its next write fails instead of
+ * overwriting the progress of whoever took over.
+ */
+@Entity
+@Table(name = "order_sagas", indexes = {
+  @Index(name = "idx_order_sagas_state_next_attempt", columnList = "state, nextAttemptAt")
+})
+public class OrderSaga {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, unique = true)
+  private Long orderId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private SagaState state;
+
+  /** Failed attempts in the current state. */
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false)
+  private Instant nextAttemptAt;
+
+  @Column(length = 500)
+  private String lastError;
+
+  private Instant createdAt;
+  private Instant updatedAt;
+
+  @Version
+  private Long version;
+
+  public OrderSaga(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Long getOrderId(){return orderId;} public void setOrderId(Long orderId){this.orderId=orderId;}
+  public SagaState getState(){return state;} public void setState(SagaState state){this.state=state;}
+  public int getAttempts(){return attempts;} public void setAttempts(int attempts){this.attempts=attempts;}
+  public Instant getNextAttemptAt(){return nextAttemptAt;} public void setNextAttemptAt(Instant nextAttemptAt){this.nextAttemptAt=nextAttemptAt;}
+  public String getLastError(){return lastError;} public void setLastError(String lastError){this.lastError=lastError;}
+  public Instant getCreatedAt(){return createdAt;} public void setCreatedAt(Instant createdAt){this.createdAt=createdAt;}
+  public Instant getUpdatedAt(){return updatedAt;} public void setUpdatedAt(Instant updatedAt){this.updatedAt=updatedAt;}
+  public Long getVersion(){return version;} public void setVersion(Long version){this.version=version;}
+}
@@ -0,0 +1,45 @@
+package com.arka.order.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * PENDING -> CONFIRMED -> IN_TRANSIT -> DELIVERED on the happy path. PENDING and CONFIRMED
+ * orders can be CANCELLED; DELIVERED and CANCELLED are final.
+ */
+public enum OrderStatus {
+  PENDING, CONFIRMED, IN_TRANSIT, DELIVERED, CANCELLED;
+
+  /** Statuses an order in this status may move to. */
+  public Set<OrderStatus> next(){
+    return switch (this) {
+      case PENDING -> EnumSet.of(CONFIRMED, CANCELLED);
+      case CONFIRMED -> EnumSet.of(IN_TRANSIT, CANCELLED);
+      case IN_TRANSIT -> EnumSet.of(DELIVERED);
+      case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+    };
+  }
+
+  /** Statuses from which an order may move to this one. */
+  public Set<OrderStatus> previous(){
+    Set<OrderStatus> previous = EnumSet.noneOf(OrderStatus.class);
+    for (OrderStatus s : values()) if (s.next().contains(this)) previous.add(s);
+    return previous;
+  }
+
+  public boolean canTransitionTo(OrderStatus next){
+    return next().contains(next);
+  }
+
+  public boolean isTerminal(){
+    return this == DELIVERED || this == CANCELLED;
+  }
+
+  /** @throws IllegalArgumentException for anything but a status name (case-insensitive) */
+  public static OrderStatus parse(String value){
+    if (value != null) {
+      for (OrderStatus s : values()) if (s.name().equalsIgnoreCase(value.trim())) return s;
+    }
+    throw new IllegalArgumentException("Unknown order status: " + value);
+  }
+}
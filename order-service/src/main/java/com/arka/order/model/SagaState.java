@@ -0,0 +1,13 @@
+package com.arka.order.model;
+
+/**
+ * STARTED -> RESERVED -> COMPLETED on the happy path; any state can move to COMPENSATING,
+ * which ends in COMPENSATED, or FAILED when compensation keeps failing and needs an operator.
+ */
+public enum SagaState {
+  STARTED, RESERVED, COMPLETED, COMPENSATING, COMPENSATED, FAILED;
+
+  public boolean isTerminal(){
+    return this == COMPLETED || this == COMPENSATED || this == FAILED;
+  }
+}
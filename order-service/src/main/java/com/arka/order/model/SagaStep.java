@@ -0,0 +1,63 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One remote call of a saga. The idempotency key is sent with the call so it can be repeated
+ * safely; a RESERVE step uses it as the reference of its inventory hold.
+ */
+@Entity
+@Table(name = "saga_steps", indexes = {
+  @Index(name = "idx_saga_steps_saga_id", columnList = "sagaId")
+})
+public class SagaStep {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long sagaId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private SagaStepType type;
+
+  /** Product and quantity of a RESERVE step; null for NOTIFY. */
+  private Long productId;
+  private Integer quantity;
+
+  /** Inventory hold of a RESERVE step, once inventory has made it. */
+  private Long reservationId;
+
+  @Column(nullable = false, unique = true, length = 128)
+  private String idempotencyKey;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private SagaStepStatus status;
+
+  private Instant updatedAt;
+
+  public SagaStep(){}
+
+  public SagaStep(Long sagaId, SagaStepType type, Long productId, Integer quantity, String idempotencyKey){
+    this.sagaId = sagaId;
+    this.type = type;
+    this.productId = productId;
+    this.quantity = quantity;
+    this.idempotencyKey = idempotencyKey;
+    this.status = SagaStepStatus.PENDING;
+    this.updatedAt = Instant.now();
+  }
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Long getSagaId(){return sagaId;} public void setSagaId(Long sagaId){this.sagaId=sagaId;}
+  public SagaStepType getType(){return type;} public void setType(SagaStepType type){this.type=type;}
+  public Long getProductId(){return productId;} public void setProductId(Long productId){this.productId=productId;}
+  public Integer getQuantity(){return quantity;} public void setQuantity(Integer quantity){this.quantity=quantity;}
+  public Long getReservationId(){return reservationId;} public void setReservationId(Long reservationId){this.reservationId=reservationId;}
+  public String getIdempotencyKey(){return idempotencyKey;} public void setIdempotencyKey(String idempotencyKey){this.idempotencyKey=idempotencyKey;}
+  public SagaStepStatus getStatus(){return status;} public void setStatus(SagaStepStatus status){this.status=status;}
+  public Instant getUpdatedAt(){return updatedAt;} public void setUpdatedAt(Instant updatedAt){this.updatedAt=updatedAt;}
+}
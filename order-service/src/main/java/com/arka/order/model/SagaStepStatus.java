@@ -0,0 +1,10 @@
+package com.arka.order.model;
+
+/**
+ * ATTEMPTED means the call was sent but its outcome is unknown (timeout, crash); the step is
+ * resolved by repeating the call with the same idempotency key. A RESERVE step is DONE once its
+ * stock is held and CONFIRMED once the hold has been turned into a stock decrement.
+ */
+public enum SagaStepStatus {
+  PENDING, ATTEMPTED, DONE, CONFIRMED, REJECTED, COMPENSATED
+}
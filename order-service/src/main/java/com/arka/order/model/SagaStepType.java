@@ -0,0 +1,5 @@
+package com.arka.order.model;
+
+public enum SagaStepType {
+  RESERVE, NOTIFY
+}
@@ -0,0 +1,35 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** Confirmed orders and revenue per customer email ('' when unknown), in the hour the orders were created. */
+@Entity
+@Table(name = "sales_hourly_customer", uniqueConstraints = {
+  @UniqueConstraint(name = "uk_sales_hourly_customer_bucket", columnNames = {"bucketStart", "customerEmail"})
+})
+public class SalesHourlyCustomer {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Instant bucketStart;
+
+  @Column(nullable = false)
+  private String customerEmail;
+
+  @Column(nullable = false)
+  private Long orders;
+
+  @Column(nullable = false)
+  private Double revenue;
+
+  public SalesHourlyCustomer(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Instant getBucketStart(){return bucketStart;} public void setBucketStart(Instant bucketStart){this.bucketStart=bucketStart;}
+  public String getCustomerEmail(){return customerEmail;} public void setCustomerEmail(String customerEmail){this.customerEmail=customerEmail;}
+  public Long getOrders(){return orders;} public void setOrders(Long orders){this.orders=orders;}
+  public Double getRevenue(){return revenue;} public void setRevenue(Double revenue){this.revenue=revenue;}
+}
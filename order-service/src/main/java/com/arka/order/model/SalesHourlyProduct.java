@@ -0,0 +1,35 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** Confirmed quantity and revenue per product, in the hour the orders were created. */
+@Entity
+@Table(name = "sales_hourly_product", uniqueConstraints = {
+  @UniqueConstraint(name = "uk_sales_hourly_product_bucket", columnNames = {"bucketStart", "productId"})
+})
+public class SalesHourlyProduct {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Instant bucketStart;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  @Column(nullable = false)
+  private Long quantity;
+
+  @Column(nullable = false)
+  private Double revenue;
+
+  public SalesHourlyProduct(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Instant getBucketStart(){return bucketStart;} public void setBucketStart(Instant bucketStart){this.bucketStart=bucketStart;}
+  public Long getProductId(){return productId;} public void setProductId(Long productId){this.productId=productId;}
+  public Long getQuantity(){return quantity;} public void setQuantity(Long quantity){this.quantity=quantity;}
+  public Double getRevenue(){return revenue;} public void setRevenue(Double revenue){this.revenue=revenue;}
+}
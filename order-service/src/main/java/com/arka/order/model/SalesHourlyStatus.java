@@ -0,0 +1,35 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** Number and total amount of orders currently in each status, by the hour the orders were created. */
+@Entity
+@Table(name = "sales_hourly_status", uniqueConstraints = {
+  @UniqueConstraint(name = "uk_sales_hourly_status_bucket", columnNames = {"bucketStart", "status"})
+})
+public class SalesHourlyStatus {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Instant bucketStart;
+
+  @Column(nullable = false, length = 32)
+  private String status;
+
+  @Column(nullable = false)
+  private Long orders;
+
+  @Column(nullable = false)
+  private Double amount;
+
+  public SalesHourlyStatus(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public Instant getBucketStart(){return bucketStart;} public void setBucketStart(Instant bucketStart){this.bucketStart=bucketStart;}
+  public String getStatus(){return status;} public void setStatus(String status){this.status=status;}
+  public Long getOrders(){return orders;} public void setOrders(Long orders){this.orders=orders;}
+  public Double getAmount(){return amount;} public void setAmount(Double amount){this.amount=amount;}
+}
@@ -0,0 +1,54 @@
+package com.arka.order.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A keyed stock adjustment whose outcome inventory never confirmed: every call timed out or
+ * failed on the server, so the stock may or may not have moved. Settling repeats the call with
+ * the same key, which makes the outcome known (inventory applies a key at most once), and with
+ * compensate set then gives the stock back under a key of its own.
+ */
+@Entity
+@Table(name = "stock_settlements", indexes = {
+  @Index(name = "idx_stock_settlements_next_attempt_at", columnList = "nextAttemptAt")
+})
+public class StockSettlement {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, unique = true, length = 128)
+  private String requestKey;
+
+  /** The adjustments sent with the key, as JSON. */
+  @Column(nullable = false, columnDefinition = "text")
+  private String adjustments;
+
+  /** Whether the adjustments are undone once they are known to be applied. */
+  @Column(nullable = false)
+  private boolean compensate;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false)
+  private Instant nextAttemptAt;
+
+  @Column(length = 500)
+  private String lastError;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  public StockSettlement(){}
+
+  public Long getId(){return id;} public void setId(Long id){this.id=id;}
+  public String getRequestKey(){return requestKey;} public void setRequestKey(String requestKey){this.requestKey=requestKey;}
+  public String getAdjustments(){return adjustments;} public void setAdjustments(String adjustments){this.adjustments=adjustments;}
+  public boolean isCompensate(){return compensate;} public void setCompensate(boolean compensate){this.compensate=compensate;}
+  public int getAttempts(){return attempts;} public void setAttempts(int attempts){this.attempts=attempts;}
+  public Instant getNextAttemptAt(){return nextAttemptAt;} public void setNextAttemptAt(Instant nextAttemptAt){this.nextAttemptAt=nextAttemptAt;}
+  public String getLastError(){return lastError;} public void setLastError(String lastError){this.lastError=lastError;}
+  public Instant getCreatedAt(){return createdAt;} public void setCreatedAt(Instant createdAt){this.createdAt=createdAt;}
+}
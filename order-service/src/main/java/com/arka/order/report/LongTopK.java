@@ -0,0 +1,152 @@
+package com.arka.order.report;
+
+import java.util.List;
+
+/**
+ * Sums counts per primitive {@code long} key and returns the K largest. Keys live in an
+ * open-addressing table of parallel arrays, so adding a count allocates nothing; ranking uses a
+ * bounded min-heap of K slots, O(n log K), instead of sorting every key.
+ * Ties rank the smaller key first. Not thread-safe.
+ * <p>
+ * Nothing in the service uses it yet: {@code SalesReportService} ranks in SQL over the hourly
+ * rollups. It is the in-memory alternative measured by {@code SalesTopKBenchmark}.
+ */
+public final class LongTopK {
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private long[] counts;
+  private boolean[] used;
+  private int size;
+
+  public LongTopK() {
+    this(MIN_CAPACITY);
+  }
+
+  /** @param expectedKeys number of distinct keys to size the table for */
+  public LongTopK(int expectedKeys) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedKeys * 2) capacity <<= 1;
+    allocate(capacity);
+  }
+
+  public void add(long key, long count) {
+    int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        counts[slot] += count;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    used[slot] = true;
+    keys[slot] = key;
+    counts[slot] = count;
+    if (++size * 2 > keys.length) grow();
+  }
+
+  public long get(long key) {
+    int mask = keys.length - 1;
+    for (int slot = mix(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) return counts[slot];
+    }
+    return 0;
+  }
+
+  /** Number of distinct keys. */
+  public int size() {
+    return size;
+  }
+
+  /** The {@code k} keys with the largest counts, largest first. */
+  public List<Entry> top(int k) {
+    if (k <= 0 || size == 0) return List.of();
+    int[] heap = new int[Math.min(k, size)];
+    int heapSize = 0;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (!used[slot]) continue;
+      if (heapSize < heap.length) {
+        heap[heapSize] = slot;
+        siftUp(heap, heapSize++);
+      } else if (ranksAbove(slot, heap[0])) {
+        heap[0] = slot;
+        siftDown(heap, heapSize);
+      }
+    }
+    Entry[] result = new Entry[heapSize];
+    for (int i = heapSize - 1; i >= 0; i--) {
+      result[i] = new Entry(keys[heap[0]], counts[heap[0]]);
+      heap[0] = heap[i];
+      siftDown(heap, i);
+    }
+    return List.of(result);
+  }
+
+  public record Entry(long key, long count) {}
+
+  /** Whether slot a ranks above slot b: larger count, then smaller key. */
+  private boolean ranksAbove(int a, int b) {
+    return counts[a] != counts[b] ? counts[a] > counts[b] : keys[a] < keys[b];
+  }
+
+  // Min-heap on rank: the root is the lowest-ranked of the current top K.
+  private void siftUp(int[] heap, int i) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!ranksAbove(heap[parent], heap[i])) break;
+      swap(heap, i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int[] heap, int heapSize) {
+    int i = 0;
+    while (true) {
+      int lowest = i;
+      int left = 2 * i + 1;
+      int right = left + 1;
+      if (left < heapSize && ranksAbove(heap[lowest], heap[left])) lowest = left;
+      if (right < heapSize && ranksAbove(heap[lowest], heap[right])) lowest = right;
+      if (lowest == i) return;
+      swap(heap, i, lowest);
+      i = lowest;
+    }
+  }
+
+  private static void swap(int[] heap, int i, int j) {
+    int t = heap[i];
+    heap[i] = heap[j];
+    heap[j] = t;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    long[] oldCounts = counts;
+    boolean[] oldUsed = used;
+    allocate(oldKeys.length * 2);
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (!oldUsed[i]) continue;
+      int slot = mix(oldKeys[i]) & mask;
+      while (used[slot]) slot = (slot + 1) & mask;
+      used[slot] = true;
+      keys[slot] = oldKeys[i];
+      counts[slot] = oldCounts[i];
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    counts = new long[capacity];
+    used = new boolean[capacity];
+  }
+
+  /** Spreads sequential ids over the table (murmur3 finalizer). */
+  private static int mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+}
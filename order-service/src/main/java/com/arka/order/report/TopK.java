@@ -0,0 +1,100 @@
+package com.arka.order.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums counts per object key (e.g. customer email) and returns the K largest. Each distinct key
+ * holds one mutable counter, so repeated adds neither box nor allocate; ranking uses a bounded
+ * min-heap of K entries. Ties rank the smaller key first. Not thread-safe.
+ * For {@code long} keys use {@link LongTopK}, which has the same standing: not used by the sales
+ * report yet, only by {@code SalesTopKBenchmark}.
+ */
+public final class TopK<K extends Comparable<? super K>> {
+  private final Map<K, long[]> counts;
+
+  public TopK() {
+    this.counts = new HashMap<>();
+  }
+
+  public TopK(int expectedKeys) {
+    this.counts = new HashMap<>(Math.max(16, (int) (expectedKeys / 0.75f) + 1));
+  }
+
+  public void add(K key, long count) {
+    long[] counter = counts.get(key);
+    if (counter == null) counts.put(key, new long[]{count});
+    else counter[0] += count;
+  }
+
+  public long get(K key) {
+    long[] counter = counts.get(key);
+    return counter == null ? 0 : counter[0];
+  }
+
+  public int size() {
+    return counts.size();
+  }
+
+  /** The {@code k} keys with the largest counts, largest first. */
+  @SuppressWarnings("unchecked")
+  public List<Entry<K>> top(int k) {
+    if (k <= 0 || counts.isEmpty()) return List.of();
+    Entry<K>[] heap = new Entry[Math.min(k, counts.size())];
+    int heapSize = 0;
+    for (Map.Entry<K, long[]> e : counts.entrySet()) {
+      long count = e.getValue()[0];
+      if (heapSize < heap.length) {
+        heap[heapSize] = new Entry<>(e.getKey(), count);
+        siftUp(heap, heapSize++);
+      } else if (ranksAbove(e.getKey(), count, heap[0])) {
+        heap[0] = new Entry<>(e.getKey(), count);
+        siftDown(heap, heapSize);
+      }
+    }
+    List<Entry<K>> result = new ArrayList<>(heapSize);
+    for (int i = heapSize; i > 0; i--) {
+      result.add(heap[0]);
+      heap[0] = heap[i - 1];
+      siftDown(heap, i - 1);
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  public record Entry<K>(K key, long count) {}
+
+  private boolean ranksAbove(K key, long count, Entry<K> other) {
+    return count != other.count() ? count > other.count() : key.compareTo(other.key()) < 0;
+  }
+
+  private boolean ranksAbove(Entry<K> a, Entry<K> b) {
+    return ranksAbove(a.key(), a.count(), b);
+  }
+
+  private void siftUp(Entry<K>[] heap, int i) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!ranksAbove(heap[parent], heap[i])) break;
+      Entry<K> t = heap[i]; heap[i] = heap[parent]; heap[parent] = t;
+      i = parent;
+    }
+  }
+
+  private void siftDown(Entry<K>[] heap, int heapSize) {
+    int i = 0;
+    while (true) {
+      int lowest = i;
+      int left = 2 * i + 1;
+      int right = left + 1;
+      if (left < heapSize && ranksAbove(heap[lowest], heap[left])) lowest = left;
+      if (right < heapSize && ranksAbove(heap[lowest], heap[right])) lowest = right;
+      if (lowest == i) return;
+      Entry<K> t = heap[i]; heap[i] = heap[lowest]; heap[lowest] = t;
+      i = lowest;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.arka.order.repository;
+
+import com.arka.order.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+  /**
+   * Takes the key for a new request: inserts it, or takes over a row that has expired.
+   * Returns 0 when the key is held by a live record (finished or still running).
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "INSERT INTO order_idempotency_keys (idempotency_key, request_hash, created_at, expires_at) " +
+    "VALUES (:key, :hash, :now, :expiresAt) " +
+    "ON CONFLICT (idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, created_at = EXCLUDED.created_at, " +
+    "expires_at = EXCLUDED.expires_at, response_status = NULL, response_content_type = NULL, response_location = NULL, response_body = NULL " +
+    "WHERE order_idempotency_keys.expires_at < :now", nativeQuery = true)
+  int claim(@Param("key") String key, @Param("hash") String hash, @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+  @Modifying
+  @Transactional
+  @Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseContentType = :contentType, " +
+    "r.responseLocation = :location, r.responseBody = :body, r.expiresAt = :expiresAt where r.idempotencyKey = :key")
+  int complete(@Param("key") String key, @Param("status") int status, @Param("contentType") String contentType,
+               @Param("location") String location, @Param("body") String body, @Param("expiresAt") Instant expiresAt);
+
+  @Modifying
+  @Transactional
+  @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+  int deleteExpired(@Param("now") Instant now);
+}
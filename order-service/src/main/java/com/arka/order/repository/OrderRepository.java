@@ -1,15 +1,59 @@
 package com.arka.order.repository;
 
+import com.arka.order.dto.OrderSummary;
 import com.arka.order.model.Order;
+import com.arka.order.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Order.items is lazy. The plain finders load orders only (items are batch-fetched if touched);
+ * the *WithItems* variants fetch-join the items in the same select, and the summary queries
+ * return list-view rows without loading entities at all.
+ */
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+  String SUMMARY = "select new com.arka.order.dto.OrderSummary(o.id, o.customerEmail, o.createdAt, o.status, o.total) from Order o ";
+
   List<Order> findByCustomerEmail(String customerEmail);
-  List<Order> findByStatus(String status);
+  List<Order> findByStatus(OrderStatus status);
   List<Order> findByCreatedAtAfter(Instant date);
+
+  @EntityGraph(attributePaths = "items")
+  Optional<Order> findWithItemsById(Long id);
+
+  @EntityGraph(attributePaths = "items")
+  List<Order> findWithItemsByCustomerEmail(String customerEmail);
+
+  @EntityGraph(attributePaths = "items")
+  List<Order> findWithItemsByStatus(OrderStatus status);
+
+  @EntityGraph(attributePaths = "items")
+  List<Order> findWithItemsByCreatedAtAfter(Instant date);
+
+  // Keyset pages, newest first: pass PageRequest.of(0, n) and the (createdAt, id) of the previous page's last row.
+  @Query(SUMMARY + "where o.customerEmail = :email order by o.createdAt desc, o.id desc")
+  List<OrderSummary> findSummariesByCustomerEmail(@Param("email") String customerEmail, Pageable page);
+
+  @Query(SUMMARY + "where o.customerEmail = :email and (o.createdAt, o.id) < (:createdAt, :id) order by o.createdAt desc, o.id desc")
+  List<OrderSummary> findSummariesByCustomerEmailBefore(@Param("email") String customerEmail,
+                                                        @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable page);
+
+  @Query(SUMMARY + "where o.status = :status order by o.createdAt desc, o.id desc")
+  List<OrderSummary> findSummariesByStatus(@Param("status") OrderStatus status, Pageable page);
+
+  @Query(SUMMARY + "where o.status = :status and (o.createdAt, o.id) < (:createdAt, :id) order by o.createdAt desc, o.id desc")
+  List<OrderSummary> findSummariesByStatusBefore(@Param("status") OrderStatus status,
+                                                 @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable page);
+
+  @Query(SUMMARY + "where o.createdAt > :date order by o.createdAt desc, o.id desc")
+  List<OrderSummary> findSummariesByCreatedAtAfter(@Param("date") Instant date);
 }
@@ -0,0 +1,21 @@
+package com.arka.order.repository;
+
+import com.arka.order.model.OrderSaga;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, Long> {
+  Optional<OrderSaga> findByOrderId(Long orderId);
+
+  /** Unfinished sagas whose lease or backoff has run out; rows locked by another instance are skipped. */
+  @Query(value = "SELECT * FROM order_sagas WHERE state IN ('STARTED','RESERVED','COMPENSATING') " +
+    "AND next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<OrderSaga> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+}
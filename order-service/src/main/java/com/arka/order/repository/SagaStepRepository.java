@@ -0,0 +1,12 @@
+package com.arka.order.repository;
+
+import com.arka.order.model.SagaStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SagaStepRepository extends JpaRepository<SagaStep, Long> {
+  List<SagaStep> findBySagaIdOrderByIdAsc(Long sagaId);
+}
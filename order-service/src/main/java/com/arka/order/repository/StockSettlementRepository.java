@@ -0,0 +1,19 @@
+package com.arka.order.repository;
+
+import com.arka.order.model.StockSettlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockSettlementRepository extends JpaRepository<StockSettlement, Long> {
+
+  /** Settlements whose lease or backoff has run out; rows locked by another instance are skipped. */
+  @Query(value = "SELECT * FROM stock_settlements WHERE next_attempt_at <= :now " +
+    "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<StockSettlement> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -2,62 +2,378 @@ package com.arka.order.saga;
 
 import com.arka.order.clients.InventoryClient;
 import com.arka.order.clients.NotificationClient;
+import com.arka.order.dto.OrderStatusView;
+import com.arka.order.dto.Reservation;
+import com.arka.order.dto.ReservationRequest;
 import com.arka.order.model.Order;
+import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderSaga;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.model.SagaState;
+import com.arka.order.model.SagaStep;
+import com.arka.order.model.SagaStepStatus;
+import com.arka.order.model.SagaStepType;
+import com.arka.order.repository.OrderRepository;
+import com.arka.order.repository.OrderSagaRepository;
+import com.arka.order.repository.SagaStepRepository;
+import com.arka.order.service.SalesRollupService;
+import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+
+import static com.arka.order.clients.FeignErrors.isRejection;
 
+/**
+ * Runs order sagas as a persisted state machine: the saga row and one row per step are written
+ * before any remote call, and every step outcome is recorded as it happens. A saga interrupted
+ * by a crash or a transient failure is resumed from its rows by {@link SagaRecoveryWorker};
+ * remote calls carry per-step idempotency keys, so repeating an interrupted step is safe.
+ * Every saga change is published as an {@link OrderStatusView} event.
+ *
+ * Stock is reserved as inventory holds, which expire unless confirmed, and the holds are only
+ * confirmed once every line is held: a saga that dies before that cannot leak stock. A hold's
+ * reference is its step key and inventory keeps one hold per reference, so an interrupted
+ * reserve can be repeated however late it is resumed.
+ */
 @Component
 public class OrderSagaOrchestrator {
   private static final Logger log = LoggerFactory.getLogger(OrderSagaOrchestrator.class);
-  
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
   private final InventoryClient inventoryClient;
   private final NotificationClient notificationClient;
+  private final OrderRepository orderRepository;
+  private final OrderSagaRepository sagaRepository;
+  private final SagaStepRepository stepRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final SalesRollupService salesRollups;
+  private final int maxAttempts;
+  private final Duration retryBackoff;
+  private final Duration lease;
+  private final long holdTtlSeconds;
 
-  public OrderSagaOrchestrator(InventoryClient inventoryClient, NotificationClient notificationClient) {
+  public OrderSagaOrchestrator(InventoryClient inventoryClient, NotificationClient notificationClient,
+                               OrderRepository orderRepository, OrderSagaRepository sagaRepository,
+                               SagaStepRepository stepRepository, TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventPublisher, SalesRollupService salesRollups,
+                               @Value("${order.saga.max-attempts:5}") int maxAttempts,
+                               @Value("${order.saga.retry-backoff-ms:1000}") long retryBackoffMs,
+                               @Value("${order.saga.lease-ms:30000}") long leaseMs,
+                               @Value("${order.inventory.hold-ttl-seconds:900}") long holdTtlSeconds) {
     this.inventoryClient = inventoryClient;
     this.notificationClient = notificationClient;
+    this.orderRepository = orderRepository;
+    this.sagaRepository = sagaRepository;
+    this.stepRepository = stepRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.eventPublisher = eventPublisher;
+    this.salesRollups = salesRollups;
+    this.maxAttempts = maxAttempts;
+    this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+    this.lease = Duration.ofMillis(leaseMs);
+    this.holdTtlSeconds = holdTtlSeconds;
   }
 
-  public void executeOrderSaga(Order order) {
+  /**
+   * Starts (or resumes) the saga of an order and runs it as far as it can go now.
+   * @return the saga; when a step failed transiently, or another runner holds it, it is left as it is
+   * @throws RuntimeException when the saga was compensated or could not be compensated
+   */
+  public OrderSaga executeOrderSaga(Order order) {
     log.info("Starting Order Saga for order: {}", order.getId());
-    
+    OrderSaga saga = start(order).map(this::advance)
+      .orElseGet(() -> sagaRepository.findByOrderId(order.getId()).orElseThrow());
+    if (saga.getState() == SagaState.COMPENSATED || saga.getState() == SagaState.FAILED) {
+      throw new RuntimeException("Order Saga failed: " + saga.getLastError());
+    }
+    return saga;
+  }
+
+  /**
+   * Persists the saga and all its steps in one transaction, leased to the caller. Starting an
+   * order that already has a saga leases the existing one instead, unless it is finished or
+   * somebody else holds it (or it is waiting for a retry).
+   * @return the saga, leased to the caller; empty when the caller must not run it
+   */
+  public Optional<OrderSaga> start(Order order) {
     try {
-      // Step 1: Reserve inventory
-      order.getItems().forEach(item -> {
-        inventoryClient.updateStock(item.getProductId(), -item.getQuantity(), "ORDER_RESERVE");
+      return transactionTemplate.execute(status -> {
+        Instant now = Instant.now();
+        Optional<OrderSaga> existing = sagaRepository.findByOrderId(order.getId());
+        if (existing.isEmpty()) return Optional.of(create(order, now));
+        OrderSaga saga = existing.get();
+        if (saga.getState().isTerminal() || saga.getNextAttemptAt().isAfter(now)) return Optional.empty();
+        saga.setNextAttemptAt(now.plus(lease));
+        return Optional.of(sagaRepository.save(saga));
       });
-      
-      // Step 2: Process payment (placeholder)
-      log.info("Payment processed for order: {}", order.getId());
-      
-      // Step 3: Send notification
-      Map<String, Object> notification = new HashMap<>();
-      notification.put("type", "EMAIL");
-      notification.put("email", order.getCustomerEmail());
-      notification.put("subject", "Order Confirmation");
-      notification.put("body", "Your order #" + order.getId() + " has been confirmed");
-      notificationClient.send(notification);
-      
-      log.info("Order Saga completed successfully for order: {}", order.getId());
-      
-    } catch (Exception ex) {
-      log.error("Order Saga failed for order: {}. Initiating compensating transaction", order.getId());
-      compensate(order);
-      throw new RuntimeException("Order Saga failed: " + ex.getMessage(), ex);
-    }
-  }
-
-  private void compensate(Order order) {
-    // Rollback inventory reservation
-    order.getItems().forEach(item -> {
+    } catch (OptimisticLockingFailureException e) {
+      // The recovery worker claimed it in the meantime.
+      return Optional.empty();
+    }
+  }
+
+  private OrderSaga create(Order order, Instant now) {
+    OrderSaga saga = new OrderSaga();
+    saga.setOrderId(order.getId());
+    saga.setState(SagaState.STARTED);
+    saga.setNextAttemptAt(now.plus(lease));
+    saga.setCreatedAt(now);
+    saga.setUpdatedAt(now);
+    saga = sagaRepository.save(saga);
+
+    Map<Long, Integer> lines = new LinkedHashMap<>();
+    if (order.getItems() != null) {
+      for (OrderItem it : order.getItems()) lines.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+    }
+    List<SagaStep> steps = new ArrayList<>(lines.size() + 1);
+    String prefix = "order-saga-" + saga.getId();
+    for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+      steps.add(new SagaStep(saga.getId(), SagaStepType.RESERVE, line.getKey(), line.getValue(),
+        prefix + "-reserve-" + line.getKey()));
+    }
+    steps.add(new SagaStep(saga.getId(), SagaStepType.NOTIFY, null, null, prefix + "-notify"));
+    stepRepository.saveAll(steps);
+    return saga;
+  }
+
+  /**
+   * Locks up to {@code limit} sagas that are due and extends their lease, so other instances
+   * leave them alone while this one runs them.
+   */
+  public List<OrderSaga> claimDue(int limit) {
+    return transactionTemplate.execute(status -> {
+      Instant now = Instant.now();
+      List<OrderSaga> due = sagaRepository.lockDue(now, limit);
+      for (OrderSaga saga : due) saga.setNextAttemptAt(now.plus(lease));
+      return due;
+    });
+  }
+
+  /**
+   * Runs the saga until it finishes or has to wait for a retry. Stops as soon as another runner
+   * turns out to have taken the saga over (its lease lapsed while this one was still going).
+   */
+  public OrderSaga advance(OrderSaga saga) {
+    List<SagaStep> steps = stepRepository.findBySagaIdOrderByIdAsc(saga.getId());
+    boolean proceed = true;
+    try {
+      while (proceed && !saga.getState().isTerminal()) {
+        proceed = switch (saga.getState()) {
+          case STARTED -> reserve(saga, steps);
+          case RESERVED -> confirm(saga, steps);
+          case COMPENSATING -> compensate(saga, steps);
+          default -> false;
+        };
+      }
+    } catch (OptimisticLockingFailureException e) {
+      log.warn("Order Saga for order {} was taken over by another runner; leaving it to them", saga.getOrderId());
+    }
+    return saga;
+  }
+
+  private boolean reserve(OrderSaga saga, List<SagaStep> steps) {
+    for (SagaStep step : steps) {
+      if (step.getType() != SagaStepType.RESERVE || step.getStatus() == SagaStepStatus.DONE) continue;
       try {
-        inventoryClient.updateStock(item.getProductId(), item.getQuantity(), "ORDER_ROLLBACK");
+        sendReserve(step);
       } catch (Exception ex) {
-        log.error("Failed to compensate inventory for product: {}", item.getProductId());
+        if (isRejection(ex)) {
+          markStep(step, SagaStepStatus.REJECTED);
+          saga.setLastError(message(ex));
+          moveTo(saga, SagaState.COMPENSATING);
+          return true;
+        }
+        return retryLater(saga, ex);
       }
+    }
+    moveTo(saga, SagaState.RESERVED);
+    return true;
+  }
+
+  private boolean confirm(OrderSaga saga, List<SagaStep> steps) {
+    // Payment processing (placeholder)
+    log.info("Payment processed for order: {}", saga.getOrderId());
+
+    for (SagaStep step : steps) {
+      if (step.getType() != SagaStepType.RESERVE || step.getStatus() != SagaStepStatus.DONE) continue;
+      try {
+        inventoryClient.confirmReservation(step.getReservationId());
+        markStep(step, SagaStepStatus.CONFIRMED);
+      } catch (Exception ex) {
+        if (isRejection(ex)) {
+          // The hold expired while the saga was waiting for a retry; there is no stock to take.
+          saga.setLastError(message(ex));
+          moveTo(saga, SagaState.COMPENSATING);
+          return true;
+        }
+        return retryLater(saga, ex);
+      }
+    }
+    for (SagaStep step : steps) {
+      if (step.getType() != SagaStepType.NOTIFY || step.getStatus() == SagaStepStatus.DONE) continue;
+      try {
+        markStep(step, SagaStepStatus.ATTEMPTED);
+        Order order = orderRepository.findById(saga.getOrderId()).orElse(null);
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "EMAIL");
+        notification.put("email", order == null ? null : order.getCustomerEmail());
+        notification.put("subject", "Order Confirmation");
+        notification.put("body", "Your order #" + saga.getOrderId() + " has been confirmed");
+        notification.put("idempotencyKey", step.getIdempotencyKey());
+        notificationClient.send(notification);
+        markStep(step, SagaStepStatus.DONE);
+      } catch (Exception ex) {
+        return retryLater(saga, ex);
+      }
+    }
+    updateOrderStatus(saga, OrderStatus.CONFIRMED);
+    moveTo(saga, SagaState.COMPLETED);
+    log.info("Order Saga completed successfully for order: {}", saga.getOrderId());
+    return false;
+  }
+
+  /**
+   * Gives back the stock of every line. A reserve whose outcome is unknown is first settled by
+   * repeating it: inventory answers with the hold it made for the step's key, or makes it now,
+   * and that hold is released like the others. A hold that was confirmed has its stock put back.
+   */
+  private boolean compensate(OrderSaga saga, List<SagaStep> steps) {
+    for (SagaStep step : steps) {
+      if (step.getType() != SagaStepType.RESERVE) continue;
+      try {
+        if (step.getStatus() == SagaStepStatus.ATTEMPTED) {
+          try {
+            sendReserve(step);
+          } catch (Exception ex) {
+            if (!isRejection(ex)) throw ex;
+            markStep(step, SagaStepStatus.REJECTED);
+          }
+        }
+        if (step.getStatus() == SagaStepStatus.DONE) {
+          try {
+            inventoryClient.releaseReservation(step.getReservationId());
+            markStep(step, SagaStepStatus.COMPENSATED);
+          } catch (FeignException.Conflict confirmed) {
+            // A confirm whose response was lost went through after all.
+            markStep(step, SagaStepStatus.CONFIRMED);
+          }
+        }
+        if (step.getStatus() == SagaStepStatus.CONFIRMED) {
+          inventoryClient.updateStock(step.getProductId(), step.getQuantity(), "ORDER_ROLLBACK",
+            step.getIdempotencyKey() + "-release");
+          markStep(step, SagaStepStatus.COMPENSATED);
+        }
+      } catch (Exception ex) {
+        log.error("Failed to compensate inventory for product: {}", step.getProductId());
+        return retryLater(saga, ex);
+      }
+    }
+    updateOrderStatus(saga, OrderStatus.CANCELLED);
+    moveTo(saga, SagaState.COMPENSATED);
+    log.info("Order Saga compensated for order: {}", saga.getOrderId());
+    return false;
+  }
+
+  private void sendReserve(SagaStep step) {
+    if (step.getStatus() == SagaStepStatus.PENDING) markStep(step, SagaStepStatus.ATTEMPTED);
+    Reservation hold = inventoryClient.reserve(new ReservationRequest(step.getProductId(), step.getQuantity(),
+      holdTtlSeconds, step.getIdempotencyKey()));
+    step.setReservationId(hold.getId());
+    markStep(step, SagaStepStatus.DONE);
+  }
+
+  /**
+   * Schedules another attempt with exponential backoff. Once the attempts run out a forward saga
+   * is compensated, and a compensation that keeps failing is parked as FAILED.
+   * @return whether the saga can keep running now
+   */
+  private boolean retryLater(OrderSaga saga, Exception ex) {
+    saga.setLastError(message(ex));
+    if (saga.getAttempts() + 1 >= maxAttempts) {
+      if (saga.getState() == SagaState.COMPENSATING) {
+        log.error("Order Saga for order {} could not be compensated: {}", saga.getOrderId(), saga.getLastError());
+        moveTo(saga, SagaState.FAILED);
+        return false;
+      }
+      log.error("Order Saga failed for order: {}. Initiating compensating transaction", saga.getOrderId());
+      moveTo(saga, SagaState.COMPENSATING);
+      return true;
+    }
+    saga.setAttempts(saga.getAttempts() + 1);
+    Duration backoff = retryBackoff.multipliedBy(1L << Math.min(saga.getAttempts() - 1, 20));
+    if (backoff.compareTo(MAX_BACKOFF) > 0) backoff = MAX_BACKOFF;
+    saga.setNextAttemptAt(Instant.now().plus(backoff));
+    persist(saga);
+    log.warn("Order Saga for order {} will retry {} in {} ms: {}",
+      saga.getOrderId(), saga.getState(), backoff.toMillis(), saga.getLastError());
+    return false;
+  }
+
+  private void moveTo(OrderSaga saga, SagaState state) {
+    saga.setState(state);
+    saga.setAttempts(0);
+    // Keeps the lease for the rest of this run; a crash lets recovery resume once it lapses.
+    saga.setNextAttemptAt(Instant.now().plus(lease));
+    persist(saga);
+  }
+
+  private void persist(OrderSaga saga) {
+    saga.setUpdatedAt(Instant.now());
+    // The saved copy carries the new version; keep it so the next write is not taken for a stale one.
+    saga.setVersion(sagaRepository.save(saga).getVersion());
+    eventPublisher.publishEvent(new OrderStatusView(saga.getOrderId(), orderStatusFor(saga.getState()),
+      saga.getState(), saga.getAttempts(), saga.getLastError()));
+  }
+
+  /** Order status matching a saga state; the order stays PENDING until its saga finishes. */
+  public static OrderStatus orderStatusFor(SagaState state) {
+    return switch (state) {
+      case COMPLETED -> OrderStatus.CONFIRMED;
+      case COMPENSATED -> OrderStatus.CANCELLED;
+      default -> OrderStatus.PENDING;
+    };
+  }
+
+  private void markStep(SagaStep step, SagaStepStatus status) {
+    step.setStatus(status);
+    step.setUpdatedAt(Instant.now());
+    stepRepository.save(step);
+  }
+
+  private void updateOrderStatus(OrderSaga saga, OrderStatus status) {
+    transactionTemplate.execute(tx -> {
+      orderRepository.findById(saga.getOrderId()).ifPresent(order -> {
+        OrderStatus previous = order.getStatus();
+        if (status == previous) return;
+        if (previous != null && !previous.canTransitionTo(status)) {
+          log.warn("Order {} is {}; saga {} leaves it as it is instead of moving it to {}", order.getId(), previous, saga.getId(), status);
+          return;
+        }
+        order.setStatus(status);
+        orderRepository.save(order);
+        salesRollups.statusChanged(order, previous);
+      });
+      return null;
     });
   }
+
+  private static String message(Exception ex) {
+    String msg = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+    return msg.length() > 500 ? msg.substring(0, 500) : msg;
+  }
 }
@@ -0,0 +1,48 @@
+package com.arka.order.saga;
+
+import com.arka.order.model.OrderSaga;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Resumes sagas that are due: interrupted by a restart (their lease lapsed) or waiting for a
+ * retry. Sagas live in the database between runs, so any number can be in flight without a
+ * thread each; this worker claims them in batches.
+ */
+@Component
+public class SagaRecoveryWorker {
+  private static final Logger log = LoggerFactory.getLogger(SagaRecoveryWorker.class);
+  private final OrderSagaOrchestrator orchestrator;
+  private final int batchSize;
+
+  public SagaRecoveryWorker(OrderSagaOrchestrator orchestrator, @Value("${order.saga.recovery-batch-size:100}") int batchSize) {
+    this.orchestrator = orchestrator;
+    this.batchSize = batchSize;
+  }
+
+  /** Drains full batches back to back, then waits for the next tick. */
+  @Scheduled(fixedDelayString = "${order.saga.recovery-interval-ms:5000}")
+  public void recover() {
+    try {
+      List<OrderSaga> due;
+      do {
+        due = orchestrator.claimDue(batchSize);
+        for (OrderSaga saga : due) {
+          try {
+            orchestrator.advance(saga);
+          } catch (Exception e) {
+            // The lease runs out and the saga is picked up again.
+            log.error("Resuming saga {} of order {} failed: {}", saga.getId(), saga.getOrderId(), e.getMessage(), e);
+          }
+        }
+      } while (due.size() >= batchSize);
+    } catch (Exception e) {
+      log.error("Saga recovery failed: {}", e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.arka.order.scheduler;
+
+import com.arka.order.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IdempotencyPurgeScheduler {
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyPurgeScheduler.class);
+  private final IdempotencyService idempotencyService;
+
+  public IdempotencyPurgeScheduler(IdempotencyService idempotencyService) {
+    this.idempotencyService = idempotencyService;
+  }
+
+  @Scheduled(cron = "0 10 * * * *") // Every hour at :10
+  public void purge() {
+    try {
+      int deleted = idempotencyService.purgeExpired();
+      if (deleted > 0) log.info("Purged {} expired idempotency key(s)", deleted);
+    } catch (Exception e) {
+      log.error("Idempotency key purge failed: {}", e.getMessage(), e);
+    }
+  }
+}
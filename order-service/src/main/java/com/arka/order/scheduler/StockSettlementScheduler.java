@@ -0,0 +1,44 @@
+package com.arka.order.scheduler;
+
+import com.arka.order.model.StockSettlement;
+import com.arka.order.service.StockSettlementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class StockSettlementScheduler {
+  private static final Logger log = LoggerFactory.getLogger(StockSettlementScheduler.class);
+  private final StockSettlementService settlementService;
+  private final int batchSize;
+
+  public StockSettlementScheduler(StockSettlementService settlementService,
+                                  @Value("${order.settlement.batch-size:100}") int batchSize) {
+    this.settlementService = settlementService;
+    this.batchSize = batchSize;
+  }
+
+  @Scheduled(fixedDelayString = "${order.settlement.interval-ms:10000}")
+  public void settle() {
+    try {
+      List<StockSettlement> due;
+      do {
+        due = settlementService.claimDue(batchSize);
+        for (StockSettlement settlement : due) {
+          try {
+            settlementService.settle(settlement);
+          } catch (Exception e) {
+            // The lease runs out and the settlement is picked up again.
+            log.error("Settling stock adjustment {} failed: {}", settlement.getRequestKey(), e.getMessage(), e);
+          }
+        }
+      } while (due.size() >= batchSize);
+    } catch (Exception e) {
+      log.error("Stock settlement failed: {}", e.getMessage(), e);
+    }
+  }
+}
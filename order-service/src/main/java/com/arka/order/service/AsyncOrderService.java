@@ -0,0 +1,97 @@
+package com.arka.order.service;
+
+import com.arka.order.dto.OrderStatusView;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderSaga;
+import com.arka.order.repository.OrderRepository;
+import com.arka.order.repository.OrderSagaRepository;
+import com.arka.order.saga.OrderSagaOrchestrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts orders without waiting for inventory: the order is stored as PENDING together with its
+ * saga, in one transaction, and the saga runs on a bounded worker pool. When the pool is saturated the saga is
+ * simply left to the recovery worker, which picks it up once its lease lapses.
+ */
+@Service
+public class AsyncOrderService implements DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(AsyncOrderService.class);
+
+  private final OrderService orderService;
+  private final OrderRepository orderRepository;
+  private final OrderSagaRepository sagaRepository;
+  private final OrderSagaOrchestrator orchestrator;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolExecutor workers;
+
+  public AsyncOrderService(OrderService orderService, OrderRepository orderRepository,
+                           OrderSagaRepository sagaRepository, OrderSagaOrchestrator orchestrator,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${order.async.worker-threads:8}") int workerThreads,
+                           @Value("${order.async.queue-capacity:1000}") int queueCapacity) {
+    this.orderService = orderService;
+    this.orderRepository = orderRepository;
+    this.sagaRepository = sagaRepository;
+    this.orchestrator = orchestrator;
+    this.transactionTemplate = transactionTemplate;
+    AtomicInteger counter = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity), r -> {
+        Thread t = new Thread(r, "order-saga-" + counter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+  }
+
+  /**
+   * Stores the order and its saga, then schedules the saga; returns as soon as both are committed.
+   * They commit together, so there is never a PENDING order without a saga to finish it.
+   */
+  public Order accept(Order order) {
+    Accepted accepted = transactionTemplate.execute(status -> {
+      Order saved = orderService.acceptOrder(order);
+      return new Accepted(saved, orchestrator.start(saved));
+    });
+    accepted.saga().ifPresent(saga -> run(saga, accepted.order()));
+    return accepted.order();
+  }
+
+  private record Accepted(Order order, Optional<OrderSaga> saga) {}
+
+  private void run(OrderSaga saga, Order order) {
+    try {
+      workers.execute(() -> {
+        try {
+          orchestrator.advance(saga);
+        } catch (Exception e) {
+          log.error("Saga of order {} stopped: {}", order.getId(), e.getMessage(), e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      log.warn("Saga workers saturated; order {} is left to saga recovery", order.getId());
+    }
+  }
+
+  public Optional<OrderStatusView> status(Long orderId) {
+    return orderRepository.findById(orderId).map(order -> sagaRepository.findByOrderId(orderId)
+      .map(saga -> new OrderStatusView(orderId, order.getStatus(), saga.getState(), saga.getAttempts(), saga.getLastError()))
+      .orElseGet(() -> new OrderStatusView(orderId, order.getStatus(), null, 0, null)));
+  }
+
+  @Override
+  public void destroy() {
+    workers.shutdown();
+  }
+}
@@ -0,0 +1,176 @@
+package com.arka.order.service;
+
+import com.arka.order.model.IdempotencyRecord;
+import com.arka.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays its stored response to retries.
+ * Finished responses are kept in a bounded in-memory LRU in front of the order_idempotency_keys
+ * table, so a retry that hits the same instance needs no database round trip. Only final
+ * outcomes are stored: 2xx and client errors. A 5xx, or a 408/409/429 that may well succeed later
+ * (e.g. a reservation refused until stock is replenished), releases the key so the client can
+ * retry with it.
+ */
+@Service
+public class IdempotencyService {
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+  static final int MAX_KEY_LENGTH = 128;
+
+  private final IdempotencyRecordRepository repository;
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final Duration inProgressTtl;
+  private final Map<String, StoredResponse> cache;
+
+  public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                            @Value("${order.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${order.idempotency.in-progress-ttl-ms:60000}") long inProgressTtlMs,
+                            @Value("${order.idempotency.cache-max-entries:10000}") int cacheMaxEntries) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+    this.ttl = Duration.ofHours(ttlHours);
+    this.inProgressTtl = Duration.ofMillis(inProgressTtlMs);
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+        return size() > cacheMaxEntries;
+      }
+    });
+  }
+
+  /**
+   * Runs {@code action} unless a request with the same key already ran.
+   * @param key the Idempotency-Key header; without one the action simply runs
+   * @param scope method and path of the request, part of the request fingerprint
+   * @param request the request body, part of the request fingerprint
+   * @return the action's response, the stored response of an earlier identical request,
+   *         409 while that request is still running, or 422 when the key was used for a different request
+   */
+  public ResponseEntity<?> execute(String key, String scope, Object request, Supplier<ResponseEntity<?>> action) {
+    if (key == null) return action.get();
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      return ResponseEntity.badRequest().body("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+    }
+    String hash = fingerprint(scope, request);
+    Instant now = Instant.now();
+
+    StoredResponse cached = cache.get(key);
+    if (cached != null && cached.expiresAt().isAfter(now)) return replay(cached, hash);
+
+    if (repository.claim(key, hash, now, now.plus(inProgressTtl)) == 0) {
+      IdempotencyRecord existing = repository.findById(key).orElse(null);
+      if (existing == null || existing.getResponseStatus() == null) {
+        return ResponseEntity.status(409).body("A request with this Idempotency-Key is still being processed");
+      }
+      StoredResponse stored = StoredResponse.of(existing);
+      cache.put(key, stored);
+      return replay(stored, hash);
+    }
+
+    ResponseEntity<?> response;
+    try {
+      response = action.get();
+    } catch (RuntimeException e) {
+      repository.deleteById(key);
+      throw e;
+    }
+    if (!isFinal(response.getStatusCode())) {
+      repository.deleteById(key);
+      return response;
+    }
+    StoredResponse stored = store(key, hash, response, Instant.now().plus(ttl));
+    if (stored != null) cache.put(key, stored);
+    return response;
+  }
+
+  /** Forgets expired keys in the table; the cache drops them lazily. */
+  public int purgeExpired() {
+    Instant now = Instant.now();
+    synchronized (cache) {
+      cache.values().removeIf(r -> !r.expiresAt().isAfter(now));
+    }
+    return repository.deleteExpired(now);
+  }
+
+  /** Whether repeating the request could not give another outcome, so its response may be replayed. */
+  static boolean isFinal(HttpStatusCode status) {
+    int code = status.value();
+    if (status.is2xxSuccessful()) return true;
+    return status.is4xxClientError() && code != 408 && code != 409 && code != 429;
+  }
+
+  private StoredResponse store(String key, String hash, ResponseEntity<?> response, Instant expiresAt) {
+    Object body = response.getBody();
+    MediaType contentType = response.getHeaders().getContentType();
+    String bodyText;
+    try {
+      if (body instanceof String s) {
+        bodyText = s;
+        if (contentType == null) contentType = MediaType.TEXT_PLAIN;
+      } else {
+        bodyText = body == null ? null : objectMapper.writeValueAsString(body);
+        if (contentType == null && body != null) contentType = MediaType.APPLICATION_JSON;
+      }
+    } catch (JsonProcessingException e) {
+      // The response went out anyway; without a stored copy the key is released for a retry.
+      log.error("Could not store response for Idempotency-Key {}: {}", key, e.getMessage());
+      repository.deleteById(key);
+      return null;
+    }
+    String location = response.getHeaders().getLocation() == null ? null : response.getHeaders().getLocation().toString();
+    StoredResponse stored = new StoredResponse(hash, response.getStatusCode().value(),
+      contentType == null ? null : contentType.toString(), location, bodyText, expiresAt);
+    repository.complete(key, stored.status(), stored.contentType(), stored.location(), stored.body(), expiresAt);
+    return stored;
+  }
+
+  private static ResponseEntity<?> replay(StoredResponse stored, String hash) {
+    if (!stored.requestHash().equals(hash)) {
+      return ResponseEntity.unprocessableEntity().body("Idempotency-Key was already used for a different request");
+    }
+    ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header("Idempotent-Replayed", "true");
+    if (stored.contentType() != null) builder.header(HttpHeaders.CONTENT_TYPE, stored.contentType());
+    if (stored.location() != null) builder.header(HttpHeaders.LOCATION, stored.location());
+    return stored.body() == null ? builder.build() : builder.body(stored.body());
+  }
+
+  private String fingerprint(String scope, Object request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(scope.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+      digest.update(objectMapper.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("Cannot fingerprint request", e);
+    }
+  }
+
+  record StoredResponse(String requestHash, int status, String contentType, String location, String body, Instant expiresAt) {
+    static StoredResponse of(IdempotencyRecord r) {
+      return new StoredResponse(r.getRequestHash(), r.getResponseStatus(), r.getResponseContentType(),
+        r.getResponseLocation(), r.getResponseBody(), r.getExpiresAt());
+    }
+  }
+}
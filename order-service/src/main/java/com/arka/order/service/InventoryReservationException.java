@@ -0,0 +1,8 @@
+package com.arka.order.service;
+
+/** Inventory could not reserve an order; lines that had been reserved were already released. */
+public class InventoryReservationException extends RuntimeException {
+  public InventoryReservationException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,262 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.dto.Reservation;
+import com.arka.order.dto.ReservationRequest;
+import com.arka.order.model.OrderItem;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.arka.order.clients.FeignErrors.isRejection;
+
+/**
+ * Holds the stock of an order's lines in inventory-service concurrently on a bounded pool, so an
+ * order costs roughly one inventory round trip instead of one per line, and confirms the holds
+ * once the order goes through. Stock is only taken when a hold is confirmed: if order-service
+ * dies in between, inventory expires the holds and the stock comes back on its own.
+ * Each fan-out has a deadline. On the first failure (or when the deadline passes) only lines that
+ * were actually held are released, also concurrently; a hold that lands after the abort is
+ * released as soon as it completes. A hold whose call failed without an answer (timeout, 5xx)
+ * may still have been made, so it is settled by repeating the request, which returns the hold
+ * made for the line's reference if there is one, and releasing what comes back.
+ */
+@Service
+public class InventoryReservationService implements DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(InventoryReservationService.class);
+
+  private final InventoryClient inventoryClient;
+  private final ExecutorService executor;
+  private final Duration timeout;
+  private final long holdTtlSeconds;
+
+  public InventoryReservationService(InventoryClient inventoryClient,
+                                     @Value("${order.inventory.max-concurrency:16}") int maxConcurrency,
+                                     @Value("${order.inventory.reservation-timeout-ms:3000}") long timeoutMs,
+                                     @Value("${order.inventory.hold-ttl-seconds:900}") long holdTtlSeconds) {
+    this.inventoryClient = inventoryClient;
+    this.executor = Executors.newFixedThreadPool(maxConcurrency, daemonThreads("inventory-reserve-"));
+    this.timeout = Duration.ofMillis(timeoutMs);
+    this.holdTtlSeconds = holdTtlSeconds;
+  }
+
+  /**
+   * Holds every line (quantities merged per product). Each hold carries the order line as its
+   * reference, so inventory never holds a line twice.
+   * @return the hold per product, for {@link #confirmAll} or {@link #releaseAll}
+   * @throws InventoryReservationException when any line fails or the deadline passes; by then
+   *         every line that was held has been released (or logged if the release failed)
+   */
+  public Map<Long, Reservation> reserveAll(Long orderId, List<OrderItem> items) {
+    Map<Long, Integer> lines = new LinkedHashMap<>();
+    if (items != null) {
+      for (OrderItem it : items) lines.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+    }
+    if (lines.isEmpty()) return new LinkedHashMap<>();
+
+    Attempt attempt = new Attempt(orderId);
+    CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+    List<CompletableFuture<Reservation>> calls = new ArrayList<>(lines.size());
+    lines.forEach((productId, qty) -> calls.add(CompletableFuture
+      .supplyAsync(() -> inventoryClient.reserve(
+        new ReservationRequest(productId, qty, holdTtlSeconds, reference(orderId, productId))), executor)
+      .whenComplete((hold, error) -> {
+        if (error == null) attempt.held(productId, hold);
+        else {
+          if (!refused(error)) attempt.unknown(productId, qty);
+          firstFailure.completeExceptionally(error);
+        }
+      })));
+
+    await(calls, firstFailure, attempt::abort, "reservation");
+    return attempt.holds();
+  }
+
+  /**
+   * Takes the held stock of every line, concurrently and within the deadline.
+   * @throws InventoryReservationException when a hold could not be confirmed; the caller then
+   *         hands the holds to {@link #releaseAll}, which also gives back the ones confirmed
+   */
+  public void confirmAll(Long orderId, Map<Long, Reservation> holds) {
+    CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+    List<CompletableFuture<Reservation>> calls = new ArrayList<>(holds.size());
+    for (Reservation hold : holds.values()) {
+      calls.add(CompletableFuture
+        .supplyAsync(() -> inventoryClient.confirmReservation(hold.getId()), executor)
+        .whenComplete((ok, error) -> {
+          if (error != null) firstFailure.completeExceptionally(error);
+        }));
+    }
+    await(calls, firstFailure, () -> {}, "confirmation");
+  }
+
+  private void await(List<? extends CompletableFuture<?>> calls, CompletableFuture<Void> firstFailure,
+                     Runnable abort, String what) {
+    try {
+      CompletableFuture.anyOf(CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])), firstFailure)
+        .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      abort.run();
+      throw new InventoryReservationException("Inventory " + what + " timed out after " + timeout.toMillis() + " ms");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort.run();
+      throw new InventoryReservationException("Inventory " + what + " interrupted");
+    } catch (ExecutionException e) {
+      abort.run();
+      throw new InventoryReservationException(unwrap(e).getMessage());
+    }
+  }
+
+  /**
+   * Releases the given holds concurrently and waits up to the deadline. A hold that turns out to
+   * be confirmed already has its stock put back instead.
+   * @return product ids whose release failed or did not finish in time
+   */
+  public List<Long> releaseAll(Long orderId, Map<Long, Reservation> holds) {
+    Map<Long, CompletableFuture<Void>> calls = new LinkedHashMap<>();
+    holds.forEach((productId, hold) -> calls.put(productId, release(orderId, hold)));
+    try {
+      CompletableFuture.allOf(calls.values().toArray(new CompletableFuture[0]))
+        .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception ignored) {
+      // per-line outcome is collected below
+    }
+    List<Long> unreleased = new ArrayList<>();
+    calls.forEach((productId, call) -> {
+      if (!call.isDone() || call.isCompletedExceptionally()) unreleased.add(productId);
+    });
+    if (!unreleased.isEmpty()) log.error("Order {}: could not release stock for products {}", orderId, unreleased);
+    return unreleased;
+  }
+
+  private CompletableFuture<Void> release(Long orderId, Reservation hold) {
+    return CompletableFuture
+      .runAsync(() -> {
+        try {
+          inventoryClient.releaseReservation(hold.getId());
+        } catch (FeignException.Conflict confirmed) {
+          inventoryClient.updateStock(hold.getProductId(), hold.getQuantity(), "compensate-order-" + orderId,
+            reference(orderId, hold.getProductId()) + "-release");
+        }
+      }, executor)
+      .whenComplete((ok, error) -> {
+        if (error != null) {
+          log.error("Order {}: release of {} x product {} failed: {}", orderId, hold.getQuantity(), hold.getProductId(), error.getMessage());
+        }
+      });
+  }
+
+  /** Repeats an unanswered hold request and releases whatever hold inventory made for it. */
+  private void settle(Long orderId, Long productId, int qty) {
+    CompletableFuture
+      .supplyAsync(() -> inventoryClient.reserve(
+        new ReservationRequest(productId, qty, holdTtlSeconds, reference(orderId, productId))), executor)
+      .whenComplete((hold, error) -> {
+        if (error == null) release(orderId, hold);
+        else if (!refused(error)) {
+          log.error("Order {}: could not settle hold of {} x product {}; it expires on its own: {}",
+            orderId, qty, productId, error.getMessage());
+        }
+      });
+  }
+
+  /** Reference of an order line's hold in inventory. */
+  static String reference(Long orderId, Long productId) {
+    return "order-" + orderId + "-" + productId;
+  }
+
+  /** Whether inventory answered with a refusal, so the call certainly changed nothing. */
+  private static boolean refused(Throwable error) {
+    return unwrap(error) instanceof Exception ex && isRejection(ex);
+  }
+
+  private static Throwable unwrap(Throwable t) {
+    while ((t instanceof ExecutionException || t instanceof CompletionException) && t.getCause() != null) t = t.getCause();
+    return t;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  /** Per-order bookkeeping that makes "held after abort" and "abort" agree on who releases a line. */
+  private final class Attempt {
+    private final Long orderId;
+    private final Map<Long, Reservation> held = new LinkedHashMap<>();
+    private final Map<Long, Integer> unknown = new LinkedHashMap<>();
+    private boolean aborted;
+
+    Attempt(Long orderId) {
+      this.orderId = orderId;
+    }
+
+    void held(Long productId, Reservation hold) {
+      synchronized (this) {
+        if (!aborted) {
+          held.put(productId, hold);
+          return;
+        }
+      }
+      release(orderId, hold);
+    }
+
+    void unknown(Long productId, int qty) {
+      synchronized (this) {
+        if (!aborted) {
+          unknown.put(productId, qty);
+          return;
+        }
+      }
+      settle(orderId, productId, qty);
+    }
+
+    synchronized Map<Long, Reservation> holds() {
+      return new LinkedHashMap<>(held);
+    }
+
+    void abort() {
+      Map<Long, Reservation> toRelease;
+      Map<Long, Integer> toSettle;
+      synchronized (this) {
+        aborted = true;
+        toRelease = new LinkedHashMap<>(held);
+        toSettle = new LinkedHashMap<>(unknown);
+        held.clear();
+        unknown.clear();
+      }
+      toSettle.forEach((productId, qty) -> settle(orderId, productId, qty));
+      if (!toRelease.isEmpty()) releaseAll(orderId, toRelease);
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return r -> {
+      Thread t = new Thread(r, prefix + counter.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    };
+  }
+}
@@ -0,0 +1,443 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.clients.NotificationClient;
+import com.arka.order.dto.ImportResult;
+import com.arka.order.dto.StockAdjustment;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.arka.order.clients.FeignErrors.isRejection;
+
+/**
+ * Bulk order import for B2B customers. Input is read as a stream and handled in chunks: each chunk's
+ * stock is reserved with one inventory batch in which every product appears once, however many
+ * orders of the chunk contain it. The chunk's orders are then inserted with JDBC batches, already
+ * CONFIRMED. One result per order is handed to the caller as soon as its chunk is done.
+ * <p>
+ * Inventory applies a batch all-or-nothing. When it refuses one, stock is reserved product by
+ * product instead, and the products that are short go to the chunk's orders one order at a time,
+ * in input order; only the orders that cannot be served are rejected.
+ * <p>
+ * Every stock call carries an idempotency key of its own and is repeated with it while its outcome
+ * is unknown (timeout, 5xx). A call still unanswered after the last attempt may have applied, so
+ * it is handed to {@link StockSettlementService}, which finds out and gives the stock back.
+ */
+@Service
+public class OrderImportService {
+  private static final Logger log = LoggerFactory.getLogger(OrderImportService.class);
+
+  public enum Format { NDJSON, CSV }
+
+  /** Columns of the CSV format; rows sharing a ref (one after the other) form one order. */
+  public static final String CSV_HEADER = "ref,customer_email,product_id,quantity,price";
+
+  static final String NEXT_ORDER_IDS =
+    "SELECT nextval(pg_get_serial_sequence('orders', 'id')) FROM generate_series(1, ?)";
+  static final String INSERT_ORDER =
+    "INSERT INTO orders (id, customer_email, created_at, status, total) VALUES (?, ?, ?, ?, ?)";
+  static final String INSERT_ITEM =
+    "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+
+  private final ObjectMapper objectMapper;
+  private final InventoryClient inventoryClient;
+  private final NotificationClient notificationClient;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final SalesRollupService salesRollups;
+  private final StockSettlementService settlements;
+  private final int chunkSize;
+  private final int inventoryAttempts;
+  private final long retryBackoffMs;
+
+  public OrderImportService(ObjectMapper objectMapper, InventoryClient inventoryClient, NotificationClient notificationClient,
+                            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, SalesRollupService salesRollups,
+                            StockSettlementService settlements,
+                            @Value("${order.import.chunk-size:500}") int chunkSize,
+                            @Value("${order.import.inventory-attempts:3}") int inventoryAttempts,
+                            @Value("${order.import.retry-backoff-ms:200}") long retryBackoffMs) {
+    this.objectMapper = objectMapper;
+    this.inventoryClient = inventoryClient;
+    this.notificationClient = notificationClient;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.salesRollups = salesRollups;
+    this.settlements = settlements;
+    this.chunkSize = chunkSize;
+    this.inventoryAttempts = Math.max(1, inventoryAttempts);
+    this.retryBackoffMs = retryBackoffMs;
+  }
+
+  /**
+   * Imports every order of {@code in}. A line that cannot be parsed or validated rejects only its order.
+   * @param results receives the results of each chunk as soon as it is done, one per order, in input order
+   */
+  public void importOrders(InputStream in, Format format, Consumer<List<ImportResult>> results) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    List<ParsedOrder> chunk = new ArrayList<>(chunkSize);
+    Consumer<ParsedOrder> collect = order -> {
+      chunk.add(order);
+      if (chunk.size() >= chunkSize) {
+        importChunk(chunk, results);
+        chunk.clear();
+      }
+    };
+    if (format == Format.CSV) readCsv(reader, collect); else readNdjson(reader, collect);
+    if (!chunk.isEmpty()) importChunk(chunk, results);
+  }
+
+  void importChunk(List<ParsedOrder> chunk, Consumer<List<ImportResult>> results) {
+    Map<Integer, ImportResult> outcome = new TreeMap<>();
+    List<ParsedOrder> valid = new ArrayList<>();
+    for (ParsedOrder p : chunk) {
+      if (p.error() != null) outcome.put(p.line(), ImportResult.rejected(p.line(), p.ref(), p.error()));
+      else valid.add(p);
+    }
+
+    String reason = "bulk-import-" + UUID.randomUUID();
+    List<ParsedOrder> accepted = valid.isEmpty() ? valid : reserve(valid, reason, outcome);
+    if (!accepted.isEmpty()) {
+      try {
+        transactionTemplate.execute(tx -> {
+          insert(accepted);
+          return null;
+        });
+        for (ParsedOrder p : accepted) outcome.put(p.line(), ImportResult.confirmed(p.line(), p.ref(), p.order().getId()));
+        notifyCustomers(accepted);
+      } catch (RuntimeException e) {
+        log.error("Bulk import: could not store {} orders: {}", accepted.size(), e.getMessage());
+        release(demand(accepted), reason, reason + "-unstored");
+        for (ParsedOrder p : accepted) {
+          outcome.put(p.line(), ImportResult.rejected(p.line(), p.ref(), "Could not store order: " + e.getMessage()));
+        }
+      }
+    }
+    results.accept(new ArrayList<>(outcome.values()));
+  }
+
+  /**
+   * Reserves the stock of {@code orders}, one line per product.
+   * @return the orders whose stock is reserved; the others get a rejection in {@code outcome}
+   */
+  private List<ParsedOrder> reserve(List<ParsedOrder> orders, String reason, Map<Integer, ImportResult> outcome) {
+    Map<Long, Integer> demand = demand(orders);
+    List<StockAdjustment> batch = adjustments(demand, -1, reason);
+    String batchKey = reason + "-batch";
+    Exception failure = take(batch, batchKey, () -> inventoryClient.updateStockBatch(batch, batchKey));
+    if (failure == null) return orders;
+    if (!isRejection(failure)) return rejectAll(orders, "Inventory unavailable: " + failure.getMessage(), outcome);
+
+    // Some product is short: find out which, one product at a time.
+    Map<Long, Integer> reserved = new TreeMap<>();
+    for (Map.Entry<Long, Integer> line : demand.entrySet()) {
+      Long productId = line.getKey();
+      int qty = line.getValue();
+      String key = reason + "-product-" + productId;
+      failure = take(List.of(new StockAdjustment(productId, -qty, reason)), key,
+        () -> inventoryClient.updateStock(productId, -qty, reason, key));
+      if (failure == null) {
+        reserved.put(productId, qty);
+      } else if (!isRejection(failure)) {
+        release(reserved, reason, reason + "-release");
+        return rejectAll(orders, "Inventory unavailable: " + failure.getMessage(), outcome);
+      }
+    }
+
+    // What is left of the short products goes to the orders in input order, each order's share
+    // in one batch, so an order that cannot be served takes nothing.
+    Map<Long, Integer> granted = new TreeMap<>();
+    List<ParsedOrder> accepted = new ArrayList<>();
+    List<ParsedOrder> rejected = new ArrayList<>();
+    for (ParsedOrder p : orders) {
+      Map<Long, Integer> shortLines = demand(List.of(p));
+      shortLines.keySet().removeAll(reserved.keySet());
+      if (shortLines.isEmpty()) {
+        accepted.add(p);
+        continue;
+      }
+      List<StockAdjustment> share = adjustments(shortLines, -1, reason);
+      String key = reason + "-order-" + p.line();
+      failure = take(share, key, () -> inventoryClient.updateStockBatch(share, key));
+      if (failure == null) {
+        shortLines.forEach((productId, qty) -> granted.merge(productId, qty, Integer::sum));
+        accepted.add(p);
+      } else if (!isRejection(failure)) {
+        granted.forEach((productId, qty) -> reserved.merge(productId, qty, Integer::sum));
+        release(reserved, reason, reason + "-release");
+        return rejectAll(orders, "Inventory unavailable: " + failure.getMessage(), outcome);
+      } else {
+        rejected.add(p);
+        outcome.put(p.line(), ImportResult.rejected(p.line(), p.ref(), "Insufficient stock for "
+          + (shortLines.size() == 1 ? "product " + shortLines.keySet().iterator().next() : "products " + shortLines.keySet())));
+      }
+    }
+    // Stock taken for rejected orders on products that were not short goes back.
+    Map<Long, Integer> surplus = demand(rejected);
+    surplus.keySet().retainAll(reserved.keySet());
+    release(surplus, reason, reason + "-surplus");
+    return accepted;
+  }
+
+  /**
+   * Takes stock with {@code call}, sent under {@code key}. When its outcome stays unknown the
+   * adjustments are left to be settled and given back.
+   * @return null once the stock is taken, otherwise the failure
+   */
+  private Exception take(List<StockAdjustment> adjustments, String key, Runnable call) {
+    Exception failure = send(call);
+    if (failure != null && !isRejection(failure)) {
+      log.warn("Bulk import: outcome of stock call {} unknown, settling it later: {}", key, failure.getMessage());
+      settlements.record(key, adjustments, true);
+    }
+    return failure;
+  }
+
+  /**
+   * Makes a keyed inventory call, repeating it while the outcome is unknown. Inventory applies a key
+   * at most once, so a repeat after a lost response changes nothing and just reports success.
+   * @return null once the call succeeds, otherwise the refusal or the last failure
+   */
+  private Exception send(Runnable call) {
+    Exception failure = null;
+    for (int attempt = 1; attempt <= inventoryAttempts; attempt++) {
+      try {
+        call.run();
+        return null;
+      } catch (Exception e) {
+        failure = e;
+        if (isRejection(e)) return e;
+      }
+      if (attempt < inventoryAttempts && retryBackoffMs > 0) {
+        try {
+          Thread.sleep(retryBackoffMs << (attempt - 1));
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    return failure;
+  }
+
+  private void insert(List<ParsedOrder> orders) {
+    List<Long> ids = jdbcTemplate.queryForList(NEXT_ORDER_IDS, Long.class, orders.size());
+    Instant now = Instant.now();
+    Timestamp createdAt = Timestamp.from(now);
+    List<Object[]> orderRows = new ArrayList<>(orders.size());
+    List<Object[]> itemRows = new ArrayList<>();
+    List<Order> stored = new ArrayList<>(orders.size());
+    for (int i = 0; i < orders.size(); i++) {
+      Order order = orders.get(i).order();
+      order.setId(ids.get(i));
+      order.setCreatedAt(now);
+      order.setStatus(OrderStatus.CONFIRMED);
+      double total = 0;
+      for (OrderItem it : order.getItems()) {
+        total += it.getQuantity() * it.getPrice();
+        itemRows.add(new Object[]{order.getId(), it.getProductId(), it.getQuantity(), it.getPrice()});
+      }
+      order.setTotal(total);
+      orderRows.add(new Object[]{order.getId(), order.getCustomerEmail(), createdAt, order.getStatus().name(), total});
+      stored.add(order);
+    }
+    jdbcTemplate.batchUpdate(INSERT_ORDER, orderRows);
+    jdbcTemplate.batchUpdate(INSERT_ITEM, itemRows);
+    salesRollups.ordersConfirmed(stored);
+  }
+
+  /** One best-effort EMAIL_BATCH per chunk, carrying one message per customer rather than one per order. */
+  private void notifyCustomers(List<ParsedOrder> orders) {
+    Map<String, List<Long>> byCustomer = new LinkedHashMap<>();
+    for (ParsedOrder p : orders) byCustomer.computeIfAbsent(p.order().getCustomerEmail(), e -> new ArrayList<>()).add(p.order().getId());
+    List<Map<String, Object>> messages = new ArrayList<>(byCustomer.size());
+    byCustomer.forEach((email, orderIds) -> messages.add(Map.of(
+      "email", email,
+      "subject", orderIds.size() == 1 ? "Order Confirmed" : "Orders Confirmed",
+      "body", orderIds.size() == 1
+        ? "Hello,\n\nYour order #" + orderIds.get(0) + " has been confirmed and is being prepared for shipment."
+        : "Hello,\n\nYour orders " + orderIds.stream().map(id -> "#" + id).collect(Collectors.joining(", "))
+          + " have been confirmed and are being prepared for shipment."
+    )));
+    try {
+      notificationClient.send(Map.of("type", "EMAIL_BATCH", "messages", messages));
+    } catch (Exception e) {
+      log.warn("Bulk import: could not send {} order confirmation(s): {}", messages.size(), e.getMessage());
+    }
+  }
+
+  /** Puts {@code quantities} back under {@code key}; an unanswered release is left to be settled. */
+  private void release(Map<Long, Integer> quantities, String reason, String key) {
+    if (quantities.isEmpty()) return;
+    List<StockAdjustment> adjustments = adjustments(quantities, 1, reason + "-release");
+    Exception failure = send(() -> inventoryClient.updateStockBatch(adjustments, key));
+    if (failure == null) return;
+    if (isRejection(failure)) {
+      log.error("Bulk import {}: inventory refused to release stock {}: {}", reason, quantities, failure.getMessage());
+    } else {
+      log.warn("Bulk import {}: release {} unanswered, settling it later: {}", reason, key, failure.getMessage());
+      settlements.record(key, adjustments, false);
+    }
+  }
+
+  private static List<ParsedOrder> rejectAll(List<ParsedOrder> orders, String error, Map<Integer, ImportResult> outcome) {
+    for (ParsedOrder p : orders) outcome.put(p.line(), ImportResult.rejected(p.line(), p.ref(), error));
+    return List.of();
+  }
+
+  /** Quantity per product over all orders, in product id order. */
+  private static Map<Long, Integer> demand(List<ParsedOrder> orders) {
+    Map<Long, Integer> demand = new TreeMap<>();
+    for (ParsedOrder p : orders) {
+      for (OrderItem it : p.order().getItems()) demand.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+    }
+    return demand;
+  }
+
+  private static List<StockAdjustment> adjustments(Map<Long, Integer> quantities, int sign, String reason) {
+    List<StockAdjustment> adjustments = new ArrayList<>(quantities.size());
+    quantities.forEach((productId, qty) -> adjustments.add(new StockAdjustment(productId, sign * qty, reason)));
+    return adjustments;
+  }
+
+  // ---- parsing ----
+
+  /** One NDJSON line: {"ref": "...", "customerEmail": "...", "items": [{"productId": 1, "quantity": 2, "price": 9.5}]} */
+  private void readNdjson(BufferedReader reader, Consumer<ParsedOrder> sink) throws IOException {
+    String text;
+    int line = 0;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.isBlank()) continue;
+      String ref = null;
+      try {
+        JsonNode node = objectMapper.readTree(text);
+        if (!(node instanceof ObjectNode object)) {
+          sink.accept(ParsedOrder.invalid(line, null, "Line is not a JSON object"));
+          continue;
+        }
+        JsonNode refNode = object.remove("ref");
+        ref = refNode == null || refNode.isNull() ? null : refNode.asText();
+        Order order = objectMapper.treeToValue(object, Order.class);
+        sink.accept(ParsedOrder.of(line, ref, order));
+      } catch (JsonProcessingException e) {
+        sink.accept(ParsedOrder.invalid(line, ref, "Malformed JSON: " + e.getOriginalMessage()));
+      }
+    }
+  }
+
+  /**
+   * Plain comma-separated rows in {@link #CSV_HEADER} order, without quoting; the header row is optional.
+   * Rows without a ref are orders of their own.
+   */
+  private void readCsv(BufferedReader reader, Consumer<ParsedOrder> sink) throws IOException {
+    String text;
+    int line = 0;
+    CsvGroup group = null;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.isBlank() || (line == 1 && text.trim().toLowerCase().startsWith("ref,"))) continue;
+      String[] cols = text.split(",", -1);
+      String ref = cols[0].trim().isEmpty() ? null : cols[0].trim();
+      if (group != null && (ref == null || !ref.equals(group.ref))) {
+        sink.accept(group.toOrder());
+        group = null;
+      }
+      if (group == null) group = new CsvGroup(line, ref, cols.length > 1 ? cols[1].trim() : "");
+      if (cols.length != 5) {
+        group.fail("Line " + line + ": expected 5 columns (" + CSV_HEADER + ")");
+        continue;
+      }
+      if (!cols[1].trim().equals(group.email)) {
+        group.fail("Line " + line + ": customer_email differs from the first row of order " + ref);
+        continue;
+      }
+      try {
+        OrderItem item = new OrderItem();
+        item.setProductId(Long.parseLong(cols[2].trim()));
+        item.setQuantity(Integer.parseInt(cols[3].trim()));
+        item.setPrice(Double.parseDouble(cols[4].trim()));
+        group.items.add(item);
+      } catch (NumberFormatException e) {
+        group.fail("Line " + line + ": product_id, quantity and price must be numbers");
+      }
+    }
+    if (group != null) sink.accept(group.toOrder());
+  }
+
+  private static final class CsvGroup {
+    final int line;
+    final String ref;
+    final String email;
+    final List<OrderItem> items = new ArrayList<>();
+    String error;
+
+    CsvGroup(int line, String ref, String email) {
+      this.line = line;
+      this.ref = ref;
+      this.email = email;
+    }
+
+    void fail(String message) {
+      if (error == null) error = message;
+    }
+
+    ParsedOrder toOrder() {
+      if (error != null) return ParsedOrder.invalid(line, ref, error);
+      Order order = new Order();
+      order.setCustomerEmail(email);
+      order.setItems(items);
+      return ParsedOrder.of(line, ref, order);
+    }
+  }
+
+  /** An input order, or the reason it cannot be imported. */
+  record ParsedOrder(int line, String ref, Order order, String error) {
+
+    static ParsedOrder invalid(int line, String ref, String error) {
+      return new ParsedOrder(line, ref, null, error);
+    }
+
+    static ParsedOrder of(int line, String ref, Order order) {
+      String error = validate(order);
+      return error == null ? new ParsedOrder(line, ref, order, null) : invalid(line, ref, error);
+    }
+
+    private static String validate(Order order) {
+      if (order.getCustomerEmail() == null || !order.getCustomerEmail().contains("@")) return "customerEmail is required";
+      if (order.getItems() == null || order.getItems().isEmpty()) return "At least one item is required";
+      for (OrderItem it : order.getItems()) {
+        if (it.getProductId() == null || it.getProductId() <= 0) return "productId must be positive";
+        if (it.getQuantity() == null || it.getQuantity() <= 0) return "quantity must be positive";
+        if (it.getPrice() == null || it.getPrice() < 0) return "price must not be negative";
+      }
+      return null;
+    }
+  }
+}
@@ -2,34 +2,38 @@ package com.arka.order.service;
 
 import com.arka.order.clients.NotificationClient;
 import com.arka.order.model.Order;
+import com.arka.order.model.OrderStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class OrderNotificationService {
   private static final Logger log = LoggerFactory.getLogger(OrderNotificationService.class);
   private final NotificationClient notificationClient;
+  private final int batchSize;
 
-  public OrderNotificationService(NotificationClient notificationClient) {
+  public OrderNotificationService(NotificationClient notificationClient,
+                                  @Value("${order.notification.batch-size:200}") int batchSize) {
     this.notificationClient = notificationClient;
+    this.batchSize = Math.max(1, batchSize);
   }
 
-  public void notifyOrderStatusChange(Order order, String newStatus) {
+  public void notifyOrderStatusChange(Order order, OrderStatus newStatus) {
     log.info("Sending notification for order {} status change to: {}", order.getId(), newStatus);
-    
-    String subject = getSubjectForStatus(newStatus);
-    String body = getBodyForStatus(order, newStatus);
-    
+
     Map<String, Object> payload = Map.of(
       "type", "EMAIL",
       "email", order.getCustomerEmail(),
-      "subject", subject,
-      "body", body
+      "subject", getSubjectForStatus(newStatus),
+      "body", getBodyForStatus(order, newStatus)
     );
-    
+
     try {
       notificationClient.send(payload);
       log.info("Notification sent successfully for order {}", order.getId());
@@ -38,26 +42,52 @@ public class OrderNotificationService {
     }
   }
 
-  private String getSubjectForStatus(String status) {
-    return switch (status.toUpperCase()) {
-      case "PENDING" -> "Order Received - Pending Confirmation";
-      case "CONFIRMED" -> "Order Confirmed";
-      case "IN_TRANSIT" -> "Order Shipped - In Transit";
-      case "DELIVERED" -> "Order Delivered";
-      case "CANCELLED" -> "Order Cancelled";
-      default -> "Order Status Update";
+  /**
+   * EMAIL_BATCH calls carrying a message per order, for orders that changed status together;
+   * notification-service fans them out. At most {@code batch-size} messages go in one call, so a
+   * large bulk change does not become one request too big to answer in time.
+   */
+  public void notifyStatusChanges(List<Order> orders, OrderStatus newStatus) {
+    if (orders.isEmpty()) return;
+    List<Map<String, Object>> messages = new ArrayList<>(orders.size());
+    for (Order order : orders) {
+      if (order.getCustomerEmail() == null) continue;
+      messages.add(Map.of(
+        "email", order.getCustomerEmail(),
+        "subject", getSubjectForStatus(newStatus),
+        "body", getBodyForStatus(order, newStatus)
+      ));
+    }
+    if (messages.isEmpty()) return;
+    log.info("Sending {} notifications for orders moved to {} in batches of {}", messages.size(), newStatus, batchSize);
+    for (int from = 0; from < messages.size(); from += batchSize) {
+      List<Map<String, Object>> batch = messages.subList(from, Math.min(from + batchSize, messages.size()));
+      try {
+        notificationClient.send(Map.of("type", "EMAIL_BATCH", "messages", batch));
+      } catch (Exception e) {
+        log.error("Failed to send batch of {} {} notifications: {}", batch.size(), newStatus, e.getMessage());
+      }
+    }
+  }
+
+  private String getSubjectForStatus(OrderStatus status) {
+    return switch (status) {
+      case PENDING -> "Order Received - Pending Confirmation";
+      case CONFIRMED -> "Order Confirmed";
+      case IN_TRANSIT -> "Order Shipped - In Transit";
+      case DELIVERED -> "Order Delivered";
+      case CANCELLED -> "Order Cancelled";
     };
   }
 
-  private String getBodyForStatus(Order order, String status) {
+  private String getBodyForStatus(Order order, OrderStatus status) {
     String baseMsg = "Hello,\n\nYour order #" + order.getId() + " ";
-    return switch (status.toUpperCase()) {
-      case "PENDING" -> baseMsg + "has been received and is pending confirmation.\n\nTotal: $" + order.getTotal();
-      case "CONFIRMED" -> baseMsg + "has been confirmed and is being prepared for shipment.\n\nTotal: $" + order.getTotal();
-      case "IN_TRANSIT" -> baseMsg + "has been shipped and is on its way to you!";
-      case "DELIVERED" -> baseMsg + "has been delivered. Thank you for your purchase!";
-      case "CANCELLED" -> baseMsg + "has been cancelled.";
-      default -> baseMsg + "status has been updated to: " + status;
+    return switch (status) {
+      case PENDING -> baseMsg + "has been received and is pending confirmation.\n\nTotal: $" + order.getTotal();
+      case CONFIRMED -> baseMsg + "has been confirmed and is being prepared for shipment.\n\nTotal: $" + order.getTotal();
+      case IN_TRANSIT -> baseMsg + "has been shipped and is on its way to you!";
+      case DELIVERED -> baseMsg + "has been delivered. Thank you for your purchase!";
+      case CANCELLED -> baseMsg + "has been cancelled.";
     };
   }
 }
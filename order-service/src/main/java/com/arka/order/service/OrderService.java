@@ -2,9 +2,17 @@ package com.arka.order.service;
 
 import com.arka.order.clients.InventoryClient;
 import com.arka.order.clients.NotificationClient;
+import com.arka.order.dto.OrderCursor;
+import com.arka.order.dto.OrderPage;
+import com.arka.order.dto.OrderSummary;
+import com.arka.order.dto.Reservation;
+import com.arka.order.dto.StockAdjustment;
 import com.arka.order.model.Order;
 import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
 import com.arka.order.repository.OrderRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
@@ -13,79 +21,144 @@ import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+
   private final OrderRepository orderRepository;
   private final InventoryClient inventoryClient;
   private final NotificationClient notificationClient;
+  private final InventoryReservationService inventoryReservations;
+  private final SalesRollupService salesRollups;
 
-  public OrderService(OrderRepository orderRepository, InventoryClient inventoryClient, NotificationClient notificationClient){
+  public OrderService(OrderRepository orderRepository, InventoryClient inventoryClient, NotificationClient notificationClient,
+                      InventoryReservationService inventoryReservations, SalesRollupService salesRollups){
     this.orderRepository = orderRepository;
     this.inventoryClient = inventoryClient;
     this.notificationClient = notificationClient;
+    this.inventoryReservations = inventoryReservations;
+    this.salesRollups = salesRollups;
   }
 
+  /**
+   * Places and reserves an order synchronously. Lines go out as concurrent single-line holds
+   * rather than one updateStockBatch call: each line then holds its product row lock for one
+   * conditional UPDATE instead of until the whole order commits, which keeps checkouts on popular
+   * SKUs from queueing behind each other. The holds are confirmed just before the order commits;
+   * until then a crash leaves only holds, which inventory expires. modifyOrder, whose deltas must
+   * apply all-or-nothing, uses the batch.
+   */
   @Transactional
   public Order createOrder(Order order){
-    order.setStatus("PENDING");
-    order.setCreatedAt(Instant.now());
-    double total = 0;
-    if(order.getItems() != null){
-      for(OrderItem it : order.getItems()) total += it.getQuantity() * it.getPrice();
-    }
-    order.setTotal(total);
-    Order saved = orderRepository.save(order);
+    Order saved = orderRepository.save(preparePending(order));
+    salesRollups.orderPlaced(saved);
 
+    // Lines are held in parallel; on failure only the lines that were held get released.
+    Map<Long, Reservation> holds;
     try {
-      if(saved.getItems() != null){
-        for(OrderItem it : saved.getItems()){
-          inventoryClient.updateStock(it.getProductId(), - it.getQuantity(), "reserve-order-" + saved.getId());
-        }
-      }
-      saved.setStatus("CONFIRMED");
+      holds = inventoryReservations.reserveAll(saved.getId(), saved.getItems());
+    } catch (Exception ex) {
+      saved.setStatus(OrderStatus.CANCELLED);
       orderRepository.save(saved);
+      salesRollups.statusChanged(saved, OrderStatus.PENDING);
+      throw new RuntimeException("Reservation failed: " + ex.getMessage());
+    }
 
-      // notify
-      Map<String,Object> payload = Map.of(
-        "type","ORDER_CONFIRMED",
-        "orderId", saved.getId(),
-        "email", saved.getCustomerEmail()
-      );
-      try { notificationClient.send(payload); } catch(Exception ignored){ /* best-effort */ }
-
-    } catch (Exception ex) {
-      if(saved.getItems() != null){
-        for(OrderItem it : saved.getItems()){
-          try { inventoryClient.updateStock(it.getProductId(), it.getQuantity(), "compensate-order-" + saved.getId()); }
-          catch(Exception e){}
-        }
-      }
-      saved.setStatus("CANCELLED");
+    try {
+      saved.setStatus(OrderStatus.CONFIRMED);
       orderRepository.save(saved);
+      salesRollups.statusChanged(saved, OrderStatus.PENDING);
+      inventoryReservations.confirmAll(saved.getId(), holds);
+    } catch (RuntimeException ex) {
+      inventoryReservations.releaseAll(saved.getId(), holds);
       throw new RuntimeException("Reservation failed: " + ex.getMessage());
     }
+
+    // notify
+    Map<String,Object> payload = Map.of(
+      "type","ORDER_CONFIRMED",
+      "orderId", saved.getId(),
+      "email", saved.getCustomerEmail()
+    );
+    try { notificationClient.send(payload); } catch(Exception ignored){ /* best-effort */ }
     return saved;
   }
 
+  /** Stores the order as PENDING without touching inventory; its saga reserves the stock later. */
+  @Transactional
+  public Order acceptOrder(Order order){
+    Order saved = orderRepository.save(preparePending(order));
+    salesRollups.orderPlaced(saved);
+    return saved;
+  }
+
+  /** The order with its items, read in one select. */
+  @Transactional(readOnly = true)
+  public Optional<Order> getOrder(Long orderId){
+    return orderRepository.findWithItemsById(orderId);
+  }
+
+  /**
+   * One page of a customer's order history, or of the orders in a status, newest first; items are
+   * not loaded. Pages are keyset-paginated on (createdAt, id), so deep pages cost the same as the
+   * first. The customer filter wins when both are given.
+   * @param after the nextCursor of the previous page; null for the first page
+   */
+  @Transactional(readOnly = true)
+  public OrderPage listOrders(String customerEmail, String status, String after, int limit){
+    if(limit < 1 || limit > MAX_PAGE_SIZE) throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+    OrderCursor cursor = after == null || after.isBlank() ? null : OrderCursor.parse(after);
+    // One extra row tells whether another page exists without a count query.
+    Pageable page = PageRequest.of(0, limit + 1);
+    List<OrderSummary> rows;
+    if(customerEmail != null && !customerEmail.isBlank()){
+      rows = cursor == null
+        ? orderRepository.findSummariesByCustomerEmail(customerEmail, page)
+        : orderRepository.findSummariesByCustomerEmailBefore(customerEmail, cursor.createdAt(), cursor.id(), page);
+    } else if(status != null && !status.isBlank()){
+      rows = cursor == null
+        ? orderRepository.findSummariesByStatus(OrderStatus.parse(status), page)
+        : orderRepository.findSummariesByStatusBefore(OrderStatus.parse(status), cursor.createdAt(), cursor.id(), page);
+    } else {
+      throw new IllegalArgumentException("customerEmail or status is required");
+    }
+    if(rows.size() <= limit) return new OrderPage(rows, null);
+    List<OrderSummary> items = new ArrayList<>(rows.subList(0, limit));
+    return new OrderPage(items, OrderCursor.of(items.get(limit - 1)).encode());
+  }
+
+  private static Order preparePending(Order order){
+    order.setStatus(OrderStatus.PENDING);
+    order.setCreatedAt(Instant.now());
+    double total = 0;
+    if(order.getItems() != null){
+      for(OrderItem it : order.getItems()) total += it.getQuantity() * it.getPrice();
+    }
+    order.setTotal(total);
+    return order;
+  }
+
   /**
    * Modify an order only if it's in PENDING state.
-   * We compute deltas per product and call inventory to adjust stock:
-   *  - delta > 0 : need to reserve more => inventory.updateStock(productId, -delta)
-   *  - delta < 0 : release stock => inventory.updateStock(productId, +abs(delta))
+   * We compute deltas per product and send them to inventory as one batch:
+   *  - delta > 0 : need to reserve more => adjustment of -delta
+   *  - delta < 0 : release stock => adjustment of +abs(delta)
+   * The batch is applied all-or-nothing, so a failure leaves no partial reservation behind.
    */
   @Transactional
   public Order modifyOrder(Long orderId, List<OrderItem> newItems) {
-    Order existing = orderRepository.findById(orderId).orElseThrow(() -> new IllegalArgumentException("Order not found"));
-    if (!"PENDING".equalsIgnoreCase(existing.getStatus())) {
+    Order existing = orderRepository.findWithItemsById(orderId).orElseThrow(() -> new IllegalArgumentException("Order not found"));
+    if (existing.getStatus() != OrderStatus.PENDING) {
       throw new IllegalStateException("Only orders in PENDING can be modified");
     }
 
     // Map productId -> qty for old and new
     Map<Long, Integer> oldMap = new HashMap<>();
     if(existing.getItems() != null){
-      for(OrderItem it : existing.getItems()) oldMap.put(it.getProductId(), it.getQuantity());
+      for(OrderItem it : existing.getItems()) oldMap.merge(it.getProductId(), it.getQuantity(), Integer::sum);
     }
     Map<Long, Integer> newMap = new HashMap<>();
     if(newItems != null){
-      for(OrderItem it : newItems) newMap.put(it.getProductId(), it.getQuantity());
+      for(OrderItem it : newItems) newMap.merge(it.getProductId(), it.getQuantity(), Integer::sum);
     }
 
     // compute union of product ids
@@ -93,31 +166,22 @@ public class OrderService {
     all.addAll(oldMap.keySet());
     all.addAll(newMap.keySet());
 
-    // First, attempt to reserve required increases
     try {
+      List<StockAdjustment> adjustments = new ArrayList<>();
       for(Long pid : all){
-        int oldQty = oldMap.getOrDefault(pid, 0);
-        int newQty = newMap.getOrDefault(pid, 0);
-        int delta = newQty - oldQty;
+        int delta = newMap.getOrDefault(pid, 0) - oldMap.getOrDefault(pid, 0);
         if(delta > 0){
-          // need to reserve delta
-          inventoryClient.updateStock(pid, -delta, "reserve-modify-order-" + orderId);
+          adjustments.add(new StockAdjustment(pid, -delta, "reserve-modify-order-" + orderId));
+        } else if(delta < 0){
+          adjustments.add(new StockAdjustment(pid, -delta, "release-modify-order-" + orderId));
         }
       }
-      // If reservations successful, release if quantities decreased
-      for(Long pid : all){
-        int oldQty = oldMap.getOrDefault(pid, 0);
-        int newQty = newMap.getOrDefault(pid, 0);
-        int delta = newQty - oldQty;
-        if(delta < 0){
-          // release (-delta)
-          inventoryClient.updateStock(pid, -delta * -1 * -1, "release-modify-order-" + orderId); // simpler: +abs(delta)
-          // to be clearer, call with +abs(delta)
-          inventoryClient.updateStock(pid, Math.abs(delta), "release-modify-order-" + orderId);
-        }
+      if(!adjustments.isEmpty()){
+        inventoryClient.updateStockBatch(adjustments);
       }
 
       // Persist new items
+      double previousTotal = existing.getTotal();
       existing.setItems(newItems);
       double total = 0;
       if(newItems != null){
@@ -125,6 +189,7 @@ public class OrderService {
       }
       existing.setTotal(total);
       Order updated = orderRepository.save(existing);
+      salesRollups.totalChanged(updated, previousTotal);
 
       // Notify modification
       Map<String,Object> payload = Map.of(
@@ -136,8 +201,6 @@ public class OrderService {
 
       return updated;
     } catch (Exception ex) {
-      // Try to compensate any partial reservations: for simplicity we don't track partial here,
-      // but production code should track per-item reservation success to compensate precisely.
       throw new RuntimeException("Failed to modify order: " + ex.getMessage());
     }
   }
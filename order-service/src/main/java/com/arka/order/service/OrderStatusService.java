@@ -0,0 +1,145 @@
+package com.arka.order.service;
+
+import com.arka.order.dto.BulkStatusResult;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Drives orders through fulfilment (CONFIRMED -> IN_TRANSIT -> DELIVERED), validated against
+ * {@link OrderStatus}. Confirmation and cancellation stay with the order flow and its saga, since
+ * they reserve or release stock.
+ * <p>
+ * A bulk change is one set-based UPDATE guarded by the required previous status, so concurrent
+ * changes cannot skip a step. Customers are notified with one batched call per bulk change,
+ * after it has committed.
+ */
+@Service
+public class OrderStatusService {
+  static final Set<OrderStatus> FULFILMENT = EnumSet.of(OrderStatus.IN_TRANSIT, OrderStatus.DELIVERED);
+  static final String BULK_UPDATE =
+    "UPDATE orders SET status = ? WHERE id = ANY(?) AND status = ? RETURNING id, customer_email, created_at, total";
+  static final String CURRENT_STATUS = "SELECT id, status FROM orders WHERE id = ANY(?)";
+
+  private final OrderRepository orderRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final SalesRollupService salesRollups;
+  private final OrderNotificationService notifications;
+  private final int bulkMaxOrders;
+
+  public OrderStatusService(OrderRepository orderRepository, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            SalesRollupService salesRollups, OrderNotificationService notifications,
+                            @Value("${order.status.bulk-max-orders:10000}") int bulkMaxOrders) {
+    this.orderRepository = orderRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.salesRollups = salesRollups;
+    this.notifications = notifications;
+    this.bulkMaxOrders = bulkMaxOrders;
+  }
+
+  /**
+   * Moves one order to {@code target}; an order already there is returned unchanged.
+   * @throws IllegalArgumentException when the order does not exist
+   * @throws IllegalStateException when the order cannot move from its status to {@code target},
+   *         or {@code target} is not a fulfilment status
+   */
+  public Order transition(Long orderId, OrderStatus target) {
+    if (!FULFILMENT.contains(target)) throw new IllegalStateException(notFulfilment());
+    boolean[] changed = new boolean[1];
+    Order order = transactionTemplate.execute(tx -> {
+      Order o = orderRepository.findById(orderId).orElseThrow(() -> new IllegalArgumentException("Order not found"));
+      OrderStatus previous = o.getStatus();
+      if (previous == target) return o;
+      if (previous == null || !previous.canTransitionTo(target)) {
+        throw new IllegalStateException("Order " + orderId + " is " + previous + " and cannot move to " + target);
+      }
+      o.setStatus(target);
+      Order saved = orderRepository.save(o);
+      salesRollups.statusChanged(saved, previous);
+      changed[0] = true;
+      return saved;
+    });
+    if (changed[0]) notifications.notifyOrderStatusChange(order, target);
+    return order;
+  }
+
+  /** Moves every order that is in the status preceding {@code target}; the others are reported, not failed. */
+  public BulkStatusResult transitionAll(List<Long> orderIds, OrderStatus target) {
+    if (!FULFILMENT.contains(target)) throw new IllegalArgumentException(notFulfilment());
+    if (orderIds == null || orderIds.isEmpty()) throw new IllegalArgumentException("orderIds is required");
+    Set<Long> ids = new LinkedHashSet<>(orderIds);
+    ids.remove(null);
+    if (ids.size() > bulkMaxOrders) throw new IllegalArgumentException("At most " + bulkMaxOrders + " orders per call");
+    // Every fulfilment status has exactly one predecessor.
+    OrderStatus from = target.previous().iterator().next();
+
+    List<Order> updated = new ArrayList<>();
+    List<Long> unchanged = new ArrayList<>();
+    List<Long> notFound = new ArrayList<>();
+    Map<Long, OrderStatus> rejected = new TreeMap<>();
+    transactionTemplate.execute(tx -> {
+      updated.addAll(jdbcTemplate.query(con -> {
+        PreparedStatement ps = con.prepareStatement(BULK_UPDATE);
+        ps.setString(1, target.name());
+        ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+        ps.setString(3, from.name());
+        return ps;
+      }, movedOrder(target)));
+      if (!updated.isEmpty()) salesRollups.statusesChanged(updated, from, target);
+
+      Set<Long> rest = new LinkedHashSet<>(ids);
+      updated.forEach(o -> rest.remove(o.getId()));
+      if (rest.isEmpty()) return null;
+      Map<Long, OrderStatus> current = new TreeMap<>();
+      jdbcTemplate.query(con -> {
+        PreparedStatement ps = con.prepareStatement(CURRENT_STATUS);
+        ps.setArray(1, con.createArrayOf("bigint", rest.toArray()));
+        return ps;
+      }, rs -> {
+        String status = rs.getString("status");
+        current.put(rs.getLong("id"), status == null ? null : OrderStatus.parse(status));
+      });
+      for (Long id : rest) {
+        if (!current.containsKey(id)) notFound.add(id);
+        else if (current.get(id) == target) unchanged.add(id);
+        else rejected.put(id, current.get(id));
+      }
+      return null;
+    });
+
+    notifications.notifyStatusChanges(updated, target);
+    return new BulkStatusResult(target, updated.stream().map(Order::getId).toList(), unchanged, notFound, rejected);
+  }
+
+  private static RowMapper<Order> movedOrder(OrderStatus status) {
+    return (rs, rowNum) -> {
+      Order o = new Order();
+      o.setId(rs.getLong("id"));
+      o.setCustomerEmail(rs.getString("customer_email"));
+      o.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+      o.setTotal(rs.getDouble("total"));
+      o.setStatus(status);
+      return o;
+    };
+  }
+
+  private static String notFulfilment() {
+    return "Only " + FULFILMENT + " can be set here; orders are confirmed and cancelled by the order flow";
+  }
+}
@@ -0,0 +1,89 @@
+package com.arka.order.service;
+
+import com.arka.order.dto.OrderStatusView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events per order. Subscribers get the current status first, then every change
+ * published by the saga on this instance; the stream completes once the status is final.
+ * Clients connected to another instance still get the final status by reconnecting or polling.
+ */
+@Component
+public class OrderStatusStream {
+  private static final Logger log = LoggerFactory.getLogger(OrderStatusStream.class);
+  static final String EVENT_NAME = "status";
+
+  private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+  private final long timeoutMs;
+
+  public OrderStatusStream(@Value("${order.async.sse-timeout-ms:60000}") long timeoutMs) {
+    this.timeoutMs = timeoutMs;
+  }
+
+  /**
+   * @param currentStatus reads the status of the order; it is called only once the subscriber
+   *                      is registered, so a change published in between is either already part
+   *                      of what it returns or pushed afterwards
+   * @return the stream, or empty when the order does not exist
+   */
+  public Optional<SseEmitter> subscribe(Long orderId, Supplier<Optional<OrderStatusView>> currentStatus) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    subscribers.computeIfAbsent(orderId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+    emitter.onCompletion(() -> remove(orderId, emitter));
+    emitter.onTimeout(() -> remove(orderId, emitter));
+    emitter.onError(e -> remove(orderId, emitter));
+    Optional<OrderStatusView> current = currentStatus.get();
+    if (current.isEmpty()) {
+      remove(orderId, emitter);
+      return Optional.empty();
+    }
+    push(emitter, current.get());
+    return Optional.of(emitter);
+  }
+
+  @EventListener
+  public void onStatusChanged(OrderStatusView status) {
+    List<SseEmitter> emitters = subscribers.get(status.orderId());
+    if (emitters == null) return;
+    for (SseEmitter emitter : emitters) push(emitter, status);
+  }
+
+  int subscriberCount(Long orderId) {
+    List<SseEmitter> emitters = subscribers.get(orderId);
+    return emitters == null ? 0 : emitters.size();
+  }
+
+  private void push(SseEmitter emitter, OrderStatusView status) {
+    try {
+      emitter.send(SseEmitter.event().name(EVENT_NAME).data(status));
+      if (status.isFinal()) {
+        remove(status.orderId(), emitter);
+        emitter.complete();
+      }
+    } catch (IOException | IllegalStateException e) {
+      // client went away or the emitter already completed
+      log.debug("Dropping status subscriber of order {}: {}", status.orderId(), e.getMessage());
+      remove(status.orderId(), emitter);
+    }
+  }
+
+  private void remove(Long orderId, SseEmitter emitter) {
+    subscribers.computeIfPresent(orderId, (id, emitters) -> {
+      emitters.remove(emitter);
+      return emitters.isEmpty() ? null : emitters;
+    });
+  }
+}
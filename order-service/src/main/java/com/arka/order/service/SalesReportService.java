@@ -1,74 +1,80 @@
 package com.arka.order.service;
 
-import com.arka.order.model.Order;
-import com.arka.order.repository.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Sales reports read from the hourly rollups kept by {@link SalesRollupService}, so a report
+ * costs a few indexed range aggregates whatever the number of orders in the period.
+ */
 @Service
 public class SalesReportService {
   private static final Logger log = LoggerFactory.getLogger(SalesReportService.class);
-  private final OrderRepository orderRepository;
+  static final int TOP_N = 10;
+  private final JdbcTemplate jdbcTemplate;
 
-  public SalesReportService(OrderRepository orderRepository) {
-    this.orderRepository = orderRepository;
+  public SalesReportService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
   }
 
   public Map<String, Object> generateWeeklySalesReport() {
     log.info("Generating weekly sales report...");
-    
-    Instant oneWeekAgo = Instant.now().minus(7, ChronoUnit.DAYS);
-    List<Order> orders = orderRepository.findByCreatedAtAfter(oneWeekAgo);
-    
-    // Total de ventas
-    double totalSales = orders.stream()
-      .filter(o -> "CONFIRMED".equalsIgnoreCase(o.getStatus()))
-      .mapToDouble(Order::getTotal)
-      .sum();
-    
-    // Productos más vendidos (productId -> cantidad)
-    Map<Long, Integer> productSales = new HashMap<>();
-    orders.forEach(order -> {
-      if (order.getItems() != null) {
-        order.getItems().forEach(item -> {
-          productSales.merge(item.getProductId(), item.getQuantity(), Integer::sum);
-        });
-      }
-    });
-    
-    // Top 10 productos
-    List<Map<String, Object>> topProducts = productSales.entrySet().stream()
-      .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
-      .limit(10)
-      .map(e -> Map.<String, Object>of("productId", e.getKey(), "quantity", e.getValue()))
-      .collect(Collectors.toList());
-    
-    // Clientes más frecuentes (email -> cantidad de órdenes)
-    Map<String, Long> customerFrequency = orders.stream()
-      .filter(o -> o.getCustomerEmail() != null)
-      .collect(Collectors.groupingBy(Order::getCustomerEmail, Collectors.counting()));
-    
-    List<Map<String, Object>> topCustomers = customerFrequency.entrySet().stream()
-      .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-      .limit(10)
-      .map(e -> Map.<String, Object>of("email", e.getKey(), "orders", e.getValue()))
-      .collect(Collectors.toList());
-    
-    Map<String, Object> report = new HashMap<>();
+    Instant to = SalesRollupService.bucketOf(Instant.now()).plus(1, ChronoUnit.HOURS);
+    Map<String, Object> report = generateSalesReport(to.minus(7, ChronoUnit.DAYS), to);
     report.put("period", "last_7_days");
-    report.put("totalSales", totalSales);
-    report.put("totalOrders", orders.size());
+    return report;
+  }
+
+  /**
+   * Sales of orders created in [from, to), rounded out to whole hours.
+   * totalSales and the top lists count confirmed sales; totalOrders and ordersByStatus count
+   * every order by its current status.
+   */
+  public Map<String, Object> generateSalesReport(Instant from, Instant to) {
+    if (from == null || to == null || !from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+    Timestamp start = Timestamp.from(SalesRollupService.bucketOf(from));
+    Timestamp end = Timestamp.from(SalesRollupService.bucketOf(to.plus(1, ChronoUnit.HOURS).minusNanos(1)));
+
+    Map<String, Long> ordersByStatus = new TreeMap<>();
+    jdbcTemplate.query(
+      "SELECT status, SUM(orders) FROM sales_hourly_status WHERE bucket_start >= ? AND bucket_start < ? " +
+      "GROUP BY status HAVING SUM(orders) <> 0",
+      rs -> { ordersByStatus.put(rs.getString(1), rs.getLong(2)); }, start, end);
+    long totalOrders = ordersByStatus.values().stream().mapToLong(Long::longValue).sum();
+
+    Double totalSales = jdbcTemplate.queryForObject(
+      "SELECT COALESCE(SUM(revenue), 0) FROM sales_hourly_customer WHERE bucket_start >= ? AND bucket_start < ?",
+      Double.class, start, end);
+
+    List<Map<String, Object>> topProducts = jdbcTemplate.query(
+      "SELECT product_id, SUM(quantity) AS qty FROM sales_hourly_product WHERE bucket_start >= ? AND bucket_start < ? " +
+      "GROUP BY product_id ORDER BY qty DESC, product_id LIMIT " + TOP_N,
+      (rs, i) -> Map.<String, Object>of("productId", rs.getLong(1), "quantity", rs.getLong(2)), start, end);
+
+    List<Map<String, Object>> topCustomers = jdbcTemplate.query(
+      "SELECT customer_email, SUM(orders) AS n FROM sales_hourly_customer WHERE bucket_start >= ? AND bucket_start < ? " +
+      "AND customer_email <> '' GROUP BY customer_email ORDER BY n DESC, customer_email LIMIT " + TOP_N,
+      (rs, i) -> Map.<String, Object>of("email", rs.getString(1), "orders", rs.getLong(2)), start, end);
+
+    Map<String, Object> report = new HashMap<>();
+    report.put("period", "custom");
+    report.put("from", start.toInstant());
+    report.put("to", end.toInstant());
+    report.put("totalSales", totalSales == null ? 0.0 : totalSales);
+    report.put("totalOrders", totalOrders);
+    report.put("ordersByStatus", ordersByStatus);
     report.put("topProducts", topProducts);
     report.put("topCustomers", topCustomers);
     report.put("generatedAt", Instant.now());
-    
-    log.info("Weekly sales report generated: totalSales={}, orders={}", totalSales, orders.size());
+
+    log.info("Sales report generated: totalSales={}, orders={}", totalSales, totalOrders);
     return report;
   }
 
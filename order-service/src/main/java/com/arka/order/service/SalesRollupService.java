@@ -0,0 +1,184 @@
+package com.arka.order.service;
+
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the hourly sales rollups up to date as orders change, one upsert per row touched, in
+ * the caller's transaction. Orders are bucketed by the hour they were created, so a report over
+ * any range of whole hours is a sum over rollup rows. Product and customer rollups count sales:
+ * they grow when an order is confirmed and shrink again when a confirmed order is cancelled, as
+ * {@link #rebuild} would count them. The status rollup counts every order in its current status.
+ */
+@Service
+public class SalesRollupService {
+  static final String UPSERT_STATUS =
+    "INSERT INTO sales_hourly_status (bucket_start, status, orders, amount) VALUES (?, ?, ?, ?) " +
+    "ON CONFLICT (bucket_start, status) DO UPDATE SET " +
+    "orders = sales_hourly_status.orders + EXCLUDED.orders, amount = sales_hourly_status.amount + EXCLUDED.amount";
+  static final String UPSERT_PRODUCT =
+    "INSERT INTO sales_hourly_product (bucket_start, product_id, quantity, revenue) VALUES (?, ?, ?, ?) " +
+    "ON CONFLICT (bucket_start, product_id) DO UPDATE SET " +
+    "quantity = sales_hourly_product.quantity + EXCLUDED.quantity, revenue = sales_hourly_product.revenue + EXCLUDED.revenue";
+  static final String UPSERT_CUSTOMER =
+    "INSERT INTO sales_hourly_customer (bucket_start, customer_email, orders, revenue) VALUES (?, ?, ?, ?) " +
+    "ON CONFLICT (bucket_start, customer_email) DO UPDATE SET " +
+    "orders = sales_hourly_customer.orders + EXCLUDED.orders, revenue = sales_hourly_customer.revenue + EXCLUDED.revenue";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public SalesRollupService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public static Instant bucketOf(Instant createdAt) {
+    return createdAt.truncatedTo(ChronoUnit.HOURS);
+  }
+
+  /** A new order was stored in its initial status. */
+  @Transactional
+  public void orderPlaced(Order order) {
+    upsertStatus(order, order.getStatus(), 1, order.getTotal());
+  }
+
+  /** The order moved from {@code previousStatus} to its current status. */
+  @Transactional
+  public void statusChanged(Order order, OrderStatus previousStatus) {
+    if (previousStatus == order.getStatus()) return;
+    if (previousStatus != null) upsertStatus(order, previousStatus, -1, -order.getTotal());
+    upsertStatus(order, order.getStatus(), 1, order.getTotal());
+    if (order.getStatus() == OrderStatus.CONFIRMED) recordSale(order, 1);
+    else if (previousStatus == OrderStatus.CONFIRMED && order.getStatus() == OrderStatus.CANCELLED) recordSale(order, -1);
+  }
+
+  /** The order's items were changed while its status stayed the same. */
+  @Transactional
+  public void totalChanged(Order order, double previousTotal) {
+    double delta = order.getTotal() - previousTotal;
+    if (delta != 0) upsertStatus(order, order.getStatus(), 0, delta);
+  }
+
+  /**
+   * Orders that were stored directly as CONFIRMED, e.g. by a bulk import. Their amounts are summed
+   * per rollup row first, so each row is upserted once however many orders it covers.
+   */
+  @Transactional
+  public void ordersConfirmed(List<Order> orders) {
+    Map<Timestamp, double[]> statuses = new TreeMap<>();
+    Map<Timestamp, Map<Long, double[]>> products = new TreeMap<>();
+    Map<Timestamp, Map<String, double[]>> customers = new TreeMap<>();
+    for (Order order : orders) {
+      Timestamp bucket = Timestamp.from(bucketOf(order.getCreatedAt()));
+      add(statuses.computeIfAbsent(bucket, b -> new double[2]), 1, order.getTotal());
+      String email = order.getCustomerEmail() == null ? "" : order.getCustomerEmail();
+      add(customers.computeIfAbsent(bucket, b -> new TreeMap<>()).computeIfAbsent(email, e -> new double[2]), 1, order.getTotal());
+      if (order.getItems() == null) continue;
+      Map<Long, double[]> byProduct = products.computeIfAbsent(bucket, b -> new TreeMap<>());
+      for (OrderItem it : order.getItems()) {
+        add(byProduct.computeIfAbsent(it.getProductId(), id -> new double[2]), it.getQuantity(), it.getQuantity() * it.getPrice());
+      }
+    }
+    List<Object[]> statusRows = new ArrayList<>();
+    statuses.forEach((bucket, sum) -> statusRows.add(new Object[]{bucket, "CONFIRMED", (long) sum[0], sum[1]}));
+    List<Object[]> productRows = new ArrayList<>();
+    products.forEach((bucket, rows) -> rows.forEach((productId, sum) ->
+      productRows.add(new Object[]{bucket, productId, (long) sum[0], sum[1]})));
+    List<Object[]> customerRows = new ArrayList<>();
+    customers.forEach((bucket, rows) -> rows.forEach((email, sum) ->
+      customerRows.add(new Object[]{bucket, email, (long) sum[0], sum[1]})));
+    if (!statusRows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_STATUS, statusRows);
+    if (!productRows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_PRODUCT, productRows);
+    if (!customerRows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_CUSTOMER, customerRows);
+  }
+
+  /**
+   * Orders moved from {@code from} to {@code to} by one set-based update, e.g. marked IN_TRANSIT
+   * in bulk. Only the status rollup changes, one row pair per hour bucket.
+   */
+  @Transactional
+  public void statusesChanged(List<Order> orders, OrderStatus from, OrderStatus to) {
+    if (to == OrderStatus.CONFIRMED || (from == OrderStatus.CONFIRMED && to == OrderStatus.CANCELLED)) {
+      throw new IllegalArgumentException("Confirmations and cancellations of confirmed orders must go through statusChanged");
+    }
+    Map<Timestamp, double[]> buckets = new TreeMap<>();
+    for (Order order : orders) add(buckets.computeIfAbsent(Timestamp.from(bucketOf(order.getCreatedAt())), b -> new double[2]), 1, order.getTotal());
+    List<Object[]> rows = new ArrayList<>(buckets.size() * 2);
+    buckets.forEach((bucket, sum) -> {
+      rows.add(new Object[]{bucket, from.name(), -(long) sum[0], -sum[1]});
+      rows.add(new Object[]{bucket, to.name(), (long) sum[0], sum[1]});
+    });
+    if (!rows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_STATUS, rows);
+  }
+
+  private static void add(double[] sum, long count, double amount) {
+    sum[0] += count;
+    sum[1] += amount;
+  }
+
+  /**
+   * Recomputes every rollup row in [from, to) from the orders table, e.g. to backfill history
+   * from before the rollups existed. Bounds are truncated to whole hours.
+   * @return number of rollup rows written
+   */
+  @Transactional
+  public int rebuild(Instant from, Instant to) {
+    if (from == null || to == null || !from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+    Timestamp start = Timestamp.from(bucketOf(from));
+    Timestamp end = Timestamp.from(bucketOf(to));
+    for (String table : List.of("sales_hourly_status", "sales_hourly_product", "sales_hourly_customer")) {
+      jdbcTemplate.update("DELETE FROM " + table + " WHERE bucket_start >= ? AND bucket_start < ?", start, end);
+    }
+    int rows = jdbcTemplate.update(
+      "INSERT INTO sales_hourly_status (bucket_start, status, orders, amount) " +
+      "SELECT date_trunc('hour', created_at), status, COUNT(*), COALESCE(SUM(total), 0) FROM orders " +
+      "WHERE created_at >= ? AND created_at < ? AND status IS NOT NULL GROUP BY 1, 2", start, end);
+    // Sales are the orders that reached CONFIRMED; later fulfilment statuses still count.
+    String sold = "o.status NOT IN ('PENDING', 'CANCELLED')";
+    rows += jdbcTemplate.update(
+      "INSERT INTO sales_hourly_product (bucket_start, product_id, quantity, revenue) " +
+      "SELECT date_trunc('hour', o.created_at), i.product_id, SUM(i.quantity), SUM(i.quantity * i.price) " +
+      "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+      "WHERE o.created_at >= ? AND o.created_at < ? AND " + sold + " GROUP BY 1, 2", start, end);
+    rows += jdbcTemplate.update(
+      "INSERT INTO sales_hourly_customer (bucket_start, customer_email, orders, revenue) " +
+      "SELECT date_trunc('hour', o.created_at), COALESCE(o.customer_email, ''), COUNT(*), SUM(o.total) " +
+      "FROM orders o WHERE o.created_at >= ? AND o.created_at < ? AND " + sold + " GROUP BY 1, 2", start, end);
+    return rows;
+  }
+
+  /** Adds the order's sale to the product and customer rollups, or takes it out with {@code sign} -1. */
+  private void recordSale(Order order, int sign) {
+    Timestamp bucket = Timestamp.from(bucketOf(order.getCreatedAt()));
+    Map<Long, long[]> quantities = new TreeMap<>();
+    Map<Long, Double> revenue = new TreeMap<>();
+    if (order.getItems() != null) {
+      for (OrderItem it : order.getItems()) {
+        quantities.computeIfAbsent(it.getProductId(), id -> new long[1])[0] += sign * it.getQuantity();
+        revenue.merge(it.getProductId(), sign * it.getQuantity() * it.getPrice(), Double::sum);
+      }
+    }
+    // Rows are upserted in product id order, so concurrent orders lock them in the same order.
+    List<Object[]> rows = new ArrayList<>(quantities.size());
+    quantities.forEach((productId, qty) -> rows.add(new Object[]{bucket, productId, qty[0], revenue.get(productId)}));
+    if (!rows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_PRODUCT, rows);
+    String email = order.getCustomerEmail() == null ? "" : order.getCustomerEmail();
+    jdbcTemplate.update(UPSERT_CUSTOMER, bucket, email, sign, sign * order.getTotal());
+  }
+
+  private void upsertStatus(Order order, OrderStatus status, int orders, double amount) {
+    if (status == null) return;
+    jdbcTemplate.update(UPSERT_STATUS, Timestamp.from(bucketOf(order.getCreatedAt())), status.name(), orders, amount);
+  }
+}
@@ -0,0 +1,156 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.dto.StockAdjustment;
+import com.arka.order.model.StockSettlement;
+import com.arka.order.repository.StockSettlementRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static com.arka.order.clients.FeignErrors.isRejection;
+
+/**
+ * Settles keyed stock adjustments whose outcome is unknown (see {@link StockSettlement}). Each
+ * one is repeated with its key until inventory answers; a refusal means it never applied and
+ * there is nothing to undo. Inventory remembers keys for 72 hours, so a settlement still open
+ * after {@code max-age-hours} is dropped with an error for someone to settle by hand.
+ */
+@Service
+public class StockSettlementService {
+  private static final Logger log = LoggerFactory.getLogger(StockSettlementService.class);
+  private static final TypeReference<List<StockAdjustment>> ADJUSTMENTS = new TypeReference<>() {};
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+  private final StockSettlementRepository repository;
+  private final InventoryClient inventoryClient;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Duration retryBackoff;
+  private final Duration lease;
+  private final Duration maxAge;
+
+  public StockSettlementService(StockSettlementRepository repository, InventoryClient inventoryClient,
+                                TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                @Value("${order.settlement.retry-backoff-ms:5000}") long retryBackoffMs,
+                                @Value("${order.settlement.lease-ms:30000}") long leaseMs,
+                                @Value("${order.settlement.max-age-hours:48}") long maxAgeHours) {
+    this.repository = repository;
+    this.inventoryClient = inventoryClient;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+    this.lease = Duration.ofMillis(leaseMs);
+    this.maxAge = Duration.ofHours(maxAgeHours);
+  }
+
+  /**
+   * Records {@code adjustments}, sent under {@code key}, as unsettled. Settling repeats them and,
+   * with {@code compensate}, then reverses them.
+   */
+  public void record(String key, List<StockAdjustment> adjustments, boolean compensate) {
+    try {
+      Instant now = Instant.now();
+      StockSettlement settlement = new StockSettlement();
+      settlement.setRequestKey(key);
+      settlement.setAdjustments(objectMapper.writeValueAsString(adjustments));
+      settlement.setCompensate(compensate);
+      settlement.setCreatedAt(now);
+      settlement.setNextAttemptAt(now.plus(retryBackoff));
+      repository.save(settlement);
+    } catch (Exception e) {
+      log.error("Could not record unsettled stock adjustment {} {}: {}", key, describe(adjustments), e.getMessage());
+    }
+  }
+
+  /** Locks up to {@code limit} due settlements and extends their lease. */
+  public List<StockSettlement> claimDue(int limit) {
+    return transactionTemplate.execute(status -> {
+      Instant now = Instant.now();
+      List<StockSettlement> due = repository.lockDue(now, limit);
+      for (StockSettlement settlement : due) settlement.setNextAttemptAt(now.plus(lease));
+      return due;
+    });
+  }
+
+  /**
+   * Repeats the settlement's adjustments under its key, then its compensation if it has one. Two
+   * instances settling the same row at once is harmless: both send the same keys.
+   */
+  public void settle(StockSettlement settlement) {
+    while (true) {
+      if (settlement.getCreatedAt().isBefore(Instant.now().minus(maxAge))) {
+        log.error("Giving up on stock adjustment {} {} after {} attempts, settle it by hand: {}", settlement.getRequestKey(),
+          settlement.getAdjustments(), settlement.getAttempts(), settlement.getLastError());
+        repository.delete(settlement);
+        return;
+      }
+      List<StockAdjustment> adjustments = read(settlement.getAdjustments());
+      try {
+        inventoryClient.updateStockBatch(adjustments, settlement.getRequestKey());
+      } catch (Exception e) {
+        if (isRejection(e)) {
+          log.warn("Stock adjustment {} was refused, nothing to settle: {}", settlement.getRequestKey(), e.getMessage());
+          repository.delete(settlement);
+        } else {
+          retryLater(settlement, e);
+        }
+        return;
+      }
+      if (!settlement.isCompensate()) {
+        log.info("Settled stock adjustment {}", settlement.getRequestKey());
+        repository.delete(settlement);
+        return;
+      }
+      // Applied, now or before: what remains is to give the stock back.
+      settlement.setRequestKey(settlement.getRequestKey() + "-release");
+      settlement.setAdjustments(write(adjustments.stream()
+        .map(a -> new StockAdjustment(a.getProductId(), -a.getDelta(), a.getReason() + "-release")).toList()));
+      settlement.setCompensate(false);
+      settlement.setAttempts(0);
+      settlement.setLastError(null);
+      repository.save(settlement);
+    }
+  }
+
+  private void retryLater(StockSettlement settlement, Exception e) {
+    settlement.setAttempts(settlement.getAttempts() + 1);
+    settlement.setLastError(e.getMessage() == null ? e.getClass().getSimpleName()
+      : e.getMessage().substring(0, Math.min(500, e.getMessage().length())));
+    Duration backoff = retryBackoff.multipliedBy(1L << Math.min(settlement.getAttempts() - 1, 20));
+    if (backoff.compareTo(MAX_BACKOFF) > 0) backoff = MAX_BACKOFF;
+    settlement.setNextAttemptAt(Instant.now().plus(backoff));
+    repository.save(settlement);
+    log.warn("Stock adjustment {} still unsettled after {} attempt(s), next in {} ms: {}", settlement.getRequestKey(),
+      settlement.getAttempts(), backoff.toMillis(), settlement.getLastError());
+  }
+
+  private List<StockAdjustment> read(String json) {
+    try {
+      return objectMapper.readValue(json, ADJUSTMENTS);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unreadable stock adjustments: " + json, e);
+    }
+  }
+
+  private String write(List<StockAdjustment> adjustments) {
+    try {
+      return objectMapper.writeValueAsString(adjustments);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize stock adjustments", e);
+    }
+  }
+
+  private static String describe(List<StockAdjustment> adjustments) {
+    return adjustments.stream().map(a -> a.getProductId() + ":" + a.getDelta()).toList().toString();
+  }
+}
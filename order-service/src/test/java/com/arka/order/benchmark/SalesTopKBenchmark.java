@@ -0,0 +1,107 @@
+package com.arka.order.benchmark;
+
+import com.arka.order.report.LongTopK;
+import com.arka.order.report.TopK;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Top-10 products by quantity and top-10 customers by order count over {@code lines} order
+ * lines: the HashMap + full sort stream pipeline the sales report used to run, versus
+ * {@link LongTopK} / {@link TopK}.
+ *
+ * Runs only on request:
+ *   mvn test -Dtest=SalesTopKBenchmark -Dbenchmark.jmh=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesTopKBenchmark {
+  private static final int TOP_N = 10;
+
+  @Param({"1000000"})
+  public int lines;
+
+  /** Order lines as parallel arrays; every 5 lines share an order (and its customer). */
+  private long[] productIds;
+  private int[] quantities;
+  private String[] orderEmails;
+
+  @Setup
+  public void generate() {
+    Random random = new Random(7);
+    productIds = new long[lines];
+    quantities = new int[lines];
+    orderEmails = new String[lines / 5];
+    String[] customers = IntStream.range(0, 50_000).mapToObj(i -> "customer" + i + "@example.com").toArray(String[]::new);
+    for (int i = 0; i < lines; i++) {
+      // skewed: a few thousand products take most of the volume
+      productIds[i] = random.nextInt(10) < 8 ? random.nextInt(2_000) : random.nextInt(100_000);
+      quantities[i] = 1 + random.nextInt(10);
+    }
+    for (int i = 0; i < orderEmails.length; i++) orderEmails[i] = customers[random.nextInt(customers.length)];
+  }
+
+  @Benchmark
+  public Object streamPipeline() {
+    Map<Long, Integer> productSales = new HashMap<>();
+    for (int i = 0; i < lines; i++) productSales.merge(productIds[i], quantities[i], Integer::sum);
+    List<Map<String, Object>> topProducts = productSales.entrySet().stream()
+      .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+      .limit(TOP_N)
+      .map(e -> Map.<String, Object>of("productId", e.getKey(), "quantity", e.getValue()))
+      .collect(Collectors.toList());
+
+    Map<String, Long> customerFrequency = java.util.Arrays.stream(orderEmails)
+      .collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+    List<Map<String, Object>> topCustomers = customerFrequency.entrySet().stream()
+      .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+      .limit(TOP_N)
+      .map(e -> Map.<String, Object>of("email", e.getKey(), "orders", e.getValue()))
+      .collect(Collectors.toList());
+    return List.of(topProducts, topCustomers);
+  }
+
+  @Benchmark
+  public Object boundedHeap() {
+    LongTopK products = new LongTopK(4_096);
+    for (int i = 0; i < lines; i++) products.add(productIds[i], quantities[i]);
+    TopK<String> customers = new TopK<>(50_000);
+    for (String email : orderEmails) customers.add(email, 1);
+    return List.of(products.top(TOP_N), customers.top(TOP_N));
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+  void run() throws Exception {
+    Options options = new OptionsBuilder()
+      .include(SalesTopKBenchmark.class.getSimpleName())
+      .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,35 @@
+package com.arka.order.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderHistoryIndexInitializerTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void createIndex_ShouldCreateCoveringIndex() {
+    new OrderHistoryIndexInitializer(jdbcTemplate).createIndex();
+
+    verify(jdbcTemplate).execute(OrderHistoryIndexInitializer.CREATE_INDEX_SQL);
+  }
+
+  @Test
+  void createIndex_WhenItFails_ShouldFailStartup() {
+    doThrow(new DataAccessResourceFailureException("permission denied for table orders"))
+      .when(jdbcTemplate).execute(OrderHistoryIndexInitializer.CREATE_INDEX_SQL);
+
+    OrderHistoryIndexInitializer initializer = new OrderHistoryIndexInitializer(jdbcTemplate);
+
+    assertThrows(IllegalStateException.class, initializer::createIndex);
+  }
+}
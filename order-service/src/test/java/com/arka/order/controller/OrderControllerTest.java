@@ -2,26 +2,47 @@ package com.arka.order.controller;
 
 import com.arka.order.model.Order;
 import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.dto.BulkStatusResult;
+import com.arka.order.dto.OrderPage;
+import com.arka.order.dto.OrderStatusView;
+import com.arka.order.dto.OrderSummary;
+import com.arka.order.model.SagaState;
+import com.arka.order.repository.IdempotencyRecordRepository;
+import com.arka.order.service.AsyncOrderService;
+import com.arka.order.service.IdempotencyService;
 import com.arka.order.service.OrderService;
+import com.arka.order.service.OrderStatusService;
+import com.arka.order.service.OrderStatusStream;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderController.class)
+@Import(IdempotencyService.class)
 class OrderControllerTest {
 
   @Autowired
@@ -33,6 +54,18 @@ class OrderControllerTest {
   @MockBean
   private OrderService orderService;
 
+  @MockBean
+  private AsyncOrderService asyncOrderService;
+
+  @MockBean
+  private OrderStatusStream statusStream;
+
+  @MockBean
+  private IdempotencyRecordRepository idempotencyRepository;
+
+  @MockBean
+  private OrderStatusService statusService;
+
   private Order testOrder;
 
   @BeforeEach
@@ -40,7 +73,7 @@ class OrderControllerTest {
     testOrder = new Order();
     testOrder.setId(1L);
     // Removido setUserId() - no existe en la clase Order
-    testOrder.setStatus("PENDING");
+    testOrder.setStatus(OrderStatus.PENDING);
     testOrder.setTotal(99.99); // Usa setTotal() con double, no setTotalAmount()
     testOrder.setCustomerEmail("test@example.com");
     
@@ -85,4 +118,115 @@ class OrderControllerTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id").value(1));
   }
-}
\ No newline at end of file
+
+  @Test
+  void createOrder_Async_ShouldReturnAcceptedWithStatusUrl() throws Exception {
+    when(asyncOrderService.accept(any(Order.class))).thenReturn(testOrder);
+
+    mockMvc.perform(post("/api/orders?async=true")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(testOrder)))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/orders/1/status"))
+        .andExpect(jsonPath("$.status").value("PENDING"))
+        .andExpect(jsonPath("$.eventsUrl").value("/api/orders/1/events"));
+
+    verify(orderService, never()).createOrder(any(Order.class));
+  }
+
+  @Test
+  void status_ShouldReturnSagaProgress() throws Exception {
+    when(asyncOrderService.status(1L))
+        .thenReturn(Optional.of(new OrderStatusView(1L, OrderStatus.PENDING, SagaState.STARTED, 1, "Service Unavailable")));
+
+    mockMvc.perform(get("/api/orders/1/status"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.sagaState").value("STARTED"))
+        .andExpect(jsonPath("$.attempts").value(1));
+  }
+
+  @Test
+  void status_ShouldReturnNotFound_WhenOrderUnknown() throws Exception {
+    when(asyncOrderService.status(99L)).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/orders/99/status"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void createOrder_RetriedWithSameIdempotencyKey_ShouldReplayFirstResponse() throws Exception {
+    when(orderService.createOrder(any(Order.class))).thenReturn(testOrder);
+    when(idempotencyRepository.claim(eq("checkout-42"), anyString(), any(), any())).thenReturn(1);
+    String body = objectMapper.writeValueAsString(testOrder);
+
+    mockMvc.perform(post("/api/orders").header("Idempotency-Key", "checkout-42")
+            .contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isCreated());
+    mockMvc.perform(post("/api/orders").header("Idempotency-Key", "checkout-42")
+            .contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Idempotent-Replayed", "true"))
+        .andExpect(jsonPath("$.id").value(1));
+
+    verify(orderService, times(1)).createOrder(any(Order.class));
+  }
+
+  @Test
+  void list_ShouldReturnSummariesOfCustomer() throws Exception {
+    when(orderService.listOrders("test@example.com", null, "abc", 20))
+        .thenReturn(new OrderPage(List.of(new OrderSummary(1L, "test@example.com", Instant.now(), OrderStatus.PENDING, 99.99)), "def"));
+
+    mockMvc.perform(get("/api/orders").param("customerEmail", "test@example.com").param("after", "abc").param("limit", "20"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "def"))
+        .andExpect(jsonPath("$[0].id").value(1))
+        .andExpect(jsonPath("$[0].total").value(99.99))
+        .andExpect(jsonPath("$[0].items").doesNotExist());
+  }
+
+  @Test
+  void list_ShouldReturnBadRequest_WithoutFilter() throws Exception {
+    when(orderService.listOrders(null, null, null, OrderService.DEFAULT_PAGE_SIZE)).thenThrow(new IllegalArgumentException("customerEmail or status is required"));
+
+    mockMvc.perform(get("/api/orders"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void get_ShouldReturnOrderWithItems() throws Exception {
+    when(orderService.getOrder(1L)).thenReturn(Optional.of(testOrder));
+
+    mockMvc.perform(get("/api/orders/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].productId").value(1));
+  }
+
+  @Test
+  void changeStatus_ShouldReturnConflict_WhenTransitionIsNotAllowed() throws Exception {
+    when(statusService.transition(1L, OrderStatus.DELIVERED))
+        .thenThrow(new IllegalStateException("Order 1 is CONFIRMED and cannot move to DELIVERED"));
+
+    mockMvc.perform(put("/api/orders/1/status").param("status", "delivered"))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  void changeStatus_ShouldReturnBadRequest_WhenStatusIsUnknown() throws Exception {
+    mockMvc.perform(put("/api/orders/1/status").param("status", "LOST"))
+        .andExpect(status().isBadRequest());
+    verify(statusService, never()).transition(anyLong(), any());
+  }
+
+  @Test
+  void changeStatuses_ShouldReturnPerOrderOutcome() throws Exception {
+    when(statusService.transitionAll(List.of(1L, 2L, 3L), OrderStatus.IN_TRANSIT))
+        .thenReturn(new BulkStatusResult(OrderStatus.IN_TRANSIT, List.of(1L), List.of(2L), List.of(), Map.of(3L, OrderStatus.PENDING)));
+
+    mockMvc.perform(post("/api/orders/status/bulk").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"orderIds\":[1,2,3],\"status\":\"IN_TRANSIT\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.updated[0]").value(1))
+        .andExpect(jsonPath("$.unchanged[0]").value(2))
+        .andExpect(jsonPath("$.rejected.3").value("PENDING"));
+  }
+}
@@ -0,0 +1,58 @@
+package com.arka.order.controller;
+
+import com.arka.order.dto.ImportResult;
+import com.arka.order.service.OrderImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OrderImportController.class)
+class OrderImportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private OrderImportService importService;
+
+  @Test
+  void importOrders_ShouldStreamOneResultLinePerOrder() throws Exception {
+    doAnswer(inv -> {
+      Consumer<List<ImportResult>> results = inv.getArgument(2);
+      results.accept(List.of(ImportResult.confirmed(2, "A", 101L), ImportResult.rejected(4, null, "quantity must be positive")));
+      return null;
+    }).when(importService).importOrders(any(), eq(OrderImportService.Format.CSV), any());
+
+    MvcResult started = mockMvc.perform(post("/api/orders/import").contentType("text/csv").content("ref,...\n"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    // order.import.timeout-ms, not the container's default
+    assertEquals(1800000L, started.getRequest().getAsyncContext().getTimeout());
+
+    mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(content().string(
+            "{\"line\":2,\"ref\":\"A\",\"orderId\":101,\"status\":\"CONFIRMED\"}\n"
+            + "{\"line\":4,\"status\":\"REJECTED\",\"error\":\"quantity must be positive\"}\n"));
+  }
+
+  @Test
+  void importOrders_ShouldRejectOtherContentTypes() throws Exception {
+    mockMvc.perform(post("/api/orders/import").contentType("application/json").content("[]"))
+        .andExpect(status().isUnsupportedMediaType());
+  }
+}
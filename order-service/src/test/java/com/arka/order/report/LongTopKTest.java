@@ -0,0 +1,68 @@
+package com.arka.order.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongTopKTest {
+
+  @Test
+  void top_ShouldReturnLargestCountsFirst() {
+    LongTopK topK = new LongTopK();
+    topK.add(1, 5);
+    topK.add(2, 9);
+    topK.add(3, 1);
+    topK.add(1, 7);
+
+    assertEquals(List.of(new LongTopK.Entry(1, 12), new LongTopK.Entry(2, 9)), topK.top(2));
+    assertEquals(3, topK.size());
+  }
+
+  @Test
+  void top_ShouldBreakTiesBySmallerKey() {
+    LongTopK topK = new LongTopK();
+    topK.add(30, 4);
+    topK.add(10, 4);
+    topK.add(20, 4);
+
+    assertEquals(List.of(new LongTopK.Entry(10, 4), new LongTopK.Entry(20, 4)), topK.top(2));
+  }
+
+  @Test
+  void top_WithFewerKeysThanK_ShouldReturnAll() {
+    LongTopK topK = new LongTopK();
+    topK.add(0, 1);
+    topK.add(-7, 2);
+
+    assertEquals(List.of(new LongTopK.Entry(-7, 2), new LongTopK.Entry(0, 1)), topK.top(10));
+    assertEquals(List.of(), new LongTopK().top(10));
+  }
+
+  @Test
+  void top_ShouldMatchFullSortAcrossTableGrowth() {
+    Random random = new Random(42);
+    LongTopK topK = new LongTopK();
+    Map<Long, Long> expected = new HashMap<>();
+    for (int i = 0; i < 200_000; i++) {
+      long key = random.nextInt(20_000);
+      long count = 1 + random.nextInt(5);
+      topK.add(key, count);
+      expected.merge(key, count, Long::sum);
+    }
+
+    List<LongTopK.Entry> sorted = expected.entrySet().stream()
+      .map(e -> new LongTopK.Entry(e.getKey(), e.getValue()))
+      .sorted(Comparator.comparingLong(LongTopK.Entry::count).reversed().thenComparingLong(LongTopK.Entry::key))
+      .limit(25)
+      .toList();
+    assertEquals(sorted, topK.top(25));
+    assertEquals(expected.size(), topK.size());
+    assertEquals(expected.get(123L), topK.get(123L));
+  }
+}
@@ -0,0 +1,26 @@
+package com.arka.order.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+  @Test
+  void top_ShouldRankByCountThenKey() {
+    TopK<String> topK = new TopK<>();
+    topK.add("c@example.com", 2);
+    topK.add("a@example.com", 1);
+    topK.add("b@example.com", 2);
+    topK.add("a@example.com", 4);
+
+    assertEquals(List.of(
+      new TopK.Entry<>("a@example.com", 5),
+      new TopK.Entry<>("b@example.com", 2),
+      new TopK.Entry<>("c@example.com", 2)), topK.top(10));
+    assertEquals(List.of(new TopK.Entry<>("a@example.com", 5)), topK.top(1));
+    assertEquals(0, topK.get("z@example.com"));
+  }
+}
@@ -0,0 +1,151 @@
+package com.arka.order.repository;
+
+import com.arka.order.dto.OrderSummary;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Counts the SQL statements each query variant costs, so an N+1 regression fails the build. */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:orderdb",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.cloud.discovery.enabled=false",
+    "eureka.client.enabled=false"
+})
+class OrderRepositoryTest {
+  private static final int ORDERS = 10;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private Instant start;
+
+  @BeforeEach
+  void setUp() {
+    start = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    for (int i = 0; i < ORDERS; i++) {
+      Order order = new Order();
+      order.setCustomerEmail("buyer@example.com");
+      order.setStatus(OrderStatus.CONFIRMED);
+      order.setCreatedAt(start.plusSeconds(i));
+      order.setItems(new ArrayList<>(List.of(item(1L, 1), item(2L, 3))));
+      order.setTotal(40);
+      entityManager.persist(order);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void plainFinder_ShouldNotLoadItems() {
+    List<Order> orders = orderRepository.findByCustomerEmail("buyer@example.com");
+
+    assertEquals(ORDERS, orders.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(0, statistics.getCollectionLoadCount());
+  }
+
+  @Test
+  void plainFinder_ShouldBatchFetchItems_WhenTouched() {
+    List<Order> orders = orderRepository.findByStatus(OrderStatus.CONFIRMED);
+    orders.forEach(o -> assertEquals(2, o.getItems().size()));
+
+    // one select for the orders, one for the items of all of them
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void withItemsFinder_ShouldFetchJoinItems() {
+    List<Order> orders = orderRepository.findWithItemsByCreatedAtAfter(start.minusSeconds(1));
+    int lines = orders.stream().mapToInt(o -> o.getItems().size()).sum();
+
+    assertEquals(ORDERS, orders.size());
+    assertEquals(ORDERS * 2, lines);
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void findWithItemsById_ShouldUseOneStatement() {
+    Long id = orderRepository.findSummariesByStatus(OrderStatus.CONFIRMED, PageRequest.of(0, 1)).get(0).id();
+    statistics.clear();
+
+    Order order = orderRepository.findWithItemsById(id).orElseThrow();
+
+    assertEquals(2, order.getItems().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void summaries_ShouldUseOneStatementAndLoadNoEntities() {
+    List<OrderSummary> summaries = orderRepository.findSummariesByCustomerEmail("buyer@example.com", PageRequest.of(0, 100));
+
+    assertEquals(ORDERS, summaries.size());
+    assertEquals(start.plusSeconds(ORDERS - 1), summaries.get(0).createdAt());
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(0, statistics.getEntityLoadCount());
+  }
+
+  @Test
+  void summaryPages_ShouldWalkHistoryNewestFirst_IncludingTiesOnCreatedAt() {
+    Order twin = new Order();
+    twin.setCustomerEmail("buyer@example.com");
+    twin.setStatus(OrderStatus.PENDING);
+    twin.setCreatedAt(start.plusSeconds(5));
+    twin.setTotal(0);
+    entityManager.persistAndFlush(twin);
+    entityManager.clear();
+    statistics.clear();
+
+    List<Long> seen = new ArrayList<>();
+    List<OrderSummary> page = orderRepository.findSummariesByCustomerEmail("buyer@example.com", PageRequest.of(0, 4));
+    while (!page.isEmpty()) {
+      page.forEach(s -> seen.add(s.id()));
+      OrderSummary last = page.get(page.size() - 1);
+      page = orderRepository.findSummariesByCustomerEmailBefore("buyer@example.com", last.createdAt(), last.id(), PageRequest.of(0, 4));
+    }
+
+    assertEquals(ORDERS + 1, seen.size());
+    assertEquals(ORDERS + 1, seen.stream().distinct().count());
+    // 4 + 4 + 3 rows, then the empty page: one statement each
+    assertEquals(4, statistics.getPrepareStatementCount());
+    assertEquals(0, statistics.getEntityLoadCount());
+  }
+
+  private static OrderItem item(Long productId, int quantity) {
+    OrderItem item = new OrderItem();
+    item.setProductId(productId);
+    item.setQuantity(quantity);
+    item.setPrice(10.0);
+    return item;
+  }
+}
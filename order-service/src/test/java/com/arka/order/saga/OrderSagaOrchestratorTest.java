@@ -0,0 +1,325 @@
+package com.arka.order.saga;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.clients.NotificationClient;
+import com.arka.order.dto.OrderStatusView;
+import com.arka.order.dto.Reservation;
+import com.arka.order.dto.ReservationRequest;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderSaga;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.model.SagaState;
+import com.arka.order.model.SagaStep;
+import com.arka.order.model.SagaStepStatus;
+import com.arka.order.model.SagaStepType;
+import com.arka.order.repository.OrderRepository;
+import com.arka.order.repository.OrderSagaRepository;
+import com.arka.order.repository.SagaStepRepository;
+import com.arka.order.service.SalesRollupService;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSagaOrchestratorTest {
+
+  @Mock
+  private InventoryClient inventoryClient;
+
+  @Mock
+  private NotificationClient notificationClient;
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private OrderSagaRepository sagaRepository;
+
+  @Mock
+  private SagaStepRepository stepRepository;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private SalesRollupService salesRollups;
+
+  private OrderSagaOrchestrator orchestrator;
+  private Order order;
+  private List<SagaStep> savedSteps;
+
+  @BeforeEach
+  void setUp() {
+    orchestrator = new OrderSagaOrchestrator(inventoryClient, notificationClient, orderRepository,
+      sagaRepository, stepRepository, transactionTemplate, eventPublisher, salesRollups, 3, 1000, 30000, 900);
+    lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+      TransactionCallback<?> callback = inv.getArgument(0);
+      return callback.doInTransaction(null);
+    });
+
+    order = new Order();
+    order.setId(7L);
+    order.setCustomerEmail("buyer@example.com");
+    order.setStatus(OrderStatus.PENDING);
+    order.setItems(List.of(item(1L, 2), item(2L, 3)));
+    lenient().when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+    savedSteps = new ArrayList<>();
+    lenient().when(sagaRepository.findByOrderId(7L)).thenReturn(Optional.empty());
+    lenient().when(sagaRepository.save(any(OrderSaga.class))).thenAnswer(inv -> {
+      OrderSaga saga = inv.getArgument(0);
+      if (saga.getId() == null) saga.setId(70L);
+      return saga;
+    });
+    lenient().when(stepRepository.saveAll(anyList())).thenAnswer(inv -> {
+      List<SagaStep> steps = inv.getArgument(0);
+      savedSteps.addAll(steps);
+      return steps;
+    });
+    lenient().when(stepRepository.findBySagaIdOrderByIdAsc(70L)).thenAnswer(inv -> savedSteps);
+    lenient().when(inventoryClient.reserve(any(ReservationRequest.class))).thenAnswer(inv -> {
+      ReservationRequest req = inv.getArgument(0);
+      return new Reservation(100 + req.getProductId(), req.getProductId(), req.getQuantity(), req.getReference());
+    });
+  }
+
+  private static OrderItem item(Long productId, int quantity) {
+    OrderItem it = new OrderItem();
+    it.setProductId(productId);
+    it.setQuantity(quantity);
+    it.setPrice(10.0);
+    return it;
+  }
+
+  private static FeignException status(int status, String message) {
+    Request request = Request.create(Request.HttpMethod.PUT, "/api/products/2/stock", Map.of(), null, StandardCharsets.UTF_8, null);
+    return FeignException.errorStatus("InventoryClient#updateStock",
+      feign.Response.builder().status(status).reason(message).request(request).headers(Map.of()).build());
+  }
+
+  private SagaStep step(SagaStepType type, Long productId) {
+    return savedSteps.stream()
+      .filter(s -> s.getType() == type && (productId == null || productId.equals(s.getProductId())))
+      .findFirst().orElseThrow();
+  }
+
+  private OrderSaga saga(SagaState state) {
+    OrderSaga saga = new OrderSaga();
+    saga.setId(70L);
+    saga.setOrderId(7L);
+    saga.setState(state);
+    return saga;
+  }
+
+  private SagaStep held(Long productId, SagaStepStatus status) {
+    SagaStep step = step(SagaStepType.RESERVE, productId);
+    step.setStatus(status);
+    step.setReservationId(100 + productId);
+    return step;
+  }
+
+  @Test
+  void executeOrderSaga_ShouldHoldConfirmAndNotify() {
+    OrderSaga saga = orchestrator.executeOrderSaga(order);
+
+    assertEquals(SagaState.COMPLETED, saga.getState());
+    assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+    verify(inventoryClient).reserve(argThat(r -> r.getProductId() == 1L && r.getQuantity() == 2
+      && "order-saga-70-reserve-1".equals(r.getReference()) && r.getTtlSeconds() == 900L));
+    verify(inventoryClient).reserve(argThat(r -> r.getProductId() == 2L && "order-saga-70-reserve-2".equals(r.getReference())));
+    verify(inventoryClient).confirmReservation(101L);
+    verify(inventoryClient).confirmReservation(102L);
+    verify(inventoryClient, never()).updateStock(anyLong(), anyInt(), anyString(), anyString());
+    verify(notificationClient).send(argThat(p -> "order-saga-70-notify".equals(p.get("idempotencyKey"))));
+    assertEquals(SagaStepStatus.CONFIRMED, step(SagaStepType.RESERVE, 1L).getStatus());
+    assertEquals(SagaStepStatus.DONE, step(SagaStepType.NOTIFY, null).getStatus());
+    verify(eventPublisher).publishEvent(new OrderStatusView(7L, OrderStatus.CONFIRMED, SagaState.COMPLETED, 0, null));
+    verify(salesRollups).statusChanged(order, OrderStatus.PENDING);
+  }
+
+  @Test
+  void executeOrderSaga_WhenInventoryRejects_ShouldReleaseOnlyHeldLines() {
+    lenient().when(inventoryClient.reserve(argThat(r -> r.getProductId() == 2L)))
+      .thenThrow(status(400, "Insufficient stock available"));
+
+    RuntimeException ex = assertThrows(RuntimeException.class, () -> orchestrator.executeOrderSaga(order));
+
+    assertTrue(ex.getMessage().startsWith("Order Saga failed"));
+    assertEquals(OrderStatus.CANCELLED, order.getStatus());
+    verify(inventoryClient).releaseReservation(101L);
+    verify(inventoryClient, never()).confirmReservation(anyLong());
+    assertEquals(SagaStepStatus.COMPENSATED, step(SagaStepType.RESERVE, 1L).getStatus());
+    assertEquals(SagaStepStatus.REJECTED, step(SagaStepType.RESERVE, 2L).getStatus());
+    verifyNoInteractions(notificationClient);
+  }
+
+  @Test
+  void executeOrderSaga_WhenInventoryUnavailable_ShouldScheduleRetry() {
+    lenient().when(inventoryClient.reserve(argThat(r -> r.getProductId() == 2L)))
+      .thenThrow(status(503, "Service Unavailable"));
+
+    OrderSaga saga = orchestrator.executeOrderSaga(order);
+
+    assertEquals(SagaState.STARTED, saga.getState());
+    assertEquals(1, saga.getAttempts());
+    assertTrue(saga.getNextAttemptAt().isAfter(Instant.now()));
+    assertEquals(SagaStepStatus.DONE, step(SagaStepType.RESERVE, 1L).getStatus());
+    assertEquals(SagaStepStatus.ATTEMPTED, step(SagaStepType.RESERVE, 2L).getStatus());
+    assertEquals(OrderStatus.PENDING, order.getStatus());
+    verify(inventoryClient, never()).confirmReservation(anyLong());
+  }
+
+  @Test
+  void advance_ShouldResumeWithoutRepeatingCompletedSteps() {
+    orchestrator.start(order);
+    held(1L, SagaStepStatus.DONE);
+    step(SagaStepType.RESERVE, 2L).setStatus(SagaStepStatus.ATTEMPTED);
+    OrderSaga saga = saga(SagaState.STARTED);
+
+    orchestrator.advance(saga);
+
+    assertEquals(SagaState.COMPLETED, saga.getState());
+    verify(inventoryClient, never()).reserve(argThat(r -> r.getProductId() == 1L));
+    // the interrupted call is repeated with its original key
+    verify(inventoryClient).reserve(argThat(r -> "order-saga-70-reserve-2".equals(r.getReference())));
+    verify(inventoryClient).confirmReservation(101L);
+    verify(inventoryClient).confirmReservation(102L);
+  }
+
+  @Test
+  void advance_WhenHoldExpiredBeforeConfirm_ShouldGiveEverythingBack() {
+    orchestrator.start(order);
+    held(1L, SagaStepStatus.DONE);
+    held(2L, SagaStepStatus.DONE);
+    lenient().when(inventoryClient.confirmReservation(102L)).thenThrow(status(409, "Reservation has expired"));
+    OrderSaga saga = saga(SagaState.RESERVED);
+
+    orchestrator.advance(saga);
+
+    assertEquals(SagaState.COMPENSATED, saga.getState());
+    assertEquals(OrderStatus.CANCELLED, order.getStatus());
+    verify(inventoryClient).updateStock(1L, 2, "ORDER_ROLLBACK", "order-saga-70-reserve-1-release");
+    verify(inventoryClient).releaseReservation(102L);
+    verifyNoInteractions(notificationClient);
+  }
+
+  @Test
+  void advance_WhenAttemptsRunOut_ShouldPutConfirmedStockBack() {
+    orchestrator.start(order);
+    held(1L, SagaStepStatus.CONFIRMED);
+    held(2L, SagaStepStatus.CONFIRMED);
+    OrderSaga saga = saga(SagaState.RESERVED);
+    saga.setAttempts(2);
+    doThrow(new RuntimeException("notification-service down")).when(notificationClient).send(anyMap());
+
+    orchestrator.advance(saga);
+
+    assertEquals(SagaState.COMPENSATED, saga.getState());
+    verify(inventoryClient, never()).confirmReservation(anyLong());
+    verify(inventoryClient).updateStock(1L, 2, "ORDER_ROLLBACK", "order-saga-70-reserve-1-release");
+    verify(inventoryClient).updateStock(2L, 3, "ORDER_ROLLBACK", "order-saga-70-reserve-2-release");
+  }
+
+  @Test
+  void advance_WhenCompensating_ShouldSettleUnknownReserveBeforeReleasing() {
+    orchestrator.start(order);
+    held(1L, SagaStepStatus.DONE);
+    step(SagaStepType.RESERVE, 2L).setStatus(SagaStepStatus.ATTEMPTED);
+    OrderSaga saga = saga(SagaState.COMPENSATING);
+
+    orchestrator.advance(saga);
+
+    assertEquals(SagaState.COMPENSATED, saga.getState());
+    verify(inventoryClient).releaseReservation(101L);
+    verify(inventoryClient).reserve(argThat(r -> "order-saga-70-reserve-2".equals(r.getReference())));
+    verify(inventoryClient).releaseReservation(102L);
+  }
+
+  @Test
+  void advance_WhenLostConfirmWentThrough_ShouldPutStockBack() {
+    orchestrator.start(order);
+    held(1L, SagaStepStatus.DONE);
+    held(2L, SagaStepStatus.DONE);
+    lenient().when(inventoryClient.releaseReservation(101L)).thenThrow(status(409, "Reservation is CONFIRMED"));
+    OrderSaga saga = saga(SagaState.COMPENSATING);
+
+    orchestrator.advance(saga);
+
+    assertEquals(SagaState.COMPENSATED, saga.getState());
+    verify(inventoryClient).updateStock(1L, 2, "ORDER_ROLLBACK", "order-saga-70-reserve-1-release");
+    verify(inventoryClient, never()).updateStock(eq(2L), anyInt(), anyString(), anyString());
+    assertEquals(SagaStepStatus.COMPENSATED, step(SagaStepType.RESERVE, 1L).getStatus());
+  }
+
+  @Test
+  void advance_WhenAnotherRunnerTookOver_ShouldStop() {
+    orchestrator.start(order);
+    OrderSaga saga = saga(SagaState.STARTED);
+    when(sagaRepository.save(saga)).thenThrow(new OptimisticLockingFailureException("stale saga"));
+
+    assertSame(saga, orchestrator.advance(saga));
+
+    verifyNoInteractions(notificationClient);
+    verify(inventoryClient, never()).confirmReservation(anyLong());
+    verify(inventoryClient, never()).releaseReservation(anyLong());
+  }
+
+  @Test
+  void start_WhenSagaIsHeldElsewhere_ShouldNotRunIt() {
+    OrderSaga existing = new OrderSaga();
+    existing.setId(70L);
+    existing.setState(SagaState.STARTED);
+    existing.setNextAttemptAt(Instant.now().plusSeconds(20));
+    when(sagaRepository.findByOrderId(7L)).thenReturn(Optional.of(existing));
+
+    assertTrue(orchestrator.start(order).isEmpty());
+    verify(sagaRepository, never()).save(any(OrderSaga.class));
+    verify(stepRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void start_WhenSagaExistsAndIsDue_ShouldLeaseIt() {
+    OrderSaga existing = new OrderSaga();
+    existing.setId(70L);
+    existing.setState(SagaState.STARTED);
+    existing.setNextAttemptAt(Instant.now().minusSeconds(1));
+    when(sagaRepository.findByOrderId(7L)).thenReturn(Optional.of(existing));
+
+    assertSame(existing, orchestrator.start(order).orElseThrow());
+    assertTrue(existing.getNextAttemptAt().isAfter(Instant.now()));
+    verify(stepRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void claimDue_ShouldExtendLease() {
+    OrderSaga due = new OrderSaga();
+    due.setNextAttemptAt(Instant.now().minusSeconds(60));
+    when(sagaRepository.lockDue(any(Instant.class), eq(50))).thenReturn(List.of(due));
+
+    assertEquals(1, orchestrator.claimDue(50).size());
+    assertTrue(due.getNextAttemptAt().isAfter(Instant.now()));
+  }
+}
@@ -0,0 +1,139 @@
+package com.arka.order.service;
+
+import com.arka.order.dto.OrderStatusView;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderSaga;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.model.SagaState;
+import com.arka.order.repository.OrderRepository;
+import com.arka.order.repository.OrderSagaRepository;
+import com.arka.order.saga.OrderSagaOrchestrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncOrderServiceTest {
+
+  @Mock
+  private OrderService orderService;
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private OrderSagaRepository sagaRepository;
+
+  @Mock
+  private OrderSagaOrchestrator orchestrator;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  private AsyncOrderService service;
+  private Order order;
+  private OrderSaga saga;
+
+  @BeforeEach
+  void setUp() {
+    service = new AsyncOrderService(orderService, orderRepository, sagaRepository, orchestrator, transactionTemplate, 1, 1);
+    lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+      TransactionCallback<?> callback = inv.getArgument(0);
+      return callback.doInTransaction(null);
+    });
+    order = new Order();
+    order.setId(5L);
+    order.setStatus(OrderStatus.PENDING);
+    saga = new OrderSaga();
+    saga.setId(50L);
+    saga.setOrderId(5L);
+    saga.setState(SagaState.STARTED);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.destroy();
+  }
+
+  @Test
+  void accept_ShouldReturnBeforeSagaRuns() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    when(orderService.acceptOrder(order)).thenReturn(order);
+    when(orchestrator.start(order)).thenReturn(Optional.of(saga));
+    when(orchestrator.advance(saga)).thenAnswer(inv -> {
+      assertTrue(release.await(1, TimeUnit.SECONDS));
+      return saga;
+    });
+
+    Order accepted = service.accept(order);
+
+    assertEquals(OrderStatus.PENDING, accepted.getStatus());
+    release.countDown();
+    verify(orchestrator, timeout(1000)).advance(saga);
+  }
+
+  @Test
+  void accept_ShouldStoreOrderAndSagaInOneTransaction() {
+    when(orderService.acceptOrder(order)).thenReturn(order);
+    when(orchestrator.start(order)).thenThrow(new IllegalStateException("db down"));
+
+    assertThrows(IllegalStateException.class, () -> service.accept(order));
+
+    verify(transactionTemplate).execute(any());
+    verify(orchestrator, never()).advance(any(OrderSaga.class));
+  }
+
+  @Test
+  void accept_WhenWorkersSaturated_ShouldLeaveSagaForRecovery() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    when(orderService.acceptOrder(order)).thenReturn(order);
+    when(orchestrator.start(order)).thenReturn(Optional.of(saga));
+    when(orchestrator.advance(saga)).thenAnswer(inv -> {
+      release.await(1, TimeUnit.SECONDS);
+      return saga;
+    });
+
+    // one running, one queued, the third is rejected but still accepted
+    service.accept(order);
+    service.accept(order);
+    assertDoesNotThrow(() -> service.accept(order));
+    verify(orchestrator, times(3)).start(order);
+    release.countDown();
+    verify(orchestrator, timeout(1000).times(2)).advance(saga);
+  }
+
+  @Test
+  void status_ShouldCombineOrderAndSaga() {
+    saga.setAttempts(2);
+    saga.setLastError("Service Unavailable");
+    when(orderRepository.findById(5L)).thenReturn(Optional.of(order));
+    when(sagaRepository.findByOrderId(5L)).thenReturn(Optional.of(saga));
+
+    OrderStatusView view = service.status(5L).orElseThrow();
+
+    assertEquals(new OrderStatusView(5L, OrderStatus.PENDING, SagaState.STARTED, 2, "Service Unavailable"), view);
+    assertFalse(view.isFinal());
+  }
+
+  @Test
+  void status_WithoutSaga_ShouldBeFinalOnceConfirmed() {
+    order.setStatus(OrderStatus.CONFIRMED);
+    when(orderRepository.findById(5L)).thenReturn(Optional.of(order));
+    when(sagaRepository.findByOrderId(5L)).thenReturn(Optional.empty());
+
+    assertTrue(service.status(5L).orElseThrow().isFinal());
+  }
+}
@@ -0,0 +1,151 @@
+package com.arka.order.service;
+
+import com.arka.order.model.IdempotencyRecord;
+import com.arka.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+  @Mock
+  private IdempotencyRecordRepository repository;
+
+  private IdempotencyService service;
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    service = new IdempotencyService(repository, new ObjectMapper(), 24, 60000, 100);
+  }
+
+  private ResponseEntity<?> created() {
+    calls.incrementAndGet();
+    return ResponseEntity.status(201).body(Map.of("id", 1));
+  }
+
+  @Test
+  void execute_WithoutKey_ShouldJustRun() {
+    service.execute(null, "POST /api/orders", List.of(1), this::created);
+
+    assertEquals(1, calls.get());
+    verifyNoInteractions(repository);
+  }
+
+  @Test
+  void execute_FirstRequest_ShouldStoreResponse() {
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(1);
+
+    ResponseEntity<?> response = service.execute("k1", "POST /api/orders", List.of(1), this::created);
+
+    assertEquals(201, response.getStatusCode().value());
+    verify(repository).complete(eq("k1"), eq(201), eq("application/json"), isNull(), eq("{\"id\":1}"), any());
+  }
+
+  @Test
+  void execute_RetryOnOtherInstance_ShouldReplayStoredResponseWithoutRunning() {
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(1);
+    service.execute("k1", "POST /api/orders", List.of(1), this::created);
+    String hash = captureHash();
+
+    IdempotencyService otherInstance = new IdempotencyService(repository, new ObjectMapper(), 24, 60000, 100);
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(0);
+    IdempotencyRecord stored = new IdempotencyRecord();
+    stored.setIdempotencyKey("k1");
+    stored.setRequestHash(hash);
+    stored.setResponseStatus(201);
+    stored.setResponseContentType("application/json");
+    stored.setResponseBody("{\"id\":1}");
+    stored.setExpiresAt(Instant.now().plusSeconds(3600));
+    when(repository.findById("k1")).thenReturn(Optional.of(stored));
+
+    ResponseEntity<?> replayed = otherInstance.execute("k1", "POST /api/orders", List.of(1), this::created);
+
+    assertEquals(201, replayed.getStatusCode().value());
+    assertEquals("{\"id\":1}", replayed.getBody());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void execute_SameKeyDifferentBody_ShouldReturn422() {
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(1);
+    service.execute("k1", "POST /api/orders", List.of(1), this::created);
+
+    ResponseEntity<?> response = service.execute("k1", "POST /api/orders", List.of(2), this::created);
+
+    assertEquals(422, response.getStatusCode().value());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void execute_WhileFirstStillRunning_ShouldReturn409() {
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(0);
+    IdempotencyRecord running = new IdempotencyRecord();
+    running.setRequestHash("whatever");
+    when(repository.findById("k1")).thenReturn(Optional.of(running));
+
+    ResponseEntity<?> response = service.execute("k1", "POST /api/orders", List.of(1), this::created);
+
+    assertEquals(409, response.getStatusCode().value());
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void execute_ServerError_ShouldReleaseKey() {
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(1);
+
+    ResponseEntity<?> response = service.execute("k1", "PATCH /api/orders/1", List.of(1),
+      () -> ResponseEntity.status(500).body("Failed to modify order"));
+
+    assertEquals(500, response.getStatusCode().value());
+    verify(repository).deleteById("k1");
+    verify(repository, never()).complete(anyString(), anyInt(), any(), any(), any(), any());
+  }
+
+  @Test
+  void execute_ReservationConflict_ShouldReleaseKeySoTheClientCanRetry() {
+    when(repository.claim(eq("k1"), anyString(), any(), any())).thenReturn(1);
+
+    ResponseEntity<?> response = service.execute("k1", "POST /api/orders", List.of(1),
+      () -> ResponseEntity.status(409).body("Reservation failed: Stock cannot be negative"));
+
+    assertEquals(409, response.getStatusCode().value());
+    verify(repository).deleteById("k1");
+    verify(repository, never()).complete(anyString(), anyInt(), any(), any(), any(), any());
+  }
+
+  @Test
+  void isFinal_ShouldKeepOnlySuccessesAndPermanentClientErrors() {
+    assertTrue(IdempotencyService.isFinal(HttpStatusCode.valueOf(201)));
+    assertTrue(IdempotencyService.isFinal(HttpStatusCode.valueOf(400)));
+    assertTrue(IdempotencyService.isFinal(HttpStatusCode.valueOf(404)));
+    assertFalse(IdempotencyService.isFinal(HttpStatusCode.valueOf(408)));
+    assertFalse(IdempotencyService.isFinal(HttpStatusCode.valueOf(409)));
+    assertFalse(IdempotencyService.isFinal(HttpStatusCode.valueOf(429)));
+    assertFalse(IdempotencyService.isFinal(HttpStatusCode.valueOf(503)));
+  }
+
+  private String captureHash() {
+    ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+    verify(repository).complete(eq("k1"), anyInt(), any(), any(), any(), any());
+    verify(repository, atLeastOnce()).claim(eq("k1"), hash.capture(), any(), any());
+    return hash.getValue();
+  }
+}
@@ -0,0 +1,197 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.dto.Reservation;
+import com.arka.order.dto.ReservationRequest;
+import com.arka.order.model.OrderItem;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReservationServiceTest {
+
+  @Mock
+  private InventoryClient inventoryClient;
+
+  private InventoryReservationService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new InventoryReservationService(inventoryClient, 8, 1000, 900);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.destroy();
+  }
+
+  private static List<OrderItem> items(long... productIds) {
+    List<OrderItem> items = new ArrayList<>();
+    for (long id : productIds) {
+      OrderItem it = new OrderItem();
+      it.setProductId(id);
+      it.setQuantity(2);
+      it.setPrice(10.0);
+      items.add(it);
+    }
+    return items;
+  }
+
+  private static Reservation hold(long productId, int qty) {
+    return new Reservation(100 + productId, productId, qty, "order-9-" + productId);
+  }
+
+  private static FeignException status(int status, String message) {
+    Request request = Request.create(Request.HttpMethod.POST, "/api/reservations", Map.of(), null, StandardCharsets.UTF_8, null);
+    return FeignException.errorStatus("InventoryClient#reserve",
+      feign.Response.builder().status(status).reason(message).request(request).headers(Map.of()).build());
+  }
+
+  private void holdEverything() {
+    lenient().when(inventoryClient.reserve(any(ReservationRequest.class))).thenAnswer(inv -> {
+      ReservationRequest req = inv.getArgument(0);
+      return hold(req.getProductId(), req.getQuantity());
+    });
+  }
+
+  @Test
+  void reserveAll_ShouldHoldLinesConcurrently() throws Exception {
+    CountDownLatch allStarted = new CountDownLatch(4);
+    when(inventoryClient.reserve(any(ReservationRequest.class))).thenAnswer(inv -> {
+      allStarted.countDown();
+      // only returns once every line is in flight at the same time
+      assertTrue(allStarted.await(1, TimeUnit.SECONDS));
+      ReservationRequest req = inv.getArgument(0);
+      return hold(req.getProductId(), req.getQuantity());
+    });
+
+    Map<Long, Reservation> holds = service.reserveAll(9L, items(1, 2, 3, 4));
+
+    assertEquals(4, holds.size());
+    verify(inventoryClient, times(4)).reserve(argThat(r -> r.getQuantity() == 2 && r.getTtlSeconds() == 900L
+      && ("order-9-" + r.getProductId()).equals(r.getReference())));
+    verify(inventoryClient, never()).releaseReservation(anyLong());
+  }
+
+  @Test
+  void reserveAll_ShouldMergeQuantitiesPerProduct() {
+    holdEverything();
+
+    Map<Long, Reservation> holds = service.reserveAll(9L, items(1, 1));
+
+    assertEquals(Set.of(1L), holds.keySet());
+    verify(inventoryClient).reserve(argThat(r -> r.getProductId() == 1L && r.getQuantity() == 4));
+  }
+
+  @Test
+  void reserveAll_OnFailure_ShouldReleaseOnlyHeldLines() {
+    holdEverything();
+    lenient().when(inventoryClient.reserve(argThat(r -> r != null && r.getProductId() == 2L)))
+      .thenThrow(new RuntimeException("Insufficient stock available"));
+
+    InventoryReservationException ex = assertThrows(InventoryReservationException.class,
+      () -> service.reserveAll(9L, items(1, 2, 3)));
+
+    assertTrue(ex.getMessage().contains("Insufficient stock available"));
+    verify(inventoryClient, timeout(1000)).releaseReservation(101L);
+    verify(inventoryClient, timeout(1000)).releaseReservation(103L);
+    verify(inventoryClient, never()).releaseReservation(102L);
+  }
+
+  @Test
+  void reserveAll_WhenHoldRequestTimesOut_ShouldSettleAndReleaseIt() {
+    holdEverything();
+    // the hold was made, but its response never arrived
+    lenient().when(inventoryClient.reserve(argThat(r -> r != null && r.getProductId() == 2L)))
+      .thenThrow(status(504, "Gateway Timeout"))
+      .thenReturn(hold(2L, 2));
+
+    assertThrows(InventoryReservationException.class, () -> service.reserveAll(9L, items(1, 2)));
+
+    verify(inventoryClient, timeout(1000).times(2)).reserve(argThat(r -> r != null && "order-9-2".equals(r.getReference())));
+    verify(inventoryClient, timeout(1000)).releaseReservation(102L);
+    verify(inventoryClient, timeout(1000)).releaseReservation(101L);
+  }
+
+  @Test
+  void reserveAll_WhenInventoryRefusesLine_ShouldNotSettleIt() {
+    holdEverything();
+    lenient().when(inventoryClient.reserve(argThat(r -> r != null && r.getProductId() == 2L)))
+      .thenThrow(status(400, "Insufficient stock available"));
+
+    assertThrows(InventoryReservationException.class, () -> service.reserveAll(9L, items(1, 2)));
+
+    verify(inventoryClient, timeout(1000)).releaseReservation(101L);
+    verify(inventoryClient, times(1)).reserve(argThat(r -> r != null && r.getProductId() == 2L));
+    verify(inventoryClient, never()).releaseReservation(102L);
+  }
+
+  @Test
+  void reserveAll_OnDeadline_ShouldReleaseLateHolds() {
+    service = new InventoryReservationService(inventoryClient, 8, 100, 900);
+    when(inventoryClient.reserve(any(ReservationRequest.class))).thenAnswer(inv -> {
+      Thread.sleep(300);
+      return hold(1L, 2);
+    });
+
+    assertThrows(InventoryReservationException.class, () -> service.reserveAll(9L, items(1)));
+
+    // the hold completed after the abort, so it is released when it lands
+    verify(inventoryClient, timeout(2000)).releaseReservation(101L);
+  }
+
+  @Test
+  void confirmAll_ShouldConfirmEveryHold() {
+    service.confirmAll(9L, Map.of(1L, hold(1L, 2), 2L, hold(2L, 2)));
+
+    verify(inventoryClient).confirmReservation(101L);
+    verify(inventoryClient).confirmReservation(102L);
+  }
+
+  @Test
+  void confirmAll_WhenAHoldLapsed_ShouldFail() {
+    lenient().when(inventoryClient.confirmReservation(102L)).thenThrow(status(409, "Reservation has expired"));
+
+    assertThrows(InventoryReservationException.class,
+      () -> service.confirmAll(9L, Map.of(1L, hold(1L, 2), 2L, hold(2L, 2))));
+  }
+
+  @Test
+  void releaseAll_WhenHoldWasConfirmed_ShouldPutStockBack() {
+    lenient().when(inventoryClient.releaseReservation(101L)).thenThrow(status(409, "Reservation is CONFIRMED"));
+
+    List<Long> unreleased = service.releaseAll(9L, Map.of(1L, hold(1L, 2), 2L, hold(2L, 2)));
+
+    assertTrue(unreleased.isEmpty());
+    verify(inventoryClient).updateStock(1L, 2, "compensate-order-9", "order-9-1-release");
+    verify(inventoryClient).releaseReservation(102L);
+    verify(inventoryClient, never()).updateStock(eq(2L), anyInt(), anyString(), anyString());
+  }
+
+  @Test
+  void releaseAll_ShouldReportFailedLines() {
+    lenient().when(inventoryClient.releaseReservation(102L)).thenThrow(new RuntimeException("down"));
+
+    List<Long> unreleased = service.releaseAll(9L, Map.of(1L, hold(1L, 1), 2L, hold(2L, 1)));
+
+    assertEquals(List.of(2L), unreleased);
+  }
+}
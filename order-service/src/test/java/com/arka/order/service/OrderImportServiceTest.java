@@ -0,0 +1,238 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.clients.NotificationClient;
+import com.arka.order.dto.ImportResult;
+import com.arka.order.dto.StockAdjustment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderImportServiceTest {
+
+  @Mock
+  private InventoryClient inventoryClient;
+
+  @Mock
+  private NotificationClient notificationClient;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Mock
+  private SalesRollupService salesRollups;
+
+  @Mock
+  private StockSettlementService settlements;
+
+  private OrderImportService service;
+  private final List<List<ImportResult>> chunks = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    service = newService(500);
+    lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+      TransactionCallback<?> callback = inv.getArgument(0);
+      return callback.doInTransaction(null);
+    });
+    lenient().when(jdbcTemplate.queryForList(eq(OrderImportService.NEXT_ORDER_IDS), eq(Long.class), any(Object[].class)))
+      .thenAnswer(inv -> LongStream.rangeClosed(101, 100 + (int) inv.getArgument(2)).boxed().toList());
+  }
+
+  private OrderImportService newService(int chunkSize) {
+    return new OrderImportService(new ObjectMapper(), inventoryClient, notificationClient, jdbcTemplate,
+      transactionTemplate, salesRollups, settlements, chunkSize, 3, 0);
+  }
+
+  private List<ImportResult> run(OrderImportService.Format format, String body) throws Exception {
+    service.importOrders(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, chunks::add);
+    return chunks.stream().flatMap(List::stream).toList();
+  }
+
+  private static String ndjson(String email, long productId, int qty) {
+    return "{\"customerEmail\":\"" + email + "\",\"items\":[{\"productId\":" + productId + ",\"quantity\":" + qty + ",\"price\":2.5}]}\n";
+  }
+
+  private static FeignException status(int status) {
+    Request request = Request.create(Request.HttpMethod.PUT, "/api/products/stock/batch", Map.of(), null, StandardCharsets.UTF_8, null);
+    return FeignException.errorStatus("InventoryClient#updateStockBatch",
+      feign.Response.builder().status(status).reason("error").request(request).headers(Map.of()).build());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void importOrders_ShouldReserveEachProductOnceAndInsertInBatches() throws Exception {
+    String body = ndjson("a@x.com", 1L, 2) + "not json\n" + ndjson("b@x.com", 1L, 3)
+      + "{\"ref\":\"po-9\",\"customerEmail\":\"\",\"items\":[]}\n" + ndjson("a@x.com", 2L, 1);
+
+    List<ImportResult> results = run(OrderImportService.Format.NDJSON, body);
+
+    ArgumentCaptor<List<StockAdjustment>> adjustments = ArgumentCaptor.forClass(List.class);
+    verify(inventoryClient).updateStockBatch(adjustments.capture(), anyString());
+    assertEquals(2, adjustments.getValue().size());
+    assertEquals(1L, adjustments.getValue().get(0).getProductId());
+    assertEquals(-5, adjustments.getValue().get(0).getDelta());
+    assertEquals(-1, adjustments.getValue().get(1).getDelta());
+
+    ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(OrderImportService.INSERT_ORDER), rows.capture());
+    assertEquals(3, rows.getValue().size());
+    assertArrayEquals(new Object[]{101L, "a@x.com"}, new Object[]{rows.getValue().get(0)[0], rows.getValue().get(0)[1]});
+    verify(jdbcTemplate).batchUpdate(eq(OrderImportService.INSERT_ITEM), anyList());
+    verify(salesRollups).ordersConfirmed(argThat(orders -> orders.size() == 3));
+
+    assertEquals(List.of(1, 2, 3, 4, 5), results.stream().map(ImportResult::line).toList());
+    assertEquals(101L, results.get(0).orderId());
+    assertEquals("REJECTED", results.get(1).status());
+    assertEquals("CONFIRMED", results.get(2).status());
+    assertEquals("po-9", results.get(3).ref());
+    assertEquals("customerEmail is required", results.get(3).error());
+    // one EMAIL_BATCH for the chunk, one message per customer
+    verify(notificationClient).send(argThat(payload -> "EMAIL_BATCH".equals(payload.get("type"))
+      && ((List<?>) payload.get("messages")).size() == 2));
+  }
+
+  @Test
+  void importOrders_ShouldGroupCsvRowsByRef() throws Exception {
+    String body = OrderImportService.CSV_HEADER + "\n"
+      + "A,a@x.com,1,2,10\n"
+      + "A,a@x.com,2,1,5\n"
+      + ",b@x.com,1,1,10\n"
+      + "C,c@x.com,1,two,10\n";
+
+    List<ImportResult> results = run(OrderImportService.Format.CSV, body);
+
+    assertEquals(3, results.size());
+    assertEquals("A", results.get(0).ref());
+    assertEquals(2, results.get(0).line());
+    assertEquals("CONFIRMED", results.get(1).status());
+    assertEquals("REJECTED", results.get(2).status());
+    assertTrue(results.get(2).error().startsWith("Line 5"));
+    verify(inventoryClient).updateStockBatch(argThat(adj -> adj.size() == 2 && adj.get(0).getDelta() == -3), anyString());
+  }
+
+  @Test
+  void importOrders_ShouldRejectOnlyOrdersWithShortProducts_WhenBatchIsRefused() throws Exception {
+    onlyFiveInStock(2L);
+    String body = ndjson("a@x.com", 1L, 2)
+      + "{\"customerEmail\":\"b@x.com\",\"items\":[{\"productId\":1,\"quantity\":4,\"price\":1},{\"productId\":2,\"quantity\":9,\"price\":1}]}\n";
+
+    List<ImportResult> results = run(OrderImportService.Format.NDJSON, body);
+
+    assertEquals("CONFIRMED", results.get(0).status());
+    assertEquals("REJECTED", results.get(1).status());
+    assertEquals("Insufficient stock for product 2", results.get(1).error());
+    verify(inventoryClient).updateStock(eq(1L), eq(-6), anyString(), endsWith("-product-1"));
+    // the 4 units of product 1 taken for the rejected order go back
+    verify(inventoryClient).updateStockBatch(argThat(adj -> adj.size() == 1 && adj.get(0).getProductId() == 1L && adj.get(0).getDelta() == 4), anyString());
+  }
+
+  @Test
+  void importOrders_ShouldServeShortProductOrderByOrder_InInputOrder() throws Exception {
+    onlyFiveInStock(2L);
+    String body = ndjson("a@x.com", 2L, 3) + ndjson("b@x.com", 2L, 9) + ndjson("c@x.com", 2L, 2);
+
+    List<ImportResult> results = run(OrderImportService.Format.NDJSON, body);
+
+    assertEquals(List.of("CONFIRMED", "REJECTED", "CONFIRMED"), results.stream().map(ImportResult::status).toList());
+    assertEquals("Insufficient stock for product 2", results.get(1).error());
+    verify(inventoryClient).updateStockBatch(argThat(adj -> adj.size() == 1 && adj.get(0).getDelta() == -3), anyString());
+    verify(inventoryClient).updateStockBatch(argThat(adj -> adj.size() == 1 && adj.get(0).getDelta() == -2), anyString());
+    // nothing of product 2 was taken for the rejected order, so nothing goes back
+    verify(inventoryClient, never()).updateStockBatch(argThat(adj -> adj.stream().anyMatch(x -> x.getDelta() > 0)), anyString());
+  }
+
+  /** Inventory refuses to take more than five units of the product at once, in single updates and batches. */
+  private void onlyFiveInStock(Long productId) {
+    lenient().doThrow(status(400)).when(inventoryClient).updateStockBatch(
+      argThat(adj -> adj.stream().anyMatch(x -> x.getProductId().equals(productId) && x.getDelta() < -5)), anyString());
+    lenient().doThrow(status(400)).when(inventoryClient).updateStock(eq(productId), intThat(d -> d < -5), anyString(), anyString());
+  }
+
+  @Test
+  void importOrders_ShouldRejectChunkAndSettleLater_WhenInventoryStaysUnavailable() throws Exception {
+    doThrow(status(503)).when(inventoryClient).updateStockBatch(anyList(), anyString());
+
+    List<ImportResult> results = run(OrderImportService.Format.NDJSON, ndjson("a@x.com", 1L, 2) + ndjson("b@x.com", 2L, 1));
+
+    assertTrue(results.stream().allMatch(r -> "REJECTED".equals(r.status()) && r.error().startsWith("Inventory unavailable")));
+    ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+    verify(inventoryClient, times(3)).updateStockBatch(anyList(), keys.capture());
+    assertEquals(1, keys.getAllValues().stream().distinct().count());
+    // the batch may have applied: it is handed over to be repeated and given back
+    verify(settlements).record(eq(keys.getValue()), argThat(adj -> adj.size() == 2), eq(true));
+    verify(inventoryClient, never()).updateStock(anyLong(), anyInt(), anyString(), anyString());
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  void importOrders_ShouldConfirmOrders_WhenBatchCommittedButResponseTimedOut() throws Exception {
+    // The first call commits in inventory but its response is lost; the repeat with the same key is a no-op there.
+    doThrow(status(504)).doNothing().when(inventoryClient).updateStockBatch(anyList(), anyString());
+
+    List<ImportResult> results = run(OrderImportService.Format.NDJSON, ndjson("a@x.com", 1L, 2));
+
+    assertEquals("CONFIRMED", results.get(0).status());
+    ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+    verify(inventoryClient, times(2)).updateStockBatch(anyList(), keys.capture());
+    assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+    assertTrue(keys.getValue().endsWith("-batch"));
+    verifyNoInteractions(settlements);
+  }
+
+  @Test
+  void importOrders_ShouldSettleRelease_WhenItGoesUnanswered() throws Exception {
+    when(jdbcTemplate.batchUpdate(eq(OrderImportService.INSERT_ORDER), anyList())).thenThrow(new RuntimeException("db down"));
+    lenient().doThrow(status(504)).when(inventoryClient).updateStockBatch(argThat(adj -> adj.get(0).getDelta() > 0), anyString());
+
+    run(OrderImportService.Format.NDJSON, ndjson("a@x.com", 1L, 2));
+
+    verify(inventoryClient, times(3)).updateStockBatch(argThat(adj -> adj.get(0).getDelta() == 2), endsWith("-unstored"));
+    verify(settlements).record(endsWith("-unstored"), argThat(adj -> adj.get(0).getDelta() == 2), eq(false));
+  }
+
+  @Test
+  void importOrders_ShouldReleaseStock_WhenOrdersCannotBeStored() throws Exception {
+    when(jdbcTemplate.batchUpdate(eq(OrderImportService.INSERT_ORDER), anyList())).thenThrow(new RuntimeException("db down"));
+
+    List<ImportResult> results = run(OrderImportService.Format.NDJSON, ndjson("a@x.com", 1L, 2));
+
+    assertEquals("REJECTED", results.get(0).status());
+    verify(inventoryClient).updateStockBatch(argThat(adj -> adj.get(0).getDelta() == 2), anyString());
+    verify(notificationClient, never()).send(anyMap());
+  }
+
+  @Test
+  void importOrders_ShouldHandOutResultsPerChunk() throws Exception {
+    service = newService(2);
+
+    run(OrderImportService.Format.NDJSON, ndjson("a@x.com", 1L, 1) + ndjson("a@x.com", 1L, 1) + ndjson("a@x.com", 1L, 1));
+
+    assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+    verify(inventoryClient, times(2)).updateStockBatch(anyList(), anyString());
+  }
+}
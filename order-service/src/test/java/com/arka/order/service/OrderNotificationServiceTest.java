@@ -0,0 +1,58 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.NotificationClient;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderNotificationServiceTest {
+
+  @Mock
+  private NotificationClient notificationClient;
+
+  private static List<Order> orders(int count) {
+    return LongStream.rangeClosed(1, count).mapToObj(id -> {
+      Order order = new Order();
+      order.setId(id);
+      order.setCustomerEmail("c" + id + "@x.com");
+      order.setTotal(10.0);
+      return order;
+    }).toList();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void notifyStatusChanges_ShouldSplitIntoBatchesOfBatchSize() {
+    OrderNotificationService service = new OrderNotificationService(notificationClient, 2);
+
+    service.notifyStatusChanges(orders(5), OrderStatus.IN_TRANSIT);
+
+    ArgumentCaptor<Map<String, Object>> payloads = ArgumentCaptor.forClass(Map.class);
+    verify(notificationClient, times(3)).send(payloads.capture());
+    assertEquals(List.of(2, 2, 1), payloads.getAllValues().stream().map(p -> ((List<?>) p.get("messages")).size()).toList());
+    assertTrue(payloads.getAllValues().stream().allMatch(p -> "EMAIL_BATCH".equals(p.get("type"))));
+  }
+
+  @Test
+  void notifyStatusChanges_ShouldSendRemainingBatches_WhenOneFails() {
+    OrderNotificationService service = new OrderNotificationService(notificationClient, 2);
+    doThrow(new RuntimeException("503")).doNothing().when(notificationClient).send(anyMap());
+
+    service.notifyStatusChanges(orders(3), OrderStatus.DELIVERED);
+
+    verify(notificationClient, times(2)).send(anyMap());
+  }
+}
@@ -2,8 +2,13 @@ package com.arka.order.service;
 
 import com.arka.order.clients.InventoryClient;
 import com.arka.order.clients.NotificationClient;
+import com.arka.order.dto.OrderCursor;
+import com.arka.order.dto.OrderPage;
+import com.arka.order.dto.OrderSummary;
+import com.arka.order.dto.Reservation;
 import com.arka.order.model.Order;
 import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
 import com.arka.order.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,9 +16,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +40,12 @@ class OrderServiceTest {
   @Mock
   private NotificationClient notificationClient;
 
+  @Mock
+  private InventoryReservationService inventoryReservations;
+
+  @Mock
+  private SalesRollupService salesRollups;
+
   @InjectMocks
   private OrderService orderService;
 
@@ -43,7 +57,7 @@ class OrderServiceTest {
     testOrder = new Order();
     testOrder.setId(1L);
     // Removido setUserId() - no existe en la clase Order
-    testOrder.setStatus("PENDING");
+    testOrder.setStatus(OrderStatus.PENDING);
     testOrder.setCustomerEmail("test@example.com");
     
     testItem = new OrderItem();
@@ -59,34 +73,52 @@ class OrderServiceTest {
   @Test
   void createOrder_ShouldCreateAndConfirm_WhenStockAvailable() {
     when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-    // inventoryClient.updateStock() retorna void, no boolean
-    doNothing().when(inventoryClient).updateStock(anyLong(), anyInt(), anyString());
+    Map<Long, Reservation> holds = Map.of(1L, new Reservation(11L, 1L, 2, "order-1-1"));
+    when(inventoryReservations.reserveAll(eq(1L), anyList())).thenReturn(holds);
 
     Order result = orderService.createOrder(testOrder);
 
     assertNotNull(result);
+    assertEquals(OrderStatus.CONFIRMED, result.getStatus());
     verify(orderRepository, atLeastOnce()).save(any(Order.class));
-    verify(inventoryClient, times(1)).updateStock(anyLong(), anyInt(), anyString());
+    verify(inventoryReservations, times(1)).reserveAll(eq(1L), anyList());
+    verify(inventoryReservations).confirmAll(1L, holds);
+    verify(inventoryReservations, never()).releaseAll(anyLong(), anyMap());
+  }
+
+  @Test
+  void createOrder_ShouldReleaseHolds_WhenConfirmationFails() {
+    when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+    Map<Long, Reservation> holds = Map.of(1L, new Reservation(11L, 1L, 2, "order-1-1"));
+    when(inventoryReservations.reserveAll(eq(1L), anyList())).thenReturn(holds);
+    doThrow(new InventoryReservationException("Reservation has expired"))
+        .when(inventoryReservations).confirmAll(1L, holds);
+
+    assertThrows(RuntimeException.class, () -> orderService.createOrder(testOrder));
+
+    verify(inventoryReservations).releaseAll(1L, holds);
   }
 
   @Test
   void createOrder_ShouldCancel_WhenStockNotAvailable() {
     when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
     // Simular excepción cuando falla la reserva de inventario
-    doThrow(new RuntimeException("Stock not available"))
-        .when(inventoryClient).updateStock(anyLong(), anyInt(), anyString());
+    when(inventoryReservations.reserveAll(eq(1L), anyList()))
+        .thenThrow(new InventoryReservationException("Stock not available"));
 
     assertThrows(RuntimeException.class, () -> orderService.createOrder(testOrder));
 
+    assertEquals(OrderStatus.CANCELLED, testOrder.getStatus());
     verify(orderRepository, atLeastOnce()).save(any(Order.class));
+    // reserveAll ya liberó las líneas reservadas
+    verify(inventoryClient, never()).updateStock(anyLong(), anyInt(), anyString());
   }
 
   @Test
   void modifyOrder_ShouldUpdateItems_WhenPending() {
-    testOrder.setStatus("PENDING");
-    when(orderRepository.findById(anyLong())).thenReturn(Optional.of(testOrder));
+    testOrder.setStatus(OrderStatus.PENDING);
+    when(orderRepository.findWithItemsById(anyLong())).thenReturn(Optional.of(testOrder));
     when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-    doNothing().when(inventoryClient).updateStock(anyLong(), anyInt(), anyString());
 
     List<OrderItem> newItems = new ArrayList<>();
     OrderItem newItem = new OrderItem();
@@ -99,12 +131,32 @@ class OrderServiceTest {
 
     assertNotNull(result);
     verify(orderRepository, times(1)).save(any(Order.class));
+    // 2 -> 5 reserva 3 unidades adicionales en una sola llamada batch
+    verify(inventoryClient, times(1)).updateStockBatch(argThat(adj ->
+        adj.size() == 1 && adj.get(0).getProductId() == 1L && adj.get(0).getDelta() == -3));
+    verify(inventoryClient, never()).updateStock(anyLong(), anyInt(), anyString());
+  }
+
+  @Test
+  void modifyOrder_ShouldNotPersist_WhenBatchReservationFails() {
+    when(orderRepository.findWithItemsById(anyLong())).thenReturn(Optional.of(testOrder));
+    doThrow(new RuntimeException("Stock cannot be negative")).when(inventoryClient).updateStockBatch(anyList());
+
+    List<OrderItem> newItems = new ArrayList<>();
+    OrderItem newItem = new OrderItem();
+    newItem.setProductId(1L);
+    newItem.setQuantity(500);
+    newItem.setPrice(49.99);
+    newItems.add(newItem);
+
+    assertThrows(RuntimeException.class, () -> orderService.modifyOrder(1L, newItems));
+    verify(orderRepository, never()).save(any(Order.class));
   }
 
   @Test
   void modifyOrder_ShouldThrowException_WhenNotPending() {
-    testOrder.setStatus("CONFIRMED");
-    when(orderRepository.findById(anyLong())).thenReturn(Optional.of(testOrder));
+    testOrder.setStatus(OrderStatus.CONFIRMED);
+    when(orderRepository.findWithItemsById(anyLong())).thenReturn(Optional.of(testOrder));
 
     List<OrderItem> newItems = new ArrayList<>();
 
@@ -113,8 +165,43 @@ class OrderServiceTest {
 
   @Test
   void modifyOrder_ShouldThrowException_WhenNotFound() {
-    when(orderRepository.findById(anyLong())).thenReturn(Optional.empty());
+    when(orderRepository.findWithItemsById(anyLong())).thenReturn(Optional.empty());
 
     assertThrows(IllegalArgumentException.class, () -> orderService.modifyOrder(999L, new ArrayList<>()));
   }
-}
\ No newline at end of file
+
+  @Test
+  void listOrders_ShouldReturnCursorOfLastRow_WhenMoreRowsExist() {
+    Instant t = Instant.parse("2026-01-01T10:00:00.123456Z");
+    List<OrderSummary> rows = List.of(
+        new OrderSummary(3L, "a@b.c", t.plusSeconds(2), OrderStatus.CONFIRMED, 10),
+        new OrderSummary(2L, "a@b.c", t.plusSeconds(1), OrderStatus.CONFIRMED, 10),
+        new OrderSummary(1L, "a@b.c", t, OrderStatus.CONFIRMED, 10));
+    when(orderRepository.findSummariesByCustomerEmail(eq("a@b.c"), any(Pageable.class))).thenReturn(rows);
+
+    OrderPage page = orderService.listOrders("a@b.c", null, null, 2);
+
+    assertEquals(2, page.items().size());
+    assertEquals(new OrderCursor(t.plusSeconds(1), 2L), OrderCursor.parse(page.nextCursor()));
+    verify(orderRepository).findSummariesByCustomerEmail(eq("a@b.c"), argThat(p -> p.getPageSize() == 3));
+  }
+
+  @Test
+  void listOrders_ShouldContinueAfterCursor() {
+    OrderCursor cursor = new OrderCursor(Instant.parse("2026-01-01T10:00:00Z"), 7L);
+    when(orderRepository.findSummariesByCustomerEmailBefore(eq("a@b.c"), eq(cursor.createdAt()), eq(7L), any(Pageable.class)))
+        .thenReturn(List.of());
+
+    OrderPage page = orderService.listOrders("a@b.c", null, cursor.encode(), 50);
+
+    assertTrue(page.items().isEmpty());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void listOrders_ShouldRejectBadCursorAndLimit() {
+    assertThrows(IllegalArgumentException.class, () -> orderService.listOrders("a@b.c", null, "not-a-cursor", 50));
+    assertThrows(IllegalArgumentException.class, () -> orderService.listOrders("a@b.c", null, null, 0));
+    assertThrows(IllegalArgumentException.class, () -> orderService.listOrders(null, null, null, 50));
+  }
+}
@@ -0,0 +1,144 @@
+package com.arka.order.service;
+
+import com.arka.order.dto.BulkStatusResult;
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusServiceTest {
+
+  @Mock
+  private OrderRepository orderRepository;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Mock
+  private SalesRollupService salesRollups;
+
+  @Mock
+  private OrderNotificationService notifications;
+
+  private OrderStatusService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new OrderStatusService(orderRepository, jdbcTemplate, transactionTemplate, salesRollups, notifications, 3);
+    lenient().when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+      TransactionCallback<?> callback = inv.getArgument(0);
+      return callback.doInTransaction(null);
+    });
+  }
+
+  private static Order order(Long id, OrderStatus status) {
+    Order o = new Order();
+    o.setId(id);
+    o.setCustomerEmail("buyer@example.com");
+    o.setCreatedAt(Instant.parse("2024-05-06T14:37:12Z"));
+    o.setTotal(40.0);
+    o.setStatus(status);
+    return o;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void transitionAll_ShouldUpdateInOneStatementAndClassifyTheRest() throws Exception {
+    List<Order> moved = List.of(order(1L, OrderStatus.IN_TRANSIT));
+    when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(moved);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getLong("id")).thenReturn(2L, 3L);
+    when(rs.getString("status")).thenReturn("IN_TRANSIT", "PENDING");
+    doAnswer(inv -> {
+      RowCallbackHandler handler = inv.getArgument(1);
+      handler.processRow(rs);
+      handler.processRow(rs);
+      return null;
+    }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+    BulkStatusResult result = service.transitionAll(List.of(1L, 2L, 3L, 2L), OrderStatus.IN_TRANSIT);
+
+    assertEquals(List.of(1L), result.updated());
+    assertEquals(List.of(2L), result.unchanged());
+    assertEquals(Map.of(3L, OrderStatus.PENDING), result.rejected());
+    assertTrue(result.notFound().isEmpty());
+    verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+    verify(salesRollups).statusesChanged(moved, OrderStatus.CONFIRMED, OrderStatus.IN_TRANSIT);
+    verify(notifications, times(1)).notifyStatusChanges(moved, OrderStatus.IN_TRANSIT);
+    verify(notifications, never()).notifyOrderStatusChange(any(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void transitionAll_ShouldReportUnknownOrders() {
+    when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(List.of());
+
+    BulkStatusResult result = service.transitionAll(List.of(9L), OrderStatus.DELIVERED);
+
+    assertEquals(List.of(9L), result.notFound());
+    verify(salesRollups, never()).statusesChanged(anyList(), any(), any());
+  }
+
+  @Test
+  void transitionAll_ShouldRejectNonFulfilmentStatusAndOversizedBatches() {
+    assertThrows(IllegalArgumentException.class, () -> service.transitionAll(List.of(1L), OrderStatus.CANCELLED));
+    assertThrows(IllegalArgumentException.class, () -> service.transitionAll(List.of(1L, 2L, 3L, 4L), OrderStatus.IN_TRANSIT));
+    assertThrows(IllegalArgumentException.class, () -> service.transitionAll(List.of(), OrderStatus.IN_TRANSIT));
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void transition_ShouldMoveOrderAndNotify() {
+    Order o = order(1L, OrderStatus.CONFIRMED);
+    when(orderRepository.findById(1L)).thenReturn(Optional.of(o));
+    when(orderRepository.save(o)).thenReturn(o);
+
+    Order result = service.transition(1L, OrderStatus.IN_TRANSIT);
+
+    assertEquals(OrderStatus.IN_TRANSIT, result.getStatus());
+    verify(salesRollups).statusChanged(o, OrderStatus.CONFIRMED);
+    verify(notifications).notifyOrderStatusChange(o, OrderStatus.IN_TRANSIT);
+  }
+
+  @Test
+  void transition_ShouldRejectSkippedSteps() {
+    when(orderRepository.findById(1L)).thenReturn(Optional.of(order(1L, OrderStatus.CONFIRMED)));
+
+    assertThrows(IllegalStateException.class, () -> service.transition(1L, OrderStatus.DELIVERED));
+    verify(orderRepository, never()).save(any());
+    verifyNoInteractions(notifications);
+  }
+
+  @Test
+  void orderStatus_ShouldOnlyAllowForwardTransitions() {
+    assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.IN_TRANSIT));
+    assertFalse(OrderStatus.IN_TRANSIT.canTransitionTo(OrderStatus.CANCELLED));
+    assertFalse(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.IN_TRANSIT));
+    assertEquals(Set.of(OrderStatus.PENDING, OrderStatus.CONFIRMED), OrderStatus.CANCELLED.previous());
+  }
+}
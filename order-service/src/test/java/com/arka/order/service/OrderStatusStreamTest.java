@@ -0,0 +1,60 @@
+package com.arka.order.service;
+
+import com.arka.order.dto.OrderStatusView;
+import com.arka.order.model.OrderStatus;
+import com.arka.order.model.SagaState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusStreamTest {
+
+  private final OrderStatusStream stream = new OrderStatusStream(60000);
+
+  @Test
+  void subscribe_ToPendingOrder_ShouldStayOpenUntilFinalStatus() {
+    stream.subscribe(1L, () -> Optional.of(new OrderStatusView(1L, OrderStatus.PENDING, SagaState.STARTED, 0, null)));
+    assertEquals(1, stream.subscriberCount(1L));
+
+    stream.onStatusChanged(new OrderStatusView(1L, OrderStatus.PENDING, SagaState.RESERVED, 0, null));
+    assertEquals(1, stream.subscriberCount(1L));
+
+    stream.onStatusChanged(new OrderStatusView(1L, OrderStatus.CONFIRMED, SagaState.COMPLETED, 0, null));
+    assertEquals(0, stream.subscriberCount(1L));
+  }
+
+  @Test
+  void subscribe_ToFinishedOrder_ShouldCompleteImmediately() {
+    stream.subscribe(2L, () -> Optional.of(new OrderStatusView(2L, OrderStatus.CANCELLED, SagaState.COMPENSATED, 0, "Stock cannot be negative")));
+
+    assertEquals(0, stream.subscriberCount(2L));
+  }
+
+  @Test
+  void onStatusChanged_ForOtherOrder_ShouldNotTouchSubscribers() {
+    stream.subscribe(3L, () -> Optional.of(new OrderStatusView(3L, OrderStatus.PENDING, SagaState.STARTED, 0, null)));
+
+    stream.onStatusChanged(new OrderStatusView(4L, OrderStatus.CONFIRMED, SagaState.COMPLETED, 0, null));
+
+    assertEquals(1, stream.subscriberCount(3L));
+  }
+
+  @Test
+  void subscribe_WhenStatusTurnsFinalWhileSubscribing_ShouldComplete() {
+    // The saga finishes after the controller looked the order up but before the status is read.
+    stream.subscribe(5L, () -> {
+      assertEquals(1, stream.subscriberCount(5L));
+      return Optional.of(new OrderStatusView(5L, OrderStatus.CONFIRMED, SagaState.COMPLETED, 0, null));
+    });
+
+    assertEquals(0, stream.subscriberCount(5L));
+  }
+
+  @Test
+  void subscribe_ToUnknownOrder_ShouldNotRegister() {
+    assertTrue(stream.subscribe(6L, Optional::empty).isEmpty());
+    assertEquals(0, stream.subscriberCount(6L));
+  }
+}
@@ -0,0 +1,74 @@
+package com.arka.order.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesReportServiceTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private SalesReportService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new SalesReportService(jdbcTemplate);
+  }
+
+  @Test
+  void generateSalesReport_ShouldSumRollupsOverWholeHours() {
+    when(jdbcTemplate.queryForObject(contains("sales_hourly_customer"), eq(Double.class), any(), any())).thenReturn(120.5);
+    lenient().when(jdbcTemplate.query(contains("sales_hourly_product"), anyRowMapper(), any(), any()))
+      .thenReturn(List.of(Map.of("productId", 1L, "quantity", 7L)));
+    lenient().when(jdbcTemplate.query(contains("customer_email <> ''"), anyRowMapper(), any(), any()))
+      .thenReturn(List.of(Map.of("email", "buyer@example.com", "orders", 3L)));
+
+    Map<String, Object> report = service.generateSalesReport(
+      Instant.parse("2024-05-06T10:15:00Z"), Instant.parse("2024-05-06T12:05:00Z"));
+
+    assertEquals(Instant.parse("2024-05-06T10:00:00Z"), report.get("from"));
+    assertEquals(Instant.parse("2024-05-06T13:00:00Z"), report.get("to"));
+    assertEquals(120.5, report.get("totalSales"));
+    assertEquals(List.of(Map.of("productId", 1L, "quantity", 7L)), report.get("topProducts"));
+    assertEquals(0L, report.get("totalOrders"));
+    verify(jdbcTemplate).query(contains("sales_hourly_status"), any(RowCallbackHandler.class),
+      eq(Timestamp.from(Instant.parse("2024-05-06T10:00:00Z"))), eq(Timestamp.from(Instant.parse("2024-05-06T13:00:00Z"))));
+  }
+
+  @Test
+  void generateSalesReport_ShouldRejectInvertedRange() {
+    Instant now = Instant.now();
+    assertThrows(IllegalArgumentException.class, () -> service.generateSalesReport(now, now.minusSeconds(60)));
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void generateWeeklySalesReport_ShouldCoverSevenDays() {
+    Map<String, Object> report = service.generateWeeklySalesReport();
+
+    assertEquals("last_7_days", report.get("period"));
+    Instant from = (Instant) report.get("from");
+    Instant to = (Instant) report.get("to");
+    assertEquals(7 * 24, java.time.Duration.between(from, to).toHours());
+  }
+
+  private static RowMapper<Map<String, Object>> anyRowMapper() {
+    return any();
+  }
+}
@@ -0,0 +1,151 @@
+package com.arka.order.service;
+
+import com.arka.order.model.Order;
+import com.arka.order.model.OrderItem;
+import com.arka.order.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private SalesRollupService service;
+  private Order order;
+  private final Timestamp bucket = Timestamp.from(Instant.parse("2024-05-06T14:00:00Z"));
+
+  @BeforeEach
+  void setUp() {
+    service = new SalesRollupService(jdbcTemplate);
+    order = new Order();
+    order.setId(1L);
+    order.setCustomerEmail("buyer@example.com");
+    order.setCreatedAt(Instant.parse("2024-05-06T14:37:12Z"));
+    order.setItems(List.of(item(2L, 1, 5.0), item(1L, 2, 10.0), item(2L, 3, 5.0)));
+    order.setTotal(40.0);
+  }
+
+  private static OrderItem item(Long productId, int quantity, double price) {
+    OrderItem it = new OrderItem();
+    it.setProductId(productId);
+    it.setQuantity(quantity);
+    it.setPrice(price);
+    return it;
+  }
+
+  @Test
+  void orderPlaced_ShouldCountOrderInItsHourAndStatus() {
+    order.setStatus(OrderStatus.PENDING);
+
+    service.orderPlaced(order);
+
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "PENDING", 1, 40.0);
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  void statusChanged_ToConfirmed_ShouldMoveStatusCountAndRecordSale() {
+    order.setStatus(OrderStatus.CONFIRMED);
+
+    service.statusChanged(order, OrderStatus.PENDING);
+
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "PENDING", -1, -40.0);
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "CONFIRMED", 1, 40.0);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(SalesRollupService.UPSERT_PRODUCT), rows.capture());
+    // one row per product, merged and in id order
+    assertEquals(2, rows.getValue().size());
+    assertArrayEquals(new Object[]{bucket, 1L, 2L, 20.0}, rows.getValue().get(0));
+    assertArrayEquals(new Object[]{bucket, 2L, 4L, 20.0}, rows.getValue().get(1));
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_CUSTOMER, bucket, "buyer@example.com", 1, 40.0);
+  }
+
+  @Test
+  void statusChanged_ToCancelled_ShouldNotRecordSale() {
+    order.setStatus(OrderStatus.CANCELLED);
+
+    service.statusChanged(order, OrderStatus.PENDING);
+
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "CANCELLED", 1, 40.0);
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    verify(jdbcTemplate, never()).update(eq(SalesRollupService.UPSERT_CUSTOMER), any(Object[].class));
+  }
+
+  @Test
+  void statusChanged_FromConfirmedToCancelled_ShouldTakeSaleOut() {
+    order.setStatus(OrderStatus.CANCELLED);
+
+    service.statusChanged(order, OrderStatus.CONFIRMED);
+
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "CONFIRMED", -1, -40.0);
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "CANCELLED", 1, 40.0);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(SalesRollupService.UPSERT_PRODUCT), rows.capture());
+    assertArrayEquals(new Object[]{bucket, 1L, -2L, -20.0}, rows.getValue().get(0));
+    assertArrayEquals(new Object[]{bucket, 2L, -4L, -20.0}, rows.getValue().get(1));
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_CUSTOMER, bucket, "buyer@example.com", -1, -40.0);
+  }
+
+  @Test
+  void statusesChanged_ShouldRefuseCancellingConfirmedOrders() {
+    List<Order> orders = List.of(order);
+    assertThrows(IllegalArgumentException.class,
+      () -> service.statusesChanged(orders, OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void totalChanged_ShouldAdjustAmountOnly() {
+    order.setStatus(OrderStatus.PENDING);
+
+    service.totalChanged(order, 50.0);
+
+    verify(jdbcTemplate).update(SalesRollupService.UPSERT_STATUS, bucket, "PENDING", 0, -10.0);
+  }
+
+  @Test
+  void rebuild_ShouldRejectEmptyRange() {
+    Instant t = Instant.now();
+    assertThrows(IllegalArgumentException.class, () -> service.rebuild(t, t));
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void ordersConfirmed_ShouldUpsertEachRowOnceForTheWholeBatch() {
+    Order other = new Order();
+    other.setCustomerEmail("buyer@example.com");
+    other.setCreatedAt(Instant.parse("2024-05-06T14:59:00Z"));
+    other.setItems(List.of(item(1L, 1, 10.0)));
+    other.setTotal(10.0);
+
+    service.ordersConfirmed(List.of(order, other));
+
+    ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(eq(SalesRollupService.UPSERT_STATUS), rows.capture());
+    assertArrayEquals(new Object[]{bucket, "CONFIRMED", 2L, 50.0}, rows.getValue().get(0));
+    verify(jdbcTemplate).batchUpdate(eq(SalesRollupService.UPSERT_PRODUCT), rows.capture());
+    assertEquals(2, rows.getValue().size());
+    assertArrayEquals(new Object[]{bucket, 1L, 3L, 30.0}, rows.getValue().get(0));
+    assertArrayEquals(new Object[]{bucket, 2L, 4L, 20.0}, rows.getValue().get(1));
+    verify(jdbcTemplate).batchUpdate(eq(SalesRollupService.UPSERT_CUSTOMER), rows.capture());
+    assertArrayEquals(new Object[]{bucket, "buyer@example.com", 2L, 50.0}, rows.getValue().get(0));
+  }
+}
@@ -0,0 +1,125 @@
+package com.arka.order.service;
+
+import com.arka.order.clients.InventoryClient;
+import com.arka.order.dto.StockAdjustment;
+import com.arka.order.model.StockSettlement;
+import com.arka.order.repository.StockSettlementRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockSettlementServiceTest {
+
+  @Mock
+  private StockSettlementRepository repository;
+
+  @Mock
+  private InventoryClient inventoryClient;
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private StockSettlementService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new StockSettlementService(repository, inventoryClient, transactionTemplate, objectMapper, 1000, 30000, 48);
+  }
+
+  private StockSettlement settlement(boolean compensate, Instant createdAt) throws Exception {
+    StockSettlement s = new StockSettlement();
+    s.setRequestKey("bulk-import-1-batch");
+    s.setAdjustments(objectMapper.writeValueAsString(List.of(new StockAdjustment(1L, -2, "bulk-import-1"))));
+    s.setCompensate(compensate);
+    s.setCreatedAt(createdAt);
+    s.setNextAttemptAt(createdAt);
+    return s;
+  }
+
+  private static FeignException status(int status) {
+    Request request = Request.create(Request.HttpMethod.PUT, "/api/products/stock/batch", Map.of(), null, StandardCharsets.UTF_8, null);
+    return FeignException.errorStatus("InventoryClient#updateStockBatch",
+      feign.Response.builder().status(status).reason("error").request(request).headers(Map.of()).build());
+  }
+
+  @Test
+  void record_ShouldStoreKeyAndAdjustments() {
+    service.record("bulk-import-1-batch", List.of(new StockAdjustment(1L, -2, "bulk-import-1")), true);
+
+    ArgumentCaptor<StockSettlement> saved = ArgumentCaptor.forClass(StockSettlement.class);
+    verify(repository).save(saved.capture());
+    assertEquals("bulk-import-1-batch", saved.getValue().getRequestKey());
+    assertTrue(saved.getValue().isCompensate());
+    assertTrue(saved.getValue().getAdjustments().contains("\"delta\":-2"));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void settle_ShouldRepeatUnderSameKeyThenGiveStockBack() throws Exception {
+    StockSettlement s = settlement(true, Instant.now());
+
+    service.settle(s);
+
+    InOrder order = inOrder(inventoryClient);
+    order.verify(inventoryClient).updateStockBatch(argThat(adj -> adj.get(0).getDelta() == -2), eq("bulk-import-1-batch"));
+    ArgumentCaptor<List<StockAdjustment>> release = ArgumentCaptor.forClass(List.class);
+    order.verify(inventoryClient).updateStockBatch(release.capture(), eq("bulk-import-1-batch-release"));
+    assertEquals(2, release.getValue().get(0).getDelta());
+    verify(repository).delete(s);
+  }
+
+  @Test
+  void settle_ShouldNotGiveStockBack_WhenRepeatIsRefused() throws Exception {
+    StockSettlement s = settlement(true, Instant.now());
+    doThrow(status(400)).when(inventoryClient).updateStockBatch(anyList(), eq("bulk-import-1-batch"));
+
+    service.settle(s);
+
+    verify(inventoryClient, never()).updateStockBatch(anyList(), eq("bulk-import-1-batch-release"));
+    verify(repository).delete(s);
+  }
+
+  @Test
+  void settle_ShouldRetryLater_WhenInventoryIsUnavailable() throws Exception {
+    StockSettlement s = settlement(true, Instant.now());
+    doThrow(status(503)).when(inventoryClient).updateStockBatch(anyList(), anyString());
+
+    service.settle(s);
+
+    assertEquals(1, s.getAttempts());
+    assertTrue(s.getNextAttemptAt().isAfter(Instant.now()));
+    assertEquals("bulk-import-1-batch", s.getRequestKey());
+    verify(repository).save(s);
+    verify(repository, never()).delete(any());
+  }
+
+  @Test
+  void settle_ShouldGiveUp_OnceInventoryMayHaveForgottenTheKey() throws Exception {
+    StockSettlement s = settlement(true, Instant.now().minus(Duration.ofHours(49)));
+
+    service.settle(s);
+
+    verifyNoInteractions(inventoryClient);
+    verify(repository).delete(s);
+  }
+}
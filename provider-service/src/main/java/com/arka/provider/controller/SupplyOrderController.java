@@ -0,0 +1,30 @@
+package com.arka.provider.controller;
+
+import com.arka.provider.dto.LowStockNotification;
+import com.arka.provider.service.AutoOrderService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/supply-orders")
+public class SupplyOrderController {
+  private final AutoOrderService autoOrderService;
+
+  public SupplyOrderController(AutoOrderService autoOrderService) {
+    this.autoOrderService = autoOrderService;
+  }
+
+  /**
+   * LOW_STOCK events from inventory-service; 201 with the supply order, or 204 when none was needed
+   */
+  @PostMapping("/low-stock")
+  public ResponseEntity<?> lowStock(@RequestBody LowStockNotification event) {
+    try {
+      return autoOrderService.handleLowStock(event)
+        .<ResponseEntity<?>>map(order -> ResponseEntity.status(201).body(order))
+        .orElse(ResponseEntity.noContent().build());
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.arka.provider.dto;
+
+/** LOW_STOCK event pushed by inventory-service when a product drops below its reorder threshold. */
+public class LowStockNotification {
+  private String type;
+
+  private Long productId;
+
+  private String category;
+  private Integer previousStock;
+
+  private Integer stock;
+
+  private Integer reorderThreshold;
+
+  private String occurredAt;
+
+  public LowStockNotification() {}
+
+  public String getType() { return type; }
+  public void setType(String type) { this.type = type; }
+
+  public Long getProductId() { return productId; }
+  public void setProductId(Long productId) { this.productId = productId; }
+
+  public String getCategory() { return category; }
+  public void setCategory(String category) { this.category = category; }
+
+  public Integer getPreviousStock() { return previousStock; }
+  public void setPreviousStock(Integer previousStock) { this.previousStock = previousStock; }
+
+  public Integer getStock() { return stock; }
+  public void setStock(Integer stock) { this.stock = stock; }
+
+  public Integer getReorderThreshold() { return reorderThreshold; }
+  public void setReorderThreshold(Integer reorderThreshold) { this.reorderThreshold = reorderThreshold; }
+
+  public String getOccurredAt() { return occurredAt; }
+  public void setOccurredAt(String occurredAt) { this.occurredAt = occurredAt; }
+}
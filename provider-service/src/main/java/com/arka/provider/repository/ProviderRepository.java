@@ -4,8 +4,10 @@ import com.arka.provider.model.Provider;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProviderRepository extends JpaRepository<Provider, Long> {
   List<Provider> findByActiveTrue();
+  Optional<Provider> findFirstByActiveTrueOrderByIdAsc();
 }
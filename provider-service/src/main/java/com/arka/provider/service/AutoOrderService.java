@@ -1,19 +1,30 @@
 package com.arka.provider.service;
 
+import com.arka.provider.dto.LowStockNotification;
+import com.arka.provider.model.Provider;
 import com.arka.provider.model.SupplyOrder;
+import com.arka.provider.repository.ProviderRepository;
 import com.arka.provider.repository.SupplyOrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
 public class AutoOrderService {
   private static final Logger log = LoggerFactory.getLogger(AutoOrderService.class);
+  /** Supply orders still on their way; a product with one of these is not reordered again. */
+  static final List<String> OPEN_STATUSES = List.of("PENDING", "SENT");
+
   private final SupplyOrderRepository supplyOrderRepository;
+  private final ProviderRepository providerRepository;
 
-  public AutoOrderService(SupplyOrderRepository supplyOrderRepository) {
+  public AutoOrderService(SupplyOrderRepository supplyOrderRepository, ProviderRepository providerRepository) {
     this.supplyOrderRepository = supplyOrderRepository;
+    this.providerRepository = providerRepository;
   }
 
   @Transactional
@@ -31,8 +42,34 @@ public class AutoOrderService {
   }
 
   /**
-   * Checks inventory-service for low-stock products and creates auto-orders.
-   * This method should be triggered by EventBridge on a schedule (e.g., daily).
+   * Reacts to a LOW_STOCK event pushed by inventory-service. Creates one supply order with the
+   * first active provider, unless the product already has an open one (events may be delivered
+   * more than once).
+   * @return the new order, or empty when nothing was ordered
+   */
+  @Transactional
+  public Optional<SupplyOrder> handleLowStock(LowStockNotification event) {
+    if (event.getProductId() == null || event.getStock() == null || event.getReorderThreshold() == null) {
+      throw new IllegalArgumentException("productId, stock and reorderThreshold are required");
+    }
+    if (supplyOrderRepository.existsByProductIdAndStatusIn(event.getProductId(), OPEN_STATUSES)) {
+      log.info("Skipping auto-order for product {}: an open supply order exists", event.getProductId());
+      return Optional.empty();
+    }
+    Optional<Provider> provider = providerRepository.findFirstByActiveTrueOrderByIdAsc();
+    if (provider.isEmpty()) {
+      log.warn("No active provider to reorder product {}", event.getProductId());
+      return Optional.empty();
+    }
+    int quantity = Math.max(calculateReorderQuantity(event.getProductId()),
+      2 * event.getReorderThreshold() - event.getStock());
+    return Optional.of(createAutoOrder(event.getProductId(), provider.get().getId(), quantity));
+  }
+
+  /**
+   * Placeholder for a scheduled sweep over inventory-service's low-stock list; it does not order
+   * anything yet. Nothing relies on it: inventory-service records each LOW_STOCK event in its
+   * outbox and retries delivery to handleLowStock until it is accepted.
    */
   @Transactional
   public void checkAndCreateAutoOrders() {
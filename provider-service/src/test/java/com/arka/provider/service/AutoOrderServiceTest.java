@@ -0,0 +1,76 @@
+package com.arka.provider.service;
+
+import com.arka.provider.dto.LowStockNotification;
+import com.arka.provider.model.Provider;
+import com.arka.provider.model.SupplyOrder;
+import com.arka.provider.repository.ProviderRepository;
+import com.arka.provider.repository.SupplyOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutoOrderServiceTest {
+
+  @Mock
+  private SupplyOrderRepository supplyOrderRepository;
+
+  @Mock
+  private ProviderRepository providerRepository;
+
+  @InjectMocks
+  private AutoOrderService autoOrderService;
+
+  private LowStockNotification event;
+
+  @BeforeEach
+  void setUp() {
+    event = new LowStockNotification();
+    event.setType("LOW_STOCK");
+    event.setProductId(7L);
+    event.setStock(4);
+    event.setReorderThreshold(10);
+  }
+
+  @Test
+  void handleLowStock_ShouldCreateOrderWithFirstActiveProvider() {
+    Provider provider = new Provider();
+    provider.setId(3L);
+    when(supplyOrderRepository.existsByProductIdAndStatusIn(eq(7L), anyCollection())).thenReturn(false);
+    when(providerRepository.findFirstByActiveTrueOrderByIdAsc()).thenReturn(Optional.of(provider));
+    when(supplyOrderRepository.save(any(SupplyOrder.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    Optional<SupplyOrder> result = autoOrderService.handleLowStock(event);
+
+    assertTrue(result.isPresent());
+    assertEquals(3L, result.get().getProviderId());
+    assertEquals(7L, result.get().getProductId());
+    assertEquals(50, result.get().getQuantity());
+    assertEquals("PENDING", result.get().getStatus());
+  }
+
+  @Test
+  void handleLowStock_ShouldSkip_WhenOpenOrderExists() {
+    when(supplyOrderRepository.existsByProductIdAndStatusIn(eq(7L), anyCollection())).thenReturn(true);
+
+    assertTrue(autoOrderService.handleLowStock(event).isEmpty());
+    verify(supplyOrderRepository, never()).save(any());
+    verifyNoInteractions(providerRepository);
+  }
+
+  @Test
+  void handleLowStock_ShouldRejectIncompleteEvent() {
+    event.setStock(null);
+
+    assertThrows(IllegalArgumentException.class, () -> autoOrderService.handleLowStock(event));
+  }
+}